@@ -56,6 +56,8 @@ import org.filteredpush.qc.metadata.util.MetadataSingleton;
 import org.filteredpush.qc.metadata.util.MetadataUtils;
 import org.filteredpush.qc.metadata.util.RFC8141URN;
 import org.filteredpush.qc.metadata.util.URNFormatException;
+import org.filteredpush.qc.metadata.util.Vocabulary;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
 
 /**
  * Provides implementation of TDWG BDQ TG2 OTHER tests (related to metadata found in Record-level
@@ -120,12 +122,66 @@ import org.filteredpush.qc.metadata.util.URNFormatException;
 public class DwCMetadataDQ {
 
 	private static final Log logger = LogFactory.getLog(DwCMetadataDQ.class);
+
+	/**
+	 * Creative Commons 4.0 licenses and the CC0 public domain dedication, version 1,
+	 * compiled once rather than on each call.
+	 */
+	private static final Pattern CREATIVE_COMMONS_LICENSE_PATTERN = Pattern.compile(
+			"^(http(s){0,1}://creativecommons[.]org/licenses/"
+			+ "(by|by-sa|by-nc|by-nc-sa|by-nd|by-nc-nd)/4[.]0/"
+			+ "((deed|legalcode)"
+			+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|mi|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
+			+ "){0,1}){0,1})"
+			+ "|"
+			+ "(http(s){0,1}://creativecommons[.]org/publicdomain/zero/1[.]0/"
+			+ "((deed|legalcode)"
+			+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
+			+ "){0,1}){0,1})$");
+
+	/**
+	 * dwc:basisOfRecord literals for tests against dwc:Occurrence records.
+	 */
+	private static final List<String> BASISOFRECORD_LITERALS = List.of("Dataset","Event","EventAttribute","EventMeasurement","FossilSpecimen","GeologicalContext","HumanObservation","Identification","LivingSpecimen","Location","MachineObservation","MaterialCitation","MaterialSample","MeasurementOrFact","Occurrence","OccurrenceMeasurement","Organism","PreservedSpecimen","ResourceRelationship","Sample","SampleAttribute","SamplingEvent","SamplingLocation","Taxon");
+
+	private static final Pattern NON_LETTERS_PATTERN = Pattern.compile("[^A-Za-z]");
+
+	/** start of the IRI form of a dc:type literal */
+	private static final Pattern DCMITYPE_IRI_PREFIX_PATTERN = Pattern.compile("^http(s){0,1}://purl.org/dc/dcmitype/");
+
+	/** start of the IRI form of a dwc:basisOfRecord literal, dwctype is deprecated */
+	private static final Pattern DWC_IRI_PREFIX_PATTERN = Pattern.compile("^http(s){0,1}://rs.tdwg.org/dwc/(dwctype|terms)/");
     
 	/**
 	 * a list of dc:type literal values.
 	 */
 	protected static final String dcTypeLiterals = "Collection,Dataset,Event,Image,InteractiveResource,MovingImage,PhysicalObject,Service,Software,Sound,StillImage,Text";
 
+	/** the dc:type literal values as a list */
+	private static final List<String> DCTYPE_LITERAL_LIST = List.of(dcTypeLiterals.split(","));
+
+	/** dwc:basisOfRecord values for VALIDATION_BASISOFRECORD_STANDARD with the default bdq:sourceAuthority */
+	private static final List<String> BASISOFRECORD_STANDARD_VALUES = List.of("Dataset","Event","EventAttribute","EventMeasurement","FossilSpecimen","GeologicalContext","HumanObservation","Identification","LivingSpecimen","Location","MachineObservation","MaterialCitation","MaterialSample","MeasurementOrFact","Occurrence","OccurrenceMeasurement","Organism","PreservedSpecimen","ResourceRelationship","Sample","Sample Attribute","SamplingEvent","SamplingLocation","Taxon");
+
+	/** dwc:occurrenceStatus values recommended by Darwin Core */
+	private static final List<String> OCCURRENCESTATUS_VALUES = List.of("present","absent");
+
+	/** dwc:occurrenceStatus values as found in the GBIF vocabulary */
+	private static final List<String> GBIF_OCCURRENCESTATUS_VALUES = List.of("Present","Absent");
+
+	/* default bdq:sourceAuthority values, resolved once */
+	private static final ResolvedSourceAuthority CREATIVE_COMMONS_4_OR_CC0_AUTHORITY = ResolvedSourceAuthority.of("Creative Commons 4.0 Licenses or CC0");
+	private static final ResolvedSourceAuthority CREATIVE_COMMONS_AUTHORITY = ResolvedSourceAuthority.of("Creative Commons");
+	private static final ResolvedSourceAuthority DWC_BASISOFRECORD_AUTHORITY = ResolvedSourceAuthority.of("Darwin Core basisOfRecord");
+	private static final ResolvedSourceAuthority REGEX_PRESENT_ABSENT_AUTHORITY = ResolvedSourceAuthority.of("Regex present/absent");
+	private static final ResolvedSourceAuthority GBIF_ESTABLISHMENTMEANS_AUTHORITY = ResolvedSourceAuthority.of("GBIF EstablishmentMeans Vocabulary");
+	private static final ResolvedSourceAuthority GBIF_LIFESTAGE_AUTHORITY = ResolvedSourceAuthority.of("GBIF LifeStage Vocabulary");
+	private static final ResolvedSourceAuthority GBIF_DEGREEOFESTABLISHMENT_AUTHORITY = ResolvedSourceAuthority.of("GBIF DegreeOfEstablishment Vocabulary");
+	private static final ResolvedSourceAuthority DEGREEOFESTABLISHMENT_LIST_OF_TERMS_AUTHORITY = ResolvedSourceAuthority.of("Degree of Establishment Controlled Vocabulary List of Terms");
+	private static final ResolvedSourceAuthority GBIF_PATHWAY_AUTHORITY = ResolvedSourceAuthority.of("GBIF Pathway Vocabulary");
+	private static final ResolvedSourceAuthority GBIF_SEX_AUTHORITY = ResolvedSourceAuthority.of("GBIF Sex Vocabulary");
+	private static final ResolvedSourceAuthority GBIF_TYPESTATUS_AUTHORITY = ResolvedSourceAuthority.of("GBIF TypeStatus Vocabulary");
+
     /**
      * Is there a value in dwc:dataGeneralizations?
      *
@@ -383,7 +439,7 @@ public class DwCMetadataDQ {
         	List<String> values = null;
         	if (sourceAuthority.equals("Darwin Core basisOfRecord")) {
         		// "Recommended best practice is to use the local name of one of the Darwin Core classes."
-        		values = List.of("Dataset","Event","EventAttribute","EventMeasurement","FossilSpecimen","GeologicalContext","HumanObservation","Identification","LivingSpecimen","Location","MachineObservation","MaterialCitation","MaterialSample","MeasurementOrFact","Occurrence","OccurrenceMeasurement","Organism","PreservedSpecimen","ResourceRelationship","Sample","Sample Attribute","SamplingEvent","SamplingLocation","Taxon");
+        		values = BASISOFRECORD_STANDARD_VALUES;
         	} 
         	
         	if (values==null) { 
@@ -452,10 +508,10 @@ public class DwCMetadataDQ {
         	List<String> values = null;
         	if (sourceAuthority.equals("Darwin Core recommended OccurrenceStatus values") || sourceAuthority.equals("Regex present/absent")) {
         		// "For Occurrences, the default vocabulary is recommended to consist of "present" and "absent", but can be extended by implementers with good justification."
-        		values = List.of("present","absent");
+        		values = OCCURRENCESTATUS_VALUES;
         	} else if (sourceAuthority.equals("GBIF OccurrenceStatus Vocabulary")) {
         		// GBIF vocabulary uses upper case Present and Absent, not all lower case.
-        		values = List.of("Present","Absent");
+        		values = GBIF_OCCURRENCESTATUS_VALUES;
         	} 
         	
         	if (values==null) { 
@@ -640,7 +696,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dcterms:license") String license,
     	@Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationLicenseStandard(ResolvedSourceAuthority.of(sourceAuthority), license);
+    }
+
+    /**
+     * As validationLicenseStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param license the provided dcterms:license to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationLicenseStandard(ResolvedSourceAuthority resolvedSourceAuthority, String license) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -654,31 +723,23 @@ public class DwCMetadataDQ {
         
         String DEFAULT_SOURCE_AUTHORITY = "Creative Commons 4.0 Licenses or CC0"; 
  
-        if (MetadataUtils.isEmpty(sourceAuthority)) {
-        	sourceAuthority = DEFAULT_SOURCE_AUTHORITY;
+        if (resolvedSourceAuthority.isEmpty()) {
+        	resolvedSourceAuthority = CREATIVE_COMMONS_4_OR_CC0_AUTHORITY;
+        	sourceAuthority = resolvedSourceAuthority.getName();
         }
         
         try { 
         	String pattern = "";
-        	MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        	Matcher licenseMatcher = null;
+        	MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         	if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         		throw new SourceAuthorityException("Invalid source authority.");
         	} 
 
         	if (sourceAuthority.equals(DEFAULT_SOURCE_AUTHORITY)) { 
         		// regex to match cc licences, version 4, and public domain dedication, version 1
-        		pattern = "^(http(s){0,1}://creativecommons[.]org/licenses/"
-        				+ "(by|by-sa|by-nc|by-nc-sa|by-nd|by-nc-nd)/4[.]0/"
-        				+ "((deed|legalcode)"
-        				+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|mi|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
-        				+ "){0,1}){0,1})"
-        				+ "|"
-        				+ "(http(s){0,1}://creativecommons[.]org/publicdomain/zero/1[.]0/"
-        				+ "((deed|legalcode)"
-        				+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
-        				+ "){0,1}){0,1})$";
-        		Pattern licencePattern = Pattern.compile(pattern);
-        		Matcher m = licencePattern.matcher(license);
+        		pattern = CREATIVE_COMMONS_LICENSE_PATTERN.pattern();
+        		licenseMatcher = CREATIVE_COMMONS_LICENSE_PATTERN.matcher(license);
         	} else { 
         		throw new SourceAuthorityException("Unknown source authority.");
         	}
@@ -687,7 +748,7 @@ public class DwCMetadataDQ {
         		if (MetadataUtils.isEmpty(license)) {
         			result.addComment("No value provided for dwc:licence.");
         			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
-        		} else if (license.matches(pattern)) {	
+        		} else if (licenseMatcher.matches()) {	
         			result.addComment("Provided value for dcterms:license conforms to expectations.");
         			result.setValue(ComplianceValue.COMPLIANT);
         			result.setResultState(ResultState.RUN_HAS_RESULT);
@@ -741,10 +802,9 @@ public class DwCMetadataDQ {
         // {"DCMI Type Vocabulary List Of Terms" [https://www.dublincore.org/specifications/dublin-core/dcmi-type-vocabulary/2010-10-11/]} 
         // 
         
-        ArrayList<String> dcTypeLiteralList = new ArrayList<String>(Arrays.asList(dcTypeLiterals.split(",")));
+        List<String> dcTypeLiteralList = DCTYPE_LITERAL_LIST;
         
-        // the value that should be used for dcterms:type starts with this string (followed by one of the literals)
-        String uriMatcher = "^http(s){0,1}://purl.org/dc/dcmitype/";
+        // the value that should be used for dcterms:type starts with DCMITYPE_IRI_PREFIX_PATTERN (followed by one of the literals)
         
      	if (MetadataUtils.isEmpty(type)) { 
 			result.addComment("Provided value for dc:type is empty.");
@@ -777,7 +837,7 @@ public class DwCMetadataDQ {
      				Map<String, String> values = new HashMap<>();
      				values.put("dc:type", aLiteral) ;
      				result.setValue(new AmendmentValue(values));
-     			} else if (type.trim().replaceAll(uriMatcher, "").toUpperCase().equals(aLiteral.toUpperCase())) { 
+     			} else if (DCMITYPE_IRI_PREFIX_PATTERN.matcher(type.trim()).replaceAll("").toUpperCase().equals(aLiteral.toUpperCase())) { 
      				matched = true;	
      				result.addComment("Provided value for dc:type ["+type+"] corrected to form a valid dc:type literal, the provided value was an IRI, and dc:type must be a literal.");
      				result.setResultState(ResultState.AMENDED);
@@ -839,7 +899,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:basisOfRecord") String basisOfRecord,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentBasisofrecordStandardized(ResolvedSourceAuthority.of(sourceAuthority), basisOfRecord);
+    }
+
+    /**
+     * As amendmentBasisofrecordStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param basisOfRecord the provided dwc:basisOfRecord to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentBasisofrecordStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String basisOfRecord) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -870,20 +943,21 @@ public class DwCMetadataDQ {
         
         String DEFAULT_SOURCE_AUTHORITY = "Darwin Core basisOfRecord";
         List<String> basisOfRecordLiteralList = null;
-        if (sourceAuthority == null) {
-        	sourceAuthority = DEFAULT_SOURCE_AUTHORITY;
+        if (resolvedSourceAuthority.getName() == null) {
+        	resolvedSourceAuthority = DWC_BASISOFRECORD_AUTHORITY;
+        	sourceAuthority = resolvedSourceAuthority.getName();
         }
         try {
         	if (sourceAuthority.equals(DEFAULT_SOURCE_AUTHORITY)) {
         		// https://rs.gbif.org/vocabulary/dwc/basis_of_record.xml
         		// "Recommended best practice is to use the standard label of one of the Darwin Core classes."
         		// e.g. skos:prefLabel "Fossil Specimen"@en;  rdfs:label "Fossil Specimen"@en;
-        		basisOfRecordLiteralList = List.of("Dataset","Event","EventAttribute","EventMeasurement","FossilSpecimen","GeologicalContext","HumanObservation","Identification","LivingSpecimen","Location","MachineObservation","MaterialCitation","MaterialSample","MeasurementOrFact","Occurrence","OccurrenceMeasurement","Organism","PreservedSpecimen","ResourceRelationship","Sample","SampleAttribute","SamplingEvent","SamplingLocation","Taxon");
+        		basisOfRecordLiteralList = BASISOFRECORD_LITERALS;
         	} else { 
         		result.addComment("Using non default sourceAuthority " + sourceAuthority);
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.DWC_BASISOFRECORD)) { 
-        			basisOfRecordLiteralList = List.of("Dataset","Event","EventAttribute","EventMeasurement","FossilSpecimen","GeologicalContext","HumanObservation","Identification","LivingSpecimen","Location","MachineObservation","MaterialCitation","MaterialSample","MeasurementOrFact","Occurrence","OccurrenceMeasurement","Organism","PreservedSpecimen","ResourceRelationship","Sample","SampleAttribute","SamplingEvent","SamplingLocation","Taxon");
+        			basisOfRecordLiteralList = BASISOFRECORD_LITERALS;
         		} else if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid source authority");
         		}
@@ -892,7 +966,7 @@ public class DwCMetadataDQ {
         	// possible IRI values that would need to be corrected to the label
         	// http://rs.tdwg.org/dwc/dwctype/FossilSpecimen  deprecated.
         	// http://rs.tdwg.org/dwc/terms/FossilSpecimen
-        	String uriMatcher = "^http(s){0,1}://rs.tdwg.org/dwc/(dwctype|terms)/";
+        	// are matched by DWC_IRI_PREFIX_PATTERN
 
         	if (MetadataUtils.isEmpty(basisOfRecord)) { 
         		result.addComment("Provided value for dwc:basisOfRecord is empty.");
@@ -906,11 +980,11 @@ public class DwCMetadataDQ {
         		Map<String, String> newValues = new HashMap<>();
         		newValues.put("dwc:basisOfRecord", basisOfRecord.trim()) ;
         		result.setValue(new AmendmentValue(newValues));
-        	} else if (basisOfRecordLiteralList.contains(basisOfRecord.replaceAll("[^A-Za-z]", ""))) { 
+        	} else if (basisOfRecordLiteralList.contains(NON_LETTERS_PATTERN.matcher(basisOfRecord).replaceAll(""))) { 
         		result.addComment("Provided value for dwc:basisOfRecord removed punctuation to form a valid dwc:basisOfRecord literal.");
         		result.setResultState(ResultState.AMENDED);
         		Map<String, String> newValues = new HashMap<>();
-        		newValues.put("dwc:basisOfRecord", basisOfRecord.replaceAll("[^A-Za-z]", "")) ;
+        		newValues.put("dwc:basisOfRecord", NON_LETTERS_PATTERN.matcher(basisOfRecord).replaceAll("")) ;
         		result.setValue(new AmendmentValue(newValues));
         	} else {
         		// Try: Trim, wrong case, uri prefix instead of literal
@@ -932,7 +1006,7 @@ public class DwCMetadataDQ {
         				Map<String, String> newValues = new HashMap<>();
         				newValues.put("dwc:basisOfRecord", aLiteral) ;
         				result.setValue(new AmendmentValue(newValues));
-        			} else if (basisOfRecord.trim().replaceAll(uriMatcher, "").toUpperCase().equals(aLiteral.toUpperCase())) { 
+        			} else if (DWC_IRI_PREFIX_PATTERN.matcher(basisOfRecord.trim()).replaceAll("").toUpperCase().equals(aLiteral.toUpperCase())) { 
         				logger.debug(aLiteral);
         				matched = true;	
         				result.addComment("Provided value for dwc:basisOfRecord ["+basisOfRecord+"] corrected to form a valid dwc:basisOfRecord literal, the provided value was an IRI, and dwc:basisOfRecord must be a literal.");
@@ -1086,7 +1160,7 @@ public class DwCMetadataDQ {
         // [https://www.dublincore.org/specifications/dublin-core/dcmi-type-vocabulary/]} 
         // 
 
-        ArrayList<String> dcTypeLiteralList = new ArrayList<String>(Arrays.asList(dcTypeLiterals.split(",")));
+        List<String> dcTypeLiteralList = DCTYPE_LITERAL_LIST;
         
      	if (MetadataUtils.isEmpty(type)) { 
      		result.addComment("Provided value for dc:type is empty");
@@ -1124,7 +1198,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:occurrenceStatus") String occurrenceStatus,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentOccurrencestatusStandardized(ResolvedSourceAuthority.of(sourceAuthority), occurrenceStatus);
+    }
+
+    /**
+     * As amendmentOccurrencestatusStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param occurrenceStatus the provided dwc:occurrenceStatus to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentOccurrencestatusStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String occurrenceStatus) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1146,19 +1233,21 @@ public class DwCMetadataDQ {
         	result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         	result.addComment("Provided dwc:occurrenceStatus is empty");
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = DEFAULT_SOURCE_AUTHORITY;
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = REGEX_PRESENT_ABSENT_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
         		if (!sourceAuthority.equals(DEFAULT_SOURCE_AUTHORITY)) { 
         			result.addComment("Usinng non-default sourceAuthoriy: " + sourceAuthority);
         		}
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid Source Authority");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			throw new SourceAuthorityException("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError());
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.OCCURRENCE_STATUS);
+        		if (!vocabulary.isLoaded()) { 
+        			throw new SourceAuthorityException("Error accessing sourceAuthority: " + vocabulary.getLoadError());
         		}
         		if (occurrenceStatus.equals("present")) { 
         			result.setResultState(ResultState.NOT_AMENDED);
@@ -1190,10 +1279,10 @@ public class DwCMetadataDQ {
         			values.put("dwc:occurrenceStatus", "absent") ;
         			result.setValue(new AmendmentValue(values));
         			result.addComment("Provided dwc:occurrenceStatus interpreted as absent");
-        		} else if (MetadataSingleton.getInstance().getOccurrenceStatusValues().containsKey(occurrenceStatus.trim().toLowerCase())) { 
+        		} else if (vocabulary.getValues().containsKey(occurrenceStatus.trim().toLowerCase())) { 
         			result.setResultState(ResultState.AMENDED);
         			Map<String, String> values = new HashMap<>();
-        			String match = MetadataSingleton.getInstance().getOccurrenceStatusValues().get(occurrenceStatus.trim().toLowerCase());
+        			String match = vocabulary.getValues().get(occurrenceStatus.trim().toLowerCase());
         			match = match.toLowerCase(); // NOTE: Darwin Core examples and recommendation is lower case, GBIF vocabulary is capitalized.
         			values.put("dwc:occurrenceStatus", match);
         			result.setValue(new AmendmentValue(values));
@@ -1231,7 +1320,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dcterms:license") String license,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentLicenseStandardized(ResolvedSourceAuthority.of(sourceAuthority), license);
+    }
+
+    /**
+     * As amendmentLicenseStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param license the provided dcterms:license to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentLicenseStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String license) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1249,40 +1351,27 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dcterms:license");
 			result.setResultState(ResultState.NOT_AMENDED);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "Creative Commons";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = CREATIVE_COMMONS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		}
         		String pattern = "";
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.CREATIVE_COMMONS)) { 
-        			pattern = "^(http(s){0,1}://creativecommons[.]org/licenses/"
-                			+ "(by|by-sa|by-nc|by-nc-sa|by-nd|by-nc-nd)/4[.]0/"
-                			+ "((deed|legalcode)"
-                			+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|mi|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
-                			+ "){0,1}){0,1})"
-                			+ "|"
-                			+ "(http(s){0,1}://creativecommons[.]org/publicdomain/zero/1[.]0/"
-                			+ "((deed|legalcode)"
-                			+ "([.](id|eu|da|de|en|es|fr|fy|hr|it|lv|lt|ni|no|pl|pt|ro|si|fi|sv|tr|cs|el|ru|uk|ar|jp|zh-hans|zh-hant|ko)"
-                			+ "){0,1}){0,1})$";
-                	Pattern licencePattern = Pattern.compile(pattern);
-                	Matcher m = licencePattern.matcher(license);
+        			pattern = CREATIVE_COMMONS_LICENSE_PATTERN.pattern();
         		} else { 
-        			if (!MetadataSingleton.getInstance().isLoaded()) { 
-        				result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
-        				result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
-        			}
+        			// No vocabulary is consulted for licenses, so nothing here needs loading.
         			// TODO: Alternate patterns here.
         		}
         	    if (pattern.length() > 0) { 
         	        if (MetadataUtils.isEmpty(license)) {
         	        	result.addComment("No value provided for dcterms:license.");
         				result.setResultState(ResultState.NOT_AMENDED);	
-        	        } else if (license.matches(pattern)) {	
+        	        } else if (CREATIVE_COMMONS_LICENSE_PATTERN.matcher(license).matches()) {	
                 		result.addComment("Provided value for dcterms:license conforms to expectations.");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
@@ -1434,7 +1523,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:establishmentMeans") String establishmentMeans,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationEstablishmentmeansStandard(ResolvedSourceAuthority.of(sourceAuthority), establishmentMeans);
+    }
+
+    /**
+     * As validationEstablishmentmeansStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param establishmentMeans the provided dwc:establishmentMeans to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationEstablishmentmeansStandard(ResolvedSourceAuthority resolvedSourceAuthority, String establishmentMeans) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1456,20 +1558,22 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:establishmentMeans");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF EstablishmentMeans Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_ESTABLISHMENTMEANS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid source authority.");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.ESTABLISHMENT_MEANS);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);	
-        			if (MetadataSingleton.getInstance().getEstablishmentMeansTerms().containsKey(establishmentMeans)) { 
+        			if (vocabulary.getTerms().containsKey(establishmentMeans)) { 
         				result.addComment("Provided value of dwc:establishmentMeans found in the sourceAuthority");
         				result.setValue(ComplianceValue.COMPLIANT);
         			} else {
@@ -1507,7 +1611,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:establishmentMeans") String establishmentMeans,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentEstablishmentmeansStandardized(ResolvedSourceAuthority.of(sourceAuthority), establishmentMeans);
+    }
+
+    /**
+     * As amendmentEstablishmentmeansStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param establishmentMeans the provided dwc:establishmentMeans to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentEstablishmentmeansStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String establishmentMeans) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1526,24 +1643,26 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:establishmentMeans");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF EstablishmentMeans Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_ESTABLISHMENTMEANS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid source authority.");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.ESTABLISHMENT_MEANS);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
-        			if (MetadataSingleton.getInstance().getEstablishmentMeansTerms().containsKey(establishmentMeans)) { 
+        			if (vocabulary.getTerms().containsKey(establishmentMeans)) { 
         				result.addComment("Provided value of dwc:establishmentMeans found in the sourceAuthority");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
-        				if (MetadataSingleton.getInstance().getEstablishmentMeansValues().containsKey(establishmentMeans.trim().toLowerCase())) { 
-        					String match = MetadataSingleton.getInstance().getEstablishmentMeansValues().get(establishmentMeans.trim().toLowerCase());
+        				if (vocabulary.getValues().containsKey(establishmentMeans.trim().toLowerCase())) { 
+        					String match = vocabulary.getValues().get(establishmentMeans.trim().toLowerCase());
         					result.setResultState(ResultState.AMENDED);	
         					Map<String, String> values = new HashMap<>();
         					values.put("dwc:establishmentMeans", match) ;
@@ -1551,7 +1670,7 @@ public class DwCMetadataDQ {
         				} else { 
         					logger.debug(establishmentMeans);
         					// try a broader net
-        					Iterator<String> i = MetadataSingleton.getInstance().getEstablishmentMeansValues().keySet().iterator();
+        					Iterator<String> i = vocabulary.getValues().keySet().iterator();
         					boolean matched = false;
         					String lastMatchedKey = "";
         					String matchKey = "";
@@ -1566,11 +1685,11 @@ public class DwCMetadataDQ {
         						) { 
         							if (!matched) { 
         								matched = true;
-        								matchKey =  MetadataSingleton.getInstance().getEstablishmentMeansValues().get(aValue);
+        								matchKey =  vocabulary.getValues().get(aValue);
         								logger.debug(matchKey);
         								lastMatchedKey = matchKey;
         							} else { 
-        								matchKey =  MetadataSingleton.getInstance().getEstablishmentMeansValues().get(aValue);
+        								matchKey =  vocabulary.getValues().get(aValue);
         								if (lastMatchedKey != matchKey) { 
         									logger.debug(matchKey);
         									// non-unique match.
@@ -1622,7 +1741,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:lifeStage") String lifeStage,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentLifestageStandardized(ResolvedSourceAuthority.of(sourceAuthority), lifeStage);
+    }
+
+    /**
+     * As amendmentLifestageStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param lifeStage the provided dwc:lifeStage to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentLifestageStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String lifeStage) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1641,24 +1773,26 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:lifeStage");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF LifeStage Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_LIFESTAGE_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.LIFE_STAGE);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
-        			if (MetadataSingleton.getInstance().getLifeStageTerms().containsKey(lifeStage)) { 
+        			if (vocabulary.getTerms().containsKey(lifeStage)) { 
         				result.addComment("Provided value of dwc:lifeStage found in the sourceAuthority");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
-        				if (MetadataSingleton.getInstance().getLifeStageValues().containsKey(lifeStage.trim().toLowerCase())) { 
-        					String match = MetadataSingleton.getInstance().getLifeStageValues().get(lifeStage.trim().toLowerCase());
+        				if (vocabulary.getValues().containsKey(lifeStage.trim().toLowerCase())) { 
+        					String match = vocabulary.getValues().get(lifeStage.trim().toLowerCase());
         					result.setResultState(ResultState.AMENDED);	
         					Map<String, String> values = new HashMap<>();
         					values.put("dwc:lifeStage", match) ;
@@ -1699,7 +1833,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:degreeOfEstablishment") String degreeOfEstablishment,
     	@Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationDegreeofestablishmentStandard(ResolvedSourceAuthority.of(sourceAuthority), degreeOfEstablishment);
+    }
+
+    /**
+     * As validationDegreeofestablishmentStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param degreeOfEstablishment the provided dwc:degreeOfEstablishment to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationDegreeofestablishmentStandard(ResolvedSourceAuthority resolvedSourceAuthority, String degreeOfEstablishment) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // specification
 		// EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority is not available;
@@ -1716,17 +1863,19 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:degreeOfEstablishment");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF DegreeOfEstablishment Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_DEGREEOFESTABLISHMENT_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.DEGREE_OF_ESTABLISHMENT);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);	
-        			if (MetadataSingleton.getInstance().getDegreeOfEstablishmentTerms().containsKey(degreeOfEstablishment)) { 
+        			if (vocabulary.getTerms().containsKey(degreeOfEstablishment)) { 
         				result.addComment("Provided value of dwc:degreeOfEstablishment found in the sourceAuthority");
         				result.setValue(ComplianceValue.COMPLIANT);
         			} else {
@@ -1764,7 +1913,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:degreeOfEstablishment") String degreeOfEstablishment,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentDegreeofestablishmentStandardized(ResolvedSourceAuthority.of(sourceAuthority), degreeOfEstablishment);
+    }
+
+    /**
+     * As amendmentDegreeofestablishmentStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param degreeOfEstablishment the provided dwc:degreeOfEstablishment to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentDegreeofestablishmentStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String degreeOfEstablishment) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1783,19 +1945,21 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:degreeOfEstablishment");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "Degree of Establishment Controlled Vocabulary List of Terms";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = DEGREEOFESTABLISHMENT_LIST_OF_TERMS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid Source Authority.");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.DEGREE_OF_ESTABLISHMENT);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
-        			if (MetadataSingleton.getInstance().getDegreeOfEstablishmentTerms().containsKey(degreeOfEstablishment)) { 
+        			if (vocabulary.getTerms().containsKey(degreeOfEstablishment)) { 
         				result.addComment("Provided value of dwc:degreeOfEstablishment ["+degreeOfEstablishment+"] found in the sourceAuthority");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
@@ -1806,8 +1970,8 @@ public class DwCMetadataDQ {
         				if (degreeOfEstablishment.trim().toLowerCase().equals("widespreadinvasive")) { 
         					degreeOfEstablishment = "widespreadInvasive";
         				}
-        				if (MetadataSingleton.getInstance().getDegreeOfEstablishmentValues().containsKey(degreeOfEstablishment.trim().toLowerCase())) { 
-        					String match = MetadataSingleton.getInstance().getDegreeOfEstablishmentValues().get(degreeOfEstablishment.trim().toLowerCase());
+        				if (vocabulary.getValues().containsKey(degreeOfEstablishment.trim().toLowerCase())) { 
+        					String match = vocabulary.getValues().get(degreeOfEstablishment.trim().toLowerCase());
         					result.setResultState(ResultState.AMENDED);	
         					Map<String, String> values = new HashMap<>();
         					values.put("dwc:degreeOfEstablishment", match) ;
@@ -1815,7 +1979,7 @@ public class DwCMetadataDQ {
         					result.addComment("Provided value of dwc:degreeOfEstablishment [" + degreeOfEstablishment + "] conformed to the sourceAuthority");
         				} else { 
         					// try a broader net
-        					Iterator<String> i = MetadataSingleton.getInstance().getDegreeOfEstablishmentTerms().keySet().iterator();
+        					Iterator<String> i = vocabulary.getTerms().keySet().iterator();
         					boolean matched = false;
         					String matchKey = "";
         					while (i.hasNext()) { 
@@ -1829,7 +1993,7 @@ public class DwCMetadataDQ {
         						) { 
         							if (!matched) { 
         								matched = true;
-        								matchKey =  MetadataSingleton.getInstance().getDegreeOfEstablishmentValues().get(aValue);
+        								matchKey =  vocabulary.getValues().get(aValue);
         							} else { 
         								// non-unique match.
         								matchKey = "";
@@ -1880,7 +2044,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:pathway") String pathway,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationPathwayStandard(ResolvedSourceAuthority.of(sourceAuthority), pathway);
+    }
+
+    /**
+     * As validationPathwayStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param pathway the provided dwc:pathway to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationPathwayStandard(ResolvedSourceAuthority resolvedSourceAuthority, String pathway) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Implement specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1898,18 +2075,20 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:pathway");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
+        	if (resolvedSourceAuthority.isEmpty()) { 
         		// TODO: Implement tdwg vocabulary lookup
-        		sourceAuthority = "GBIF Pathway Vocabulary";
+        		resolvedSourceAuthority = GBIF_PATHWAY_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.PATHWAY);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);	
-        			if (MetadataSingleton.getInstance().getPathwayTerms().containsKey(pathway)) { 
+        			if (vocabulary.getTerms().containsKey(pathway)) { 
         				result.addComment("Provided value of dwc:pathway found in the sourceAuthority");
         				result.setValue(ComplianceValue.COMPLIANT);
         			} else {
@@ -1946,7 +2125,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:pathway") String pathway,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentPathwayStandardized(ResolvedSourceAuthority.of(sourceAuthority), pathway);
+    }
+
+    /**
+     * As amendmentPathwayStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param pathway the provided dwc:pathway to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentPathwayStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String pathway) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Implement specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -1965,24 +2157,26 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:pathway");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF Pathway Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_PATHWAY_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid Source Authority.");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.PATHWAY);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
-        			if (MetadataSingleton.getInstance().getPathwayTerms().containsKey(pathway)) { 
+        			if (vocabulary.getTerms().containsKey(pathway)) { 
         				result.addComment("Provided value of dwc:pathway found in the sourceAuthority");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
-        				if (MetadataSingleton.getInstance().getPathwayValues().containsKey(pathway.trim().toLowerCase())) { 
-        					String match = MetadataSingleton.getInstance().getPathwayValues().get(pathway.trim().toLowerCase());
+        				if (vocabulary.getValues().containsKey(pathway.trim().toLowerCase())) { 
+        					String match = vocabulary.getValues().get(pathway.trim().toLowerCase());
         					result.setResultState(ResultState.AMENDED);	
         					Map<String, String> values = new HashMap<>();
         					values.put("dwc:pathway", match) ;
@@ -1990,7 +2184,7 @@ public class DwCMetadataDQ {
         				} else { 
         					
         					// try a broader net
-        					Iterator<String> i = MetadataSingleton.getInstance().getPathwayTerms().keySet().iterator();
+        					Iterator<String> i = vocabulary.getTerms().keySet().iterator();
         					boolean matched = false;
         					String matchKey = "";
         					while (i.hasNext()) { 
@@ -2004,7 +2198,7 @@ public class DwCMetadataDQ {
         						) { 
         							if (!matched) { 
         								matched = true;
-        								matchKey =  MetadataSingleton.getInstance().getPathwayValues().get(aValue);
+        								matchKey =  vocabulary.getValues().get(aValue);
         							} else { 
         								// non-unique match.
         								matchKey = "";
@@ -2089,6 +2283,185 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:sex") String sex,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationSexStandard(ResolvedSourceAuthority.of(sourceAuthority), sex);
+    }
+
+    /**
+     * As validationSexStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param sex the provided dwc:sex to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationSexStandard(ResolvedSourceAuthority resolvedSourceAuthority, String sex) {
+        return evaluateSexStandard(new SexLookup(sex, resolvedSourceAuthority));
+    }
+
+    /**
+    * Propose amendment to the value of dwc:sex using bdq:sourceAuthority.
+    *
+    * Provides: 284 AMENDMENT_SEX_STANDARDIZED
+    * Version: 2024-03-25
+    *
+    * @param sex the provided dwc:sex to evaluate as ActedUpon.
+    * @param sourceAuthority the bdq:sourceAuthority to consult.
+    * @return DQResponse the response of type AmendmentValue to return
+    */
+    @Amendment(label="AMENDMENT_SEX_STANDARDIZED", description="Propose amendment to the value of dwc:sex using bdq:sourceAuthority.")
+    @Provides("33c45ae1-e2db-462a-a59e-7169bb01c5d6")
+    @ProvidesVersion("https://rs.tdwg.org/bdqtest/terms/33c45ae1-e2db-462a-a59e-7169bb01c5d6/2024-03-25")
+    @Specification("EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority is not available; INTERNAL PREREQUISITES_NOT_MET if dwc:sex is EMPTY; AMENDED the value of dwc:sex if it can be unambiguously matched to a term in bdq:sourceAuthority; otherwise NOT_AMENDED")
+    public static DQResponse<AmendmentValue> amendmentSexStandardized(
+        @ActedUpon("dwc:sex") String sex,
+        @Parameter(name="bdq:sourceAuthority") String sourceAuthority
+    ) {
+        return amendmentSexStandardized(ResolvedSourceAuthority.of(sourceAuthority), sex);
+    }
+
+    /**
+     * As amendmentSexStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param sex the provided dwc:sex to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentSexStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String sex) {
+        return evaluateSexStandardized(new SexLookup(sex, resolvedSourceAuthority));
+    }
+
+    /**
+     * A dwc:sex value with the work shared by VALIDATION_SEX_NOTEMPTY, VALIDATION_SEX_STANDARD,
+     * and AMENDMENT_SEX_STANDARDIZED: the check for an empty value, the bdq:sourceAuthority,
+     * the vocabulary, and the lookups of the value in the vocabulary are each done once, when
+     * first needed, however many of the tests are evaluated on the value.  The test methods
+     * evaluate a lookup with evaluateSexNotempty(), evaluateSexStandard(), and 
+     * evaluateSexStandardized(), as does FusedTermEvaluator for all three at once.
+     * 
+     * Not thread safe, a lookup is for evaluating one value.
+     */
+    public static final class SexLookup { 
+    	private final String sex;
+    	private final boolean empty;
+    	private final ResolvedSourceAuthority sourceAuthority;
+    	private Vocabulary vocabulary;
+    	private RuntimeException vocabularyError;
+    	private Boolean inTerms;
+    	private String normalized;
+
+    	/**
+    	 * @param sex the value of dwc:sex.
+    	 */
+    	public SexLookup(String sex) { 
+    		this(sex, null);
+    	}
+
+    	/**
+    	 * @param sex the value of dwc:sex.
+    	 * @param sourceAuthority the bdq:sourceAuthority to consult, null or empty for the default.
+    	 */
+    	public SexLookup(String sex, ResolvedSourceAuthority sourceAuthority) { 
+    		this.sex = sex;
+    		this.empty = MetadataUtils.isEmpty(sex);
+    		if (sourceAuthority==null || sourceAuthority.isEmpty()) { 
+    			sourceAuthority = GBIF_SEX_AUTHORITY;
+    		}
+    		this.sourceAuthority = sourceAuthority;
+    	}
+
+    	/**
+    	 * @return the value of dwc:sex.
+    	 */
+    	public String getSex() {
+    		return sex;
+    	}
+
+    	/**
+    	 * @return true if the value is empty.
+    	 */
+    	public boolean isEmpty() {
+    		return empty;
+    	}
+
+    	/**
+    	 * @return the bdq:sourceAuthority, the default if none was given.
+    	 */
+    	public ResolvedSourceAuthority getSourceAuthority() {
+    		return sourceAuthority;
+    	}
+
+    	/**
+    	 * @return the sex vocabulary, obtained once.
+    	 * @throws RuntimeException as thrown in obtaining the vocabulary, on each call.
+    	 */
+    	public Vocabulary getVocabulary() { 
+    		if (vocabulary==null && vocabularyError==null) { 
+    			try { 
+    				vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.SEX);
+    			} catch (RuntimeException e) { 
+    				vocabularyError = e;
+    			}
+    		}
+    		if (vocabularyError!=null) { 
+    			throw vocabularyError;
+    		}
+    		return vocabulary;
+    	}
+
+    	/**
+    	 * @return true if the value is a term in the vocabulary, which must be loaded.
+    	 */
+    	public boolean isInTerms() { 
+    		if (inTerms==null) { 
+    			inTerms = Boolean.valueOf(getVocabulary().getTerms().containsKey(sex));
+    		}
+    		return inTerms.booleanValue();
+    	}
+
+    	/**
+    	 * @return the value trimmed and in lower case, for matching to alternative names.
+    	 */
+    	public String getNormalized() { 
+    		if (normalized==null) { 
+    			normalized = sex.trim().toLowerCase();
+    		}
+    		return normalized;
+    	}
+    }
+
+    /**
+     * VALIDATION_SEX_NOTEMPTY on a dwc:sex value, see validationSexNotempty(String).
+     *
+     * @param lookup the value of dwc:sex.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> evaluateSexNotempty(SexLookup lookup) {
+        DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+
+        // Specification
+        // COMPLIANT if dwc:sex is not EMPTY; otherwise NOT_COMPLIANT 
+        // 
+		if (lookup.isEmpty()) {
+			result.addComment("No value provided for dwc:sex.");
+			result.setValue(ComplianceValue.NOT_COMPLIANT);
+			result.setResultState(ResultState.RUN_HAS_RESULT);
+		} else { 
+			result.addComment("Some value provided for dwc:sex.");
+			result.setValue(ComplianceValue.COMPLIANT);
+			result.setResultState(ResultState.RUN_HAS_RESULT);
+		}
+
+        return result;
+    }
+
+    /**
+     * VALIDATION_SEX_STANDARD on a dwc:sex value and bdq:sourceAuthority, see validationSexStandard(String, String).
+     *
+     * @param lookup the value of dwc:sex and the bdq:sourceAuthority to consult.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> evaluateSexStandard(SexLookup lookup) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
 
         // Specification
@@ -2101,25 +2474,25 @@ public class DwCMetadataDQ {
 		// [https://api.gbif.org/v1/vocabularies/Sex]} {"dwc:sex vocabulary API"
 		// [https://api.gbif.org/v1/vocabularies/Sex/concepts]}
 
-        if (MetadataUtils.isEmpty(sex)) { 
+        if (lookup.isEmpty()) { 
         	result.addComment("No Value provided for dwc:sex");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF Sex Vocabulary";
-        	}
+        	String sourceAuthority = lookup.getSourceAuthority().getName();
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		// resolving the source authority, which the validation doesn't check for INVALID
+        		lookup.getSourceAuthority().getSourceAuthority();
+        		Vocabulary vocabulary = lookup.getVocabulary();
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);	
-        			if (MetadataSingleton.getInstance().getSexTerms().containsKey(sex)) { 
+        			if (lookup.isInTerms()) { 
         				result.addComment("Provided value of dwc:sex found in the sourceAuthority");
         				result.setValue(ComplianceValue.COMPLIANT);
         			} else {
-        				result.addComment("Provided value of dwc:sex [" + sex + "] not found in the sourceAuthority");
+        				result.addComment("Provided value of dwc:sex [" + lookup.getSex() + "] not found in the sourceAuthority");
         				result.setValue(ComplianceValue.NOT_COMPLIANT);
         			}
         		}
@@ -2136,23 +2509,12 @@ public class DwCMetadataDQ {
     }
 
     /**
-    * Propose amendment to the value of dwc:sex using bdq:sourceAuthority.
-    *
-    * Provides: 284 AMENDMENT_SEX_STANDARDIZED
-    * Version: 2024-03-25
-    *
-    * @param sex the provided dwc:sex to evaluate as ActedUpon.
-    * @param sourceAuthority the bdq:sourceAuthority to consult.
-    * @return DQResponse the response of type AmendmentValue to return
-    */
-    @Amendment(label="AMENDMENT_SEX_STANDARDIZED", description="Propose amendment to the value of dwc:sex using bdq:sourceAuthority.")
-    @Provides("33c45ae1-e2db-462a-a59e-7169bb01c5d6")
-    @ProvidesVersion("https://rs.tdwg.org/bdqtest/terms/33c45ae1-e2db-462a-a59e-7169bb01c5d6/2024-03-25")
-    @Specification("EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority is not available; INTERNAL PREREQUISITES_NOT_MET if dwc:sex is EMPTY; AMENDED the value of dwc:sex if it can be unambiguously matched to a term in bdq:sourceAuthority; otherwise NOT_AMENDED")
-    public static DQResponse<AmendmentValue> amendmentSexStandardized(
-        @ActedUpon("dwc:sex") String sex,
-        @Parameter(name="bdq:sourceAuthority") String sourceAuthority
-    ) {
+     * AMENDMENT_SEX_STANDARDIZED on a dwc:sex value and bdq:sourceAuthority, see amendmentSexStandardized(String, String).
+     *
+     * @param lookup the value of dwc:sex and the bdq:sourceAuthority to consult.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> evaluateSexStandardized(SexLookup lookup) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
 
         // specification
@@ -2166,42 +2528,41 @@ public class DwCMetadataDQ {
 		// [https://api.gbif.org/v1/vocabularies/Sex]} {"dwc:sex vocabulary API"
 		// [https://api.gbif.org/v1/vocabularies/Sex/concepts]}
 
-        if (MetadataUtils.isEmpty(sex)) { 
+        if (lookup.isEmpty()) { 
         	result.addComment("No Value provided for dwc:sex");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF Sex Vocabulary";
-        	}
+        	String sourceAuthority = lookup.getSourceAuthority().getName();
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = lookup.getSourceAuthority().getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid source authority");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = lookup.getVocabulary();
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			throw new SourceAuthorityException("Error loading data from sourceAuthority");
         		} else { 
-        			if (MetadataSingleton.getInstance().getSexTerms().containsKey(sex)) { 
+        			if (lookup.isInTerms()) { 
         				result.addComment("Provided value of dwc:sex found in the sourceAuthority");
         				result.setResultState(ResultState.NOT_AMENDED);	
         			} else {
-        				if (MetadataSingleton.getInstance().getSexValues().containsKey(sex.trim().toLowerCase())) { 
-        					String match = MetadataSingleton.getInstance().getSexValues().get(sex.trim().toLowerCase());
+        				if (vocabulary.getValues().containsKey(lookup.getNormalized())) { 
+        					String match = vocabulary.getValues().get(lookup.getNormalized());
         					result.setResultState(ResultState.AMENDED);	
         					Map<String, String> values = new HashMap<>();
         					values.put("dwc:sex", match) ;
         					result.setValue(new AmendmentValue(values));
         				} else { 
-        					Iterator<String> i = MetadataSingleton.getInstance().getSexTerms().keySet().iterator();
+        					Iterator<String> i = vocabulary.getTerms().keySet().iterator();
         					boolean matched = false;
         					String matchKey = "";
         					while (i.hasNext()) { 
         						String aValue = i.next();
-        						if (aValue.toLowerCase().startsWith(sex.trim().toLowerCase().replace(".", ""))) { 
+        						if (aValue.toLowerCase().startsWith(lookup.getNormalized().replace(".", ""))) { 
         							if (!matched) { 
         								matched = true;
-        								matchKey =  MetadataSingleton.getInstance().getSexValues().get(aValue);
+        								matchKey =  vocabulary.getValues().get(aValue);
         							} else { 
         								// non-unique match.
         								matchKey = "";
@@ -2209,13 +2570,13 @@ public class DwCMetadataDQ {
         						}
          					}
         					if (matched && matchKey.length()>0) { 
-        						result.addComment("Provided value of dwc:sex [" + sex + "] conformed to the the sourceAuthority");
+        						result.addComment("Provided value of dwc:sex [" + lookup.getSex() + "] conformed to the the sourceAuthority");
         						result.setResultState(ResultState.AMENDED);	
         						Map<String, String> values = new HashMap<>();
         						values.put("dwc:sex", matchKey) ;
         						result.setValue(new AmendmentValue(values));
         					} else { 
-        						result.addComment("Provided value of dwc:sex [" + sex + "] unable to be conformed to the the sourceAuthority");
+        						result.addComment("Provided value of dwc:sex [" + lookup.getSex() + "] unable to be conformed to the the sourceAuthority");
         						result.setResultState(ResultState.NOT_AMENDED);
         					}
         				}
@@ -2251,7 +2612,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:typeStatus") String typeStatus,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationTypestatusStandard(ResolvedSourceAuthority.of(sourceAuthority), typeStatus);
+    }
+
+    /**
+     * As validationTypestatusStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param typeStatus the provided dwc:typeStatus to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationTypestatusStandard(ResolvedSourceAuthority resolvedSourceAuthority, String typeStatus) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -2270,13 +2644,15 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:typeStatus");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF TypeStatus Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_TYPESTATUS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.TYPE_STATUS);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);
@@ -2298,7 +2674,7 @@ public class DwCMetadataDQ {
         					// evaluate just the first word
         					firstWord = bit.substring(0,bit.indexOf(" "));
         				}
-        				if (!MetadataSingleton.getInstance().getTypeStatusTerms().containsKey(firstWord)) {
+        				if (!vocabulary.getTerms().containsKey(firstWord)) {
         					result.addComment("Provided first word of element in dwc:typeStatus [" + firstWord + "] not found in the sourceAuthority");
         					allCompliant = false;
         					fails = fails + 1;
@@ -2343,7 +2719,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:typeStatus") String typeStatus,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return amendmentTypestatusStandardized(ResolvedSourceAuthority.of(sourceAuthority), typeStatus);
+    }
+
+    /**
+     * As amendmentTypestatusStandardized(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param typeStatus the provided dwc:typeStatus to evaluate as ActedUpon.
+     * @return DQResponse the response of type AmendmentValue to return
+     */
+    public static DQResponse<AmendmentValue> amendmentTypestatusStandardized(ResolvedSourceAuthority resolvedSourceAuthority, String typeStatus) {
         DQResponse<AmendmentValue> result = new DQResponse<AmendmentValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -2363,16 +2752,18 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:typeStatus");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF TypeStatus Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_TYPESTATUS_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
         		if (sourceAuthorityObject.getAuthority().equals(EnumMetadataSourceAuthority.INVALID)) { 
         			throw new SourceAuthorityException("Invalid source authority");
         		}
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.TYPE_STATUS);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			throw new SourceAuthorityException("Error loading data from sourceAuthority");
         		} else {
         			boolean changeProposed = false;
@@ -2394,18 +2785,18 @@ public class DwCMetadataDQ {
         				if (typeStatusBit.contains(" ")) { 
         					typeStatusWord = typeStatusBit.substring(0, typeStatusWord.indexOf(" "));
         				}
-        				if (MetadataSingleton.getInstance().getTypeStatusTerms().containsKey(typeStatusWord)) { 
+        				if (vocabulary.getTerms().containsKey(typeStatusWord)) { 
         				   result.addComment("Provided value of first word ["+typeStatusWord+"] of a pipe delimited element of dwc:typeStatus found in the sourceAuthority");
         				   outputBit = typeStatusBit;
         				} else { 
         					allFound = false;
-            				if (MetadataSingleton.getInstance().getTypeStatusValues().containsKey(typeStatusWord.trim().toLowerCase())) {
-            					String match = MetadataSingleton.getInstance().getTypeStatusValues().get(typeStatusWord.trim().toLowerCase());
+            				if (vocabulary.getValues().containsKey(typeStatusWord.trim().toLowerCase())) {
+            					String match = vocabulary.getValues().get(typeStatusWord.trim().toLowerCase());
             					changeProposed=true;
             					outputBit = outputBit.replace(typeStatusWord,match);
             					result.addComment("Provided first word from of dwc:typeStatus [" + typeStatusWord + "] conformed to the the sourceAuthority");
             				} else {
-            					Iterator<String> it = MetadataSingleton.getInstance().getTypeStatusTerms().keySet().iterator();
+            					Iterator<String> it = vocabulary.getTerms().keySet().iterator();
             					boolean matched = false;
             					String matchKey = "";
             					while (it.hasNext()) { 
@@ -2413,7 +2804,7 @@ public class DwCMetadataDQ {
             						if (aValue.toLowerCase().startsWith(typeStatusWord.trim().toLowerCase().replace(".", ""))) { 
             							if (!matched) { 
             								matched = true;
-            								matchKey =  MetadataSingleton.getInstance().getTypeStatusValues().get(aValue);
+            								matchKey =  vocabulary.getValues().get(aValue);
             							} else { 
             								// non-unique match.
             								matchKey = "";
@@ -2664,7 +3055,20 @@ public class DwCMetadataDQ {
         @ActedUpon("dwc:lifeStage") String lifeStage,
         @Parameter(name="bdq:sourceAuthority") String sourceAuthority
     ) {
+        return validationLifestageStandard(ResolvedSourceAuthority.of(sourceAuthority), lifeStage);
+    }
+
+    /**
+     * As validationLifestageStandard(String, String), with the bdq:sourceAuthority resolved in advance,
+     * for running the test on many records with the same bdq:sourceAuthority.
+     *
+     * @param resolvedSourceAuthority the bdq:sourceAuthority to consult, resolved once.
+     * @param lifeStage the provided dwc:lifeStage to evaluate as ActedUpon.
+     * @return DQResponse the response of type ComplianceValue  to return
+     */
+    public static DQResponse<ComplianceValue> validationLifestageStandard(ResolvedSourceAuthority resolvedSourceAuthority, String lifeStage) {
         DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
+        String sourceAuthority = resolvedSourceAuthority.getName();
 
         // Specification
         // EXTERNAL_PREREQUISITES_NOT_MET if the bdq:sourceAuthority 
@@ -2683,17 +3087,19 @@ public class DwCMetadataDQ {
         	result.addComment("No Value provided for dwc:lifeStage");
 			result.setResultState(ResultState.INTERNAL_PREREQUISITES_NOT_MET);
         } else { 
-        	if (MetadataUtils.isEmpty(sourceAuthority)) { 
-        		sourceAuthority = "GBIF LifeStage Vocabulary";
+        	if (resolvedSourceAuthority.isEmpty()) { 
+        		resolvedSourceAuthority = GBIF_LIFESTAGE_AUTHORITY;
+        		sourceAuthority = resolvedSourceAuthority.getName();
         	}
         	try { 
-        		MetadataSourceAuthority sourceAuthorityObject = new MetadataSourceAuthority(sourceAuthority);
-        		if (!MetadataSingleton.getInstance().isLoaded()) { 
-        			result.addComment("Error accessing sourceAuthority: " + MetadataSingleton.getInstance().getLoadError() );
+        		MetadataSourceAuthority sourceAuthorityObject = resolvedSourceAuthority.getSourceAuthority();
+        		Vocabulary vocabulary = MetadataSingleton.getInstance().getVocabulary(VocabularySnapshot.LIFE_STAGE);
+        		if (!vocabulary.isLoaded()) { 
+        			result.addComment("Error accessing sourceAuthority: " + vocabulary.getLoadError() );
         			result.setResultState(ResultState.EXTERNAL_PREREQUISITES_NOT_MET);	
         		} else { 
         			result.setResultState(ResultState.RUN_HAS_RESULT);	
-        			if (MetadataSingleton.getInstance().getLifeStageTerms().containsKey(lifeStage)) { 
+        			if (vocabulary.getTerms().containsKey(lifeStage)) { 
         				result.addComment("Provided value of dwc:lifeStage found in the sourceAuthority");
         				result.setValue(ComplianceValue.COMPLIANT);
         			} else {
@@ -2728,22 +3134,7 @@ public class DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationSexNotempty(
         @ActedUpon("dwc:sex") String sex
     ) {
-        DQResponse<ComplianceValue> result = new DQResponse<ComplianceValue>();
-
-        // Specification
-        // COMPLIANT if dwc:sex is not EMPTY; otherwise NOT_COMPLIANT 
-        // 
-		if (MetadataUtils.isEmpty(sex)) {
-			result.addComment("No value provided for dwc:sex.");
-			result.setValue(ComplianceValue.NOT_COMPLIANT);
-			result.setResultState(ResultState.RUN_HAS_RESULT);
-		} else { 
-			result.addComment("Some value provided for dwc:sex.");
-			result.setValue(ComplianceValue.COMPLIANT);
-			result.setResultState(ResultState.RUN_HAS_RESULT);
-		}
-
-        return result;
+        return evaluateSexNotempty(new SexLookup(sex));
     }
 
 
@@ -41,6 +41,9 @@ import org.datakurator.ffdq.api.result.ComplianceValue;
 public class DwCMetadataDQDefaults extends DwCMetadataDQ {
 
 	private static final Log logger = LogFactory.getLog(DwCMetadataDQDefaults.class);
+
+	/** no bdq:sourceAuthority, so that each test uses its default */
+	private static final ResolvedSourceAuthority DEFAULT_SOURCE_AUTHORITY = ResolvedSourceAuthority.of(null);
 	
     /**
     * Proposes an amendment to the value of dwc:basisOfRecord using the default bdq:sourceAuthority.
@@ -58,7 +61,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentBasisofrecordStandardized(
         @ActedUpon("dwc:basisOfRecord") String basisOfRecord
     ) {
-    	return amendmentBasisofrecordStandardized(basisOfRecord,null);
+    	return amendmentBasisofrecordStandardized(DEFAULT_SOURCE_AUTHORITY, basisOfRecord);
     	
     }
 
@@ -117,7 +120,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationLicenseStandard(
         @ActedUpon("dcterms:license") String license
     ) {
-    	return validationLicenseStandard(license,null);
+    	return validationLicenseStandard(DEFAULT_SOURCE_AUTHORITY, license);
     }
    
     /**
@@ -136,7 +139,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentLicenseStandardized(
         @ActedUpon("dcterms:license") String license
     ) {
-    	return amendmentLicenseStandardized(license, null);
+    	return amendmentLicenseStandardized(DEFAULT_SOURCE_AUTHORITY, license);
     }
     
     /**
@@ -155,7 +158,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationLifestageStandard(
         @ActedUpon("dwc:lifeStage") String lifeStage
     ) {
-    	return validationLifestageStandard(lifeStage,null);
+    	return validationLifestageStandard(DEFAULT_SOURCE_AUTHORITY, lifeStage);
     }
     
     /**
@@ -175,7 +178,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationPathwayStandard(
         @ActedUpon("dwc:pathway") String pathway
     ) {
-    	return validationPathwayStandard(pathway, null);
+    	return validationPathwayStandard(DEFAULT_SOURCE_AUTHORITY, pathway);
     }
     
     /**
@@ -194,7 +197,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationSexStandard(
         @ActedUpon("dwc:sex") String sex
     ) {
-    	return validationSexStandard(sex, null);
+    	return validationSexStandard(DEFAULT_SOURCE_AUTHORITY, sex);
     }
     
     /**
@@ -214,7 +217,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentSexStandardized(
         @ActedUpon("dwc:sex") String sex
     ) {
-    	return amendmentSexStandardized(sex, null);
+    	return amendmentSexStandardized(DEFAULT_SOURCE_AUTHORITY, sex);
     }
     
     /**
@@ -234,7 +237,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationDegreeofestablishmentStandard(
         @ActedUpon("dwc:degreeOfEstablishment") String degreeOfEstablishment
     ) {
-    	return validationDegreeofestablishmentStandard(degreeOfEstablishment, null);
+    	return validationDegreeofestablishmentStandard(DEFAULT_SOURCE_AUTHORITY, degreeOfEstablishment);
     }
     
     /**
@@ -254,7 +257,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentDegreeofestablishmentStandardized(
         @ActedUpon("dwc:degreeOfEstablishment") String degreeOfEstablishment
     ) {
-    	return amendmentDegreeofestablishmentStandardized(degreeOfEstablishment, null);
+    	return amendmentDegreeofestablishmentStandardized(DEFAULT_SOURCE_AUTHORITY, degreeOfEstablishment);
     }
     
     /**
@@ -274,7 +277,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentPathwayStandardized(
         @ActedUpon("dwc:pathway") String pathway
     ) {
-    	return amendmentPathwayStandardized(pathway,null);
+    	return amendmentPathwayStandardized(DEFAULT_SOURCE_AUTHORITY, pathway);
     }
     
     /**
@@ -293,7 +296,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationEstablishmentmeansStandard(
         @ActedUpon("dwc:establishmentMeans") String establishmentMeans
     ) {
-    	return validationEstablishmentmeansStandard(establishmentMeans, null);
+    	return validationEstablishmentmeansStandard(DEFAULT_SOURCE_AUTHORITY, establishmentMeans);
     }
     
     /**
@@ -312,7 +315,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentEstablishmentmeansStandardized(
         @ActedUpon("dwc:establishmentMeans") String establishmentMeans
     ) {
-    	return amendmentEstablishmentmeansStandardized(establishmentMeans, null);
+    	return amendmentEstablishmentmeansStandardized(DEFAULT_SOURCE_AUTHORITY, establishmentMeans);
     }
     
     /**
@@ -331,7 +334,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentTypestatusStandardized(
         @ActedUpon("dwc:typeStatus") String typeStatus
     ) {
-    	return amendmentTypestatusStandardized(typeStatus, null);
+    	return amendmentTypestatusStandardized(DEFAULT_SOURCE_AUTHORITY, typeStatus);
     }
     
     /**
@@ -352,7 +355,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<ComplianceValue> validationTypestatusStandard(
         @ActedUpon("dwc:typeStatus") String typeStatus
     ) {
-    	return validationTypestatusStandard(typeStatus, null);
+    	return validationTypestatusStandard(DEFAULT_SOURCE_AUTHORITY, typeStatus);
     }
     
     /**
@@ -395,7 +398,7 @@ public class DwCMetadataDQDefaults extends DwCMetadataDQ {
     public static DQResponse<AmendmentValue> amendmentOccurrencestatusStandardized(
         @ActedUpon("dwc:occurrenceStatus") String occurrenceStatus
     ) {
-    	return amendmentOccurrencestatusStandardized(occurrenceStatus, null);
+    	return amendmentOccurrencestatusStandardized(DEFAULT_SOURCE_AUTHORITY, occurrenceStatus);
     }
     
 }
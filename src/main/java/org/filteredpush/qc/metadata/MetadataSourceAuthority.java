@@ -17,6 +17,11 @@
  */
 package org.filteredpush.qc.metadata;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -33,6 +38,15 @@ public class MetadataSourceAuthority {
 	
 	private static final Log logger = LogFactory.getLog(MetadataSourceAuthority.class);
 	
+	/** the most distinct strings to remember resolutions for */
+	private static final int MAX_RESOLVED = 1000;
+	
+	/** the authority for each string resolved so far, empty for strings not matching an authority */
+	private static final Map<String,Optional<EnumMetadataSourceAuthority>> resolved = new ConcurrentHashMap<String,Optional<EnumMetadataSourceAuthority>>();
+	
+	/** the number of calls to resolve, to check that bound tests do not resolve per record */
+	private static final LongAdder resolutions = new LongAdder();
+	
 	/**
 	 * Create a MetadataSourceAuthority with a default value.
 	 */
@@ -64,67 +78,107 @@ public class MetadataSourceAuthority {
 	 */
 	public MetadataSourceAuthority(String authorityString) throws SourceAuthorityException {
 		logger.debug(authorityString);
+		this.authority = resolve(authorityString);
+		authoritySubDataset = null;
+		updateDefaultSubAuthorities();
+	}
+	
+	/**
+	 * Find the authority matching a string, remembering the result for each distinct string,
+	 * so that tests constructing a source authority from their parameter on each call only 
+	 * work through the list of known authority strings once.
+	 *
+	 * @param authorityString a value matching the name of an item in EnumMetadataSourceAuthority
+	 * @return the matching authority
+	 * @throws org.filteredpush.qc.metadata.SourceAuthorityException
+	 *   if the string is not matched to the enumeration.
+	 */
+	public static EnumMetadataSourceAuthority resolve(String authorityString) throws SourceAuthorityException {
+		resolutions.increment();
 		if (authorityString==null) { authorityString = ""; }
-		
+		Optional<EnumMetadataSourceAuthority> result = resolved.get(authorityString);
+		if (result==null) { 
+			result = Optional.ofNullable(lookup(authorityString));
+			if (resolved.size() < MAX_RESOLVED) { 
+				resolved.put(authorityString, result);
+			}
+		}
+		if (!result.isPresent()) { 
+	    	throw new SourceAuthorityException("Unable to construct a SourceAuthority from string [" + authorityString + "]");
+		}
+		return result.get();
+	}
+	
+	/**
+	 * @return the number of calls made to resolve so far.
+	 */
+	static long getResolutionCount() { 
+		return resolutions.sum();
+	}
+	
+	/**
+	 * @return the authority matching the string, or null if none matches.
+	 */
+	private static EnumMetadataSourceAuthority lookup(String authorityString) {
+		EnumMetadataSourceAuthority result;
 	    if (authorityString.toUpperCase().equals("DARWIN CORE BASISOFRECORD")) {
-	    	this.authority = EnumMetadataSourceAuthority.DWC_BASISOFRECORD;	
+	    	result = EnumMetadataSourceAuthority.DWC_BASISOFRECORD;	
 	    } else if (authorityString.toUpperCase().equals("REGEX PRESENT/ABSENT")) {
-	    	this.authority = EnumMetadataSourceAuthority.DWC_OCCURRENCE_STATUS;	
+	    	result = EnumMetadataSourceAuthority.DWC_OCCURRENCE_STATUS;	
 	    } else if (authorityString.toUpperCase().equals("CREATIVE COMMONS")) {
-		    	this.authority = EnumMetadataSourceAuthority.CREATIVE_COMMONS;		
+		    	result = EnumMetadataSourceAuthority.CREATIVE_COMMONS;		
 	    } else if (authorityString.toUpperCase().equals("CREATIVE COMMONS 4.0 LICENSES OR CC0")) {
-		    	this.authority = EnumMetadataSourceAuthority.CREATIVE_COMMONS;		
+		    	result = EnumMetadataSourceAuthority.CREATIVE_COMMONS;		
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF LIFESTAGE VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_LIFESTAGE;	
+	    	result = EnumMetadataSourceAuthority.GBIF_LIFESTAGE;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/LifeStage")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_LIFESTAGE;
+	    	result = EnumMetadataSourceAuthority.GBIF_LIFESTAGE;
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF OCCURRENCESTATUS VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_OCCURRENCESTATUS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_OCCURRENCESTATUS;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/OccurrenceStatus")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_OCCURRENCESTATUS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_OCCURRENCESTATUS;	
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF PATHWAY VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_PATHWAY;	
+	    	result = EnumMetadataSourceAuthority.GBIF_PATHWAY;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/Pathway")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_PATHWAY;
+	    	result = EnumMetadataSourceAuthority.GBIF_PATHWAY;
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF TYPESTATUS VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/TypeStatus")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
 	    } else if (authorityString.equals("DARWIN CORE TYPESTATUS")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_TYPESTATUS;	
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF SEX VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_SEX;	
+	    	result = EnumMetadataSourceAuthority.GBIF_SEX;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/Sex")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_SEX;		
+	    	result = EnumMetadataSourceAuthority.GBIF_SEX;		
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF ESTABLISHMENTMEANS VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;	
+	    	result = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/EstabllishmentMeans")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;		
+	    	result = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;		
 	    } else if (authorityString.equals("Darwin Core establishmentMeans")) { 
 	    	// TODO: This should point at the TDWG vocabulary
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;		
+	    	result = EnumMetadataSourceAuthority.GBIF_ESTABLISHMENTMEANS;		
 	    	
 	    } else if (authorityString.toUpperCase().equals("GBIF DEGREEOFESTABLISHMENT VOCABULARY")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
+	    	result = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
 	    } else if (authorityString.equals("https://api.gbif.org/v1/vocabularies/DegreeOfEstablishment")) { 
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
+	    	result = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
 	    } else if (authorityString.toUpperCase().equals("DEGREE OF ESTABLISHMENT CONTROLLED VOCABULARY LIST OF TERMS")) { 
 	    	// TODO: This should point at the TDWG vocabulary
-	    	this.authority = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
+	    	result = EnumMetadataSourceAuthority.GBIF_DEGREEOFESTABLISHMENT;	
 	    	
 	    } else if (authorityString.toUpperCase().startsWith("HTTPS://INVALID/")) { 
-	    	this.authority = EnumMetadataSourceAuthority.INVALID;	
+	    	result = EnumMetadataSourceAuthority.INVALID;	
 	    } else { 
-	    	throw new SourceAuthorityException("Unable to construct a SourceAuthority from string [" + authorityString + "]");
+	    	result = null;
 	    }
-		authoritySubDataset = null;
-		updateDefaultSubAuthorities();
+		return result;
 	}
 	
 	/**
@@ -0,0 +1,97 @@
+/** 
+ * ResolvedSourceAuthority.java 
+ * 
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.filteredpush.qc.metadata;
+
+import org.filteredpush.qc.metadata.util.MetadataUtils;
+
+/**
+ * A bdq:sourceAuthority parameter value resolved once to its source authority, so that
+ * a test bound to a parameter value can be run on many records without repeating the 
+ * resolution for each record.  A value that does not resolve holds the failure, which 
+ * is thrown when the source authority is asked for, as when constructing a 
+ * MetadataSourceAuthority from the string in the test.
+ *
+ * @author mole
+ */
+public final class ResolvedSourceAuthority {
+
+	private final String name;
+	private final boolean empty;
+	private final MetadataSourceAuthority sourceAuthority;
+	private final SourceAuthorityException resolutionError;
+
+	private ResolvedSourceAuthority(String name, MetadataSourceAuthority sourceAuthority, SourceAuthorityException resolutionError) { 
+		this.name = name;
+		this.empty = MetadataUtils.isEmpty(name);
+		this.sourceAuthority = sourceAuthority;
+		this.resolutionError = resolutionError;
+	}
+
+	/**
+	 * Resolve a bdq:sourceAuthority parameter value.
+	 * 
+	 * @param name the parameter value, may be null or empty.
+	 * @return the resolved source authority, holding the failure if name does not 
+	 *   match a source authority.
+	 */
+	public static ResolvedSourceAuthority of(String name) { 
+		try { 
+			return new ResolvedSourceAuthority(name, new MetadataSourceAuthority(name), null);
+		} catch (SourceAuthorityException e) {
+			return new ResolvedSourceAuthority(name, null, e);
+		}
+	}
+
+	/**
+	 * @return the parameter value as provided.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return true if the parameter value is null or blank, and the test should use its default.
+	 */
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * @return the source authority matching the parameter value.
+	 * @throws SourceAuthorityException if the parameter value did not match a source authority.
+	 */
+	public MetadataSourceAuthority getSourceAuthority() throws SourceAuthorityException {
+		if (resolutionError!=null) { 
+			throw resolutionError;
+		}
+		return sourceAuthority;
+	}
+
+	/**
+	 * @return the authority matching the parameter value.
+	 * @throws SourceAuthorityException if the parameter value did not match a source authority.
+	 */
+	public EnumMetadataSourceAuthority getAuthority() throws SourceAuthorityException {
+		return getSourceAuthority().getAuthority();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
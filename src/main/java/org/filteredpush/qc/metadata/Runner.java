@@ -1,6 +1,6 @@
 /**
  * Runner.java
- * 
+ *
  * Copyright 2022 President and Fellows of Harvard College
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -13,16 +13,77 @@
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
- * limitations under the License. 
+ * limitations under the License.
  */
 package org.filteredpush.qc.metadata;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.io.AmendedRecordWriter;
+import org.filteredpush.qc.metadata.io.ChunkedRecordReader;
+import org.filteredpush.qc.metadata.io.CsvRecordReader;
+import org.filteredpush.qc.metadata.io.DelimitedFormat;
+import org.filteredpush.qc.metadata.io.DwcArchive;
+import org.filteredpush.qc.metadata.io.RecordReader;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.runner.BatchRunner;
+import org.filteredpush.qc.metadata.runner.Checkpoint;
+import org.filteredpush.qc.metadata.runner.DQTest;
+import org.filteredpush.qc.metadata.runner.ExecutionMode;
+import org.filteredpush.qc.metadata.runner.ExecutionPlan;
+import org.filteredpush.qc.metadata.runner.RecordProcessor;
+import org.filteredpush.qc.metadata.runner.ResultMemo;
+import org.filteredpush.qc.metadata.runner.ResultSummary;
+import org.filteredpush.qc.metadata.runner.ShardMerger;
+import org.filteredpush.qc.metadata.runner.TestProfile;
 
 /**
  * Selfstanding execution of rec_occur_qc functionality.  Can run TG2 Metadata related tests on flat DarwinCore.
- * 
+ *
+ * Reads a Darwin Core archive, or a csv or tsv file with a header row of Darwin Core term names, runs each of the
+ * Validation, Amendment, and Issue tests in DwCMetadataDQ (using the default parameter
+ * values from DwCMetadataDQDefaults) on each record, and writes one row for each test on
+ * each record to the output as records are processed.  A profile (--profile, see TestProfile)
+ * may select a subset of the tests to run.
+ *
+ * Usage: java -jar rec_occur_qc-{version}-executable.jar -i occurrence.txt -o results.csv
+ *
+ * To split a run across machines, run each shard with --shard i/N, then combine the results with
+ * java -jar rec_occur_qc-{version}-executable.jar --merge -o results.csv shard0.csv shard1.csv ...
+ *
  * @author mole
  *
  */
@@ -30,12 +91,298 @@ public class Runner {
 
 	private static final Log logger = LogFactory.getLog(Runner.class);
 
+	/** default minimum number of records between checkpoints */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 1000000L;
+
+	/** name of the test results in a checkpoint */
+	static final String RESULTS_OUTPUT = "results";
+
+	/** name of the amended records in a checkpoint */
+	static final String AMENDED_OUTPUT = "amended";
+
 	/**
-	 * @param args
+	 * @param args see -h for usage.
 	 */
 	public static void main(String[] args) {
-		// TODO Auto-generated method stub
+		Options options = createOptions();
+		try {
+			run(options, args);
+		} catch (ParseException e) {
+			System.out.println(e.getMessage());
+			new HelpFormatter().printHelp("Runner", options);
+			System.exit(1);
+		} catch (IOException | InterruptedException | IllegalArgumentException e) {
+			logger.error(e.getMessage(), e);
+			System.out.println("Error: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	static Options createOptions() {
+		Options options = new Options();
+		options.addOption(Option.builder("i").longOpt("input").hasArg().argName("file").desc("Input Darwin Core archive (zip file or directory containing meta.xml), or csv or tsv file with a header row of Darwin Core terms, - for stdin").build());
+		options.addOption(Option.builder("o").longOpt("output").hasArg().argName("file").desc("Output file for test results, - for stdout").required().build());
+		options.addOption(Option.builder("f").longOpt("format").hasArg().argName("csv|tsv").desc("Format of a flat input file, default is tsv for .tsv and .txt files, otherwise csv").build());
+		options.addOption(Option.builder("t").longOpt("threads").hasArg().argName("n").desc("Number of threads evaluating tests, default is the number of available processors").build());
+		options.addOption(Option.builder("b").longOpt("batch").hasArg().argName("n").desc("Number of records passed between stages at a time, default " + BatchRunner.DEFAULT_BATCH_SIZE).build());
+		options.addOption(Option.builder("q").longOpt("queue").hasArg().argName("n").desc("Number of batches each queue between stages can hold, default twice the number of threads").build());
+		options.addOption(Option.builder("r").longOpt("reader-threads").hasArg().argName("n").desc("Number of threads parsing a Darwin Core archive, default is the number of threads").build());
+		options.addOption(Option.builder("v").longOpt("virtual").desc("Evaluate each record in its own task on a virtual thread, so that tests waiting on vocabularies don't block evaluator threads, requires Java 21 or later, otherwise ignored").build());
+		options.addOption(Option.builder("m").longOpt("memo").hasArg().argName("n").desc("Run each test once for each distinct input, up to n distinct inputs for each test, 0 to run every test on every record, default " + ResultMemo.DEFAULT_MAX_DISTINCT).build());
+		options.addOption(Option.builder("p").longOpt("profile").hasArg().argName("name").desc("Run only the tests selected by this profile, default " + TestProfile.ALL).build());
+		options.addOption(Option.builder().longOpt("profiles").hasArg().argName("file").desc("Properties file configuring profiles (see TestProfile), default is the bundled profiles").build());
+		options.addOption(Option.builder("a").longOpt("amended").hasArg().argName("file").desc("Write a copy of the input with the changes proposed by the amendments applied, in the format of the input, to this file").build());
+		options.addOption(Option.builder().longOpt("post-amendment").desc("After running the tests, apply the changes proposed by the amendments and run again the validations and issues on terms they change, adding a phase column to the output").build());
+		options.addOption(Option.builder("s").longOpt("summary").hasArg().argName("file").desc("Write counts of the results of each test to this file").build());
+		options.addOption(Option.builder().longOpt("checkpoint").hasArg().argName("file").desc("Periodically save a checkpoint to this file (default is the output file name with .checkpoint appended) from which an interrupted run can be resumed").build());
+		options.addOption(Option.builder().longOpt("checkpoint-interval").hasArg().argName("n").desc("Minimum number of records between checkpoints, default " + DEFAULT_CHECKPOINT_INTERVAL).build());
+		options.addOption(Option.builder().longOpt("resume").desc("Resume an interrupted run from its last checkpoint, appending to the output").build());
+		options.addOption(Option.builder("S").longOpt("shard").hasArg().argName("i/N").desc("Process only shard i (from 0 to N-1) of N shards of the input file, for splitting a run across several machines").build());
+		options.addOption(Option.builder("M").longOpt("merge").desc("Merge the result files from each shard, given as arguments in shard order, into the output").build());
+		options.addOption(Option.builder().longOpt("merge-summaries").hasArgs().valueSeparator(',').argName("files").desc("With --merge, comma separated summary files from each shard to combine into the summary").build());
+		options.addOption(Option.builder("h").longOpt("help").desc("Print this message").build());
+		return options;
+	}
+
+	/**
+	 * Parse the command line and carry out the run, merge, or help it asks for.
+	 */
+	static void run(Options options, String[] args) throws ParseException, IOException, InterruptedException {
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+		if (cmd.hasOption("h")) {
+			new HelpFormatter().printHelp("Runner", options);
+		} else if (cmd.hasOption("M")) {
+			merge(cmd);
+		} else if (!cmd.hasOption("i")) {
+			throw new ParseException("Missing required option: i");
+		} else {
+			run(cmd);
+		}
+	}
+
+	private static void run(CommandLine cmd) throws IOException, InterruptedException {
+		String input = cmd.getOptionValue("i");
+		String output = cmd.getOptionValue("o");
+		int threads = Integer.parseInt(cmd.getOptionValue("t", Integer.toString(Runtime.getRuntime().availableProcessors())));
+		int batchSize = Integer.parseInt(cmd.getOptionValue("b", Integer.toString(BatchRunner.DEFAULT_BATCH_SIZE)));
+		int queueCapacity = Integer.parseInt(cmd.getOptionValue("q", Integer.toString(threads * 2)));
+		int readerThreads = Integer.parseInt(cmd.getOptionValue("r", Integer.toString(threads)));
+		ExecutionMode mode = cmd.hasOption("v") ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM;
+		int shard = 0;
+		int shards = 1;
+		if (cmd.hasOption("S")) {
+			String[] shardBits = cmd.getOptionValue("S").split("/");
+			if (shardBits.length!=2) {
+				throw new IllegalArgumentException("Unable to parse shard [" + cmd.getOptionValue("S") + "], expected i/N");
+			}
+			shard = Integer.parseInt(shardBits[0].trim());
+			shards = Integer.parseInt(shardBits[1].trim());
+			if (input.equals("-")) {
+				throw new IllegalArgumentException("A file is required to process a shard, not stdin.");
+			}
+		}
 
+		// checkpoints identify the input and shard they were made for.
+		boolean checkpointing = cmd.hasOption("checkpoint") || cmd.hasOption("resume");
+		final String inputId = input.equals("-") ? input : new File(input).getAbsolutePath();
+		final String shardId = shard + "/" + shards;
+		final Path checkpointFile = Paths.get(cmd.getOptionValue("checkpoint", output + ".checkpoint"));
+		long checkpointInterval = Long.parseLong(cmd.getOptionValue("checkpoint-interval", Long.toString(DEFAULT_CHECKPOINT_INTERVAL)));
+		Checkpoint resumeFrom = null;
+		if (checkpointing) {
+			if (input.equals("-") || output.equals("-")) {
+				throw new IllegalArgumentException("Checkpoints require input and output files, not stdin or stdout.");
+			}
+			if (cmd.hasOption("resume")) {
+				if (!Files.exists(checkpointFile)) {
+					throw new IllegalArgumentException("No checkpoint to resume from found at " + checkpointFile);
+				}
+				resumeFrom = Checkpoint.load(checkpointFile);
+				if (!resumeFrom.getInput().equals(inputId) || !resumeFrom.getShard().equals(shardId)) {
+					throw new IllegalArgumentException("Checkpoint " + checkpointFile + " is for " + resumeFrom.getInput() + " shard " + resumeFrom.getShard() + " not " + inputId + " shard " + shardId);
+				}
+				logger.info("Resuming after record " + resumeFrom.getRecordNumber());
+			}
+		}
+
+		Path profiles = cmd.hasOption("profiles") ? Paths.get(cmd.getOptionValue("profiles")) : null;
+		ExecutionPlan plan = ExecutionPlan.of(TestProfile.load(cmd.getOptionValue("p", TestProfile.ALL), profiles));
+		if (plan.getTests().isEmpty()) {
+			throw new IllegalArgumentException("Profile " + plan.getProfile() + " selects no tests.");
+		}
+		List<DQTest> tests = plan.getTests();
+		logger.debug(plan);
+		int maxDistinct = Integer.parseInt(cmd.getOptionValue("m", Integer.toString(ResultMemo.DEFAULT_MAX_DISTINCT)));
+		ResultMemo memo = maxDistinct > 0 ? new ResultMemo(maxDistinct) : null;
+		boolean postAmendment = cmd.hasOption("post-amendment");
+		RecordProcessor processor = new RecordProcessor(tests, memo, postAmendment);
+		ResultSummary summary = resumeFrom==null ? new ResultSummary() : resumeFrom.getSummary();
+
+		Writer out;
+		final FileChannel outputChannel;
+		if (output.equals("-")) {
+			out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+			outputChannel = null;
+		} else {
+			outputChannel = openOutput(output, resumeFrom, RESULTS_OUTPUT);
+			out = new OutputStreamWriter(Channels.newOutputStream(outputChannel), StandardCharsets.UTF_8);
+		}
+
+		// parse only the columns the tests read, and the occurrenceID each result is reported
+		// against, unless writing out whole amended records
+		Set<String> neededTerms = null;
+		if (!cmd.hasOption("a")) {
+			neededTerms = new HashSet<String>(plan.getTerms());
+			neededTerms.add(ResultWriter.OCCURRENCE_ID);
+		}
+
+		File inputFile = new File(input);
+		DwcArchive archive = null;
+		RecordReader reader;
+		DelimitedFormat inputFormat;
+		if (input.equals("-")) {
+			CSVFormat format = flatFormat(cmd, input).equals("tsv") ? CsvRecordReader.TSV : CsvRecordReader.CSV;
+			inputFormat = flatFormat(cmd, input).equals("tsv") ? DelimitedFormat.TSV : DelimitedFormat.CSV;
+			reader = new CsvRecordReader(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16), format, processor.getTerms(), neededTerms);
+		} else {
+			ChunkedRecordReader chunkedReader;
+			if (inputFile.isDirectory() || input.toLowerCase().endsWith(".zip")) {
+				archive = new DwcArchive(inputFile.toPath());
+				chunkedReader = archive.openCore(processor.getTerms(), neededTerms, readerThreads, ChunkedRecordReader.DEFAULT_CHUNK_SIZE, shard, shards);
+				inputFormat = archive.getFormat();
+			} else {
+				// the header line gives the columns for every shard.
+				inputFormat = flatFormat(cmd, input).equals("tsv") ? DelimitedFormat.TSV : DelimitedFormat.CSV;
+				RecordSchema schema = new RecordSchema(Arrays.asList(ChunkedRecordReader.readFirstLine(inputFile.toPath(), inputFormat)), processor.getTerms());
+				if (neededTerms!=null) {
+					schema = schema.project(neededTerms);
+				}
+				chunkedReader = new ChunkedRecordReader(inputFile.toPath(), inputFormat, schema, null, readerThreads, ChunkedRecordReader.DEFAULT_CHUNK_SIZE, shard, shards);
+			}
+			if (resumeFrom!=null) {
+				chunkedReader.resume(resumeFrom.getInputPosition(), resumeFrom.getRecordNumber());
+			}
+			reader = chunkedReader;
+		}
+
+		final FileChannel amendedChannel;
+		AmendedRecordWriter amendedWriter = null;
+		if (cmd.hasOption("a")) {
+			amendedChannel = openOutput(cmd.getOptionValue("a"), resumeFrom, AMENDED_OUTPUT);
+			Writer amendedOut = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(amendedChannel), inputFormat.getCharset()), 1 << 16);
+			int columns = archive==null ? reader.getSchema().size() : archive.getColumnCount();
+			List<String> inputHeader = null;
+			if (resumeFrom==null) {
+				// copy any header lines after the first through to the amended records
+				Path inputPath = archive!=null ? archive.getCoreFile() : input.equals("-") ? null : inputFile.toPath();
+				inputHeader = inputPath==null ? Collections.<String>emptyList() : ChunkedRecordReader.readHeaderLines(inputPath, inputFormat);
+			}
+			amendedWriter = new AmendedRecordWriter(amendedOut, inputFormat, reader.getSchema(), columns, plan.getAmendableTerms(), inputHeader);
+		} else {
+			amendedChannel = null;
+		}
+
+		try (DwcArchive archiveToClose = archive;
+			 RecordReader readerToClose = reader;
+			 ResultWriter writer = new ResultWriter(new BufferedWriter(out, 1 << 16), resumeFrom==null, postAmendment);
+			 AmendedRecordWriter amendedToClose = amendedWriter) {
+			BatchRunner runner = new BatchRunner(processor, threads, batchSize, queueCapacity, mode);
+			if (amendedWriter!=null) {
+				runner.addSink(amendedWriter);
+			}
+			if (checkpointing) {
+				runner.setCheckpointListener((lastRecord, runSummary) -> {
+					Map<String,Long> outputPositions = new HashMap<String,Long>();
+					outputPositions.put(RESULTS_OUTPUT, outputChannel.position());
+					if (amendedChannel!=null) {
+						outputPositions.put(AMENDED_OUTPUT, amendedChannel.position());
+					}
+					new Checkpoint(inputId, shardId, lastRecord.getEnd(), lastRecord.getNumber(), outputPositions, runSummary).save(checkpointFile);
+					logger.debug("Checkpoint after record " + lastRecord.getNumber());
+				}, checkpointInterval);
+			}
+			runner.run(reader, writer, summary);
+		}
+		if (checkpointing) {
+			// the run is complete, there is nothing to resume.
+			Files.deleteIfExists(checkpointFile);
+		}
+		logger.info("Ran " + tests.size() + " tests on " + summary.getRecordCount() + " records.");
+		if (memo!=null) {
+			logger.info(memo);
+		}
+
+		if (cmd.hasOption("s")) {
+			try (Writer summaryWriter = new OutputStreamWriter(new FileOutputStream(new File(cmd.getOptionValue("s"))), StandardCharsets.UTF_8)) {
+				summary.write(summaryWriter);
+			}
+		}
+	}
+
+	/**
+	 * Open an output file, when resuming, truncated to its length at the checkpoint.
+	 */
+	private static FileChannel openOutput(String file, Checkpoint resumeFrom, String name) throws IOException {
+		FileChannel result = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		// discard anything written after the checkpoint
+		long start = resumeFrom==null ? 0L : resumeFrom.getOutputPosition(name);
+		if (start < 0L || start > result.size()) {
+			result.close();
+			throw new IOException("Output file " + file + " doesn't match the checkpoint, unable to resume.");
+		}
+		result.truncate(start);
+		result.position(start);
+		return result;
+	}
+
+	private static void merge(CommandLine cmd) throws IOException {
+		if (!cmd.hasOption("o")) {
+			throw new IllegalArgumentException("An output file is required to merge into.");
+		}
+		List<Path> shardResults = new ArrayList<Path>();
+		for (String arg : cmd.getArgs()) {
+			shardResults.add(Paths.get(arg));
+		}
+		if (shardResults.isEmpty()) {
+			throw new IllegalArgumentException("No shard result files to merge.");
+		}
+		String output = cmd.getOptionValue("o");
+		Writer out = output.equals("-") ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8) : new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8);
+		try (Writer writer = new BufferedWriter(out, 1 << 16)) {
+			long records = ShardMerger.mergeResults(shardResults, writer);
+			logger.info("Merged " + records + " records from " + shardResults.size() + " shards.");
+		}
+		if (cmd.hasOption("merge-summaries")) {
+			if (!cmd.hasOption("s")) {
+				throw new IllegalArgumentException("A summary file (-s) is required to merge summaries into.");
+			}
+			List<Path> shardSummaries = new ArrayList<Path>();
+			for (String file : cmd.getOptionValues("merge-summaries")) {
+				shardSummaries.add(Paths.get(file));
+			}
+			ResultSummary summary = ShardMerger.mergeSummaries(shardSummaries);
+			try (Writer summaryWriter = new OutputStreamWriter(new FileOutputStream(new File(cmd.getOptionValue("s"))), StandardCharsets.UTF_8)) {
+				summary.write(summaryWriter);
+			}
+		}
+	}
+
+	/**
+	 * Determine the format of a flat input file.
+	 *
+	 * @return tsv or csv
+	 */
+	private static String flatFormat(CommandLine cmd, String input) {
+		String format = cmd.getOptionValue("f");
+		if (format==null) {
+			format = input.toLowerCase().endsWith(".tsv") || input.toLowerCase().endsWith(".txt") ? "tsv" : "csv";
+		}
+		format = format.toLowerCase();
+		if (!format.equals("tsv") && !format.equals("csv")) {
+			throw new IllegalArgumentException("Unknown input format [" + format + "], expected csv or tsv.");
+		}
+		return format;
 	}
 
 }
@@ -0,0 +1,166 @@
+/**
+ * AmendedRecordWriter.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.filteredpush.qc.metadata.runner.AmendmentMerger;
+import org.filteredpush.qc.metadata.runner.RecordResults;
+
+/**
+ * Writes a copy of each input record with the changes proposed by the amendments run on it
+ * applied (see AmendmentMerger for precedence between amendments), in the delimited format
+ * of the input, with a header row of the input column names where the input has header
+ * lines, followed by a copy of any further header lines of the input.  Values are written as read, without defaults (e.g. those given in the meta.xml of a
+ * Darwin Core Archive).  Amendable terms that aren't columns of the input file are added as
+ * columns after the input columns (for an archive, meta.xml would need a field for each).
+ *
+ * @author mole
+ *
+ */
+public class AmendedRecordWriter implements ResultsSink {
+
+	private final Writer writer;
+	private final DelimitedFormat format;
+	private final RecordSchema schema;
+	private final int columns;
+	private final List<String> addedTerms;
+
+	/**
+	 * @param writer the output to write to, should use the charset of the format.
+	 * @param format the format to write in.
+	 * @param schema the columns of the input records.
+	 * @param amendableTerms the terms that amendments may change.
+	 * @param writeHeader true to write the header row.
+	 * @throws IOException on an error writing the header.
+	 */
+	public AmendedRecordWriter(Writer writer, DelimitedFormat format, RecordSchema schema, Collection<String> amendableTerms, boolean writeHeader) throws IOException {
+		this(writer, format, schema, schema.size(), amendableTerms, writeHeader);
+	}
+
+	/**
+	 * @param writer the output to write to, should use the charset of the format.
+	 * @param format the format to write in, a header row is written only if it has header lines,
+	 *   and must have no more than one header line if writing the header.
+	 * @param schema the columns of the input records.
+	 * @param columns the number of leading columns of the schema present in the input file,
+	 *   e.g. excluding the terms of an archive with only a default value.
+	 * @param amendableTerms the terms that amendments may change.
+	 * @param writeHeader true to write the header row, if the format has one.
+	 * @throws IOException on an error writing the header.
+	 */
+	public AmendedRecordWriter(Writer writer, DelimitedFormat format, RecordSchema schema, int columns, Collection<String> amendableTerms, boolean writeHeader) throws IOException {
+		this(writer, format, schema, columns, amendableTerms, writeHeader ? Collections.<String>emptyList() : null);
+	}
+
+	/**
+	 * @param writer the output to write to, should use the charset of the format.
+	 * @param format the format to write in, a header row is written only if it has header lines.
+	 * @param schema the columns of the input records.
+	 * @param columns the number of leading columns of the schema present in the input file,
+	 *   e.g. excluding the terms of an archive with only a default value.
+	 * @param amendableTerms the terms that amendments may change.
+	 * @param inputHeader the header lines of the input, as given by
+	 *   ChunkedRecordReader.readHeaderLines(), those after the first are copied after the header 
+	 *   row, or null to write no header.
+	 * @throws IOException on an error writing the header.
+	 * @throws IllegalArgumentException if the format has more header lines than are given.
+	 */
+	public AmendedRecordWriter(Writer writer, DelimitedFormat format, RecordSchema schema, int columns, Collection<String> amendableTerms, List<String> inputHeader) throws IOException {
+		if (inputHeader!=null && format.getHeaderLines() > 1 && inputHeader.size() < format.getHeaderLines()) {
+			throw new IllegalArgumentException("The format has " + format.getHeaderLines() + " header lines, but " + inputHeader.size() + " were given to copy.");
+		}
+		this.writer = writer;
+		this.format = format;
+		this.schema = schema;
+		this.columns = columns;
+		this.addedTerms = new ArrayList<String>();
+		for (String term : amendableTerms) {
+			int index = schema.indexOf(term);
+			if (index < 0 || index >= columns) {
+				addedTerms.add(term);
+			}
+		}
+		if (inputHeader!=null && format.getHeaderLines() > 0) {
+			// follow the input in using bare local names or namespaced names for added columns
+			boolean localNames = true;
+			for (String column : schema.getColumnNames()) {
+				if (column!=null && (column.contains(":") || column.contains("/"))) {
+					localNames = false;
+				}
+			}
+			String[] header = new String[columns + addedTerms.size()];
+			for (int i=0; i<columns; i++) {
+				header[i] = schema.getColumnNames().get(i);
+			}
+			for (int i=0; i<addedTerms.size(); i++) {
+				String term = addedTerms.get(i);
+				header[columns + i] = localNames ? RecordSchema.localName(term) : term;
+			}
+			writer.write(format.formatLine(header));
+			// keep the data starting after the same header lines as in the input
+			for (int i=1; i<format.getHeaderLines(); i++) {
+				String line = inputHeader.get(i);
+				writer.write(line);
+				if (!line.endsWith("\n") && !line.endsWith("\r")) {
+					writer.write("\n");
+				}
+			}
+		}
+	}
+
+	@Override
+	public void write(RecordResults results) throws IOException {
+		DwCRecord record = results.getRecord();
+		String[] values = new String[columns + addedTerms.size()];
+		String[] original = record.getValues();
+		System.arraycopy(original, 0, values, 0, Math.min(original.length, columns));
+		Map<String,String> amendments = AmendmentMerger.merge(results);
+		for (Map.Entry<String,String> amendment : amendments.entrySet()) {
+			int index = schema.indexOf(amendment.getKey());
+			if (index < 0 || index >= columns) {
+				index = addedTerms.indexOf(amendment.getKey());
+				if (index >= 0) {
+					index += columns;
+				}
+			}
+			if (index >= 0) {
+				values[index] = amendment.getValue();
+			}
+		}
+		writer.write(format.formatLine(values));
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+}
@@ -0,0 +1,409 @@
+/**
+ * ChunkedRecordReader.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Reads a delimited file through memory mapped buffers, splitting the file into chunks that
+ * end on record boundaries and parsing several chunks at once on a pool of threads, while
+ * returning records from next() in file order.
+ *
+ * Chunk boundaries are found by scanning forward from the nominal chunk end to the next
+ * line break.  Where fields may be enclosed in quotes, a line break may be part of a field,
+ * so the scan instead tracks quote parity from the (known) start of the chunk.
+ *
+ * A reader may be limited to one of N shards of the file, each shard is the run of records
+ * starting at or after the shard's nominal start (i/N of the way through the file), so that
+ * separate processes reading each shard between them read each record exactly once without
+ * coordination.  For quoted files, finding a shard boundary requires scanning quote parity
+ * from the start of the file.
+ *
+ * @author mole
+ *
+ */
+public class ChunkedRecordReader implements RecordReader {
+
+	private static final Log logger = LogFactory.getLog(ChunkedRecordReader.class);
+
+	/** default nominal size of a chunk in bytes */
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	// states of the scan for record boundaries
+	private static final int FIELD_START = 0;
+	private static final int UNENCLOSED = 1;
+	private static final int ENCLOSED = 2;
+	private static final int CLOSING = 3;
+
+	private static final AtomicInteger readerCount = new AtomicInteger(0);
+
+	private final FileChannel channel;
+	private final DelimitedFormat format;
+	private final RecordSchema schema;
+	private final boolean[] projection;
+	private final String[] defaults;
+	private final long size;
+	private final long end;
+	private final int chunkSize;
+	private final int maxPending;
+	private final ExecutorService parsers;
+	private final ArrayDeque<Future<Chunk>> pending;
+
+	private long nextChunkStart;
+	private Chunk current;
+	private int currentIndex;
+	private long recordNumber;
+
+	/**
+	 * @param file the file to read.
+	 * @param format the format of the file, header lines are skipped.
+	 * @param schema the columns of the file, only the columns to be parsed in a projected
+	 *   schema are parsed.
+	 * @param defaults default values for each column of the schema, given by DwCRecord.get()
+	 *   where a value is empty or the column is not present in the file, may be null.
+	 * @param threads the number of threads to parse chunks with.
+	 * @param chunkSize the nominal size of each chunk in bytes.
+	 * @throws IOException on an error opening the file.
+	 */
+	public ChunkedRecordReader(Path file, DelimitedFormat format, RecordSchema schema, String[] defaults, int threads, int chunkSize) throws IOException {
+		this(file, format, schema, defaults, threads, chunkSize, 0, 1);
+	}
+
+	/**
+	 * Create a reader on one shard of a file.
+	 *
+	 * @param file the file to read.
+	 * @param format the format of the file, header lines are skipped.
+	 * @param schema the columns of the file, only the columns to be parsed in a projected
+	 *   schema are parsed.
+	 * @param defaults default values for each column of the schema, given by DwCRecord.get()
+	 *   where a value is empty or the column is not present in the file, may be null.
+	 * @param threads the number of threads to parse chunks with.
+	 * @param chunkSize the nominal size of each chunk in bytes.
+	 * @param shard the shard to read, from 0 to shards-1.
+	 * @param shards the number of shards the file is split into.
+	 * @throws IOException on an error opening the file.
+	 */
+	public ChunkedRecordReader(Path file, DelimitedFormat format, RecordSchema schema, String[] defaults, int threads, int chunkSize, int shard, int shards) throws IOException {
+		if (shards < 1 || shard < 0 || shard >= shards) {
+			throw new IllegalArgumentException("Shard must be from 0 to " + (shards - 1) + ", not " + shard);
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one parser thread is required.");
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be at least one byte.");
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.format = format;
+		this.schema = schema;
+		this.projection = schema.getProjection();
+		this.defaults = parsedDefaults(schema, defaults);
+		this.size = channel.size();
+		this.chunkSize = chunkSize;
+		this.maxPending = threads * 2;
+		final int readerNumber = readerCount.incrementAndGet();
+		final AtomicInteger threadCount = new AtomicInteger(0);
+		this.parsers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "chunk-reader-" + readerNumber + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.pending = new ArrayDeque<Future<Chunk>>();
+		long dataStart = 0L;
+		for (int i=0; i<format.getHeaderLines() && dataStart < size; i++) {
+			dataStart = nextBoundary(dataStart, 0L, size);
+		}
+		this.nextChunkStart = shardBoundary(dataStart, shard, shards);
+		this.end = shardBoundary(dataStart, shard + 1, shards);
+		this.recordNumber = 0L;
+		logger.debug("Reading " + file + " bytes " + nextChunkStart + " to " + end + " of " + size + " in chunks of " + chunkSize + " bytes with " + threads + " threads.");
+	}
+
+	/**
+	 * Read the first line of a file, e.g. to obtain the column names from a header.
+	 *
+	 * @param file the file to read.
+	 * @param format the format of the file.
+	 * @return the fields in the first line of the file.
+	 * @throws IOException on an error reading the file.
+	 */
+	public static String[] readFirstLine(Path file, DelimitedFormat format) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long lineEnd = nextBoundary(channel, format, 0L, 0L, size, 64 * 1024);
+			if (lineEnd > Integer.MAX_VALUE) {
+				throw new IOException("First line of " + file + " is too long.");
+			}
+			byte[] data = new byte[(int)lineEnd];
+			channel.map(FileChannel.MapMode.READ_ONLY, 0L, lineEnd).get(data);
+			List<String[]> rows = format.parse(data, 0, data.length, -1);
+			String[] result = rows.isEmpty() ? new String[0] : rows.get(0);
+			if (result.length > 0 && result[0]!=null && result[0].startsWith("\uFEFF")) {
+				// byte order mark
+				result[0] = result[0].substring(1);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Read the header lines of a file, those skipped by a reader on the file, as text, so that 
+	 * they can be copied to an output in the same format.
+	 *
+	 * @param file the file to read.
+	 * @param format the format of the file, giving the number of header lines and the charset.
+	 * @return each header line, including its line end, fewer lines than the format has if the 
+	 *   file is shorter.
+	 * @throws IOException on an error reading the file.
+	 */
+	public static List<String> readHeaderLines(Path file, DelimitedFormat format) throws IOException {
+		List<String> result = new ArrayList<String>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long lineStart = 0L;
+			for (int i=0; i<format.getHeaderLines() && lineStart < size; i++) {
+				long lineEnd = nextBoundary(channel, format, lineStart, 0L, size, 64 * 1024);
+				if (lineEnd - lineStart > Integer.MAX_VALUE) {
+					throw new IOException("Header line " + (i + 1) + " of " + file + " is too long.");
+				}
+				byte[] data = new byte[(int)(lineEnd - lineStart)];
+				channel.map(FileChannel.MapMode.READ_ONLY, lineStart, data.length).get(data);
+				String line = new String(data, format.getCharset());
+				if (i==0 && line.startsWith("\uFEFF")) {
+					// byte order mark
+					line = line.substring(1);
+				}
+				result.add(line);
+				lineStart = lineEnd;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Find the start of the first record at or after the nominal start of a shard.
+	 */
+	private long shardBoundary(long dataStart, int shard, int shards) throws IOException {
+		if (shard==0) {
+			return dataStart;
+		}
+		if (shard==shards) {
+			return size;
+		}
+		long nominal = size * shard / shards;
+		if (nominal <= dataStart) {
+			return dataStart;
+		}
+		// scan from the start of the data, so that quote parity is known.
+		return nextBoundary(dataStart, nominal - 1 - dataStart, size);
+	}
+
+	/**
+	 * Continue reading from a position reached by an earlier reader on the same file, e.g.
+	 * to resume an interrupted run, must be called before the first call to next().
+	 *
+	 * @param position the byte offset of the start of a record, as given by DwCRecord.getEnd()
+	 *   for the last record read previously.
+	 * @param recordNumber the number of the last record read previously.
+	 * @throws IOException if the position is outside the part of the file this reader reads
+	 *   or if reading has already started.
+	 */
+	public void resume(long position, long recordNumber) throws IOException {
+		if (current!=null || !pending.isEmpty()) {
+			throw new IOException("Can't resume after reading has started.");
+		}
+		if (position < nextChunkStart || position > end) {
+			throw new IOException("Resume position " + position + " is outside of the range " + nextChunkStart + " to " + end + " being read.");
+		}
+		this.nextChunkStart = position;
+		this.recordNumber = recordNumber;
+	}
+
+	@Override
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	@Override
+	public DwCRecord next() throws IOException {
+		while (current==null || currentIndex >= current.rows.size()) {
+			fill();
+			if (pending.isEmpty()) {
+				return null;
+			}
+			try {
+				current = pending.removeFirst().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted reading records.", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Error reading records after " + recordNumber + ": " + e.getCause().getMessage(), e.getCause());
+			}
+			currentIndex = 0;
+		}
+		String[] values = current.rows.get(currentIndex);
+		long recordEnd = current.start + current.ends.get(currentIndex);
+		current.rows.set(currentIndex, null);
+		currentIndex++;
+		recordNumber++;
+		return new DwCRecord(recordNumber, schema, values, recordEnd, defaults);
+	}
+
+	/**
+	 * Submit chunks for parsing until the maximum number are pending or the end of the file is reached.
+	 */
+	private void fill() throws IOException {
+		while (pending.size() < maxPending && nextChunkStart < end) {
+			final long chunkStart = nextChunkStart;
+			final long chunkEnd = nextBoundary(chunkStart, chunkSize, end);
+			nextChunkStart = chunkEnd;
+			pending.addLast(parsers.submit(() -> parseChunk(chunkStart, chunkEnd)));
+		}
+	}
+
+	private Chunk parseChunk(long chunkStart, long chunkEnd) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart);
+		byte[] data = new byte[(int)(chunkEnd - chunkStart)];
+		buffer.get(data);
+		List<Integer> ends = new ArrayList<Integer>();
+		List<String[]> rows = format.parse(data, 0, data.length, schema.size(), ends, projection);
+		return new Chunk(chunkStart, rows, ends);
+	}
+
+	/**
+	 * @return the defaults for the columns that are parsed, null if there are none.
+	 */
+	private static String[] parsedDefaults(RecordSchema schema, String[] defaults) {
+		if (defaults==null) {
+			return null;
+		}
+		String[] result = new String[defaults.length];
+		boolean any = false;
+		for (int i=0; i<defaults.length; i++) {
+			if (defaults[i]!=null && schema.isParsed(i)) {
+				result[i] = defaults[i];
+				any = true;
+			}
+		}
+		return any ? result : null;
+	}
+
+	private long nextBoundary(long start, long minLength, long limit) throws IOException {
+		return nextBoundary(channel, format, start, minLength, limit, Math.max(chunkSize, 64 * 1024));
+	}
+
+	/**
+	 * Find the end of the record that extends past start + minLength.
+	 *
+	 * Quotes are treated as DelimitedFormat.parse() treats them: a quote opens an enclosed field
+	 * only at the start of a field, a doubled quote within an enclosed field is a literal quote,
+	 * and a quote anywhere else (e.g. 5" long) is part of the value.
+	 *
+	 * @param channel the file to scan.
+	 * @param format the format of the file.
+	 * @param start the start of a record.
+	 * @param minLength the minimum distance from start to the boundary.
+	 * @param limit the position at which to stop scanning, a record boundary or the file size.
+	 * @param windowSize the number of bytes to map at a time.
+	 * @return the position immediately after the line break ending the record, or limit.
+	 */
+	private static long nextBoundary(FileChannel channel, DelimitedFormat format, long start, long minLength, long limit, int windowSize) throws IOException {
+		long target = start + minLength;
+		if (target >= limit) {
+			return limit;
+		}
+		int quote = format.getQuote();
+		byte delimiter = format.getDelimiter();
+		// without quotes any line break ends a record, so start looking at the target
+		long position = quote >= 0 ? start : target;
+		int state = FIELD_START;
+		while (position < limit) {
+			int length = (int)Math.min(limit - position, (long)windowSize);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			for (int i=0; i<length; i++) {
+				byte b = window.get(i);
+				if (state==CLOSING) {
+					// a second quote is a literal quote, anything else follows the closing quote
+					if (b==quote) {
+						state = ENCLOSED;
+						continue;
+					}
+					state = UNENCLOSED;
+				} else if (state==ENCLOSED) {
+					if (b==quote) {
+						state = CLOSING;
+					}
+					continue;
+				}
+				if (b==quote && state==FIELD_START) {
+					state = ENCLOSED;
+				} else if (b==delimiter) {
+					state = FIELD_START;
+				} else if (b=='\n') {
+					if (position + i >= target) {
+						return position + i + 1;
+					}
+					state = FIELD_START;
+				} else {
+					state = UNENCLOSED;
+				}
+			}
+			position += length;
+		}
+		return limit;
+	}
+
+	@Override
+	public void close() throws IOException {
+		parsers.shutdownNow();
+		channel.close();
+	}
+
+	/**
+	 * The parsed records of a chunk, with the offset of the end of each record within the chunk.
+	 */
+	private static class Chunk {
+		private final long start;
+		private final List<String[]> rows;
+		private final List<Integer> ends;
+
+		private Chunk(long start, List<String[]> rows, List<Integer> ends) {
+			this.start = start;
+			this.rows = rows;
+			this.ends = ends;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * CsvRecordReader.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Streaming reader for flat Darwin Core in comma or tab separated form with a header row
+ * containing term names.
+ *
+ * @author mole
+ *
+ */
+public class CsvRecordReader implements RecordReader {
+
+	private static final Log logger = LogFactory.getLog(CsvRecordReader.class);
+
+	/**
+	 * Format for comma separated values.
+	 */
+	public static final CSVFormat CSV = CSVFormat.RFC4180.withFirstRecordAsHeader();
+
+	/**
+	 * Format for tab separated values, as found in GBIF downloads, without any quoting.
+	 */
+	public static final CSVFormat TSV = CSVFormat.TDF.withQuote(null).withFirstRecordAsHeader();
+
+	private final CSVParser parser;
+	private final Iterator<CSVRecord> iterator;
+	private final RecordSchema schema;
+	private long recordNumber;
+
+	/**
+	 * @param reader the input to read, the first row must be a header.
+	 * @param format the csv format of the input, see CSV and TSV.
+	 * @param knownTerms term names to match the header against.
+	 * @throws IOException on an error reading the header
+	 */
+	public CsvRecordReader(Reader reader, CSVFormat format, Collection<String> knownTerms) throws IOException {
+		this(reader, format, knownTerms, null);
+	}
+
+	/**
+	 * Note that commons-csv decodes every field of a row, so a projection here only avoids
+	 * retaining the values not needed, see ChunkedRecordReader for parsing only some columns.
+	 *
+	 * @param reader the input to read, the first row must be a header.
+	 * @param format the csv format of the input, see CSV and TSV.
+	 * @param knownTerms term names to match the header against.
+	 * @param neededTerms the terms to return values for, or null to return all columns.
+	 * @throws IOException on an error reading the header
+	 */
+	public CsvRecordReader(Reader reader, CSVFormat format, Collection<String> knownTerms, Collection<String> neededTerms) throws IOException {
+		parser = new CSVParser(reader, format);
+		List<String> columns = new ArrayList<String>(parser.getHeaderMap().keySet());
+		logger.debug(columns);
+		RecordSchema fullSchema = new RecordSchema(columns, knownTerms);
+		schema = neededTerms==null ? fullSchema : fullSchema.project(neededTerms);
+		iterator = parser.iterator();
+		recordNumber = 0;
+	}
+
+	@Override
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	@Override
+	public DwCRecord next() throws IOException {
+		DwCRecord result = null;
+		try {
+			if (iterator.hasNext()) {
+				CSVRecord row = iterator.next();
+				String[] values = new String[schema.size()];
+				for (int i=0; i<values.length && i<row.size(); i++) {
+					if (schema.isParsed(i)) {
+						values[i] = row.get(i);
+					}
+				}
+				recordNumber++;
+				result = new DwCRecord(recordNumber, schema, values);
+			}
+		} catch (IllegalStateException e) {
+			// commons-csv wraps IOExceptions from the underlying reader
+			throw new IOException("Error reading record after " + recordNumber + ": " + e.getMessage(), e);
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+
+}
@@ -0,0 +1,296 @@
+/**
+ * DelimitedFormat.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description of a delimited text file (as described by the core element of a DwC-A meta.xml)
+ * with a parser for runs of whole lines held in a byte array.   Records are terminated by \n,
+ * with any preceding \r removed, a line break inside an enclosed (quoted) field is part of
+ * the field.  Parsing operates on bytes, so the encoding must be one in which the delimiter,
+ * quote, and line break characters are single bytes that cannot occur within the encoding of
+ * another character (e.g. UTF-8, ISO-8859-1).
+ *
+ * @author mole
+ *
+ */
+public class DelimitedFormat {
+
+	/** Tab separated without any quoting, as in GBIF downloads and most archives. */
+	public static final DelimitedFormat TSV = new DelimitedFormat('\t', null, StandardCharsets.UTF_8, 1);
+
+	/** Comma separated with double quotes enclosing fields. */
+	public static final DelimitedFormat CSV = new DelimitedFormat(',', '"', StandardCharsets.UTF_8, 1);
+
+	private final byte delimiter;
+	private final int quote;
+	private final Charset charset;
+	private final int headerLines;
+
+	/**
+	 * @param delimiter the character separating fields.
+	 * @param quote the character enclosing fields, or null if fields are not enclosed.
+	 * @param charset the encoding of the file.
+	 * @param headerLines the number of lines at the start of the file to ignore.
+	 * @throws IllegalArgumentException if the charset or delimiters can't be parsed as single bytes.
+	 */
+	public DelimitedFormat(char delimiter, Character quote, Charset charset, int headerLines) {
+		if (!isByteParsable(charset)) {
+			throw new IllegalArgumentException("Unsupported encoding for delimited file: " + charset.name());
+		}
+		if (delimiter > 0x7F || (quote!=null && quote.charValue() > 0x7F)) {
+			throw new IllegalArgumentException("Field delimiter and quote must be ASCII characters.");
+		}
+		if (delimiter=='\n' || delimiter=='\r') {
+			throw new IllegalArgumentException("Field delimiter can't be a line break.");
+		}
+		this.delimiter = (byte)delimiter;
+		this.quote = quote==null ? -1 : quote.charValue();
+		this.charset = charset;
+		this.headerLines = headerLines;
+	}
+
+	private static boolean isByteParsable(Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1)) {
+			return true;
+		}
+		// single byte encodings that are supersets of ASCII, e.g. windows-1252
+		return charset.newEncoder().maxBytesPerChar()==1.0f && "\t\n\r\",".equals(new String("\t\n\r\",".getBytes(charset), charset));
+	}
+
+	/**
+	 * @return the field delimiter byte.
+	 */
+	public byte getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * @return true if fields may be enclosed in quotes.
+	 */
+	public boolean hasQuote() {
+		return quote >= 0;
+	}
+
+	/**
+	 * @return the quote byte, or -1 if fields are not enclosed.
+	 */
+	public int getQuote() {
+		return quote;
+	}
+
+	/**
+	 * @return the encoding of the file.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return the number of header lines to ignore.
+	 */
+	public int getHeaderLines() {
+		return headerLines;
+	}
+
+	/**
+	 * Format values as a line in this format.  Values containing the delimiter, the quote,
+	 * or a line break are enclosed in quotes, with quotes doubled, where this format has a quote,
+	 * otherwise any delimiters and line breaks in values are replaced with spaces.
+	 *
+	 * @param values the values to format, null values are written as empty fields.
+	 * @return the line, terminated with \n.
+	 */
+	public String formatLine(String[] values) {
+		StringBuilder result = new StringBuilder();
+		for (int i=0; i<values.length; i++) {
+			if (i > 0) {
+				result.append((char)delimiter);
+			}
+			String value = values[i]==null ? "" : values[i];
+			boolean special = false;
+			for (int c=0; c<value.length() && !special; c++) {
+				char ch = value.charAt(c);
+				special = ch==delimiter || ch==quote || ch=='\n' || ch=='\r';
+			}
+			if (!special) {
+				result.append(value);
+			} else if (quote >= 0) {
+				String q = Character.toString((char)quote);
+				result.append(q).append(value.replace(q, q + q)).append(q);
+			} else {
+				result.append(value.replace((char)delimiter, ' ').replace('\n', ' ').replace('\r', ' '));
+			}
+		}
+		result.append('\n');
+		return result.toString();
+	}
+
+	/**
+	 * Split a single line (e.g. a header line) into fields.
+	 *
+	 * @param line the line, without a line terminator.
+	 * @return the fields in the line.
+	 */
+	public String[] splitLine(String line) {
+		byte[] bytes = line.getBytes(charset);
+		List<String[]> rows = parse(bytes, 0, bytes.length, -1);
+		return rows.isEmpty() ? new String[0] : rows.get(0);
+	}
+
+	/**
+	 * Parse the records in a run of whole lines.
+	 *
+	 * @param data the bytes to parse.
+	 * @param offset the position of the start of the first line in data.
+	 * @param length the number of bytes to parse, should end at a line end or at the end of the file.
+	 * @param columns the number of values in each returned row, or -1 for as many as found in each
+	 *   line, rows with fewer fields are padded with null, extra fields are discarded.
+	 * @return the values of each non-blank line.
+	 */
+	public List<String[]> parse(byte[] data, int offset, int length, int columns) {
+		return parse(data, offset, length, columns, null);
+	}
+
+	/**
+	 * Parse the records in a run of whole lines, noting where each record ends.
+	 *
+	 * @param data the bytes to parse.
+	 * @param offset the position of the start of the first line in data.
+	 * @param length the number of bytes to parse, should end at a line end or at the end of the file.
+	 * @param columns the number of values in each returned row, or -1 for as many as found in each
+	 *   line, rows with fewer fields are padded with null, extra fields are discarded.
+	 * @param ends if not null, the position in data immediately after each returned row is added to this list.
+	 * @return the values of each non-blank line.
+	 */
+	public List<String[]> parse(byte[] data, int offset, int length, int columns, List<Integer> ends) {
+		return parse(data, offset, length, columns, ends, null);
+	}
+
+	/**
+	 * Parse the records in a run of whole lines, noting where each record ends, building values
+	 * only for selected fields.  Other fields are scanned past to find the end of the record
+	 * without being decoded, and are returned as null.
+	 *
+	 * @param data the bytes to parse.
+	 * @param offset the position of the start of the first line in data.
+	 * @param length the number of bytes to parse, should end at a line end or at the end of the file.
+	 * @param columns the number of values in each returned row, or -1 for as many as found in each
+	 *   line, rows with fewer fields are padded with null, extra fields are discarded.
+	 * @param ends if not null, the position in data immediately after each returned row is added to this list.
+	 * @param projection for each field, whether to build its value, fields past the end of
+	 *   the array are not built, or null to build all fields, see RecordSchema.getProjection().
+	 * @return the values of each non-blank line.
+	 */
+	public List<String[]> parse(byte[] data, int offset, int length, int columns, List<Integer> ends, boolean[] projection) {
+		List<String[]> result = new ArrayList<String[]>();
+		List<String> fields = new ArrayList<String>();
+		int end = offset + length;
+		int position = offset;
+		while (position < end) {
+			fields.clear();
+			boolean lineEnd = false;
+			boolean firstFieldEmpty = false;
+			while (!lineEnd) {
+				int fieldStart = position;
+				int fieldIndex = fields.size();
+				boolean wanted = (columns < 0 || fieldIndex < columns)
+						&& (projection==null || (fieldIndex < projection.length && projection[fieldIndex]));
+				String value = null;
+				boolean empty;
+				if (quote >= 0 && position < end && data[position]==quote) {
+					// enclosed field, a doubled quote is a literal quote.
+					int i = position + 1;
+					boolean escaped = false;
+					while (i < end) {
+						if (data[i]==quote) {
+							if (i + 1 < end && data[i+1]==quote) {
+								escaped = true;
+								i += 2;
+								continue;
+							}
+							break;
+						}
+						i++;
+					}
+					int enclosedLength = Math.min(i, end) - fieldStart - 1;
+					if (wanted) {
+						value = new String(data, fieldStart + 1, enclosedLength, charset);
+						if (escaped) {
+							String q = Character.toString((char)quote);
+							value = value.replace(q + q, q);
+						}
+					}
+					position = Math.min(i + 1, end);
+					// retain anything between the closing quote and the next delimiter
+					int trailing = position;
+					while (position < end && data[position]!=delimiter && data[position]!='\n') {
+						position++;
+					}
+					int trailingEnd = position;
+					if (trailingEnd > trailing && data[trailingEnd-1]=='\r' && (trailingEnd==end || data[trailingEnd]=='\n')) {
+						trailingEnd--;
+					}
+					if (wanted && trailingEnd > trailing) {
+						value = value + new String(data, trailing, trailingEnd - trailing, charset);
+					}
+					empty = enclosedLength==0 && trailingEnd==trailing;
+				} else {
+					while (position < end && data[position]!=delimiter && data[position]!='\n') {
+						position++;
+					}
+					int fieldEnd = position;
+					if (fieldEnd > fieldStart && data[fieldEnd-1]=='\r' && (fieldEnd==end || data[fieldEnd]=='\n')) {
+						fieldEnd--;
+					}
+					if (wanted) {
+						value = new String(data, fieldStart, fieldEnd - fieldStart, charset);
+					}
+					empty = fieldEnd==fieldStart;
+				}
+				if (fieldIndex==0) {
+					firstFieldEmpty = empty;
+				}
+				fields.add(value);
+				if (position >= end || data[position]=='\n') {
+					lineEnd = true;
+				}
+				position++;
+			}
+			if (fields.size()==1 && firstFieldEmpty) {
+				// blank line
+				continue;
+			}
+			String[] row = new String[columns < 0 ? fields.size() : columns];
+			for (int i=0; i<row.length && i<fields.size(); i++) {
+				row[i] = fields.get(i);
+			}
+			result.add(row);
+			if (ends!=null) {
+				ends.add(Math.min(position, end));
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * DwCRecord.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+/**
+ * A single row of flat Darwin Core data, values are held in the column order of a RecordSchema.
+ *
+ * @author mole
+ *
+ */
+public class DwCRecord {
+
+	private final long number;
+	private final RecordSchema schema;
+	private final String[] values;
+	private final long end;
+	private final String[] defaults;
+
+	/**
+	 * @param number the position of the record in the input, starting with 1 for the first data row.
+	 * @param schema the schema describing the columns of the record.
+	 * @param values the values in the record, in column order.
+	 */
+	public DwCRecord(long number, RecordSchema schema, String[] values) {
+		this(number, schema, values, -1L);
+	}
+
+	/**
+	 * @param number the position of the record in the input, starting with 1 for the first data row.
+	 * @param schema the schema describing the columns of the record.
+	 * @param values the values in the record, in column order.
+	 * @param end the byte offset in the input immediately after this record, -1 if not known.
+	 */
+	public DwCRecord(long number, RecordSchema schema, String[] values, long end) {
+		this(number, schema, values, end, null);
+	}
+
+	/**
+	 * @param number the position of the record in the input, starting with 1 for the first data row.
+	 * @param schema the schema describing the columns of the record.
+	 * @param values the values in the record, in column order.
+	 * @param end the byte offset in the input immediately after this record, -1 if not known.
+	 * @param defaults default values for each column, returned by get() where the value is
+	 *   empty, e.g. from the field elements of a Darwin Core Archive's meta.xml, may be null.
+	 */
+	public DwCRecord(long number, RecordSchema schema, String[] values, long end, String[] defaults) {
+		this.number = number;
+		this.schema = schema;
+		this.values = values;
+		this.end = end;
+		this.defaults = defaults;
+	}
+
+	/**
+	 * @return the position of the record in the input.
+	 */
+	public long getNumber() {
+		return number;
+	}
+
+	/**
+	 * @return the byte offset in the input immediately after this record, from which
+	 *   reading can resume, or -1 if not known.
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return the schema for the record.
+	 */
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Obtain the value for a term.
+	 *
+	 * @param term the term name, e.g. dwc:sex
+	 * @return the value of the term in this record, or null if the term is not present.
+	 */
+	public String get(String term) {
+		return get(schema.indexOf(term));
+	}
+
+	/**
+	 * Obtain the value in a column.
+	 *
+	 * @param index the column index
+	 * @return the value in the column, or its default if empty, or null if the index is out
+	 *   of range (including -1 for a term not present in the schema).
+	 */
+	public String get(int index) {
+		String value = index < 0 || index >= values.length ? null : values[index];
+		if ((value==null || value.length()==0) && defaults!=null && index >= 0 && index < defaults.length && defaults[index]!=null) {
+			value = defaults[index];
+		}
+		return value;
+	}
+
+	/**
+	 * @return the values of the record in column order, as read, without defaults.
+	 */
+	public String[] getValues() {
+		return values;
+	}
+
+}
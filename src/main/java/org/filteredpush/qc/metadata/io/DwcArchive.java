@@ -0,0 +1,371 @@
+/**
+ * DwcArchive.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * A Darwin Core Archive, either a zip file or a directory containing a meta.xml file
+ * describing the core data file.  Columns of the core are mapped from the term IRIs in
+ * meta.xml to the term names used in the @ActedUpon and @Consulted annotations.
+ *
+ * A core data file inside a zip file is extracted to a temporary file (deleted on close) so
+ * that it can be memory mapped.
+ *
+ * @author mole
+ *
+ */
+public class DwcArchive implements Closeable {
+
+	private static final Log logger = LogFactory.getLog(DwcArchive.class);
+
+	private final Path coreFile;
+	private final boolean coreFileIsTemporary;
+	private final String rowType;
+	private final DelimitedFormat format;
+	private final List<String> columnNames;
+	private final int columnCount;
+	private final String[] defaults;
+
+	/**
+	 * Open a Darwin Core Archive.
+	 *
+	 * @param archive a zip file or directory containing meta.xml and the core data file.
+	 * @throws IOException on an error reading the archive or if it has no usable meta.xml
+	 */
+	public DwcArchive(Path archive) throws IOException {
+		Element core;
+		if (Files.isDirectory(archive)) {
+			Path meta = archive.resolve("meta.xml");
+			if (!Files.exists(meta)) {
+				throw new IOException("No meta.xml found in " + archive);
+			}
+			try (InputStream in = Files.newInputStream(meta)) {
+				core = parseCore(in);
+			}
+			coreFile = archive.resolve(coreLocation(core));
+			coreFileIsTemporary = false;
+		} else {
+			try (ZipFile zip = new ZipFile(archive.toFile())) {
+				ZipEntry metaEntry = null;
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements() && metaEntry==null) {
+					ZipEntry entry = entries.nextElement();
+					if (!entry.isDirectory() && (entry.getName().equals("meta.xml") || entry.getName().endsWith("/meta.xml"))) {
+						metaEntry = entry;
+					}
+				}
+				if (metaEntry==null) {
+					throw new IOException("No meta.xml found in " + archive);
+				}
+				try (InputStream in = zip.getInputStream(metaEntry)) {
+					core = parseCore(in);
+				}
+				String prefix = metaEntry.getName().substring(0, metaEntry.getName().length() - "meta.xml".length());
+				String location = prefix + coreLocation(core);
+				ZipEntry dataEntry = zip.getEntry(location);
+				if (dataEntry==null) {
+					throw new IOException("Core data file " + location + " not found in " + archive);
+				}
+				Path extracted = Files.createTempFile("dwca_core_", ".txt");
+				try (InputStream in = zip.getInputStream(dataEntry)) {
+					Files.copy(in, extracted, StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					Files.deleteIfExists(extracted);
+					throw e;
+				}
+				logger.debug("Extracted " + location + " to " + extracted);
+				coreFile = extracted;
+				coreFileIsTemporary = true;
+			}
+		}
+		rowType = core.getAttribute("rowType");
+
+		String encoding = core.hasAttribute("encoding") ? core.getAttribute("encoding") : "UTF-8";
+		String fieldsTerminatedBy = core.hasAttribute("fieldsTerminatedBy") ? unescape(core.getAttribute("fieldsTerminatedBy")) : ",";
+		String fieldsEnclosedBy = core.hasAttribute("fieldsEnclosedBy") ? unescape(core.getAttribute("fieldsEnclosedBy")) : "\"";
+		String linesTerminatedBy = core.hasAttribute("linesTerminatedBy") ? unescape(core.getAttribute("linesTerminatedBy")) : "\n";
+		int headerLines = 0;
+		if (core.hasAttribute("ignoreHeaderLines") && core.getAttribute("ignoreHeaderLines").trim().length() > 0) {
+			try {
+				headerLines = Integer.parseInt(core.getAttribute("ignoreHeaderLines").trim());
+			} catch (NumberFormatException e) {
+				throw new IOException("Unable to parse ignoreHeaderLines in meta.xml: " + e.getMessage(), e);
+			}
+		}
+		if (fieldsTerminatedBy.length()!=1) {
+			throw new IOException("Unsupported fieldsTerminatedBy in meta.xml [" + fieldsTerminatedBy + "]");
+		}
+		if (!linesTerminatedBy.endsWith("\n")) {
+			throw new IOException("Unsupported linesTerminatedBy in meta.xml, lines must end with \\n");
+		}
+		try {
+			format = new DelimitedFormat(
+					fieldsTerminatedBy.charAt(0),
+					fieldsEnclosedBy.length()==0 ? null : Character.valueOf(fieldsEnclosedBy.charAt(0)),
+					Charset.forName(encoding),
+					headerLines);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unsupported core file format in meta.xml: " + e.getMessage(), e);
+		}
+
+		// columns in file order, then fields with only a default value.
+		List<String> indexedNames = new ArrayList<String>();
+		List<String> indexedDefaults = new ArrayList<String>();
+		List<String> constantNames = new ArrayList<String>();
+		List<String> constantDefaults = new ArrayList<String>();
+		int idIndex = -1;
+		NodeList children = core.getChildNodes();
+		for (int i=0; i<children.getLength(); i++) {
+			Node node = children.item(i);
+			if (node.getNodeType()!=Node.ELEMENT_NODE) {
+				continue;
+			}
+			Element child = (Element)node;
+			String name = child.getLocalName()==null ? child.getNodeName() : child.getLocalName();
+			if (name.equals("id") && child.hasAttribute("index")) {
+				idIndex = parseIndex(child);
+			} else if (name.equals("field")) {
+				String term = child.getAttribute("term");
+				String defaultValue = child.hasAttribute("default") ? child.getAttribute("default") : null;
+				if (child.hasAttribute("index") && child.getAttribute("index").trim().length() > 0) {
+					int index = parseIndex(child);
+					while (indexedNames.size() <= index) {
+						indexedNames.add(null);
+						indexedDefaults.add(null);
+					}
+					indexedNames.set(index, term);
+					indexedDefaults.set(index, defaultValue);
+				} else if (defaultValue!=null) {
+					constantNames.add(term);
+					constantDefaults.add(defaultValue);
+				}
+			}
+		}
+		if (idIndex >= 0) {
+			while (indexedNames.size() <= idIndex) {
+				indexedNames.add(null);
+				indexedDefaults.add(null);
+			}
+			if (indexedNames.get(idIndex)==null) {
+				indexedNames.set(idIndex, "id");
+			}
+		}
+		List<String> names = new ArrayList<String>();
+		List<String> defaultValues = new ArrayList<String>();
+		for (int i=0; i<indexedNames.size(); i++) {
+			names.add(indexedNames.get(i)==null ? "" : indexedNames.get(i));
+			defaultValues.add(indexedDefaults.get(i));
+		}
+		columnCount = names.size();
+		names.addAll(constantNames);
+		defaultValues.addAll(constantDefaults);
+		columnNames = Collections.unmodifiableList(names);
+		defaults = defaultValues.toArray(new String[defaultValues.size()]);
+		logger.debug(rowType + " " + columnNames);
+	}
+
+	private static Element parseCore(InputStream in) throws IOException {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setExpandEntityReferences(false);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			Document document = builder.parse(in);
+			NodeList cores = document.getElementsByTagNameNS("*", "core");
+			if (cores.getLength()==0) {
+				throw new IOException("No core element found in meta.xml");
+			}
+			return (Element)cores.item(0);
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("Unable to parse meta.xml: " + e.getMessage(), e);
+		}
+	}
+
+	private static String coreLocation(Element core) throws IOException {
+		NodeList locations = core.getElementsByTagNameNS("*", "location");
+		if (locations.getLength()==0 || locations.item(0).getTextContent().trim().length()==0) {
+			throw new IOException("No location for the core data file found in meta.xml");
+		}
+		return locations.item(0).getTextContent().trim();
+	}
+
+	private static int parseIndex(Element element) throws IOException {
+		try {
+			return Integer.parseInt(element.getAttribute("index").trim());
+		} catch (NumberFormatException e) {
+			throw new IOException("Unable to parse index in meta.xml: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Replace the escape sequences used in meta.xml attributes (e.g. fieldsTerminatedBy="\t")
+	 * with the characters they represent.
+	 *
+	 * @param value the attribute value.
+	 * @return the value with \t, \n, \r, \", \', and \\ replaced.
+	 */
+	protected static String unescape(String value) {
+		StringBuilder result = new StringBuilder();
+		for (int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			if (c=='\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				switch (next) {
+				case 't':
+					result.append('\t');
+					break;
+				case 'n':
+					result.append('\n');
+					break;
+				case 'r':
+					result.append('\r');
+					break;
+				default:
+					result.append(next);
+				}
+			} else {
+				result.append(c);
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Open a reader on the core data file.
+	 *
+	 * @param knownTerms term names to map the columns to.
+	 * @param threads the number of threads to parse the core data file with.
+	 * @param chunkSize the nominal size in bytes of each chunk of the file.
+	 * @return a reader returning records in file order.
+	 * @throws IOException on an error opening the core data file.
+	 */
+	public ChunkedRecordReader openCore(Collection<String> knownTerms, int threads, int chunkSize) throws IOException {
+		return openCore(knownTerms, threads, chunkSize, 0, 1);
+	}
+
+	/**
+	 * Open a reader on one shard of the core data file.
+	 *
+	 * @param knownTerms term names to map the columns to.
+	 * @param threads the number of threads to parse the core data file with.
+	 * @param chunkSize the nominal size in bytes of each chunk of the file.
+	 * @param shard the shard to read, from 0 to shards-1.
+	 * @param shards the number of shards the core data file is split into.
+	 * @return a reader returning the records in the shard in file order.
+	 * @throws IOException on an error opening the core data file.
+	 */
+	public ChunkedRecordReader openCore(Collection<String> knownTerms, int threads, int chunkSize, int shard, int shards) throws IOException {
+		return openCore(knownTerms, null, threads, chunkSize, shard, shards);
+	}
+
+	/**
+	 * Open a reader on one shard of the core data file, parsing only the columns holding
+	 * a set of terms.
+	 *
+	 * @param knownTerms term names to map the columns to.
+	 * @param neededTerms the terms to parse values for, or null to parse all columns.
+	 * @param threads the number of threads to parse the core data file with.
+	 * @param chunkSize the nominal size in bytes of each chunk of the file.
+	 * @param shard the shard to read, from 0 to shards-1.
+	 * @param shards the number of shards the core data file is split into.
+	 * @return a reader returning the records in the shard in file order.
+	 * @throws IOException on an error opening the core data file.
+	 */
+	public ChunkedRecordReader openCore(Collection<String> knownTerms, Collection<String> neededTerms, int threads, int chunkSize, int shard, int shards) throws IOException {
+		RecordSchema schema = new RecordSchema(columnNames, knownTerms);
+		if (neededTerms!=null) {
+			schema = schema.project(neededTerms);
+		}
+		return new ChunkedRecordReader(coreFile, format, schema, defaults, threads, chunkSize, shard, shards);
+	}
+
+	/**
+	 * @return the location of the core data file on disk.
+	 */
+	public Path getCoreFile() {
+		return coreFile;
+	}
+
+	/**
+	 * @return the rowType of the core, e.g. http://rs.tdwg.org/dwc/terms/Occurrence
+	 */
+	public String getRowType() {
+		return rowType;
+	}
+
+	/**
+	 * @return the format of the core data file.
+	 */
+	public DelimitedFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the term IRI of each column of the core, in column order, followed by any
+	 *   terms with only a default value.
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * @return the number of columns in the core data file, the leading columns of
+	 *   getColumnNames(), before the terms with only a default value.
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (coreFileIsTemporary) {
+			Files.deleteIfExists(coreFile);
+		}
+	}
+
+}
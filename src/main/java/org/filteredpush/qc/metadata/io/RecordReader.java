@@ -0,0 +1,46 @@
+/**
+ * RecordReader.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of flat Darwin Core records, read one at a time so that inputs of any size can
+ * be processed without holding them in memory.
+ *
+ * @author mole
+ *
+ */
+public interface RecordReader extends Closeable {
+
+	/**
+	 * @return the schema of the records returned by this reader.
+	 */
+	RecordSchema getSchema();
+
+	/**
+	 * Read the next record.
+	 *
+	 * @return the next record, or null if there are no more records.
+	 * @throws IOException on an error reading the input.
+	 */
+	DwCRecord next() throws IOException;
+
+}
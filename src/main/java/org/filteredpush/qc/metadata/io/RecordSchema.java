@@ -0,0 +1,208 @@
+/**
+ * RecordSchema.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columns of a flat Darwin Core input, with each column mapped from the name found in
+ * the input (e.g. basisOfRecord, dwc:basisOfRecord, or http://rs.tdwg.org/dwc/terms/basisOfRecord)
+ * to the term name as used in the @ActedUpon and @Consulted annotations (e.g. dwc:basisOfRecord).
+ *
+ * A schema may be projected onto a set of terms, in which case readers parse values only for
+ * the columns holding those terms, leaving other values null, but column indexes are unchanged.
+ *
+ * @author mole
+ *
+ */
+public class RecordSchema {
+
+	private final List<String> columnNames;
+	private final List<String> terms;
+	private final Map<String,Integer> termIndex;
+	private final Map<String,Integer> localNameIndex;
+	private final boolean[] projection;
+
+	/**
+	 * Create a schema from the column names of an input.
+	 *
+	 * @param columnNames the names of the columns as found in the input.
+	 * @param knownTerms term names (in prefix:localName form) to match the columns against,
+	 *   columns not matching any known term retain their name as found in the input.
+	 */
+	public RecordSchema(List<String> columnNames, Collection<String> knownTerms) {
+		this.columnNames = Collections.unmodifiableList(new ArrayList<String>(columnNames));
+		Map<String,String> byLocalName = new HashMap<String,String>();
+		for (String term : knownTerms) {
+			byLocalName.put(localName(term), term);
+		}
+		List<String> termList = new ArrayList<String>();
+		termIndex = new HashMap<String,Integer>();
+		for (int i=0; i<columnNames.size(); i++) {
+			String column = columnNames.get(i)==null ? "" : columnNames.get(i).trim();
+			String term = byLocalName.get(localName(column));
+			if (term==null) {
+				term = column;
+			}
+			termList.add(term);
+			if (!termIndex.containsKey(term)) {
+				termIndex.put(term, i);
+			}
+		}
+		this.terms = Collections.unmodifiableList(termList);
+		localNameIndex = new HashMap<String,Integer>();
+		for (int i=0; i<termList.size(); i++) {
+			String localName = localName(termList.get(i));
+			if (!localNameIndex.containsKey(localName)) {
+				localNameIndex.put(localName, i);
+			}
+		}
+		this.projection = null;
+	}
+
+	private RecordSchema(RecordSchema schema, boolean[] projection) {
+		this.columnNames = schema.columnNames;
+		this.terms = schema.terms;
+		this.termIndex = schema.termIndex;
+		this.localNameIndex = schema.localNameIndex;
+		this.projection = projection;
+	}
+
+	/**
+	 * Create a schema with the same columns, in which only the columns holding a set of terms
+	 * are to be parsed.
+	 *
+	 * @param neededTerms the term names for which values are needed, e.g. the terms acted upon
+	 *   or consulted by the tests to be run.
+	 * @return a projected schema.
+	 */
+	public RecordSchema project(Collection<String> neededTerms) {
+		boolean[] result = new boolean[terms.size()];
+		int last = -1;
+		for (String term : neededTerms) {
+			int index = indexOf(term);
+			if (index >= 0) {
+				result[index] = true;
+				last = Math.max(last, index);
+			}
+		}
+		// nothing needs to be parsed after the last needed column
+		return new RecordSchema(this, Arrays.copyOf(result, last + 1));
+	}
+
+	/**
+	 * @return true if only some of the columns are to be parsed.
+	 */
+	public boolean isProjected() {
+		return projection!=null;
+	}
+
+	/**
+	 * @param index the column index
+	 * @return true if values in the column are to be parsed.
+	 */
+	public boolean isParsed(int index) {
+		return projection==null || (index < projection.length && projection[index]);
+	}
+
+	/**
+	 * @return for each column up to the last to be parsed, whether it is to be parsed, or null
+	 *   if all columns are to be parsed.
+	 */
+	public boolean[] getProjection() {
+		return projection==null ? null : projection.clone();
+	}
+
+	/**
+	 * Obtain the local name of a term, stripping any namespace IRI or namespace prefix.
+	 *
+	 * @param term in the form of a local name, prefix:localName, or an IRI.
+	 * @return the local name of the term.
+	 */
+	public static String localName(String term) {
+		String result = term;
+		if (result.contains("/") || result.contains("#")) {
+			result = result.substring(Math.max(result.lastIndexOf('/'), result.lastIndexOf('#')) + 1);
+		} else if (result.contains(":")) {
+			result = result.substring(result.lastIndexOf(':') + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of columns
+	 */
+	public int size() {
+		return terms.size();
+	}
+
+	/**
+	 * @param term the term name, e.g. dwc:sex
+	 * @return the index of the column holding the term, or -1 if not present
+	 */
+	public int indexOf(String term) {
+		Integer result = termIndex.get(term);
+		return result==null ? -1 : result.intValue();
+	}
+
+	/**
+	 * Arrange values given by term as the values of a record with this schema.
+	 *
+	 * @param values values keyed by term name (e.g. dwc:sex), local name (e.g. sex), or IRI.
+	 * @return the value for each column, null for columns without a value, keys not matching
+	 *   a column are ignored.
+	 */
+	public String[] values(Map<String,String> values) {
+		String[] result = new String[terms.size()];
+		for (Map.Entry<String,String> entry : values.entrySet()) {
+			if (entry.getKey()==null) {
+				continue;
+			}
+			Integer index = termIndex.get(entry.getKey());
+			if (index==null) {
+				index = localNameIndex.get(localName(entry.getKey()));
+			}
+			if (index!=null) {
+				result[index.intValue()] = entry.getValue();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the column names as found in the input
+	 */
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * @return the term names of the columns, in column order
+	 */
+	public List<String> getTerms() {
+		return terms;
+	}
+
+}
@@ -0,0 +1,189 @@
+/**
+ * ResultWriter.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.AmendmentValue;
+import org.datakurator.ffdq.api.result.ComplianceValue;
+import org.datakurator.ffdq.api.result.IssueValue;
+import org.filteredpush.qc.metadata.runner.DQTest;
+import org.filteredpush.qc.metadata.runner.RecordResults;
+
+/**
+ * Writes the responses from tests as csv, one row for each test run on each record,
+ * with the columns record, occurrenceID, guid, label, type, resultState, value, and comment.
+ * Where records are evaluated again after amendment, a phase column is added, with rows for
+ * every test in the pre-amendment phase followed by rows for the validations and issues in
+ * the post-amendment phase.
+ *
+ * @author mole
+ *
+ */
+public class ResultWriter implements ResultsSink {
+
+	/**
+	 * The header row written at the start of the output.
+	 */
+	public static final String[] HEADER = { "record", "occurrenceID", "guid", "label", "type", "resultState", "value", "comment" };
+
+	/** the term whose value is written in the occurrenceID column */
+	public static final String OCCURRENCE_ID = "dwc:occurrenceID";
+
+	/** the column added after the columns of HEADER when writing phases */
+	public static final String PHASE = "phase";
+
+	/** value of the phase column for responses before amendment */
+	public static final String PRE_AMENDMENT = "pre-amendment";
+
+	/** value of the phase column for responses after amendment */
+	public static final String POST_AMENDMENT = "post-amendment";
+
+	private final CSVPrinter printer;
+	private final boolean phases;
+
+	/**
+	 * @param writer the output to write to
+	 * @param writeHeader true to write the header row.
+	 * @throws IOException on an error writing the header.
+	 */
+	public ResultWriter(Writer writer, boolean writeHeader) throws IOException {
+		this(writer, writeHeader, false);
+	}
+
+	/**
+	 * @param writer the output to write to
+	 * @param writeHeader true to write the header row.
+	 * @param phases true to add the phase column and write post-amendment responses.
+	 * @throws IOException on an error writing the header.
+	 */
+	public ResultWriter(Writer writer, boolean writeHeader, boolean phases) throws IOException {
+		printer = new CSVPrinter(writer, CSVFormat.RFC4180);
+		this.phases = phases;
+		if (writeHeader) {
+			if (phases) {
+				String[] header = Arrays.copyOf(HEADER, HEADER.length + 1);
+				header[HEADER.length] = PHASE;
+				printer.printRecord((Object[])header);
+			} else {
+				printer.printRecord((Object[])HEADER);
+			}
+		}
+	}
+
+	@Override
+	public void write(RecordResults results) throws IOException {
+		DwCRecord record = results.getRecord();
+		String occurrenceID = record.get(OCCURRENCE_ID);
+		for (int i=0; i<results.size(); i++) {
+			write(record, occurrenceID, results.getTests().get(i), results.getResponse(i), PRE_AMENDMENT);
+		}
+		if (phases && results.hasPostAmendment()) {
+			for (int i=0; i<results.size(); i++) {
+				DQResponse<?> response = results.getPostAmendmentResponse(i);
+				if (response!=null) {
+					write(record, occurrenceID, results.getTests().get(i), response, POST_AMENDMENT);
+				}
+			}
+		}
+	}
+
+	private void write(DwCRecord record, String occurrenceID, DQTest test, DQResponse<?> response, String phase) throws IOException {
+		List<String> values = new ArrayList<String>(HEADER.length + 1);
+		values.add(Long.toString(record.getNumber()));
+		values.add(occurrenceID==null ? "" : occurrenceID);
+		values.add(test.getGuid());
+		values.add(test.getLabel());
+		values.add(test.getType().name());
+		values.add(stateLabel(response));
+		values.add(valueLabel(response));
+		values.add(response.getComment());
+		if (phases) {
+			values.add(phase);
+		}
+		printer.printRecord(values);
+	}
+
+	/**
+	 * @param response a response from a test
+	 * @return the label of the result state of the response, or an empty string if none.
+	 */
+	public static String stateLabel(DQResponse<?> response) {
+		if (response==null || response.getResultState()==null) {
+			return "";
+		}
+		return response.getResultState().getLabel();
+	}
+
+	/**
+	 * Obtain a string representation of the value of a response, the label for compliance
+	 * and issue values, and term=value pairs separated by " | " for amendments.
+	 *
+	 * @param response a response from a test
+	 * @return the value of the response as a string, or an empty string if none.
+	 */
+	public static String valueLabel(DQResponse<?> response) {
+		if (response==null || response.getValue()==null) {
+			return "";
+		}
+		Object value = response.getValue();
+		String result;
+		if (value instanceof AmendmentValue) {
+			StringBuilder amended = new StringBuilder();
+			Map<String,String> amendment = new TreeMap<String,String>(((AmendmentValue)value).getObject());
+			Iterator<Map.Entry<String,String>> i = amendment.entrySet().iterator();
+			while (i.hasNext()) {
+				Map.Entry<String,String> entry = i.next();
+				amended.append(entry.getKey()).append("=").append(entry.getValue());
+				if (i.hasNext()) {
+					amended.append(" | ");
+				}
+			}
+			result = amended.toString();
+		} else if (value instanceof ComplianceValue) {
+			result = ((ComplianceValue)value).getLabel();
+		} else if (value instanceof IssueValue) {
+			result = ((IssueValue)value).getLabel();
+		} else {
+			result = value.toString();
+		}
+		return result;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		printer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		printer.close();
+	}
+
+}
@@ -0,0 +1,44 @@
+/**
+ * ResultsSink.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.filteredpush.qc.metadata.runner.RecordResults;
+
+/**
+ * A destination for the responses from the tests run on each record, written in input order
+ * by a single thread.
+ *
+ * @author mole
+ *
+ */
+public interface ResultsSink extends Flushable, Closeable {
+
+	/**
+	 * Write the responses for one record.
+	 *
+	 * @param results the responses to write.
+	 * @throws IOException on an error writing.
+	 */
+	void write(RecordResults results) throws IOException;
+
+}
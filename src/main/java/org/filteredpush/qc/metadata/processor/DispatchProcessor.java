@@ -0,0 +1,350 @@
+/**
+ * DispatchProcessor.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import org.datakurator.ffdq.annotations.ActedUpon;
+import org.datakurator.ffdq.annotations.Amendment;
+import org.datakurator.ffdq.annotations.Consulted;
+import org.datakurator.ffdq.annotations.Issue;
+import org.datakurator.ffdq.annotations.Parameter;
+import org.datakurator.ffdq.annotations.Provides;
+import org.datakurator.ffdq.annotations.Validation;
+
+/**
+ * Annotation processor that generates DwCMetadataDQDispatch, a dispatch table for the tests
+ * provided by DwCMetadataDQDefaults (and inherited from DwCMetadataDQ), built at compile time
+ * from the ffdq annotations on the test methods, so that the tests can be found and invoked
+ * without reflection.
+ *
+ * Tests are selected as in DQTest.discover(): static methods carrying @Provides and one of
+ * @Validation, @Amendment, or @Issue, with every argument annotated, and where a test is
+ * provided by more than one method, the method with the fewest parameters.  The generated
+ * class lists the tests ordered by label, with the GUID, label, type, method name, and
+ * arguments of each, as read by DQTest.fromDispatchTable(), and an invoke() method with a
+ * direct static call for each test.
+ *
+ * The table is generated whenever DwCMetadataDQDefaults or any class it inherits tests from
+ * is compiled, so that an incremental compile of just DwCMetadataDQ still regenerates it.
+ *
+ * Run in the compile of the main sources, see the maven-compiler-plugin configuration in
+ * pom.xml, which first compiles this package on its own.
+ *
+ * @author mole
+ *
+ */
+@SupportedAnnotationTypes("org.datakurator.ffdq.annotations.Provides")
+public class DispatchProcessor extends AbstractProcessor {
+
+	/** the class providing the tests */
+	public static final String TESTS_CLASS = "org.filteredpush.qc.metadata.DwCMetadataDQDefaults";
+
+	/** the generated class */
+	public static final String DISPATCH_CLASS = "org.filteredpush.qc.metadata.DwCMetadataDQDispatch";
+
+	private boolean generated = false;
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (generated || roundEnv.processingOver()) {
+			return false;
+		}
+		TypeElement testsClass = processingEnv.getElementUtils().getTypeElement(TESTS_CLASS);
+		if (testsClass==null) {
+			return false;
+		}
+		List<TypeElement> testClasses = testClasses(testsClass);
+		if (!compilesAny(roundEnv, testClasses)) {
+			// only generate when compiling the tests themselves
+			return false;
+		}
+		generated = true;
+		List<TestMethod> tests = findTests(testsClass);
+		try {
+			Writer out = processingEnv.getFiler().createSourceFile(DISPATCH_CLASS, testClasses.toArray(new Element[0])).openWriter();
+			try (PrintWriter writer = new PrintWriter(out)) {
+				write(writer, tests);
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + DISPATCH_CLASS + ": " + e.getMessage(), testsClass);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the class providing the tests and each class it inherits from, which may declare tests.
+	 */
+	private List<TypeElement> testClasses(TypeElement testsClass) {
+		List<TypeElement> result = new ArrayList<TypeElement>();
+		TypeElement type = testsClass;
+		while (type!=null && !type.getQualifiedName().contentEquals(Object.class.getName())) {
+			result.add(type);
+			Element superclass = processingEnv.getTypeUtils().asElement(type.getSuperclass());
+			type = superclass instanceof TypeElement ? (TypeElement)superclass : null;
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if any of the test classes is being compiled in this round.
+	 */
+	private static boolean compilesAny(RoundEnvironment roundEnv, List<TypeElement> testClasses) {
+		for (Element root : roundEnv.getRootElements()) {
+			if (testClasses.contains(root)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<TestMethod> findTests(TypeElement testsClass) {
+		Map<String,TestMethod> found = new LinkedHashMap<String,TestMethod>();
+		List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(testsClass);
+		for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+			Provides provides = method.getAnnotation(Provides.class);
+			if (provides==null) {
+				continue;
+			}
+			if (!method.getModifiers().contains(Modifier.STATIC) || !method.getModifiers().contains(Modifier.PUBLIC)) {
+				// unimplemented stubs are instance methods
+				continue;
+			}
+			TestMethod test = TestMethod.of(processingEnv, method, provides);
+			if (test==null) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Skipping test method " + method.getSimpleName(), method);
+				continue;
+			}
+			TestMethod existing = found.get(test.guid);
+			if (existing==null || existing.parameterCount > test.parameterCount) {
+				found.put(test.guid, test);
+			}
+		}
+		List<TestMethod> result = new ArrayList<TestMethod>(found.values());
+		Collections.sort(result, (a,b) -> a.label.compareTo(b.label));
+		return result;
+	}
+
+	private void write(PrintWriter out, List<TestMethod> tests) {
+		String packageName = DISPATCH_CLASS.substring(0, DISPATCH_CLASS.lastIndexOf('.'));
+		String className = DISPATCH_CLASS.substring(DISPATCH_CLASS.lastIndexOf('.') + 1);
+
+		out.println("package " + packageName + ";");
+		out.println();
+		out.println("import org.datakurator.ffdq.api.DQResponse;");
+		out.println();
+		out.println("/**");
+		out.println(" * Dispatch table for the tests provided by " + TESTS_CLASS.substring(TESTS_CLASS.lastIndexOf('.') + 1) + ", generated from the ffdq");
+		out.println(" * annotations on the test methods by " + DispatchProcessor.class.getName() + ".");
+		out.println(" * Do not edit, and do not modify the arrays.");
+		out.println(" */");
+		out.println("public final class " + className + " {");
+		out.println();
+		out.println("\tprivate " + className + "() {");
+		out.println("\t}");
+		out.println();
+		out.println("\t/** the number of tests */");
+		out.println("\tpublic static final int TEST_COUNT = " + tests.size() + ";");
+		out.println();
+		out.println("\t/** GUID of each test, from @Provides */");
+		writeStrings(out, "GUIDS", tests, t -> t.guid);
+		out.println("\t/** label of each test */");
+		writeStrings(out, "LABELS", tests, t -> t.label);
+		out.println("\t/** type of each test, VALIDATION, AMENDMENT, or ISSUE */");
+		writeStrings(out, "TYPES", tests, t -> t.type);
+		out.println("\t/** name of the method implementing each test */");
+		writeStrings(out, "METHOD_NAMES", tests, t -> t.methodName);
+		out.println("\t/** term name for each argument of each test, null for parameters */");
+		writeStringArrays(out, "ARGUMENT_TERMS", tests, t -> t.argumentTerms);
+		out.println("\t/** parameter name for each argument of each test, null for information elements */");
+		writeStringArrays(out, "ARGUMENT_PARAMETERS", tests, t -> t.argumentParameters);
+		out.println("\t/** for each argument of each test, true if acted upon, false if consulted or a parameter */");
+		out.println("\tpublic static final boolean[][] ARGUMENT_ACTED_UPON = {");
+		for (TestMethod test : tests) {
+			StringBuilder line = new StringBuilder("\t\t{");
+			for (int a=0; a<test.argumentActedUpon.length; a++) {
+				line.append(a > 0 ? ", " : "").append(test.argumentActedUpon[a]);
+			}
+			out.println(line.append("},"));
+		}
+		out.println("\t};");
+		out.println();
+		out.println("\t/**");
+		out.println("\t * Invoke a test.");
+		out.println("\t *");
+		out.println("\t * @param test the index of the test in this table.");
+		out.println("\t * @param arguments values for each argument of the test, null for any parameter to use its default.");
+		out.println("\t * @return the response from the test.");
+		out.println("\t */");
+		out.println("\tpublic static DQResponse<?> invoke(int test, Object[] arguments) {");
+		out.println("\t\tswitch (test) {");
+		for (int t=0; t<tests.size(); t++) {
+			TestMethod test = tests.get(t);
+			StringBuilder call = new StringBuilder("\t\tcase " + t + ":\n\t\t\treturn " + test.declaringClass + "." + test.methodName + "(");
+			for (int a=0; a<test.argumentTypes.length; a++) {
+				call.append(a > 0 ? ", " : "").append("(").append(test.argumentTypes[a]).append(")arguments[").append(a).append("]");
+			}
+			out.println(call.append(");"));
+		}
+		out.println("\t\tdefault:");
+		out.println("\t\t\tthrow new IndexOutOfBoundsException(\"No test \" + test);");
+		out.println("\t\t}");
+		out.println("\t}");
+		out.println();
+		out.println("}");
+	}
+
+	private interface StringValue {
+		String of(TestMethod test);
+	}
+
+	private interface StringArrayValue {
+		String[] of(TestMethod test);
+	}
+
+	private static void writeStrings(PrintWriter out, String name, List<TestMethod> tests, StringValue value) {
+		out.println("\tpublic static final String[] " + name + " = {");
+		for (TestMethod test : tests) {
+			out.println("\t\t" + literal(value.of(test)) + ",");
+		}
+		out.println("\t};");
+		out.println();
+	}
+
+	private static void writeStringArrays(PrintWriter out, String name, List<TestMethod> tests, StringArrayValue value) {
+		out.println("\tpublic static final String[][] " + name + " = {");
+		for (TestMethod test : tests) {
+			StringBuilder line = new StringBuilder("\t\t{");
+			String[] values = value.of(test);
+			for (int i=0; i<values.length; i++) {
+				line.append(i > 0 ? ", " : "").append(literal(values[i]));
+			}
+			out.println(line.append("},"));
+		}
+		out.println("\t};");
+		out.println();
+	}
+
+	/**
+	 * @return a java source literal for a string, or null.
+	 */
+	private static String literal(String value) {
+		if (value==null) {
+			return "null";
+		}
+		StringBuilder result = new StringBuilder("\"");
+		for (int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			if (c=='"' || c=='\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20 || c > 0x7E) {
+				result.append(String.format("\\u%04x", (int)c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	/**
+	 * A test method as found from its annotations.
+	 */
+	private static class TestMethod {
+		private String guid;
+		private String label;
+		private String type;
+		private String declaringClass;
+		private String methodName;
+		private int parameterCount;
+		private String[] argumentTerms;
+		private String[] argumentParameters;
+		private boolean[] argumentActedUpon;
+		private String[] argumentTypes;
+
+		/**
+		 * @return the test, or null if the method is not an invokable test method.
+		 */
+		private static TestMethod of(ProcessingEnvironment env, ExecutableElement method, Provides provides) {
+			TestMethod result = new TestMethod();
+			result.guid = provides.value();
+			if (method.getAnnotation(Validation.class)!=null) {
+				result.type = "VALIDATION";
+				result.label = method.getAnnotation(Validation.class).label();
+			} else if (method.getAnnotation(Amendment.class)!=null) {
+				result.type = "AMENDMENT";
+				result.label = method.getAnnotation(Amendment.class).label();
+			} else if (method.getAnnotation(Issue.class)!=null) {
+				result.type = "ISSUE";
+				result.label = method.getAnnotation(Issue.class).label();
+			} else {
+				return null;
+			}
+			result.declaringClass = ((TypeElement)method.getEnclosingElement()).getQualifiedName().toString();
+			result.methodName = method.getSimpleName().toString();
+			List<? extends VariableElement> arguments = method.getParameters();
+			result.argumentTerms = new String[arguments.size()];
+			result.argumentParameters = new String[arguments.size()];
+			result.argumentActedUpon = new boolean[arguments.size()];
+			result.argumentTypes = new String[arguments.size()];
+			for (int i=0; i<arguments.size(); i++) {
+				VariableElement argument = arguments.get(i);
+				if (argument.getAnnotation(ActedUpon.class)!=null) {
+					result.argumentTerms[i] = argument.getAnnotation(ActedUpon.class).value();
+					result.argumentActedUpon[i] = true;
+				} else if (argument.getAnnotation(Consulted.class)!=null) {
+					result.argumentTerms[i] = argument.getAnnotation(Consulted.class).value();
+				} else if (argument.getAnnotation(Parameter.class)!=null) {
+					result.argumentParameters[i] = argument.getAnnotation(Parameter.class).name();
+					result.parameterCount++;
+				} else {
+					return null;
+				}
+				result.argumentTypes[i] = env.getTypeUtils().erasure(argument.asType()).toString();
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * AmendmentMerger.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.AmendmentValue;
+import org.datakurator.ffdq.model.ResultState;
+
+/**
+ * Combines the changes proposed by the amendments run on a record into a single set of
+ * new values for terms.
+ *
+ * Where more than one amendment proposes a value for the same term, an AMENDED response
+ * (a change to a value) takes precedence over a FILLED_IN response (a value for an empty
+ * term), and among responses with the same result state, the first in the order of the
+ * tests (by label) takes precedence.
+ *
+ * @author mole
+ *
+ */
+public class AmendmentMerger {
+
+	/**
+	 * Find the terms that may be changed by any of a set of tests.
+	 *
+	 * @param tests the tests to examine.
+	 * @return the terms acted upon by the amendments among the tests.
+	 */
+	public static Set<String> amendableTerms(List<DQTest> tests) {
+		Set<String> result = new LinkedHashSet<String>();
+		for (DQTest test : tests) {
+			if (test.getType()==DQTest.TestType.AMENDMENT) {
+				result.addAll(test.getActedUpon());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Combine the proposed changes from the amendments run on a record.
+	 *
+	 * @param results the responses from the tests run on a record.
+	 * @return the new value for each term changed by an AMENDED or FILLED_IN response.
+	 */
+	public static Map<String,String> merge(RecordResults results) {
+		Map<String,String> result = new LinkedHashMap<String,String>();
+		Map<String,Boolean> fromAmended = new LinkedHashMap<String,Boolean>();
+		for (int i=0; i<results.size(); i++) {
+			DQResponse<?> response = results.getResponse(i);
+			if (response==null || response.getResultState()==null || !(response.getValue() instanceof AmendmentValue)) {
+				continue;
+			}
+			boolean amended = response.getResultState().getLabel().equals(ResultState.AMENDED.getLabel());
+			boolean filledIn = response.getResultState().getLabel().equals(ResultState.FILLED_IN.getLabel());
+			if (!amended && !filledIn) {
+				continue;
+			}
+			Map<String,String> proposed = ((AmendmentValue)response.getValue()).getObject();
+			for (Map.Entry<String,String> entry : proposed.entrySet()) {
+				Boolean existing = fromAmended.get(entry.getKey());
+				if (existing==null || (amended && !existing.booleanValue())) {
+					result.put(entry.getKey(), entry.getValue());
+					fromAmended.put(entry.getKey(), Boolean.valueOf(amended));
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,226 @@
+/**
+ * AsyncEvaluator.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.Vocabulary;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+
+/**
+ * Runs tests without blocking the caller while the vocabularies held by MetadataSingleton
+ * are being loaded, for use where a caller must not wait (e.g. in an asynchronous web
+ * service).  MetadataSingleton loads each vocabulary from remote services on first use,
+ * which can take several seconds, so a test that consults a vocabulary that is still loading
+ * completes once that vocabulary is loaded.  Other tests (e.g. the NOTEMPTY tests,
+ * VALIDATION_OCCURRENCEID_STANDARD, or VALIDATION_INDIVIDUALCOUNT_INTEGER) are run on the
+ * calling thread and return futures that have already completed.
+ *
+ * @author mole
+ *
+ */
+public class AsyncEvaluator {
+
+	private static final Log logger = LogFactory.getLog(AsyncEvaluator.class);
+
+	private final List<DQTest> tests;
+	private final Executor executor;
+	/** the vocabulary consulted by each of the tests, keyed by GUID, null for those that consult none */
+	private final Map<String,String> vocabularyNames;
+	private volatile BindingPlan binding;
+
+	/**
+	 * Evaluate tests, completing tests that waited for a vocabulary on the common pool.
+	 *
+	 * @param tests the tests to run on each record.
+	 */
+	public AsyncEvaluator(List<DQTest> tests) {
+		this(tests, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Evaluate tests, starting to load the vocabularies they consult.
+	 *
+	 * @param tests the tests to run on each record.
+	 * @param executor runs the tests that waited for a vocabulary to load.
+	 */
+	public AsyncEvaluator(List<DQTest> tests, Executor executor) {
+		this.tests = Collections.unmodifiableList(tests);
+		this.executor = executor;
+		Map<String,String> names = new HashMap<String,String>();
+		for (DQTest test : tests) {
+			String name = vocabularyFor(test);
+			names.put(test.getGuid(), name);
+			if (name!=null) {
+				logger.debug(test.getLabel() + " consults " + name);
+				MetadataSingleton.getInstance().loadVocabulary(name);
+			}
+		}
+		this.vocabularyNames = names;
+	}
+
+	/**
+	 * Find the vocabulary held by MetadataSingleton that a test consults.  The tests that
+	 * consult a vocabulary take it as their bdq:sourceAuthority, and act upon the term the
+	 * vocabulary holds values for (e.g. VALIDATION_SEX_STANDARD acts upon dwc:sex and
+	 * consults the GBIF Sex vocabulary), so a test consults the vocabulary for a term it acts
+	 * upon if it, or a variant of it, takes a source authority.
+	 *
+	 * @param test a test.
+	 * @return the name of the vocabulary the test consults, e.g. VocabularySnapshot.SEX,
+	 *   or null if it consults none.
+	 */
+	public static String vocabularyFor(DQTest test) {
+		DQTest variant = test;
+		if (!test.getParameters().contains(BoundTest.SOURCE_AUTHORITY)) {
+			variant = DQTest.findVariant(test.getGuid(), Collections.singleton(BoundTest.SOURCE_AUTHORITY));
+			if (variant==null) {
+				return null;
+			}
+		}
+		for (String term : variant.getActedUpon()) {
+			String name = VocabularySnapshot.forTerm(term);
+			if (name!=null) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the tests run on each record.
+	 */
+	public List<DQTest> getTests() {
+		return tests;
+	}
+
+	/**
+	 * Run a test.
+	 *
+	 * @param test the test to run.
+	 * @param arguments the arguments to the test, in the order of its argument terms.
+	 * @return a future for the response, already complete unless the test must wait
+	 *   for its vocabulary, completed exceptionally if the test throws an exception.
+	 */
+	public CompletableFuture<DQResponse<?>> evaluate(DQTest test, Object... arguments) {
+		CompletableFuture<Vocabulary> loading = loading(test);
+		if (loading!=null) {
+			return loading.handleAsync((vocabulary, e) -> test.invoke(arguments), executor);
+		}
+		CompletableFuture<DQResponse<?>> result = new CompletableFuture<DQResponse<?>>();
+		try {
+			result.complete(test.invoke(arguments));
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Run a test with bound parameters.
+	 *
+	 * @param test the test to run.
+	 * @param values the values of the information elements, in the order of test.getTerms().
+	 * @return a future for the response, already complete unless the test must wait
+	 *   for its vocabulary, completed exceptionally if the test throws an exception.
+	 */
+	public CompletableFuture<DQResponse<?>> evaluate(BoundTest test, String... values) {
+		CompletableFuture<Vocabulary> loading = loading(test.getTest());
+		if (loading!=null) {
+			return loading.handleAsync((vocabulary, e) -> test.evaluate(values), executor);
+		}
+		CompletableFuture<DQResponse<?>> result = new CompletableFuture<DQResponse<?>>();
+		try {
+			result.complete(test.evaluate(values));
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Run each of the tests on a record.
+	 *
+	 * @param record the record to evaluate.
+	 * @return a future for the responses, which completes when every test has completed,
+	 *   immediately if none must wait for a vocabulary.  A test that throws an exception
+	 *   is given a response without a result state, with the error as its comment.
+	 */
+	public CompletableFuture<RecordResults> evaluate(DwCRecord record) {
+		BindingPlan plan = bindingFor(record.getSchema());
+		DQResponse<?>[] responses = new DQResponse<?>[tests.size()];
+		CompletableFuture<?>[] pending = new CompletableFuture<?>[tests.size()];
+		for (int t=0; t<tests.size(); t++) {
+			final int position = t;
+			final DQTest test = tests.get(t);
+			pending[t] = evaluate(test, plan.arguments(t, record)).handle((response, e) -> {
+				if (e!=null) {
+					if (e instanceof CompletionException && e.getCause()!=null) {
+						e = e.getCause();
+					}
+					logger.error("Record " + record.getNumber() + " " + test.getLabel() + ": " + e.getMessage(), e);
+					DQResponse<?> failure = new DQResponse<>();
+					failure.addComment("Error running test: " + e.getMessage());
+					response = failure;
+				}
+				responses[position] = response;
+				return null;
+			});
+		}
+		// allOf happens-before its dependents, so the responses are visible.
+		return CompletableFuture.allOf(pending).thenApply(done -> new RecordResults(record, tests, responses));
+	}
+
+	/**
+	 * Find the vocabulary a test consults, if it is still loading.  The vocabulary is looked
+	 * up in those MetadataSingleton holds now, so one installed or refreshed is waited on
+	 * rather than the one it replaced.
+	 */
+	private CompletableFuture<Vocabulary> loading(DQTest test) {
+		String name = vocabularyNames.containsKey(test.getGuid()) ? vocabularyNames.get(test.getGuid()) : vocabularyFor(test);
+		if (name==null) {
+			return null;
+		}
+		CompletableFuture<Vocabulary> result = MetadataSingleton.getInstance().loadVocabulary(name);
+		return result.isDone() ? null : result;
+	}
+
+	private BindingPlan bindingFor(RecordSchema schema) {
+		BindingPlan current = binding;
+		if (current==null || current.getSchema()!=schema) {
+			current = new BindingPlan(tests, schema);
+			binding = current;
+		}
+		return current;
+	}
+
+}
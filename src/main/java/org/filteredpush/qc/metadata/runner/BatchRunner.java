@@ -0,0 +1,318 @@
+/**
+ * BatchRunner.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordReader;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.io.ResultsSink;
+
+/**
+ * Runs tests over all of the records from a RecordReader as a pipeline of stages connected
+ * by bounded queues: a reader thread groups records into batches, a pool of evaluator threads
+ * runs the tests on each batch, and the calling thread writes the results of each batch in
+ * input order.
+ *
+ * The number of batches between the reader and the writer is limited, so a slow output or
+ * slow tests cause the reader to wait rather than records accumulating in memory.
+ *
+ * Further destinations for results, such as an AmendedRecordWriter, may be added with addSink().
+ *
+ * In ExecutionMode.VIRTUAL, each evaluator thread runs the records of its batch as separate
+ * tasks within a TaskScope, so that records waiting on a vocabulary don't hold up others.
+ *
+ * @author mole
+ *
+ */
+public class BatchRunner {
+
+	private static final Log logger = LogFactory.getLog(BatchRunner.class);
+
+	/** default number of records in a batch */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private static final Batch END = new Batch(-1L, null, null);
+
+	private final RecordProcessor processor;
+	private final int threads;
+	private final int batchSize;
+	private final int queueCapacity;
+	private final ExecutionMode mode;
+	private final List<ResultsSink> sinks = new ArrayList<ResultsSink>();
+	private CheckpointListener checkpointListener = null;
+	private long checkpointInterval = 0L;
+
+	/**
+	 * @param processor the tests to run on each record.
+	 * @param threads the number of evaluator threads
+	 * @param batchSize the number of records in a batch.
+	 */
+	public BatchRunner(RecordProcessor processor, int threads, int batchSize) {
+		this(processor, threads, batchSize, threads * 2);
+	}
+
+	/**
+	 * @param processor the tests to run on each record.
+	 * @param threads the number of evaluator threads
+	 * @param batchSize the number of records in a batch.
+	 * @param queueCapacity the number of batches each queue between stages can hold.
+	 */
+	public BatchRunner(RecordProcessor processor, int threads, int batchSize, int queueCapacity) {
+		this(processor, threads, batchSize, queueCapacity, ExecutionMode.PLATFORM);
+	}
+
+	/**
+	 * @param processor the tests to run on each record.
+	 * @param threads the number of evaluator threads
+	 * @param batchSize the number of records in a batch.
+	 * @param queueCapacity the number of batches each queue between stages can hold.
+	 * @param mode how evaluator threads run the records in a batch.
+	 */
+	public BatchRunner(RecordProcessor processor, int threads, int batchSize, int queueCapacity, ExecutionMode mode) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one worker thread is required.");
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least one.");
+		}
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("Queue capacity must be at least one.");
+		}
+		this.processor = processor;
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+		this.mode = mode;
+	}
+
+	/**
+	 * Receive notice of consistent points in a run, at which all results for the records
+	 * read so far have been written and flushed, and nothing further has been written.
+	 */
+	public interface CheckpointListener {
+		/**
+		 * @param lastRecord the last record for which results have been written.
+		 * @param summary the summary of the results written so far.
+		 * @throws IOException on an error saving the checkpoint, stops the run.
+		 */
+		void checkpoint(DwCRecord lastRecord, ResultSummary summary) throws IOException;
+	}
+
+	/**
+	 * Add a further destination for results, written to in input order along with the
+	 * ResultWriter given to run(), e.g. to write amended records.
+	 *
+	 * @param sink the destination to add, flushed at the end of the run and at each checkpoint,
+	 *   but not closed.
+	 */
+	public void addSink(ResultsSink sink) {
+		sinks.add(sink);
+	}
+
+	/**
+	 * Request notice of consistent points in the run, for saving a checkpoint.
+	 *
+	 * @param listener to notify.
+	 * @param interval the minimum number of records between checkpoints.
+	 */
+	public void setCheckpointListener(CheckpointListener listener, long interval) {
+		this.checkpointListener = listener;
+		this.checkpointInterval = interval;
+	}
+
+	/**
+	 * Run the tests on all records from reader.
+	 *
+	 * @param reader source of records.
+	 * @param writer destination for the results.
+	 * @param summary aggregate counts to add the results to.
+	 * @throws IOException on an error reading, evaluating, or writing.
+	 * @throws InterruptedException if interrupted while waiting for the other stages.
+	 */
+	public void run(RecordReader reader, ResultWriter writer, ResultSummary summary) throws IOException, InterruptedException {
+		final BlockingQueue<Batch> parsed = new ArrayBlockingQueue<Batch>(queueCapacity);
+		final BlockingQueue<Batch> evaluated = new ArrayBlockingQueue<Batch>(queueCapacity);
+		// batches read but not yet written, including those waiting to be written in order
+		final Semaphore inFlight = new Semaphore(queueCapacity * 2 + threads);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		ExecutorService stages = Executors.newFixedThreadPool(threads + 1);
+		final ExecutorService recordExecutor = mode.newRecordExecutor();
+		try {
+			stages.submit(() -> {
+				try {
+					long sequence = 0L;
+					List<DwCRecord> records = readBatch(reader);
+					while (!records.isEmpty()) {
+						inFlight.acquire();
+						parsed.put(new Batch(sequence++, records, null));
+						records = readBatch(reader);
+					}
+					for (int i=0; i<threads; i++) {
+						parsed.put(END);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+				return null;
+			});
+			for (int i=0; i<threads; i++) {
+				stages.submit(() -> {
+					try {
+						Batch batch = parsed.take();
+						while (batch!=END) {
+							List<RecordResults> results = evaluate(batch.records, recordExecutor);
+							evaluated.put(new Batch(batch.sequence, null, results));
+							batch = parsed.take();
+						}
+						evaluated.put(END);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+					return null;
+				});
+			}
+
+			// write results in input order on this thread.
+			Map<Long,Batch> waiting = new HashMap<Long,Batch>();
+			long nextSequence = 0L;
+			long sinceCheckpoint = 0L;
+			int finished = 0;
+			while (finished < threads) {
+				Batch batch = evaluated.poll(100, TimeUnit.MILLISECONDS);
+				checkFailure(failure);
+				if (batch==null) {
+					continue;
+				}
+				if (batch==END) {
+					finished++;
+					continue;
+				}
+				waiting.put(batch.sequence, batch);
+				batch = waiting.remove(nextSequence);
+				while (batch!=null) {
+					for (RecordResults results : batch.results) {
+						writer.write(results);
+						for (ResultsSink sink : sinks) {
+							sink.write(results);
+						}
+						summary.add(results);
+					}
+					inFlight.release();
+					nextSequence++;
+					sinceCheckpoint += batch.results.size();
+					if (checkpointListener!=null && sinceCheckpoint >= checkpointInterval && !batch.results.isEmpty()) {
+						flushAll(writer);
+						checkpointListener.checkpoint(batch.results.get(batch.results.size() - 1).getRecord(), summary);
+						sinceCheckpoint = 0L;
+					}
+					batch = waiting.remove(nextSequence);
+				}
+				logger.debug("Processed " + summary.getRecordCount() + " records.");
+			}
+			checkFailure(failure);
+			flushAll(writer);
+		} finally {
+			stages.shutdownNow();
+			if (recordExecutor!=null) {
+				recordExecutor.shutdownNow();
+			}
+		}
+	}
+
+	private List<RecordResults> evaluate(List<DwCRecord> records, ExecutorService recordExecutor) throws InterruptedException, ExecutionException {
+		List<RecordResults> results;
+		if (recordExecutor==null) {
+			results = new ArrayList<RecordResults>(records.size());
+			for (DwCRecord record : records) {
+				results.add(processor.evaluate(record));
+			}
+		} else {
+			try (TaskScope<RecordResults> scope = new TaskScope<RecordResults>(recordExecutor)) {
+				for (DwCRecord record : records) {
+					scope.fork(() -> processor.evaluate(record));
+				}
+				results = scope.join();
+			}
+		}
+		return results;
+	}
+
+	private void flushAll(ResultWriter writer) throws IOException {
+		writer.flush();
+		for (ResultsSink sink : sinks) {
+			sink.flush();
+		}
+	}
+
+	private void checkFailure(AtomicReference<Throwable> failure) throws IOException {
+		Throwable e = failure.get();
+		if (e!=null) {
+			if (e instanceof IOException) {
+				throw (IOException)e;
+			}
+			throw new IOException("Error evaluating records: " + e.getMessage(), e);
+		}
+	}
+
+	private List<DwCRecord> readBatch(RecordReader reader) throws IOException {
+		List<DwCRecord> batch = new ArrayList<DwCRecord>(batchSize);
+		DwCRecord record = reader.next();
+		while (record!=null) {
+			batch.add(record);
+			if (batch.size() >= batchSize) {
+				break;
+			}
+			record = reader.next();
+		}
+		return batch;
+	}
+
+	/**
+	 * A numbered batch of records, or of the results for those records.
+	 */
+	private static class Batch {
+		private final long sequence;
+		private final List<DwCRecord> records;
+		private final List<RecordResults> results;
+
+		private Batch(long sequence, List<DwCRecord> records, List<RecordResults> results) {
+			this.sequence = sequence;
+			this.records = records;
+			this.results = results;
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * BindingPlan.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.List;
+
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+
+/**
+ * The column holding each argument of each of a list of tests in records with a particular
+ * schema, worked out once per schema so that building the arguments for a test from a record
+ * is a lookup by column index.
+ *
+ * @author mole
+ *
+ */
+public class BindingPlan {
+
+	private final RecordSchema schema;
+	private final int[][] columns;
+
+	/**
+	 * Work out the columns for the arguments of a list of tests.
+	 *
+	 * @param tests the tests to bind.
+	 * @param schema the schema of the records the tests are to be run on.
+	 */
+	public BindingPlan(List<DQTest> tests, RecordSchema schema) {
+		this.schema = schema;
+		this.columns = new int[tests.size()][];
+		for (int t=0; t<tests.size(); t++) {
+			String[] terms = tests.get(t).getArgumentTerms();
+			columns[t] = new int[terms.length];
+			for (int a=0; a<terms.length; a++) {
+				columns[t][a] = terms[a]==null ? -1 : schema.indexOf(terms[a]);
+			}
+		}
+	}
+
+	/**
+	 * @return the schema the plan was made for.
+	 */
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @param test the position of a test in the list the plan was made for.
+	 * @return the column index for each argument, -1 for a parameter or a term absent from the schema.
+	 */
+	public int[] getColumns(int test) {
+		return columns[test].clone();
+	}
+
+	/**
+	 * Build the arguments for a test.
+	 *
+	 * @param test the position of the test in the list the plan was made for.
+	 * @param record a record with the schema of the plan.
+	 * @return the argument values, parameters and absent terms are null.
+	 */
+	public Object[] arguments(int test, DwCRecord record) {
+		int[] testColumns = columns[test];
+		Object[] result = new Object[testColumns.length];
+		for (int a=0; a<testColumns.length; a++) {
+			result[a] = record.get(testColumns[a]);
+		}
+		return result;
+	}
+
+	/**
+	 * Obtain the value of a single argument of a test, without building the argument array.
+	 *
+	 * @param test the position of the test in the list the plan was made for.
+	 * @param argument the position of the argument.
+	 * @param record a record with the schema of the plan.
+	 * @return the value, null for a parameter or an absent term.
+	 */
+	public String value(int test, int argument, DwCRecord record) {
+		return record.get(columns[test][argument]);
+	}
+
+}
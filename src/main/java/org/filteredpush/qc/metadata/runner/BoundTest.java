@@ -0,0 +1,297 @@
+/**
+ * BoundTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.DwCMetadataDQDefaults;
+import org.filteredpush.qc.metadata.ResolvedSourceAuthority;
+
+/**
+ * A test with values bound to its parameters, reusable for evaluating any number of records,
+ * or columns of values (see evaluateColumns()).
+ * The argument array is built once with the parameter values in place, so that each
+ * evaluation only supplies the values of the information elements.  A bdq:sourceAuthority is
+ * resolved once when bound, and where the test method has an overload taking the
+ * ResolvedSourceAuthority ahead of its information elements, that overload is invoked, so
+ * that each record only does the work on its values.  Regular expressions and vocabulary
+ * lists used by the tests are compiled once as constants of DwCMetadataDQ.
+ *
+ * Results are the same as invoking the test method with the same parameter values, including
+ * an EXTERNAL_PREREQUISITES_NOT_MET response for an unrecognized bdq:sourceAuthority.
+ * Tests with constant outcomes, the NOTEMPTY tests, return shared immutable responses
+ * (see ConstantResponses).
+ *
+ * @author mole
+ *
+ */
+public class BoundTest {
+
+	private static final Log logger = LogFactory.getLog(BoundTest.class);
+
+	/** the parameter naming the source authority for a vocabulary */
+	public static final String SOURCE_AUTHORITY = "bdq:sourceAuthority";
+
+	private final DQTest test;
+	private final Map<String,String> parameterValues;
+	private final Object[] template;
+	private final int[] termPositions;
+	private final List<String> terms;
+	private final ConstantResponses constant;
+	/** the overload taking the resolved source authority, bound to it, or null to invoke the test */
+	private final MethodHandle resolvedInvoker;
+
+	/**
+	 * @param test the test to bind, must take each of the given parameters.
+	 * @param parameterValues values for parameters keyed by parameter name.
+	 * @throws IllegalArgumentException if the test doesn't take one of the parameters.
+	 */
+	public BoundTest(DQTest test, Map<String,String> parameterValues) {
+		if (!test.getParameters().containsAll(parameterValues.keySet())) {
+			throw new IllegalArgumentException(test.getLabel() + " takes the parameters " + test.getParameters() + " not " + parameterValues.keySet());
+		}
+		this.test = test;
+		this.parameterValues = Collections.unmodifiableMap(new LinkedHashMap<String,String>(parameterValues));
+		String[] argumentTerms = test.getArgumentTerms();
+		String[] argumentParameters = test.getArgumentParameters();
+		template = new Object[argumentTerms.length];
+		List<Integer> positions = new ArrayList<Integer>();
+		List<String> termList = new ArrayList<String>();
+		for (int i=0; i<argumentTerms.length; i++) {
+			if (argumentTerms[i]!=null) {
+				positions.add(i);
+				termList.add(argumentTerms[i]);
+			} else {
+				template[i] = parameterValues.get(argumentParameters[i]);
+			}
+		}
+		termPositions = new int[positions.size()];
+		for (int i=0; i<termPositions.length; i++) {
+			termPositions[i] = positions.get(i);
+		}
+		terms = Collections.unmodifiableList(termList);
+		constant = ConstantResponses.forTest(test);
+		resolvedInvoker = bindResolvedOverload(test, termPositions.length, parameterValues.get(SOURCE_AUTHORITY));
+	}
+
+	/**
+	 * Find the overload of a test method taking a ResolvedSourceAuthority followed by the
+	 * values of its information elements, e.g. validationSexStandard(ResolvedSourceAuthority, String),
+	 * and bind it to the resolved source authority.
+	 *
+	 * @param test the test, which must take bdq:sourceAuthority as its only parameter.
+	 * @param valueCount the number of information elements the test takes.
+	 * @param sourceAuthority the bound value of bdq:sourceAuthority, may be null for the default.
+	 * @return a handle taking the values as a String[], or null if the test has no such overload.
+	 */
+	private static MethodHandle bindResolvedOverload(DQTest test, int valueCount, String sourceAuthority) {
+		if (!test.getParameters().equals(Collections.singletonList(SOURCE_AUTHORITY))) {
+			return null;
+		}
+		for (Method method : DwCMetadataDQDefaults.class.getMethods()) {
+			Class<?>[] types = method.getParameterTypes();
+			if (!method.getName().equals(test.getMethodName()) || !Modifier.isStatic(method.getModifiers())
+					|| types.length!=valueCount+1 || types[0]!=ResolvedSourceAuthority.class
+					|| !DQResponse.class.isAssignableFrom(method.getReturnType())) {
+				continue;
+			}
+			boolean strings = true;
+			for (int i=1; i<types.length; i++) {
+				strings = strings && types[i]==String.class;
+			}
+			if (!strings) {
+				continue;
+			}
+			try {
+				return MethodHandles.insertArguments(MethodHandles.publicLookup().unreflect(method), 0, ResolvedSourceAuthority.of(sourceAuthority))
+						.asSpreader(String[].class, valueCount)
+						.asType(MethodType.methodType(DQResponse.class, String[].class));
+			} catch (IllegalAccessException e) {
+				logger.debug(method.getName() + ": " + e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Evaluate the test.
+	 *
+	 * @param values the values of the information elements, in the order of getTerms().
+	 * @return the response from the test.
+	 * @throws IllegalArgumentException if the number of values doesn't match the terms.
+	 * @throws RuntimeException wrapping any exception thrown from within the test method.
+	 */
+	public DQResponse<?> evaluate(String... values) {
+		if (values.length!=termPositions.length) {
+			throw new IllegalArgumentException(test.getLabel() + " takes " + termPositions.length + " values, not " + values.length);
+		}
+		if (constant!=null) {
+			return constant.evaluate(values[0]);
+		}
+		if (resolvedInvoker!=null) {
+			try {
+				return (DQResponse<?>) resolvedInvoker.invokeExact(values);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException("Error in " + test.getMethodName() + ": " + e.getMessage(), e);
+			}
+		}
+		Object[] arguments = template.clone();
+		for (int i=0; i<termPositions.length; i++) {
+			arguments[termPositions[i]] = values[i];
+		}
+		return test.invoke(arguments);
+	}
+
+	/**
+	 * Evaluate the test on each row of columns of values, running the test once for each
+	 * distinct input rather than once for each row, up to ResultMemo.DEFAULT_MAX_DISTINCT
+	 * distinct inputs.
+	 *
+	 * @param columns a column of values for each of the information elements, in the order of
+	 *   getTerms(), all of the same length.
+	 * @return the responses for each row.
+	 * @throws IllegalArgumentException if the number of columns doesn't match the terms,
+	 *   or the columns differ in length.
+	 * @see #evaluateColumns(int, String[][])
+	 */
+	public ColumnResults evaluateColumns(String[]... columns) {
+		return evaluateColumns(ResultMemo.DEFAULT_MAX_DISTINCT, columns);
+	}
+
+	/**
+	 * Evaluate the test on each row of columns of values, running the test once for each
+	 * distinct input rather than once for each row.  As with a ResultMemo, once there are
+	 * more than maxDistinct distinct inputs they are no longer tracked, and the test is run
+	 * on each of the remaining rows, holding only the codes and any proposed change for each
+	 * of those rows rather than its response (see ColumnResults.getResponse()).  Rows on which
+	 * the test throws an exception are given a response without a result state, with the 
+	 * error as its comment.
+	 *
+	 * @param maxDistinct the number of distinct inputs above which the test is run on every row.
+	 * @param columns a column of values for each of the information elements, in the order of
+	 *   getTerms(), all of the same length.
+	 * @return the responses for each row.
+	 * @throws IllegalArgumentException if the number of columns doesn't match the terms,
+	 *   or the columns differ in length.
+	 */
+	public ColumnResults evaluateColumns(int maxDistinct, String[]... columns) {
+		if (columns.length!=termPositions.length) {
+			throw new IllegalArgumentException(test.getLabel() + " takes " + termPositions.length + " columns, not " + columns.length);
+		}
+		int rows = columns.length==0 ? 0 : columns[0].length;
+		for (String[] column : columns) {
+			if (column.length!=rows) {
+				throw new IllegalArgumentException("Columns for " + test.getLabel() + " differ in length.");
+			}
+		}
+		ColumnResults results = new ColumnResults(test, rows);
+		if (constant!=null) {
+			// only two possible responses, no need to track distinct values
+			List<DQResponse<?>> responses = new ArrayList<DQResponse<?>>(2);
+			for (int row=0; row<rows; row++) {
+				DQResponse<?> response = constant.evaluate(columns[0][row]);
+				int index = 0;
+				while (index < responses.size() && responses.get(index)!=response) {
+					index++;
+				}
+				if (index==responses.size()) {
+					responses.add(response);
+					results.add(response);
+				}
+				results.set(row, index);
+			}
+			return results;
+		}
+		Map<Object,Integer> distinct = new HashMap<Object,Integer>();
+		String[] values = new String[columns.length];
+		for (int row=0; row<rows; row++) {
+			for (int c=0; c<columns.length; c++) {
+				values[c] = columns[c][row];
+			}
+			Object key = null;
+			Integer index = null;
+			if (distinct!=null) {
+				// most tests take a single value, avoid building a list key for those
+				key = values.length==1 ? values[0] : Arrays.asList(values.clone());
+				index = distinct.get(key);
+			}
+			if (index==null) {
+				DQResponse<?> response;
+				try {
+					response = evaluate(values);
+				} catch (RuntimeException e) {
+					logger.error(test.getLabel() + ": " + e.getMessage(), e);
+					response = new DQResponse<>();
+					response.addComment("Error running test: " + e.getMessage());
+				}
+				if (distinct==null) {
+					// inputs are no longer tracked, don't hold a response for each row
+					results.stream(row, response);
+					continue;
+				}
+				index = Integer.valueOf(results.add(response));
+				distinct.put(key, index);
+				if (distinct.size() > maxDistinct) {
+					distinct = null;
+					logger.info("More than " + maxDistinct + " distinct inputs to " + test.getLabel() + ", running the test on each remaining row.");
+				}
+			}
+			results.set(row, index.intValue());
+		}
+		return results;
+	}
+
+	/**
+	 * @return the test bound.
+	 */
+	public DQTest getTest() {
+		return test;
+	}
+
+	/**
+	 * @return the bound parameter values.
+	 */
+	public Map<String,String> getParameterValues() {
+		return parameterValues;
+	}
+
+	/**
+	 * @return the terms whose values evaluate() takes, acted upon and consulted, in argument order.
+	 */
+	public List<String> getTerms() {
+		return terms;
+	}
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Checkpoint.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The state of a run after a consistent point: the position in the input after the last
+ * record written, the length of each output file at that point, and the summary counts to
+ * that point.   Saved as a properties file, written to a temporary file and renamed into
+ * place, so that the saved checkpoint is always complete.
+ *
+ * @author mole
+ *
+ */
+public class Checkpoint {
+
+	private static final String INPUT = "input";
+	private static final String SHARD = "shard";
+	private static final String INPUT_POSITION = "input.position";
+	private static final String RECORD_NUMBER = "record.number";
+	private static final String OUTPUT_PREFIX = "output.";
+	private static final String SUMMARY = "summary";
+
+	private final String input;
+	private final String shard;
+	private final long inputPosition;
+	private final long recordNumber;
+	private final Map<String,Long> outputPositions;
+	private final ResultSummary summary;
+
+	/**
+	 * @param input identifies the input, e.g. the path of the input file.
+	 * @param shard the shard of the input being read, as i/N.
+	 * @param inputPosition the byte offset in the input immediately after the last record written.
+	 * @param recordNumber the number of the last record written.
+	 * @param outputPositions the length in bytes of each output file, keyed by a name for the output.
+	 * @param summary the summary counts for the records written.
+	 */
+	public Checkpoint(String input, String shard, long inputPosition, long recordNumber, Map<String,Long> outputPositions, ResultSummary summary) {
+		this.input = input;
+		this.shard = shard;
+		this.inputPosition = inputPosition;
+		this.recordNumber = recordNumber;
+		this.outputPositions = Collections.unmodifiableMap(new TreeMap<String,Long>(outputPositions));
+		this.summary = summary;
+	}
+
+	/**
+	 * Save this checkpoint, replacing any existing checkpoint in the file.
+	 *
+	 * @param file to save to.
+	 * @throws IOException on an error writing.
+	 */
+	public void save(Path file) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(INPUT, input);
+		properties.setProperty(SHARD, shard);
+		properties.setProperty(INPUT_POSITION, Long.toString(inputPosition));
+		properties.setProperty(RECORD_NUMBER, Long.toString(recordNumber));
+		for (Map.Entry<String,Long> entry : outputPositions.entrySet()) {
+			properties.setProperty(OUTPUT_PREFIX + entry.getKey(), entry.getValue().toString());
+		}
+		StringWriter summaryText = new StringWriter();
+		summary.write(summaryText);
+		properties.setProperty(SUMMARY, summaryText.toString());
+
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(temporary)) {
+			properties.store(out, "rec_occur_qc checkpoint");
+		}
+		try {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Load a saved checkpoint.
+	 *
+	 * @param file the checkpoint file.
+	 * @return the checkpoint.
+	 * @throws IOException on an error reading or if the checkpoint is incomplete.
+	 */
+	public static Checkpoint load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		}
+		try {
+			Map<String,Long> outputPositions = new TreeMap<String,Long>();
+			for (String name : properties.stringPropertyNames()) {
+				if (name.startsWith(OUTPUT_PREFIX)) {
+					outputPositions.put(name.substring(OUTPUT_PREFIX.length()), Long.valueOf(properties.getProperty(name)));
+				}
+			}
+			long recordNumber = Long.parseLong(required(properties, RECORD_NUMBER));
+			ResultSummary summary = new ResultSummary();
+			summary.read(new StringReader(required(properties, SUMMARY)));
+			summary.addRecordCount(recordNumber);
+			return new Checkpoint(
+					required(properties, INPUT),
+					required(properties, SHARD),
+					Long.parseLong(required(properties, INPUT_POSITION)),
+					recordNumber,
+					outputPositions,
+					summary);
+		} catch (NumberFormatException e) {
+			throw new IOException("Unable to parse checkpoint " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static String required(Properties properties, String name) throws IOException {
+		String value = properties.getProperty(name);
+		if (value==null) {
+			throw new IOException("Checkpoint is missing " + name);
+		}
+		return value;
+	}
+
+	/**
+	 * @return identifies the input read.
+	 */
+	public String getInput() {
+		return input;
+	}
+
+	/**
+	 * @return the shard of the input read, as i/N.
+	 */
+	public String getShard() {
+		return shard;
+	}
+
+	/**
+	 * @return the byte offset in the input from which to resume reading.
+	 */
+	public long getInputPosition() {
+		return inputPosition;
+	}
+
+	/**
+	 * @return the number of the last record written.
+	 */
+	public long getRecordNumber() {
+		return recordNumber;
+	}
+
+	/**
+	 * @param name the name of an output.
+	 * @return the length of the output at the checkpoint, or -1 if not known.
+	 */
+	public long getOutputPosition(String name) {
+		Long result = outputPositions.get(name);
+		return result==null ? -1L : result.longValue();
+	}
+
+	/**
+	 * @return the summary counts for the records written.
+	 */
+	public ResultSummary getSummary() {
+		return summary;
+	}
+
+}
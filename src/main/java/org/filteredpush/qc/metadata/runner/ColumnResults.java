@@ -0,0 +1,290 @@
+/**
+ * ColumnResults.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.AmendmentValue;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+
+/**
+ * The responses from running a test on each row of a column of values, held as parallel
+ * arrays of codes rather than as a response for each row.  Rows with the same input share a
+ * single response, so the responses are held once for each distinct input, and each row
+ * holds the index of the distinct response, a code for its result state, a code for its
+ * compliance or issue value, and the index of its proposed amendment.
+ *
+ * Codes index lists of labels built in the order first encountered, code 0 is always the
+ * empty label, for no result state or no compliance or issue value.  Should there be more
+ * distinct labels than a code can hold, the rows with the remaining labels have the code -1,
+ * and getStateLabel() and getValueLabel() take their labels from the response.
+ *
+ * Once BoundTest.evaluateColumns() stops tracking distinct inputs, the response for each 
+ * further row is not held, only its codes and any proposed change, see getResponse().
+ *
+ * @author mole
+ *
+ */
+public class ColumnResults {
+
+	private final DQTest test;
+	private final int[] responseIndexes;
+	private final List<DQResponse<?>> responses;
+	private final byte[] states;
+	private final byte[] values;
+	private final int[] amendmentIndexes;
+	private final List<String> stateLabels;
+	private final List<String> valueLabels;
+	private final List<Map<String,String>> amendments;
+	// codes for each distinct response, copied out to each row with that response
+	private final List<byte[]> distinctCodes;
+	private final List<Integer> distinctAmendments;
+	// labels of rows without a held response for which there was no code, by row
+	private final Map<Integer,String> uncodedStateLabels;
+	private final Map<Integer,String> uncodedValueLabels;
+	private int streamedCount;
+
+	/**
+	 * @param test the test which was run.
+	 * @param responses the response for each distinct input.
+	 * @param responseIndexes for each row, the index of its response in responses.
+	 */
+	public ColumnResults(DQTest test, List<DQResponse<?>> responses, int[] responseIndexes) {
+		this(test, responseIndexes.length);
+		for (DQResponse<?> response : responses) {
+			add(response);
+		}
+		for (int row=0; row<responseIndexes.length; row++) {
+			set(row, responseIndexes[row]);
+		}
+	}
+
+	/**
+	 * Create results to be filled in by add() and set(), or stream(), for each row.
+	 *
+	 * @param test the test which was run.
+	 * @param rows the number of rows.
+	 */
+	ColumnResults(DQTest test, int rows) {
+		this.test = test;
+		this.responses = new ArrayList<DQResponse<?>>();
+		this.responseIndexes = new int[rows];
+		this.states = new byte[rows];
+		this.values = new byte[rows];
+		this.amendmentIndexes = new int[rows];
+		this.stateLabels = new ArrayList<String>();
+		this.valueLabels = new ArrayList<String>();
+		stateLabels.add("");
+		valueLabels.add("");
+		this.amendments = new ArrayList<Map<String,String>>();
+		this.distinctCodes = new ArrayList<byte[]>();
+		this.distinctAmendments = new ArrayList<Integer>();
+		this.uncodedStateLabels = new HashMap<Integer,String>();
+		this.uncodedValueLabels = new HashMap<Integer,String>();
+		this.streamedCount = 0;
+	}
+
+	/**
+	 * Hold the response for a distinct input.
+	 *
+	 * @param response the response.
+	 * @return the index of the response, to give to set() for each row with that input.
+	 */
+	int add(DQResponse<?> response) {
+		byte state = code(stateLabels, ResultWriter.stateLabel(response));
+		byte value = 0;
+		int amendment = -1;
+		if (response!=null && response.getValue() instanceof AmendmentValue) {
+			amendment = amendments.size();
+			amendments.add(((AmendmentValue)response.getValue()).getObject());
+		} else {
+			value = code(valueLabels, ResultWriter.valueLabel(response));
+		}
+		responses.add(response);
+		distinctCodes.add(new byte[] { state, value });
+		distinctAmendments.add(Integer.valueOf(amendment));
+		return responses.size() - 1;
+	}
+
+	/**
+	 * @param row the position of a row in the column.
+	 * @param responseIndex the index of the response for the row, as returned by add().
+	 */
+	void set(int row, int responseIndex) {
+		byte[] codes = distinctCodes.get(responseIndex);
+		responseIndexes[row] = responseIndex;
+		states[row] = codes[0];
+		values[row] = codes[1];
+		amendmentIndexes[row] = distinctAmendments.get(responseIndex).intValue();
+	}
+
+	/**
+	 * Record the codes and any proposed change from the response for a row without holding
+	 * the response, for rows whose inputs are no longer tracked.
+	 *
+	 * @param row the position of a row in the column.
+	 * @param response the response for the row.
+	 */
+	void stream(int row, DQResponse<?> response) {
+		responseIndexes[row] = -1;
+		String state = ResultWriter.stateLabel(response);
+		states[row] = code(stateLabels, state);
+		if (states[row] < 0) {
+			uncodedStateLabels.put(Integer.valueOf(row), state);
+		}
+		values[row] = 0;
+		amendmentIndexes[row] = -1;
+		if (response!=null && response.getValue() instanceof AmendmentValue) {
+			amendmentIndexes[row] = amendments.size();
+			amendments.add(((AmendmentValue)response.getValue()).getObject());
+		} else {
+			String value = ResultWriter.valueLabel(response);
+			values[row] = code(valueLabels, value);
+			if (values[row] < 0) {
+				uncodedValueLabels.put(Integer.valueOf(row), value);
+			}
+		}
+		streamedCount++;
+	}
+
+	/**
+	 * @return the code for a label, adding it to labels if new, or -1 if labels is full.
+	 */
+	private static byte code(List<String> labels, String label) {
+		int result = labels.indexOf(label);
+		if (result < 0) {
+			if (labels.size() > Byte.MAX_VALUE) {
+				return -1;
+			}
+			result = labels.size();
+			labels.add(label);
+		}
+		return (byte)result;
+	}
+
+	/**
+	 * @return the test which was run.
+	 */
+	public DQTest getTest() {
+		return test;
+	}
+
+	/**
+	 * @return the number of rows.
+	 */
+	public int size() {
+		return responseIndexes.length;
+	}
+
+	/**
+	 * @return for each row, the code of its result state in getStateLabels(), or -1 if
+	 *   there were too many distinct labels to give it a code.
+	 */
+	public byte[] getStates() {
+		return states;
+	}
+
+	/**
+	 * @return for each row, the code of its compliance or issue value in getValueLabels(),
+	 *   0 for an amendment or a response without a value, or -1 if there were too many
+	 *   distinct labels to give it a code.
+	 */
+	public byte[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return for each row, the index of the proposed change in getAmendments(), or -1 if
+	 *   the response doesn't propose a change.
+	 */
+	public int[] getAmendmentIndexes() {
+		return amendmentIndexes;
+	}
+
+	/**
+	 * @return the result state labels indexed by the codes in getStates().
+	 */
+	public List<String> getStateLabels() {
+		return Collections.unmodifiableList(stateLabels);
+	}
+
+	/**
+	 * @return the value labels indexed by the codes in getValues().
+	 */
+	public List<String> getValueLabels() {
+		return Collections.unmodifiableList(valueLabels);
+	}
+
+	/**
+	 * @return the proposed changes, term to new value, indexed by getAmendmentIndexes().
+	 */
+	public List<Map<String,String>> getAmendments() {
+		return Collections.unmodifiableList(amendments);
+	}
+
+	/**
+	 * @param row the position of a row in the column.
+	 * @return the label of the result state of the row.
+	 */
+	public String getStateLabel(int row) {
+		byte code = states[row];
+		if (code >= 0) {
+			return stateLabels.get(code);
+		}
+		return responseIndexes[row] < 0 ? uncodedStateLabels.get(Integer.valueOf(row)) : ResultWriter.stateLabel(getResponse(row));
+	}
+
+	/**
+	 * @param row the position of a row in the column.
+	 * @return the label of the compliance or issue value of the row, an empty string if none.
+	 */
+	public String getValueLabel(int row) {
+		byte code = values[row];
+		if (code >= 0) {
+			return valueLabels.get(code);
+		}
+		return responseIndexes[row] < 0 ? uncodedValueLabels.get(Integer.valueOf(row)) : ResultWriter.valueLabel(getResponse(row));
+	}
+
+	/**
+	 * @param row the position of a row in the column.
+	 * @return the full response for the row, shared with other rows with the same input,
+	 *   must not be modified, or null for a row evaluated once there were more distinct inputs
+	 *   than BoundTest.evaluateColumns() tracks, for which only the codes and any proposed 
+	 *   change are held.
+	 */
+	public DQResponse<?> getResponse(int row) {
+		int index = responseIndexes[row];
+		return index < 0 ? null : responses.get(index);
+	}
+
+	/**
+	 * @return the number of times the test was run, the number of distinct inputs unless
+	 *   there were more than the maximum tracked by BoundTest.evaluateColumns().
+	 */
+	public int getDistinctCount() {
+		return responses.size() + streamedCount;
+	}
+
+}
@@ -0,0 +1,113 @@
+/**
+ * ConstantResponses.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.util.MetadataUtils;
+
+/**
+ * Shared responses for tests with constant outcomes, the NOTEMPTY validations and issues,
+ * which take a single value and respond only according to whether it is empty (see
+ * MetadataUtils.isEmpty()), with comments which don't include the value.   Each such test
+ * is run once on an empty value and once on a non-empty value, and the two responses are
+ * kept as ImmutableDQResponse instances returned for every later evaluation, so evaluating
+ * these, the cheapest and most frequently run tests, allocates nothing.
+ *
+ * Unlike a ResultMemo, this holds only two responses for each test however many distinct
+ * values are seen, so it also covers terms such as dwc:occurrenceID that are distinct for
+ * each record.   Thread safe.
+ *
+ * @author mole
+ *
+ */
+public class ConstantResponses {
+
+	/** suffix of the labels of tests with constant outcomes */
+	public static final String NOTEMPTY = "_NOTEMPTY";
+
+	private static final ConcurrentMap<String,ConstantResponses> byLabel = new ConcurrentHashMap<String,ConstantResponses>();
+
+	private final DQTest test;
+	private final DQResponse<?> empty;
+	private final DQResponse<?> notEmpty;
+
+	private ConstantResponses(DQTest test) {
+		this.test = test;
+		this.empty = ImmutableDQResponse.copyOf(test.invoke(new Object[] { null }));
+		this.notEmpty = ImmutableDQResponse.copyOf(test.invoke(new Object[] { "value" }));
+	}
+
+	/**
+	 * Does a test have constant outcomes.
+	 *
+	 * @param test the test to examine.
+	 * @return true if the test is a NOTEMPTY validation or issue taking a single value.
+	 */
+	public static boolean isConstant(DQTest test) {
+		return test.getType()!=DQTest.TestType.AMENDMENT
+				&& test.getLabel().endsWith(NOTEMPTY)
+				&& test.getArgumentTerms().length==1
+				&& test.getArgumentTerms()[0]!=null;
+	}
+
+	/**
+	 * Obtain the shared responses for a test.
+	 *
+	 * @param test the test.
+	 * @return the shared responses for the test, or null if the test doesn't have constant
+	 *   outcomes.
+	 * @throws RuntimeException if running the test to obtain its responses fails.
+	 */
+	public static ConstantResponses forTest(DQTest test) {
+		if (!isConstant(test)) {
+			return null;
+		}
+		ConstantResponses result = byLabel.get(test.getLabel());
+		if (result==null) {
+			// a race just runs the test twice more, either result is the same
+			result = new ConstantResponses(test);
+			ConstantResponses existing = byLabel.putIfAbsent(test.getLabel(), result);
+			if (existing!=null) {
+				result = existing;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluate the test on a value.
+	 *
+	 * @param value the value of the term.
+	 * @return the shared response for an empty or non-empty value, must not be modified.
+	 */
+	public DQResponse<?> evaluate(String value) {
+		return MetadataUtils.isEmpty(value) ? empty : notEmpty;
+	}
+
+	/**
+	 * @return the test the responses are from.
+	 */
+	public DQTest getTest() {
+		return test;
+	}
+
+}
@@ -0,0 +1,444 @@
+/**
+ * DQTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.datakurator.ffdq.annotations.ActedUpon;
+import org.datakurator.ffdq.annotations.Amendment;
+import org.datakurator.ffdq.annotations.Consulted;
+import org.datakurator.ffdq.annotations.Issue;
+import org.datakurator.ffdq.annotations.Parameter;
+import org.datakurator.ffdq.annotations.Provides;
+import org.datakurator.ffdq.annotations.Validation;
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.DwCMetadataDQDefaults;
+
+/**
+ * Description of a single test method found on DwCMetadataDQ (or DwCMetadataDQDefaults),
+ * built from the ffdq annotations on the method, along with the means to invoke it.
+ *
+ * The method is invoked through a MethodHandle adapted once, when the test is described, to
+ * take its arguments as an Object[], rather than through Method.invoke(), so that each call
+ * does no access checks or reflective argument handling.  Tests may instead be described from
+ * the dispatch table generated at compile time (see fromDispatchTable()), which invokes each
+ * test with a direct static call, and needs no scan of the test methods' annotations.
+ *
+ * Each method parameter is either an information element (annotated with ActedUpon or
+ * Consulted, in which case the annotation value is the term name, e.g. dwc:basisOfRecord),
+ * or a parameter (annotated with Parameter, e.g. bdq:sourceAuthority).
+ *
+ * @author mole
+ *
+ */
+public class DQTest {
+
+	private static final Log logger = LogFactory.getLog(DQTest.class);
+
+	/**
+	 * Name of the dispatch table generated by DispatchProcessor.
+	 */
+	public static final String DISPATCH_CLASS = "org.filteredpush.qc.metadata.DwCMetadataDQDispatch";
+
+	/**
+	 * Types of test, matching the ffdq method annotations.
+	 */
+	public enum TestType {
+		/** annotated with @Validation */
+		VALIDATION,
+		/** annotated with @Amendment */
+		AMENDMENT,
+		/** annotated with @Issue */
+		ISSUE
+	}
+
+	private final String guid;
+	private final String label;
+	private final TestType type;
+	private final Method method;
+	private final String methodName;
+	private final Invoker invoker;
+	private final String[] argumentTerms;
+	private final String[] argumentParameters;
+	private final List<String> actedUpon;
+	private final List<String> consulted;
+	private final List<String> parameters;
+
+	/**
+	 * Construct a test description from an annotated method.
+	 *
+	 * @param method a static method carrying @Provides and one of @Validation, @Amendment, or @Issue
+	 * @throws IllegalArgumentException if the method is not an invokable test method.
+	 */
+	public DQTest(Method method) {
+		if (!Modifier.isStatic(method.getModifiers())) {
+			throw new IllegalArgumentException("Test method " + method.getName() + " is not static.");
+		}
+		Provides provides = method.getAnnotation(Provides.class);
+		if (provides==null) {
+			throw new IllegalArgumentException("Test method " + method.getName() + " lacks a @Provides annotation.");
+		}
+		this.method = method;
+		this.methodName = method.getName();
+		this.guid = provides.value();
+		if (method.getAnnotation(Validation.class)!=null) {
+			type = TestType.VALIDATION;
+			label = method.getAnnotation(Validation.class).label();
+		} else if (method.getAnnotation(Amendment.class)!=null) {
+			type = TestType.AMENDMENT;
+			label = method.getAnnotation(Amendment.class).label();
+		} else if (method.getAnnotation(Issue.class)!=null) {
+			type = TestType.ISSUE;
+			label = method.getAnnotation(Issue.class).label();
+		} else {
+			throw new IllegalArgumentException("Test method " + method.getName() + " is not a Validation, Amendment, or Issue.");
+		}
+		List<String> actedUponList = new ArrayList<String>();
+		List<String> consultedList = new ArrayList<String>();
+		List<String> parameterList = new ArrayList<String>();
+		Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+		argumentTerms = new String[parameterAnnotations.length];
+		argumentParameters = new String[parameterAnnotations.length];
+		for (int i=0; i<parameterAnnotations.length; i++) {
+			for (Annotation annotation : parameterAnnotations[i]) {
+				if (annotation instanceof ActedUpon) {
+					argumentTerms[i] = ((ActedUpon)annotation).value();
+					actedUponList.add(argumentTerms[i]);
+				} else if (annotation instanceof Consulted) {
+					argumentTerms[i] = ((Consulted)annotation).value();
+					consultedList.add(argumentTerms[i]);
+				} else if (annotation instanceof Parameter) {
+					argumentParameters[i] = ((Parameter)annotation).name();
+					parameterList.add(argumentParameters[i]);
+				}
+			}
+			if (argumentTerms[i]==null && argumentParameters[i]==null) {
+				throw new IllegalArgumentException("Argument " + i + " of test method " + method.getName() + " is not annotated.");
+			}
+		}
+		actedUpon = Collections.unmodifiableList(actedUponList);
+		consulted = Collections.unmodifiableList(consultedList);
+		parameters = Collections.unmodifiableList(parameterList);
+		if (!DQResponse.class.isAssignableFrom(method.getReturnType())) {
+			throw new IllegalArgumentException("Test method " + method.getName() + " does not return a DQResponse.");
+		}
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+					.asSpreader(Object[].class, parameterAnnotations.length)
+					.asType(MethodType.methodType(DQResponse.class, Object[].class));
+			invoker = arguments -> (DQResponse<?>) handle.invokeExact(arguments);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Test method " + method.getName() + " is not accessible.", e);
+		}
+	}
+
+	/**
+	 * Describe the test at an index in the generated dispatch table.
+	 */
+	private DQTest(DispatchTable table, int index) {
+		this.method = null;
+		this.methodName = table.methodNames[index];
+		this.guid = table.guids[index];
+		this.label = table.labels[index];
+		this.type = TestType.valueOf(table.types[index]);
+		this.argumentTerms = table.argumentTerms[index].clone();
+		this.argumentParameters = table.argumentParameters[index].clone();
+		List<String> actedUponList = new ArrayList<String>();
+		List<String> consultedList = new ArrayList<String>();
+		List<String> parameterList = new ArrayList<String>();
+		for (int i=0; i<argumentTerms.length; i++) {
+			if (argumentTerms[i]!=null) {
+				if (table.argumentActedUpon[index][i]) {
+					actedUponList.add(argumentTerms[i]);
+				} else {
+					consultedList.add(argumentTerms[i]);
+				}
+			} else {
+				parameterList.add(argumentParameters[i]);
+			}
+		}
+		actedUpon = Collections.unmodifiableList(actedUponList);
+		consulted = Collections.unmodifiableList(consultedList);
+		parameters = Collections.unmodifiableList(parameterList);
+		MethodHandle handle = MethodHandles.insertArguments(table.invoke, 0, index);
+		final int arity = argumentTerms.length;
+		invoker = arguments -> {
+			// the table ignores surplus arguments, reject them as the spread method handle does
+			if (arguments.length!=arity) {
+				throw new IllegalArgumentException("Expected " + arity + " arguments, not " + arguments.length);
+			}
+			return (DQResponse<?>) handle.invokeExact(arguments);
+		};
+	}
+
+	/**
+	 * Obtain the tests listed in DwCMetadataDQDispatch, which is generated from the annotations
+	 * on DwCMetadataDQDefaults and DwCMetadataDQ when they are compiled, by DispatchProcessor,
+	 * selecting the same tests as discover() without scanning the test methods.
+	 *
+	 * The table is looked up by name, so that this class doesn't depend on it being generated.
+	 *
+	 * @return list of tests, in a stable order (by label).
+	 * @throws ClassNotFoundException if the dispatch table was not generated, e.g. when compiled
+	 *   without annotation processing.
+	 */
+	public static List<DQTest> fromDispatchTable() throws ClassNotFoundException {
+		return fromDispatchTable(DISPATCH_CLASS);
+	}
+
+	static List<DQTest> fromDispatchTable(String className) throws ClassNotFoundException {
+		DispatchTable table = new DispatchTable(Class.forName(className));
+		List<DQTest> result = new ArrayList<DQTest>(table.guids.length);
+		for (int i=0; i<table.guids.length; i++) {
+			result.add(new DQTest(table, i));
+		}
+		return result;
+	}
+
+	/**
+	 * The arrays and invoke method of a generated dispatch table, read once by reflection.
+	 */
+	private static class DispatchTable {
+		private final String[] methodNames;
+		private final String[] guids;
+		private final String[] labels;
+		private final String[] types;
+		private final String[][] argumentTerms;
+		private final String[][] argumentParameters;
+		private final boolean[][] argumentActedUpon;
+		private final MethodHandle invoke;
+
+		private DispatchTable(Class<?> dispatch) throws ClassNotFoundException {
+			try {
+				methodNames = (String[]) dispatch.getField("METHOD_NAMES").get(null);
+				guids = (String[]) dispatch.getField("GUIDS").get(null);
+				labels = (String[]) dispatch.getField("LABELS").get(null);
+				types = (String[]) dispatch.getField("TYPES").get(null);
+				argumentTerms = (String[][]) dispatch.getField("ARGUMENT_TERMS").get(null);
+				argumentParameters = (String[][]) dispatch.getField("ARGUMENT_PARAMETERS").get(null);
+				argumentActedUpon = (boolean[][]) dispatch.getField("ARGUMENT_ACTED_UPON").get(null);
+				invoke = MethodHandles.publicLookup().findStatic(dispatch, "invoke",
+						MethodType.methodType(DQResponse.class, int.class, Object[].class));
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				// a table from some other version of DispatchProcessor, treat as not generated
+				throw new ClassNotFoundException("Unusable dispatch table " + dispatch.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Find all of the tests provided by DwCMetadataDQDefaults and its parent DwCMetadataDQ.
+	 * Where a test is provided both with and without parameters, the variant with the fewest
+	 * parameters (that is the one from DwCMetadataDQDefaults using the default parameter
+	 * values) is used, any remaining parameters are passed as null, which the test methods
+	 * treat as a request to use the default value.
+	 *
+	 * Scans the classes by reflection on each call, see TestRegistry for a shared instance.
+	 *
+	 * @return list of tests, in a stable order (by label).
+	 */
+	public static List<DQTest> discover() {
+		Map<String,DQTest> found = new LinkedHashMap<String,DQTest>();
+		for (Method method : DwCMetadataDQDefaults.class.getMethods()) {
+			if (method.getAnnotation(Provides.class)==null) {
+				continue;
+			}
+			if (!Modifier.isStatic(method.getModifiers())) {
+				// unimplemented stubs are instance methods
+				logger.debug("Skipping non-static test method " + method.getName());
+				continue;
+			}
+			try {
+				DQTest test = new DQTest(method);
+				DQTest existing = found.get(test.getGuid());
+				if (existing==null || existing.getParameters().size() > test.getParameters().size()) {
+					found.put(test.getGuid(), test);
+				}
+			} catch (IllegalArgumentException e) {
+				logger.debug(e.getMessage());
+			}
+		}
+		List<DQTest> result = new ArrayList<DQTest>(found.values());
+		Collections.sort(result, (a,b) -> a.getLabel().compareTo(b.getLabel()));
+		return result;
+	}
+
+	/**
+	 * Find the variant of a test that takes a set of parameters, e.g. the method on
+	 * DwCMetadataDQ taking bdq:sourceAuthority, rather than its default on DwCMetadataDQDefaults.
+	 *
+	 * @param guid the GUID of the test.
+	 * @param parameterNames the names of the parameters the variant must take.
+	 * @return the variant with the fewest parameters that takes all of the named parameters,
+	 *   or null if there is none.
+	 */
+	public static DQTest findVariant(String guid, Collection<String> parameterNames) {
+		DQTest result = null;
+		for (Method method : DwCMetadataDQDefaults.class.getMethods()) {
+			Provides provides = method.getAnnotation(Provides.class);
+			if (provides==null || !provides.value().equals(guid) || !Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			try {
+				DQTest test = new DQTest(method);
+				if (test.getParameters().containsAll(parameterNames) && (result==null || result.getParameters().size() > test.getParameters().size())) {
+					result = test;
+				}
+			} catch (IllegalArgumentException e) {
+				logger.debug(e.getMessage());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Bind values to the parameters of this test, see BoundTest.
+	 *
+	 * @param parameterValues values for parameters keyed by parameter name (e.g. bdq:sourceAuthority),
+	 *   parameters not given use their default value.
+	 * @return an evaluator for the test with the parameter values bound.
+	 * @throws IllegalArgumentException if no variant of this test takes the given parameters.
+	 */
+	public BoundTest bind(Map<String,String> parameterValues) {
+		DQTest variant = this;
+		if (!parameters.containsAll(parameterValues.keySet())) {
+			variant = findVariant(guid, parameterValues.keySet());
+			if (variant==null) {
+				throw new IllegalArgumentException("No variant of " + label + " takes the parameters " + parameterValues.keySet());
+			}
+		}
+		return new BoundTest(variant, parameterValues);
+	}
+
+	/**
+	 * Invoke the test.
+	 *
+	 * @param arguments values for each argument of the test method, in the order of the
+	 *   method parameters, null for any @Parameter to use its default value.
+	 * @return the response from the test.
+	 * @throws RuntimeException wrapping any exception thrown from within the test method.
+	 */
+	public DQResponse<?> invoke(Object[] arguments) {
+		try {
+			return invoker.invoke(arguments);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException("Error in " + methodName + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return the GUID of the test, from the @Provides annotation.
+	 */
+	public String getGuid() {
+		return guid;
+	}
+
+	/**
+	 * @return the label of the test, e.g. VALIDATION_SEX_STANDARD
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the type of test
+	 */
+	public TestType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the method implementing the test, or null for a test from the dispatch table.
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return for each argument of the test method, the term name for an information
+	 *   element, or null if the argument is a parameter.
+	 */
+	public String[] getArgumentTerms() {
+		return argumentTerms.clone();
+	}
+
+	/**
+	 * @return for each argument of the test method, the parameter name, or null if the
+	 *   argument is an information element.
+	 */
+	public String[] getArgumentParameters() {
+		return argumentParameters.clone();
+	}
+
+	/**
+	 * @return the terms the test acts upon.
+	 */
+	public List<String> getActedUpon() {
+		return actedUpon;
+	}
+
+	/**
+	 * @return the terms the test consults.
+	 */
+	public List<String> getConsulted() {
+		return consulted;
+	}
+
+	/**
+	 * @return the names of the parameters taken by the test method.
+	 */
+	public List<String> getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return the name of the method implementing the test.
+	 */
+	public String getMethodName() {
+		return methodName;
+	}
+
+	@Override
+	public String toString() {
+		return label + " " + guid;
+	}
+
+	/**
+	 * Calls the method implementing a test.
+	 */
+	private interface Invoker {
+		DQResponse<?> invoke(Object[] arguments) throws Throwable;
+	}
+
+}
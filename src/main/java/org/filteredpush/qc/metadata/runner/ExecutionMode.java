@@ -0,0 +1,73 @@
+/**
+ * ExecutionMode.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * How the evaluator stage of a BatchRunner runs tests on the records in a batch.
+ *
+ * @author mole
+ *
+ */
+public enum ExecutionMode {
+
+	/**
+	 * Each evaluator thread runs the tests on each record of a batch in turn.
+	 */
+	PLATFORM,
+
+	/**
+	 * Each record of a batch is evaluated in its own task, on a virtual thread, so that tests
+	 * blocked on loading a vocabulary don't hold up evaluator threads.   The tasks for a batch
+	 * are run within a TaskScope, a failure of one cancels the others.  Where the runtime does
+	 * not provide virtual threads (before Java 21), runs as PLATFORM, as a platform thread for
+	 * each record would be unbounded.
+	 */
+	VIRTUAL;
+
+	private static final Log logger = LogFactory.getLog(ExecutionMode.class);
+
+	/**
+	 * Create an executor for record tasks in this mode.
+	 *
+	 * @return an executor starting a new virtual thread for each task, or null for PLATFORM
+	 *   mode or where virtual threads are not available, in which case records are evaluated
+	 *   on the evaluator thread.
+	 */
+	public ExecutorService newRecordExecutor() {
+		if (this==PLATFORM) {
+			return null;
+		}
+		try {
+			// look up by reflection, as the build targets a release without virtual threads.
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.info("Virtual threads not available in Java " + System.getProperty("java.version") + ", evaluating the records of each batch in turn.");
+			return null;
+		}
+	}
+
+}
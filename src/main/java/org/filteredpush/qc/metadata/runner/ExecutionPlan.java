@@ -0,0 +1,93 @@
+/**
+ * ExecutionPlan.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The tests to run on each record, as selected by a profile, with the terms those tests
+ * need, so that only the selected tests are run and only the columns they read are parsed.
+ *
+ * @author mole
+ *
+ */
+public class ExecutionPlan {
+
+	private final String profile;
+	private final List<DQTest> tests;
+	private final Set<String> terms;
+	private final Set<String> amendableTerms;
+
+	/**
+	 * @param profile the name of the profile the tests were selected by.
+	 * @param tests the tests to run.
+	 */
+	public ExecutionPlan(String profile, List<DQTest> tests) {
+		this.profile = profile;
+		this.tests = Collections.unmodifiableList(tests);
+		this.terms = Collections.unmodifiableSet(RecordProcessor.termsFor(tests));
+		this.amendableTerms = Collections.unmodifiableSet(AmendmentMerger.amendableTerms(tests));
+	}
+
+	/**
+	 * Plan to run the tests in the registry selected by a profile.
+	 *
+	 * @param profile the profile selecting tests.
+	 * @return the plan.
+	 */
+	public static ExecutionPlan of(TestProfile profile) {
+		return new ExecutionPlan(profile.getName(), profile.select(TestRegistry.getInstance().getTests()));
+	}
+
+	/**
+	 * @return the name of the profile the tests were selected by.
+	 */
+	public String getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the tests to run, in label order.
+	 */
+	public List<DQTest> getTests() {
+		return tests;
+	}
+
+	/**
+	 * @return the terms acted upon or consulted by the tests, the columns to parse.
+	 */
+	public Set<String> getTerms() {
+		return terms;
+	}
+
+	/**
+	 * @return the terms that may be changed by the amendments among the tests.
+	 */
+	public Set<String> getAmendableTerms() {
+		return amendableTerms;
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutionPlan [profile=" + profile + ", tests=" + tests.size() + ", terms=" + terms.size() + "]";
+	}
+
+}
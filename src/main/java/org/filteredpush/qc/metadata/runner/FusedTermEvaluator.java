@@ -0,0 +1,149 @@
+/**
+ * FusedTermEvaluator.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.DwCMetadataDQ;
+import org.filteredpush.qc.metadata.DwCMetadataDQ.SexLookup;
+import org.filteredpush.qc.metadata.ResolvedSourceAuthority;
+
+/**
+ * Evaluates the NOTEMPTY, STANDARD, and STANDARDIZED tests for a single vocabulary term
+ * together, checking the value for emptiness, obtaining the vocabulary, and looking the value
+ * up in it once, rather than once in each test method.
+ *
+ * The responses are produced by the same methods of DwCMetadataDQ that the test methods call,
+ * so are the same as those from invoking the three test methods one by one with the same value
+ * and bdq:sourceAuthority.  Only dwc:sex is fused, its tests share their work through
+ * DwCMetadataDQ.SexLookup, the vocabulary tests for other terms are run separately.
+ *
+ * @author mole
+ *
+ */
+public abstract class FusedTermEvaluator {
+
+	private static final Map<String,FusedTermEvaluator> evaluators;
+	static {
+		Map<String,FusedTermEvaluator> map = new HashMap<String,FusedTermEvaluator>();
+		FusedTermEvaluator sex = new SexEvaluator();
+		map.put(sex.getTerm(), sex);
+		evaluators = Collections.unmodifiableMap(map);
+	}
+
+	/** position of the NOTEMPTY test in getLabels() and the result of evaluate() */
+	public static final int NOTEMPTY = 0;
+	/** position of the STANDARD test in getLabels() and the result of evaluate() */
+	public static final int STANDARD = 1;
+	/** position of the STANDARDIZED test in getLabels() and the result of evaluate() */
+	public static final int STANDARDIZED = 2;
+
+	private final String term;
+	private final List<String> labels;
+
+	/**
+	 * @param term the term evaluated.
+	 * @param notEmptyLabel the label of the NOTEMPTY test for the term.
+	 * @param standardLabel the label of the STANDARD test for the term.
+	 * @param standardizedLabel the label of the STANDARDIZED test for the term.
+	 */
+	protected FusedTermEvaluator(String term, String notEmptyLabel, String standardLabel, String standardizedLabel) {
+		this.term = term;
+		this.labels = Collections.unmodifiableList(Arrays.asList(notEmptyLabel, standardLabel, standardizedLabel));
+	}
+
+	/**
+	 * Find the fused evaluator for a term.
+	 *
+	 * @param term the term, e.g. dwc:sex.
+	 * @return the evaluator for the term, or null if the tests for the term aren't fused.
+	 */
+	public static FusedTermEvaluator forTerm(String term) {
+		return evaluators.get(term);
+	}
+
+	/**
+	 * @return the term evaluated.
+	 */
+	public String getTerm() {
+		return term;
+	}
+
+	/**
+	 * @return the labels of the NOTEMPTY, STANDARD, and STANDARDIZED tests, in the order
+	 *   of the responses from evaluate().
+	 */
+	public List<String> getLabels() {
+		return labels;
+	}
+
+	/**
+	 * Evaluate the three tests on a value.
+	 *
+	 * @param value the value of the term.
+	 * @param sourceAuthority the bdq:sourceAuthority to consult, or null for the default.
+	 * @return the responses of the NOTEMPTY, STANDARD, and STANDARDIZED tests, in that order.
+	 */
+	public DQResponse<?>[] evaluate(String value, ResolvedSourceAuthority sourceAuthority) {
+		DQResponse<?>[] result = new DQResponse<?>[labels.size()];
+		evaluate(value, sourceAuthority, result, new int[] { NOTEMPTY, STANDARD, STANDARDIZED });
+		return result;
+	}
+
+	/**
+	 * Evaluate some or all of the three tests on a value.
+	 *
+	 * @param value the value of the term.
+	 * @param sourceAuthority the bdq:sourceAuthority to consult, or null for the default.
+	 * @param responses to hold the responses.
+	 * @param positions the position in responses for the response of each of the NOTEMPTY,
+	 *   STANDARD, and STANDARDIZED tests, in that order, -1 for a test not to evaluate.
+	 */
+	public abstract void evaluate(String value, ResolvedSourceAuthority sourceAuthority, DQResponse<?>[] responses, int[] positions);
+
+	/**
+	 * VALIDATION_SEX_NOTEMPTY, VALIDATION_SEX_STANDARD, and AMENDMENT_SEX_STANDARDIZED.
+	 */
+	private static class SexEvaluator extends FusedTermEvaluator {
+
+		private SexEvaluator() {
+			super("dwc:sex", "VALIDATION_SEX_NOTEMPTY", "VALIDATION_SEX_STANDARD", "AMENDMENT_SEX_STANDARDIZED");
+		}
+
+		@Override
+		public void evaluate(String sex, ResolvedSourceAuthority sourceAuthority, DQResponse<?>[] responses, int[] positions) {
+			SexLookup lookup = new SexLookup(sex, sourceAuthority);
+			if (positions[NOTEMPTY] >= 0) {
+				responses[positions[NOTEMPTY]] = DwCMetadataDQ.evaluateSexNotempty(lookup);
+			}
+			if (positions[STANDARD] >= 0) {
+				responses[positions[STANDARD]] = DwCMetadataDQ.evaluateSexStandard(lookup);
+			}
+			if (positions[STANDARDIZED] >= 0) {
+				responses[positions[STANDARDIZED]] = DwCMetadataDQ.evaluateSexStandardized(lookup);
+			}
+		}
+	}
+
+}
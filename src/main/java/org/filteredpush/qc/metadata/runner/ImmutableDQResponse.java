@@ -0,0 +1,93 @@
+/**
+ * ImmutableDQResponse.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.ResultValue;
+import org.datakurator.ffdq.model.ResultState;
+
+/**
+ * A response which can't be modified, for responses shared between many records or rows
+ * (see ConstantResponses).  The mutators inherited from DQResponse throw
+ * UnsupportedOperationException.
+ *
+ * @author mole
+ *
+ */
+public class ImmutableDQResponse<T extends ResultValue> extends DQResponse<T> {
+
+	private final String comment;
+	private final boolean sealed;
+
+	private ImmutableDQResponse(T value, ResultState resultState, String comment) {
+		super();
+		super.setValue(value);
+		super.setResultState(resultState);
+		if (comment!=null && comment.length() > 0) {
+			super.addComment(comment);
+		}
+		this.comment = super.getComment();
+		this.sealed = true;
+	}
+
+	/**
+	 * Make an unmodifiable copy of a response.
+	 *
+	 * @param response the response to copy.
+	 * @return a response with the same value, result state, and comment, or the response
+	 *   itself if it is already immutable.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends ResultValue> ImmutableDQResponse<T> copyOf(DQResponse<T> response) {
+		if (response instanceof ImmutableDQResponse) {
+			return (ImmutableDQResponse<T>)response;
+		}
+		return new ImmutableDQResponse<T>(response.getValue(), response.getResultState(), response.getComment());
+	}
+
+	@Override
+	public String getComment() {
+		return comment;
+	}
+
+	@Override
+	public void setValue(T value) {
+		if (sealed) {
+			throw new UnsupportedOperationException("Shared responses can't be modified.");
+		}
+		super.setValue(value);
+	}
+
+	@Override
+	public void setResultState(ResultState resultState) {
+		if (sealed) {
+			throw new UnsupportedOperationException("Shared responses can't be modified.");
+		}
+		super.setResultState(resultState);
+	}
+
+	@Override
+	public void addComment(String comment) {
+		if (sealed) {
+			throw new UnsupportedOperationException("Shared responses can't be modified.");
+		}
+		super.addComment(comment);
+	}
+
+}
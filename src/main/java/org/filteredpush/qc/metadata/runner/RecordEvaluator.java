@@ -0,0 +1,165 @@
+/**
+ * RecordEvaluator.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+
+/**
+ * A serializable evaluator of records, for distributing evaluation to the tasks of a cluster
+ * (e.g. Spark map functions) or to the threads of a pool, carrying the tests to run and a
+ * snapshot of the vocabularies, so that vocabularies are loaded from GBIF once (where the
+ * evaluator is created) rather than in each JVM.
+ *
+ * In each JVM, the first use of an evaluator installs in MetadataSingleton those of its
+ * vocabularies that haven't already been loaded there, and builds a RecordProcessor shared by
+ * all evaluators for the same tests in that JVM.  Thread safe.
+ *
+ * @author mole
+ *
+ */
+public class RecordEvaluator implements Serializable {
+
+	private static final long serialVersionUID = -2871460929543381206L;
+
+	private static final Log logger = LogFactory.getLog(RecordEvaluator.class);
+
+	/** processors built in this JVM, keyed by test guids and post-amendment flag */
+	private static final Map<List<Object>,RecordProcessor> processors = new ConcurrentHashMap<List<Object>,RecordProcessor>();
+
+	private final ArrayList<String> guids;
+	private final VocabularySnapshot vocabularies;
+	private final boolean postAmendment;
+
+	private transient volatile RecordProcessor processor;
+	private transient volatile RecordSchema schema;
+
+	/**
+	 * @param tests the tests to run on each record.
+	 * @param vocabularies the vocabularies to install where the evaluator is used, or null
+	 *   to load vocabularies from GBIF in each JVM.
+	 * @param postAmendment true to evaluate validations and issues again after amendment,
+	 *   see RecordProcessor.
+	 */
+	public RecordEvaluator(List<DQTest> tests, VocabularySnapshot vocabularies, boolean postAmendment) {
+		this.guids = new ArrayList<String>(tests.size());
+		for (DQTest test : tests) {
+			guids.add(test.getGuid());
+		}
+		this.vocabularies = vocabularies;
+		this.postAmendment = postAmendment;
+	}
+
+	/**
+	 * Create an evaluator for the tests of a plan, carrying a snapshot of the vocabularies
+	 * of this JVM, loading them if they haven't been loaded.
+	 *
+	 * @param plan the tests to run on each record.
+	 * @return an evaluator for the tests.
+	 * @throws IllegalStateException if the vocabularies can't be loaded.
+	 */
+	public static RecordEvaluator of(ExecutionPlan plan) {
+		return new RecordEvaluator(plan.getTests(), MetadataSingleton.getInstance().snapshot(), false);
+	}
+
+	/**
+	 * @return the guids of the tests run on each record.
+	 */
+	public List<String> getGuids() {
+		return Collections.unmodifiableList(guids);
+	}
+
+	/**
+	 * @return the vocabularies carried by the evaluator, or null if none.
+	 */
+	public VocabularySnapshot getVocabularies() {
+		return vocabularies;
+	}
+
+	/**
+	 * @return the processor for the tests in this JVM, creating it on first use.
+	 */
+	public RecordProcessor getProcessor() {
+		RecordProcessor result = processor;
+		if (result==null) {
+			if (vocabularies!=null && MetadataSingleton.installIfAbsent(vocabularies)) {
+				logger.debug("Installed vocabularies " + vocabularies);
+			}
+			result = processors.computeIfAbsent(Arrays.<Object>asList(guids, Boolean.valueOf(postAmendment)), key -> {
+				List<DQTest> tests = new ArrayList<DQTest>(guids.size());
+				for (String guid : guids) {
+					DQTest test = TestRegistry.getInstance().getByGuid(guid);
+					if (test==null) {
+						throw new IllegalStateException("No test with guid " + guid + " in this version of the library.");
+					}
+					tests.add(test);
+				}
+				return new RecordProcessor(tests, null, postAmendment);
+			});
+			List<String> terms = new ArrayList<String>(result.getTerms());
+			schema = new RecordSchema(terms, terms);
+			processor = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the schema of records evaluated from maps, with a column for each term
+	 *   acted upon or consulted by the tests.
+	 */
+	public RecordSchema getSchema() {
+		getProcessor();
+		return schema;
+	}
+
+	/**
+	 * Run the tests on a record given as a map of term to value.
+	 *
+	 * @param number the number of the record.
+	 * @param record values keyed by term name (e.g. dwc:sex), local name, or IRI.
+	 * @return the responses from each test.
+	 */
+	public RecordResults evaluate(long number, Map<String,String> record) {
+		RecordSchema recordSchema = getSchema();
+		return getProcessor().evaluate(new DwCRecord(number, recordSchema, recordSchema.values(record)));
+	}
+
+	/**
+	 * Run the tests on a record.
+	 *
+	 * @param record the record to evaluate.
+	 * @return the responses from each test.
+	 */
+	public RecordResults evaluate(DwCRecord record) {
+		return getProcessor().evaluate(record);
+	}
+
+}
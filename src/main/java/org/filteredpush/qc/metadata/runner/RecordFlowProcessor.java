@@ -0,0 +1,245 @@
+/**
+ * RecordFlowProcessor.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+
+/**
+ * A java.util.concurrent.Flow processor that runs tests on a stream of records, each given as
+ * a map of term to value, and publishes the results for each record in order.  Terms may be
+ * given as prefix:localName (e.g. dwc:sex), local names, or IRIs.  Records are numbered from 1
+ * in the order received.
+ *
+ * Each record is evaluated on the thread that delivers it, and the demand requested by the
+ * subscriber is passed on to the publisher one for one, so records are requested only as
+ * results can be delivered, and nothing is buffered.  A single subscriber is supported.
+ *
+ * @author mole
+ *
+ */
+public class RecordFlowProcessor implements Flow.Processor<Map<String,String>, RecordResults> {
+
+	private static final Log logger = LogFactory.getLog(RecordFlowProcessor.class);
+
+	private final RecordProcessor processor;
+	private final RecordSchema schema;
+
+	private final Object lock = new Object();
+	private Flow.Subscription upstream = null;
+	private Flow.Subscriber<? super RecordResults> downstream = null;
+	/** demand requested by the subscriber before the publisher subscribed */
+	private long pendingDemand = 0L;
+	private boolean cancelled = false;
+	/** the subscriber has been passed its subscription, and may be sent other signals */
+	private boolean subscribed = false;
+	/** onComplete or onError has been sent to the subscriber */
+	private boolean terminated = false;
+	private boolean completed = false;
+	private Throwable error = null;
+	/** the subscriber requested a non-positive number of records, to be signalled in place of any other terminal signal */
+	private Throwable requestError = null;
+	/** onNext is being delivered to the subscriber, other signals wait for it to return */
+	private boolean delivering = false;
+	private long recordNumber = 0L;
+
+	/**
+	 * @param processor runs the tests on each record.
+	 */
+	public RecordFlowProcessor(RecordProcessor processor) {
+		this.processor = processor;
+		List<String> terms = new ArrayList<String>(processor.getTerms());
+		this.schema = new RecordSchema(terms, terms);
+	}
+
+	/**
+	 * @return the schema of the records passed to the tests, with a column for each term
+	 *   acted upon or consulted by the tests.
+	 */
+	public RecordSchema getSchema() {
+		return schema;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super RecordResults> subscriber) {
+		boolean accepted;
+		synchronized (lock) {
+			accepted = downstream==null;
+			if (accepted) {
+				downstream = subscriber;
+			}
+		}
+		if (!accepted) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) { }
+				@Override
+				public void cancel() { }
+			});
+			subscriber.onError(new IllegalStateException("RecordFlowProcessor supports a single subscriber."));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				RecordFlowProcessor.this.request(n);
+			}
+			@Override
+			public void cancel() {
+				RecordFlowProcessor.this.cancel();
+			}
+		});
+		// the publisher may already have finished
+		synchronized (lock) {
+			subscribed = true;
+		}
+		signalTerminal();
+	}
+
+	/**
+	 * Pass on completion or an error from the publisher, or an error in a request from the
+	 * subscriber, once the subscriber has been subscribed, not while onNext is being delivered
+	 * (the signal is sent when onNext returns), and only once.
+	 */
+	private void signalTerminal() {
+		Flow.Subscriber<? super RecordResults> subscriber = null;
+		Throwable terminalError;
+		synchronized (lock) {
+			terminalError = requestError!=null ? requestError : error;
+			if (subscribed && !terminated && !delivering && (requestError!=null || (!cancelled && (completed || error!=null)))) {
+				terminated = true;
+				subscriber = downstream;
+			}
+		}
+		if (subscriber!=null) {
+			if (terminalError!=null) {
+				subscriber.onError(terminalError);
+			} else {
+				subscriber.onComplete();
+			}
+		}
+	}
+
+	private void request(long n) {
+		Flow.Subscription subscription;
+		synchronized (lock) {
+			if (cancelled || terminated || requestError!=null) {
+				return;
+			}
+			if (n <= 0L) {
+				// stop taking records, and signal the error in sequence with any onNext in progress
+				requestError = new IllegalArgumentException("Requested " + n + " records, must request a positive number.");
+				cancelled = true;
+			}
+			subscription = upstream;
+			if (subscription==null && n > 0L) {
+				pendingDemand = pendingDemand + n < 0L ? Long.MAX_VALUE : pendingDemand + n;
+			}
+		}
+		if (n <= 0L) {
+			if (subscription!=null) {
+				subscription.cancel();
+			}
+			signalTerminal();
+		} else if (subscription!=null) {
+			subscription.request(n);
+		}
+	}
+
+	private void cancel() {
+		Flow.Subscription subscription;
+		synchronized (lock) {
+			cancelled = true;
+			subscription = upstream;
+		}
+		if (subscription!=null) {
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		long demand;
+		boolean cancel;
+		synchronized (lock) {
+			cancel = upstream!=null || cancelled;
+			if (upstream==null) {
+				upstream = subscription;
+			}
+			demand = pendingDemand;
+			pendingDemand = 0L;
+		}
+		if (cancel) {
+			// already subscribed to a publisher, or the subscriber has cancelled.
+			subscription.cancel();
+		} else if (demand > 0L) {
+			subscription.request(demand);
+		}
+	}
+
+	@Override
+	public void onNext(Map<String,String> item) {
+		Flow.Subscriber<? super RecordResults> subscriber;
+		long number;
+		synchronized (lock) {
+			if (cancelled || terminated) {
+				return;
+			}
+			subscriber = downstream;
+			number = ++recordNumber;
+			delivering = true;
+		}
+		try {
+			String[] values = schema.values(item);
+			// records are only requested on behalf of the subscriber, so there is one to deliver to.
+			subscriber.onNext(processor.evaluate(new DwCRecord(number, schema, values)));
+		} finally {
+			synchronized (lock) {
+				delivering = false;
+			}
+			// a request error raised while delivering
+			signalTerminal();
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		logger.debug("Publisher failed: " + throwable.getMessage());
+		synchronized (lock) {
+			error = throwable;
+		}
+		signalTerminal();
+	}
+
+	@Override
+	public void onComplete() {
+		synchronized (lock) {
+			completed = true;
+		}
+		signalTerminal();
+	}
+
+}
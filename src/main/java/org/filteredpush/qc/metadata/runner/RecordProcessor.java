@@ -0,0 +1,305 @@
+/**
+ * RecordProcessor.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+
+/**
+ * Runs a list of tests on records.  Thread safe, a single instance may be shared between
+ * worker threads.
+ *
+ * Tests with constant outcomes, the NOTEMPTY tests, aren't run at all, each record is given
+ * one of the two shared responses of the test (see ConstantResponses), so responses are
+ * shared between records whether or not there is a memo, and must not be modified.
+ *
+ * Where the list includes the STANDARD and STANDARDIZED tests for a term with a
+ * FusedTermEvaluator, and responses aren't being remembered, the tests for the term are
+ * evaluated together, sharing the lookup of the value in the vocabulary (with a memo, each
+ * distinct value is only looked up once for each test anyway).
+ *
+ * With a post-amendment phase, after the tests have been run the changes proposed by the
+ * amendments are combined (see AmendmentMerger), and the validations and issues are
+ * evaluated again on the amended record.  Only those that act upon or consult a changed term
+ * are run again, the pre-amendment responses of the others are reused, so records which no
+ * amendment changes cost nothing more.
+ *
+ * @author mole
+ *
+ */
+public class RecordProcessor {
+
+	private static final Log logger = LogFactory.getLog(RecordProcessor.class);
+
+	private final List<DQTest> tests;
+	private final ResultMemo memo;
+	private final boolean postAmendment;
+
+	/** shared responses for each test with constant outcomes, null for other tests */
+	private final ConstantResponses[] constants;
+
+	/** evaluators for fused tests, and the positions in tests of the tests each evaluates */
+	private final FusedTermEvaluator[] fusedEvaluators;
+	private final int[][] fusedPositions;
+	private final boolean[] fused;
+
+	/** column index for each argument of each test, for the most recently seen schema */
+	private volatile BindingPlan binding;
+
+	/**
+	 * @param tests the tests to run on each record.
+	 */
+	public RecordProcessor(List<DQTest> tests) {
+		this(tests, null);
+	}
+
+	/**
+	 * @param tests the tests to run on each record.
+	 * @param memo remembers responses for distinct inputs to each test, or null to run
+	 *   every test on every record.
+	 */
+	public RecordProcessor(List<DQTest> tests, ResultMemo memo) {
+		this(tests, memo, false);
+	}
+
+	/**
+	 * @param tests the tests to run on each record.
+	 * @param memo remembers responses for distinct inputs to each test, or null to run
+	 *   every test on every record.
+	 * @param postAmendment true to evaluate the validations and issues again after applying
+	 *   the changes proposed by the amendments.
+	 */
+	public RecordProcessor(List<DQTest> tests, ResultMemo memo, boolean postAmendment) {
+		this.tests = Collections.unmodifiableList(tests);
+		this.memo = memo;
+		this.postAmendment = postAmendment;
+		this.constants = new ConstantResponses[tests.size()];
+		for (int t=0; t<tests.size(); t++) {
+			constants[t] = ConstantResponses.forTest(tests.get(t));
+		}
+		this.fused = new boolean[tests.size()];
+		List<FusedTermEvaluator> evaluators = new ArrayList<FusedTermEvaluator>();
+		List<int[]> positions = new ArrayList<int[]>();
+		if (memo==null) {
+			for (String term : termsFor(tests)) {
+				FusedTermEvaluator evaluator = FusedTermEvaluator.forTerm(term);
+				if (evaluator==null) {
+					continue;
+				}
+				int[] found = new int[evaluator.getLabels().size()];
+				for (int i=0; i<found.length; i++) {
+					found[i] = indexOfLabel(evaluator.getLabels().get(i));
+				}
+				if (found[FusedTermEvaluator.STANDARD] < 0 || found[FusedTermEvaluator.STANDARDIZED] < 0) {
+					continue;
+				}
+				if (found[FusedTermEvaluator.NOTEMPTY] >= 0 && constants[found[FusedTermEvaluator.NOTEMPTY]]!=null) {
+					// the shared responses are cheaper still
+					found[FusedTermEvaluator.NOTEMPTY] = -1;
+				}
+				evaluators.add(evaluator);
+				positions.add(found);
+				for (int position : found) {
+					if (position >= 0) {
+						fused[position] = true;
+					}
+				}
+			}
+		}
+		this.fusedEvaluators = evaluators.toArray(new FusedTermEvaluator[evaluators.size()]);
+		this.fusedPositions = positions.toArray(new int[positions.size()][]);
+	}
+
+	private int indexOfLabel(String label) {
+		for (int t=0; t<tests.size(); t++) {
+			if (tests.get(t).getLabel().equals(label)) {
+				return t;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the tests run by this processor.
+	 */
+	public List<DQTest> getTests() {
+		return tests;
+	}
+
+	/**
+	 * @return the memo of responses for distinct inputs, or null if none.
+	 */
+	public ResultMemo getMemo() {
+		return memo;
+	}
+
+	/**
+	 * @return true if validations and issues are evaluated again after amendment.
+	 */
+	public boolean isPostAmendment() {
+		return postAmendment;
+	}
+
+	/**
+	 * @param test the position of a test in getTests().
+	 * @return true if the test is evaluated by a FusedTermEvaluator.
+	 */
+	boolean isFused(int test) {
+		return fused[test];
+	}
+
+	/**
+	 * @return the set of terms acted upon or consulted by any of the tests.
+	 */
+	public Set<String> getTerms() {
+		return termsFor(tests);
+	}
+
+	/**
+	 * Find the terms acted upon or consulted by a set of tests.
+	 *
+	 * @param tests the tests to examine.
+	 * @return the set of term names, in the order first encountered.
+	 */
+	public static Set<String> termsFor(List<DQTest> tests) {
+		Set<String> result = new LinkedHashSet<String>();
+		for (DQTest test : tests) {
+			result.addAll(test.getActedUpon());
+			result.addAll(test.getConsulted());
+		}
+		return result;
+	}
+
+	/**
+	 * Run each of the tests on a record, and with a post-amendment phase, the validations
+	 * and issues affected by the amendments again.
+	 *
+	 * @param record the record to evaluate.
+	 * @return the responses from each test.
+	 */
+	public RecordResults evaluate(DwCRecord record) {
+		BindingPlan plan = bindingFor(record.getSchema());
+		DQResponse<?>[] responses = new DQResponse<?>[tests.size()];
+		for (int f=0; f<fusedEvaluators.length; f++) {
+			evaluateFused(f, plan, record, responses);
+		}
+		for (int t=0; t<tests.size(); t++) {
+			if (fused[t]) {
+				continue;
+			}
+			if (constants[t]!=null) {
+				responses[t] = constants[t].evaluate(plan.value(t, 0, record));
+				continue;
+			}
+			// parameters and absent terms are passed as null
+			responses[t] = run(t, plan.arguments(t, record), record);
+		}
+		if (!postAmendment) {
+			return new RecordResults(record, tests, responses);
+		}
+
+		RecordResults preAmendment = new RecordResults(record, tests, responses);
+		Map<String,String> changes = AmendmentMerger.merge(preAmendment);
+		DQResponse<?>[] postAmendmentResponses = new DQResponse<?>[tests.size()];
+		boolean[] reevaluated = new boolean[tests.size()];
+		for (int t=0; t<tests.size(); t++) {
+			DQTest test = tests.get(t);
+			if (test.getType()==DQTest.TestType.AMENDMENT) {
+				continue;
+			}
+			Object[] arguments = null;
+			if (!changes.isEmpty()) {
+				String[] terms = test.getArgumentTerms();
+				for (int a=0; a<terms.length; a++) {
+					if (terms[a]!=null && changes.containsKey(terms[a])) {
+						if (arguments==null) {
+							arguments = plan.arguments(t, record);
+						}
+						// an amended term need not be a column of the input
+						arguments[a] = changes.get(terms[a]);
+					}
+				}
+			}
+			if (arguments==null) {
+				postAmendmentResponses[t] = responses[t];
+			} else {
+				postAmendmentResponses[t] = run(t, arguments, record);
+				reevaluated[t] = true;
+			}
+		}
+		return new RecordResults(record, tests, responses, postAmendmentResponses, reevaluated);
+	}
+
+	private void evaluateFused(int f, BindingPlan plan, DwCRecord record, DQResponse<?>[] responses) {
+		FusedTermEvaluator evaluator = fusedEvaluators[f];
+		int[] positions = fusedPositions[f];
+		int standard = positions[FusedTermEvaluator.STANDARD];
+		int argument = Arrays.asList(tests.get(standard).getArgumentTerms()).indexOf(evaluator.getTerm());
+		// parameters are passed as null, so the default bdq:sourceAuthority is used
+		String value = plan.value(standard, argument, record);
+		try {
+			evaluator.evaluate(value, null, responses, positions);
+		} catch (RuntimeException e) {
+			logger.error("Record " + record.getNumber() + " " + evaluator.getTerm() + ": " + e.getMessage(), e);
+			for (int position : positions) {
+				if (position >= 0) {
+					DQResponse<?> failure = new DQResponse<>();
+					failure.addComment("Error running test: " + e.getMessage());
+					responses[position] = failure;
+				}
+			}
+		}
+	}
+
+	private DQResponse<?> run(int t, Object[] arguments, DwCRecord record) {
+		DQTest test = tests.get(t);
+		if (constants[t]!=null) {
+			return constants[t].evaluate((String)arguments[0]);
+		}
+		try {
+			return memo==null ? test.invoke(arguments) : memo.evaluate(test, arguments);
+		} catch (RuntimeException e) {
+			logger.error("Record " + record.getNumber() + " " + test.getLabel() + ": " + e.getMessage(), e);
+			DQResponse<?> failure = new DQResponse<>();
+			failure.addComment("Error running test: " + e.getMessage());
+			return failure;
+		}
+	}
+
+	private BindingPlan bindingFor(RecordSchema schema) {
+		BindingPlan current = binding;
+		if (current==null || current.getSchema()!=schema) {
+			current = new BindingPlan(tests, schema);
+			binding = current;
+		}
+		return current;
+	}
+
+}
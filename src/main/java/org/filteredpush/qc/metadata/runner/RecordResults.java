@@ -0,0 +1,122 @@
+/**
+ * RecordResults.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.List;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+
+/**
+ * The responses from running a list of tests on a single record, and, where the record was
+ * evaluated in two phases, the responses of the validations and issues after the changes
+ * proposed by the amendments were applied (see RecordProcessor).
+ *
+ * @author mole
+ *
+ */
+public class RecordResults {
+
+	private final DwCRecord record;
+	private final List<DQTest> tests;
+	private final DQResponse<?>[] responses;
+	private final DQResponse<?>[] postAmendmentResponses;
+	private final boolean[] reevaluated;
+
+	/**
+	 * @param record the record the tests were run on
+	 * @param tests the tests which were run
+	 * @param responses the response from each test, in the same order as tests.
+	 */
+	public RecordResults(DwCRecord record, List<DQTest> tests, DQResponse<?>[] responses) {
+		this(record, tests, responses, null, null);
+	}
+
+	/**
+	 * @param record the record the tests were run on
+	 * @param tests the tests which were run
+	 * @param responses the response from each test before amendment, in the same order as tests.
+	 * @param postAmendmentResponses the response from each validation and issue after amendment,
+	 *   null for amendments, in the same order as tests, or null if there was no post-amendment phase.
+	 * @param reevaluated for each test, whether it was run again after amendment, rather than
+	 *   its pre-amendment response being reused, or null if there was no post-amendment phase.
+	 */
+	public RecordResults(DwCRecord record, List<DQTest> tests, DQResponse<?>[] responses, DQResponse<?>[] postAmendmentResponses, boolean[] reevaluated) {
+		this.record = record;
+		this.tests = tests;
+		this.responses = responses;
+		this.postAmendmentResponses = postAmendmentResponses;
+		this.reevaluated = reevaluated;
+	}
+
+	/**
+	 * @return the record the tests were run on.
+	 */
+	public DwCRecord getRecord() {
+		return record;
+	}
+
+	/**
+	 * @return the tests which were run.
+	 */
+	public List<DQTest> getTests() {
+		return tests;
+	}
+
+	/**
+	 * @param index the position of the test in getTests()
+	 * @return the response for the test
+	 */
+	public DQResponse<?> getResponse(int index) {
+		return responses[index];
+	}
+
+	/**
+	 * @return true if the record was evaluated again after amendment.
+	 */
+	public boolean hasPostAmendment() {
+		return postAmendmentResponses!=null;
+	}
+
+	/**
+	 * @param index the position of the test in getTests()
+	 * @return the response for the test after amendment, null for an amendment or if
+	 *   there was no post-amendment phase.
+	 */
+	public DQResponse<?> getPostAmendmentResponse(int index) {
+		return postAmendmentResponses==null ? null : postAmendmentResponses[index];
+	}
+
+	/**
+	 * @param index the position of the test in getTests()
+	 * @return true if the test was run again after amendment because a term it acts upon or
+	 *   consults was changed, false if its pre-amendment response was reused.
+	 */
+	public boolean isReevaluated(int index) {
+		return reevaluated!=null && reevaluated[index];
+	}
+
+	/**
+	 * @return the number of responses
+	 */
+	public int size() {
+		return responses.length;
+	}
+
+}
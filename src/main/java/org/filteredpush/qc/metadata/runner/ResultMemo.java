@@ -0,0 +1,202 @@
+/**
+ * ResultMemo.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.model.ResultState;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+
+/**
+ * Remembers the response of each test for each distinct combination of argument values, so
+ * that a test is run only once for each distinct input, relying on the tests in DwCMetadataDQ
+ * being functions only of their arguments.   Values such as dwc:basisOfRecord or dwc:sex have
+ * few distinct values in most data sets, values such as dwc:occurrenceID are distinct for each
+ * record, so the number of distinct inputs is tracked for each test, and a test that exceeds
+ * the limit stops being remembered.
+ *
+ * Responses reporting EXTERNAL_PREREQUISITES_NOT_MET (e.g. a vocabulary that couldn't be 
+ * loaded) are not remembered, as a later run on the same input may succeed.
+ * Responses are shared between all records with the same input, and must not be modified.
+ * Remembered responses are discarded when the vocabularies held by MetadataSingleton are 
+ * replaced (see MetadataSingleton.getGeneration()), so that responses reflect refreshed
+ * vocabularies.  Thread safe.
+ *
+ * @author mole
+ *
+ */
+public class ResultMemo {
+
+	private static final Log logger = LogFactory.getLog(ResultMemo.class);
+
+	/** default maximum number of distinct inputs remembered for a test */
+	public static final int DEFAULT_MAX_DISTINCT = 10000;
+
+	private final int maxDistinct;
+	private final Map<String,TestMemo> memos;
+	private volatile long generation;
+
+	/**
+	 * @param maxDistinct the number of distinct inputs to a test above which responses for
+	 *   that test are no longer remembered.
+	 */
+	public ResultMemo(int maxDistinct) {
+		this.maxDistinct = maxDistinct;
+		this.memos = new ConcurrentHashMap<String,TestMemo>();
+		this.generation = MetadataSingleton.getGeneration();
+	}
+
+	/**
+	 * Obtain the response of a test for a set of arguments, running the test only if it has not
+	 * already been run on the same arguments.
+	 *
+	 * @param test the test to run.
+	 * @param arguments the arguments to the test.
+	 * @return the response from the test.
+	 * @throws RuntimeException if the test throws an exception, the failure is not remembered.
+	 */
+	public DQResponse<?> evaluate(DQTest test, Object[] arguments) {
+		long current = MetadataSingleton.getGeneration();
+		if (current!=generation) {
+			forget(current);
+		}
+		TestMemo memo = memos.computeIfAbsent(test.getGuid(), guid -> new TestMemo());
+		if (memo.bypassed) {
+			memo.misses.incrementAndGet();
+			return test.invoke(arguments);
+		}
+		List<Object> key = Arrays.asList(arguments);
+		DQResponse<?> result = memo.responses.get(key);
+		if (result!=null) {
+			memo.hits.incrementAndGet();
+		} else {
+			memo.misses.incrementAndGet();
+			result = test.invoke(arguments);
+			if (MetadataSingleton.getGeneration()!=current) {
+				// the vocabularies changed while the test ran, don't remember a possibly stale response
+				return result;
+			}
+			if (isExternalFailure(result)) {
+				// e.g. a vocabulary that couldn't be loaded, which may load for a later record
+				return result;
+			}
+			DQResponse<?> existing = memo.responses.putIfAbsent(key, result);
+			if (existing!=null) {
+				// another thread ran the same input, keep a single shared response
+				result = existing;
+			} else if (memo.responses.size() > maxDistinct) {
+				memo.bypassed = true;
+				memo.responses.clear();
+				logger.info("More than " + maxDistinct + " distinct inputs to " + test.getLabel() + ", no longer remembering responses for this test.");
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if the response reports that an external resource (e.g. a vocabulary)
+	 *   wasn't available, which depends on more than the arguments, so isn't remembered.
+	 */
+	private static boolean isExternalFailure(DQResponse<?> response) {
+		return response.getResultState()!=null 
+				&& response.getResultState().getLabel().equals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel());
+	}
+
+	/**
+	 * @param guid the guid of a test.
+	 * @return true if responses for the test are no longer being remembered.
+	 */
+	public boolean isBypassed(String guid) {
+		TestMemo memo = memos.get(guid);
+		return memo!=null && memo.bypassed;
+	}
+
+	/**
+	 * @param guid the guid of a test.
+	 * @return the number of distinct inputs remembered for the test.
+	 */
+	public int getDistinctCount(String guid) {
+		TestMemo memo = memos.get(guid);
+		return memo==null ? 0 : memo.responses.size();
+	}
+
+	/**
+	 * @return the number of responses returned without running a test.
+	 */
+	public long getHits() {
+		long result = 0L;
+		for (TestMemo memo : memos.values()) {
+			result += memo.hits.get();
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of times a test was run.
+	 */
+	public long getMisses() {
+		long result = 0L;
+		for (TestMemo memo : memos.values()) {
+			result += memo.misses.get();
+		}
+		return result;
+	}
+
+	/**
+	 * Forget all remembered responses, for example after the vocabularies the tests
+	 * depend on have changed.
+	 */
+	public void clear() {
+		memos.clear();
+	}
+
+	/**
+	 * Discard the remembered responses after the vocabularies have changed, retaining the 
+	 * counts and which tests are bypassed.
+	 */
+	private synchronized void forget(long current) {
+		if (current!=generation) {
+			for (TestMemo memo : memos.values()) {
+				memo.responses.clear();
+			}
+			generation = current;
+			logger.debug("Vocabularies changed, discarded remembered responses.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ResultMemo [hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+
+	private static class TestMemo {
+		private final Map<List<Object>,DQResponse<?>> responses = new ConcurrentHashMap<List<Object>,DQResponse<?>>();
+		private final AtomicLong hits = new AtomicLong(0L);
+		private final AtomicLong misses = new AtomicLong(0L);
+		private volatile boolean bypassed = false;
+	}
+
+}
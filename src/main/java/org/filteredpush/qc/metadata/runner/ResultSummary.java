@@ -0,0 +1,182 @@
+/**
+ * ResultSummary.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+
+/**
+ * Aggregate counts of the result state and value of each test over all of the records
+ * in a run.  Not thread safe, counts are accumulated by the single thread writing results.
+ *
+ * @author mole
+ *
+ */
+public class ResultSummary {
+
+	private final Map<String,Count> counts = new LinkedHashMap<String,Count>();
+	private long recordCount = 0L;
+
+	/**
+	 * Add the responses for a record to the counts.
+	 *
+	 * @param results the responses to count.
+	 */
+	public void add(RecordResults results) {
+		recordCount++;
+		for (int i=0; i<results.size(); i++) {
+			DQTest test = results.getTests().get(i);
+			DQResponse<?> response = results.getResponse(i);
+			add(test.getGuid(), test.getLabel(), ResultWriter.stateLabel(response), ResultWriter.valueLabel(response), 1L);
+		}
+	}
+
+	/**
+	 * Add to the count for a combination of test, result state and value.
+	 *
+	 * @param guid the guid of the test
+	 * @param label the label of the test
+	 * @param resultState the label of the result state
+	 * @param value the label of the value
+	 * @param count the number to add.
+	 */
+	public void add(String guid, String label, String resultState, String value, long count) {
+		String key = guid + "\u0000" + resultState + "\u0000" + value;
+		Count existing = counts.get(key);
+		if (existing==null) {
+			existing = new Count(guid, label, resultState, value);
+			counts.put(key, existing);
+		}
+		existing.count += count;
+	}
+
+	/**
+	 * Add to the number of records counted, e.g. when continuing from an earlier run.
+	 *
+	 * @param count the number of records to add.
+	 */
+	public void addRecordCount(long count) {
+		recordCount += count;
+	}
+
+	/**
+	 * Add the counts from a summary written by write(Writer).
+	 *
+	 * @param reader to read the summary from, not closed.
+	 * @throws IOException on an error reading or if the summary can't be parsed.
+	 */
+	public void read(Reader reader) throws IOException {
+		try {
+			CSVParser parser = new CSVParser(reader, CSVFormat.RFC4180.withFirstRecordAsHeader());
+			for (CSVRecord row : parser) {
+				add(row.get("guid"), row.get("label"), row.get("resultState"), row.get("value"), Long.parseLong(row.get("count")));
+			}
+		} catch (IllegalStateException | IllegalArgumentException e) {
+			// includes NumberFormatException, and IOExceptions wrapped by commons-csv
+			throw new IOException("Unable to read summary: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return the number of records counted.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * @return the counts, in the order first encountered.
+	 */
+	public List<Count> getCounts() {
+		return Collections.unmodifiableList(new ArrayList<Count>(counts.values()));
+	}
+
+	/**
+	 * Write the summary as csv with a header row.
+	 *
+	 * @param writer to write to, flushed but not closed.
+	 * @throws IOException on an error writing.
+	 */
+	public void write(Writer writer) throws IOException {
+		CSVPrinter printer = new CSVPrinter(writer, CSVFormat.RFC4180);
+		printer.printRecord("guid", "label", "resultState", "value", "count");
+		for (Count count : counts.values()) {
+			printer.printRecord(count.getGuid(), count.getLabel(), count.getResultState(), count.getValue(), Long.toString(count.getCount()));
+		}
+		printer.flush();
+	}
+
+	/**
+	 * The number of times a test produced a particular result state and value.
+	 */
+	public static class Count {
+		private final String guid;
+		private final String label;
+		private final String resultState;
+		private final String value;
+		private long count;
+
+		private Count(String guid, String label, String resultState, String value) {
+			this.guid = guid;
+			this.label = label;
+			this.resultState = resultState;
+			this.value = value;
+			this.count = 0L;
+		}
+
+		/** @return the guid of the test */
+		public String getGuid() {
+			return guid;
+		}
+
+		/** @return the label of the test */
+		public String getLabel() {
+			return label;
+		}
+
+		/** @return the result state label */
+		public String getResultState() {
+			return resultState;
+		}
+
+		/** @return the value label */
+		public String getValue() {
+			return value;
+		}
+
+		/** @return the count */
+		public long getCount() {
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * ShardMerger.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Combines the output of runs on each shard of an input into the output of a single run,
+ * concatenating the results of each shard in shard order, renumbering records to their
+ * position in the whole input, and adding together the counts in the summaries.
+ *
+ * @author mole
+ *
+ */
+public class ShardMerger {
+
+	private static final Log logger = LogFactory.getLog(ShardMerger.class);
+
+	private static final CSVFormat FORMAT = CSVFormat.RFC4180.withFirstRecordAsHeader();
+
+	/**
+	 * Merge result files.
+	 *
+	 * @param shardResults the result file from each shard, in shard order.
+	 * @param out to write the merged results to, flushed but not closed.
+	 * @return the number of records in the merged results.
+	 * @throws IOException on an error reading or writing, or if the result files have
+	 *   different columns.
+	 */
+	public static long mergeResults(List<Path> shardResults, Writer out) throws IOException {
+		CSVPrinter printer = new CSVPrinter(out, CSVFormat.RFC4180);
+		List<String> header = null;
+		int recordColumn = -1;
+		long offset = 0L;
+		for (Path shard : shardResults) {
+			long lastRecord = 0L;
+			try (Reader in = Files.newBufferedReader(shard, StandardCharsets.UTF_8);
+				 CSVParser parser = new CSVParser(in, FORMAT)) {
+				List<String> shardHeader = new ArrayList<String>(parser.getHeaderMap().keySet());
+				if (header==null) {
+					header = shardHeader;
+					recordColumn = header.indexOf("record");
+					if (recordColumn < 0) {
+						throw new IOException("No record column in " + shard);
+					}
+					printer.printRecord(header);
+				} else if (!header.equals(shardHeader)) {
+					throw new IOException("Columns of " + shard + " don't match " + shardResults.get(0));
+				}
+				for (CSVRecord row : parser) {
+					List<String> values = new ArrayList<String>(row.size());
+					for (String value : row) {
+						values.add(value);
+					}
+					try {
+						long record = Long.parseLong(values.get(recordColumn));
+						lastRecord = Math.max(lastRecord, record);
+						values.set(recordColumn, Long.toString(record + offset));
+					} catch (NumberFormatException e) {
+						throw new IOException("Unable to parse record number in " + shard + " line " + parser.getRecordNumber(), e);
+					}
+					printer.printRecord(values);
+				}
+			} catch (IllegalStateException e) {
+				// commons-csv wraps IOExceptions from the underlying reader
+				throw new IOException("Error reading " + shard + ": " + e.getMessage(), e);
+			}
+			logger.debug(shard + " records " + (offset + 1) + " to " + (offset + lastRecord));
+			offset += lastRecord;
+		}
+		printer.flush();
+		return offset;
+	}
+
+	/**
+	 * Merge summary files.
+	 *
+	 * @param shardSummaries the summary file from each shard.
+	 * @return the sum of the counts in the summaries.
+	 * @throws IOException on an error reading a summary.
+	 */
+	public static ResultSummary mergeSummaries(List<Path> shardSummaries) throws IOException {
+		ResultSummary result = new ResultSummary();
+		for (Path shard : shardSummaries) {
+			try (Reader in = Files.newBufferedReader(shard, StandardCharsets.UTF_8)) {
+				result.read(in);
+			} catch (IOException e) {
+				throw new IOException("Error reading " + shard + ": " + e.getMessage(), e);
+			}
+		}
+		return result;
+	}
+
+}
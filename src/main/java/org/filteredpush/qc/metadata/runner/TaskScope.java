@@ -0,0 +1,200 @@
+/**
+ * TaskScope.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A group of tasks forked by and joined by a single owner thread, where the failure of any
+ * task cancels the others, and closing the scope cancels any tasks still running and waits
+ * for them to finish, so that no task outlives the scope.  Follows the shutdown on failure policy of the structured
+ * concurrency scopes in recent Java releases, which are not available to this build.
+ *
+ * Usage:
+ * <pre>
+ * try (TaskScope&lt;X&gt; scope = new TaskScope&lt;X&gt;(executor)) {
+ *     scope.fork(task);
+ *     ...
+ *     List&lt;X&gt; results = scope.join();
+ * }
+ * </pre>
+ *
+ * @author mole
+ *
+ * @param <T> the result type of the tasks.
+ */
+public class TaskScope<T> implements AutoCloseable {
+
+	private final ExecutorService executor;
+	private final List<Future<T>> futures;
+	// tasks not yet completed, each removes itself when done
+	private final Set<Future<T>> running;
+	private final AtomicReference<Throwable> failure;
+	// guards closed and active, and is notified as each task finishes
+	private final Object lock;
+	private boolean closed;
+	// tasks whose body has started and not yet finished
+	private int active;
+
+	/**
+	 * @param executor to run the tasks on.
+	 */
+	public TaskScope(ExecutorService executor) {
+		this.executor = executor;
+		this.futures = new ArrayList<Future<T>>();
+		this.running = ConcurrentHashMap.newKeySet();
+		this.failure = new AtomicReference<Throwable>();
+		this.lock = new Object();
+		this.closed = false;
+		this.active = 0;
+	}
+
+	/**
+	 * Start a task in this scope.
+	 *
+	 * @param task the task to run.
+	 * @return the future for the task.
+	 */
+	public Future<T> fork(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<T>(() -> {
+			if (!start()) {
+				throw new CancellationException("Task scope closed.");
+			}
+			try {
+				return task.call();
+			} catch (Exception | Error e) {
+				if (failure.compareAndSet(null, e)) {
+					cancelAll();
+				}
+				throw e;
+			} finally {
+				finish();
+			}
+		}) {
+			@Override
+			protected void done() {
+				running.remove(this);
+			}
+		};
+		running.add(future);
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException e) {
+			running.remove(future);
+			throw e;
+		}
+		futures.add(future);
+		if (failure.get()!=null) {
+			future.cancel(true);
+		}
+		return future;
+	}
+
+	/**
+	 * Wait for all of the tasks to complete.
+	 *
+	 * @return the results of the tasks, in the order they were forked.
+	 * @throws InterruptedException if interrupted while waiting, the tasks are cancelled.
+	 * @throws ExecutionException with the first failure of any task.
+	 */
+	public List<T> join() throws InterruptedException, ExecutionException {
+		List<T> result = new ArrayList<T>(futures.size());
+		try {
+			for (Future<T> future : futures) {
+				result.add(future.get());
+			}
+		} catch (ExecutionException | CancellationException e) {
+			Throwable cause = failure.get();
+			throw new ExecutionException(cause==null ? e : cause);
+		} catch (InterruptedException e) {
+			cancelAll();
+			throw e;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of forked tasks that have not completed.
+	 */
+	int getRunningCount() {
+		return running.size();
+	}
+
+	/**
+	 * @return false if the scope is closed and the task body must not run.
+	 */
+	private boolean start() {
+		synchronized (lock) {
+			if (closed) {
+				return false;
+			}
+			active++;
+			return true;
+		}
+	}
+
+	private void finish() {
+		synchronized (lock) {
+			active--;
+			lock.notifyAll();
+		}
+	}
+
+	private void cancelAll() {
+		for (Future<T> future : running) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Cancel any tasks that have not completed, and wait for any which had started to finish.
+	 * A task which ignores interruption delays close until it returns.  If interrupted while
+	 * waiting, close still waits, and then restores the interrupt status.
+	 */
+	@Override
+	public void close() {
+		cancelAll();
+		boolean interrupted = false;
+		synchronized (lock) {
+			closed = true;
+			while (active > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,231 @@
+/**
+ * TestProfile.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A named selection of tests, configured in a properties file, where the properties for a
+ * profile named standard are:
+ *
+ * <pre>
+ * standard.include.labels=VALIDATION_*_STANDARD, AMENDMENT_LICENSE_STANDARDIZED
+ * standard.include.guids=
+ * standard.include.types=
+ * standard.include.terms=
+ * standard.exclude.labels=
+ * standard.exclude.guids=
+ * standard.exclude.types=ISSUE
+ * standard.exclude.terms=dwc:typeStatus
+ * </pre>
+ *
+ * Each property is a comma separated list, labels, guids, and terms may contain * as a
+ * wildcard, types are VALIDATION, AMENDMENT, or ISSUE, and terms match tests that act upon
+ * the term.  A test is selected if it matches any include property (or if no include
+ * properties are given), and does not match any exclude property.  A set of profiles is
+ * bundled in profiles.properties alongside this class.
+ *
+ * @author mole
+ *
+ */
+public class TestProfile {
+
+	private static final Log logger = LogFactory.getLog(TestProfile.class);
+
+	/** the bundled profiles */
+	public static final String BUNDLED_PROFILES = "/org/filteredpush/qc/metadata/profiles.properties";
+
+	/** the profile selecting all tests, need not be configured */
+	public static final String ALL = "all";
+
+	private final String name;
+	private final Criteria include;
+	private final Criteria exclude;
+
+	/**
+	 * Load a profile from a properties file.
+	 *
+	 * @param name the name of the profile.
+	 * @param profiles the properties file, or null for the bundled profiles.
+	 * @return the profile.
+	 * @throws IOException on an error reading the file.
+	 * @throws IllegalArgumentException if the file doesn't configure the named profile.
+	 */
+	public static TestProfile load(String name, Path profiles) throws IOException {
+		Properties properties = new Properties();
+		if (profiles==null) {
+			try (InputStream in = TestProfile.class.getResourceAsStream(BUNDLED_PROFILES)) {
+				if (in==null) {
+					throw new IOException("Bundled profiles " + BUNDLED_PROFILES + " not found.");
+				}
+				properties.load(in);
+			}
+		} else {
+			try (Reader in = Files.newBufferedReader(profiles, StandardCharsets.UTF_8)) {
+				properties.load(in);
+			}
+		}
+		return new TestProfile(name, properties);
+	}
+
+	/**
+	 * @param name the name of the profile.
+	 * @param properties the properties configuring the profile.
+	 * @throws IllegalArgumentException if the properties don't configure the named profile.
+	 */
+	public TestProfile(String name, Properties properties) {
+		this.name = name;
+		this.include = new Criteria(properties, name + ".include.");
+		this.exclude = new Criteria(properties, name + ".exclude.");
+		if (include.isEmpty() && exclude.isEmpty() && !ALL.equals(name)) {
+			throw new IllegalArgumentException("No profile named " + name + ", known profiles are " + names(properties));
+		}
+	}
+
+	private static TreeSet<String> names(Properties properties) {
+		TreeSet<String> result = new TreeSet<String>();
+		result.add(ALL);
+		for (String key : properties.stringPropertyNames()) {
+			int end = Math.max(key.indexOf(".include."), key.indexOf(".exclude."));
+			if (end > 0) {
+				result.add(key.substring(0, end));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the name of the profile.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param test a test.
+	 * @return true if the profile selects the test.
+	 */
+	public boolean selects(DQTest test) {
+		return (include.isEmpty() || include.matches(test)) && !exclude.matches(test);
+	}
+
+	/**
+	 * @param tests the tests to choose from.
+	 * @return the tests selected by this profile, in their original order.
+	 */
+	public List<DQTest> select(List<DQTest> tests) {
+		List<DQTest> result = new ArrayList<DQTest>();
+		for (DQTest test : tests) {
+			if (selects(test)) {
+				result.add(test);
+			}
+		}
+		logger.debug("Profile " + name + " selects " + result.size() + " of " + tests.size() + " tests.");
+		return result;
+	}
+
+	/**
+	 * One of the include or exclude sets of properties.
+	 */
+	private static class Criteria {
+		private final List<Pattern> labels;
+		private final List<Pattern> guids;
+		private final List<String> types;
+		private final List<Pattern> terms;
+
+		private Criteria(Properties properties, String prefix) {
+			labels = patterns(properties.getProperty(prefix + "labels"));
+			guids = patterns(properties.getProperty(prefix + "guids"));
+			terms = patterns(properties.getProperty(prefix + "terms"));
+			List<String> typeList = new ArrayList<String>();
+			for (String type : split(properties.getProperty(prefix + "types"))) {
+				typeList.add(DQTest.TestType.valueOf(type.toUpperCase(Locale.ROOT)).name());
+			}
+			types = Collections.unmodifiableList(typeList);
+		}
+
+		private boolean isEmpty() {
+			return labels.isEmpty() && guids.isEmpty() && types.isEmpty() && terms.isEmpty();
+		}
+
+		private boolean matches(DQTest test) {
+			if (matchesAny(labels, test.getLabel()) || matchesAny(guids, test.getGuid()) || types.contains(test.getType().name())) {
+				return true;
+			}
+			for (String term : test.getActedUpon()) {
+				if (matchesAny(terms, term)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean matchesAny(List<Pattern> patterns, String value) {
+			for (Pattern pattern : patterns) {
+				if (pattern.matcher(value).matches()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static List<Pattern> patterns(String value) {
+			List<Pattern> result = new ArrayList<Pattern>();
+			for (String bit : split(value)) {
+				StringBuilder regex = new StringBuilder();
+				for (String literal : bit.split("\\*", -1)) {
+					if (regex.length() > 0) {
+						regex.append(".*");
+					}
+					regex.append(Pattern.quote(literal));
+				}
+				result.add(Pattern.compile(regex.toString()));
+			}
+			return result;
+		}
+
+		private static List<String> split(String value) {
+			List<String> result = new ArrayList<String>();
+			if (value!=null) {
+				for (String bit : value.split(",")) {
+					if (bit.trim().length() > 0) {
+						result.add(bit.trim());
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * TestRegistry.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * The tests provided by DwCMetadataDQDefaults and DwCMetadataDQ, found once per JVM and shared,
+ * with each test's invoker already built (see DQTest), so that tools driving the tests don't
+ * repeat the search.  Tests are taken from the dispatch table generated at compile time from
+ * the ffdq annotations (DwCMetadataDQDispatch), falling back to discovering them by reflection
+ * where the table was not generated (e.g. compiled in an IDE without annotation processing).
+ *
+ * @author mole
+ *
+ */
+public class TestRegistry {
+
+	private static final Log logger = LogFactory.getLog(TestRegistry.class);
+
+	private final List<DQTest> tests;
+	private final Map<String,DQTest> byGuid;
+	private final Map<String,DQTest> byLabel;
+
+	private TestRegistry(List<DQTest> tests) {
+		this.tests = Collections.unmodifiableList(tests);
+		this.byGuid = new HashMap<String,DQTest>();
+		this.byLabel = new HashMap<String,DQTest>();
+		for (DQTest test : tests) {
+			byGuid.put(test.getGuid(), test);
+			byLabel.put(test.getLabel(), test);
+		}
+		logger.debug("Registered " + tests.size() + " tests.");
+	}
+
+	/**
+	 * Lazily discovered on first use.
+	 */
+	private static class Holder {
+		private static final TestRegistry INSTANCE = new TestRegistry(loadTests(DQTest.DISPATCH_CLASS));
+	}
+
+	static List<DQTest> loadTests(String dispatchClass) {
+		try {
+			return DQTest.fromDispatchTable(dispatchClass);
+		} catch (ClassNotFoundException e) {
+			logger.warn("No generated dispatch table, discovering tests by reflection: " + e.getMessage());
+			return DQTest.discover();
+		}
+	}
+
+	/**
+	 * @return the shared registry.
+	 */
+	public static TestRegistry getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * @return all of the tests, ordered by label.
+	 */
+	public List<DQTest> getTests() {
+		return tests;
+	}
+
+	/**
+	 * @param guid the GUID of a test, from its @Provides annotation.
+	 * @return the test, or null if there is no such test.
+	 */
+	public DQTest getByGuid(String guid) {
+		return byGuid.get(guid);
+	}
+
+	/**
+	 * @param label the label of a test, e.g. VALIDATION_SEX_STANDARD
+	 * @return the test, or null if there is no such test.
+	 */
+	public DQTest getByLabel(String label) {
+		return byLabel.get(label);
+	}
+
+}
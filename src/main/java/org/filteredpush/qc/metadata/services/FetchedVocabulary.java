@@ -0,0 +1,89 @@
+/**
+ * FetchedVocabulary.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A vocabulary as fetched from GBIF, with when it was fetched and the validators (ETag
+ * and Last-Modified) the server gave for it, for making a conditional request to find out
+ * whether it has changed, see GbifService.fetchVocabulary() and VocabularyCache.
+ *
+ * @author mole
+ *
+ */
+public class FetchedVocabulary {
+
+	private final Map<String,List<String>> terms;
+	private final String eTag;
+	private final String lastModified;
+	private final long fetched;
+
+	/**
+	 * @param terms the terms in the vocabulary mapped to the alternative names for each term.
+	 * @param eTag the ETag given by the server, or null.
+	 * @param lastModified the Last-Modified date given by the server, or null.
+	 * @param fetched when the vocabulary was fetched (or last found to be unchanged), in
+	 *   milliseconds since the epoch.
+	 */
+	public FetchedVocabulary(Map<String,List<String>> terms, String eTag, String lastModified, long fetched) {
+		Map<String,List<String>> copy = new LinkedHashMap<String,List<String>>();
+		for (Map.Entry<String,List<String>> term : terms.entrySet()) {
+			copy.put(term.getKey(), Collections.unmodifiableList(new ArrayList<String>(term.getValue())));
+		}
+		this.terms = Collections.unmodifiableMap(copy);
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+		this.fetched = fetched;
+	}
+
+	/**
+	 * @return the terms in the vocabulary mapped to the alternative names for each term.
+	 */
+	public Map<String,List<String>> getTerms() {
+		return terms;
+	}
+
+	/**
+	 * @return the ETag given by the server, or null.
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * @return the Last-Modified date given by the server, or null.
+	 */
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return when the vocabulary was fetched, or last found to be unchanged, in milliseconds
+	 *   since the epoch.
+	 */
+	public long getFetched() {
+		return fetched;
+	}
+
+}
@@ -28,6 +28,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,11 +52,50 @@ public class GbifService {
 	private static final Log logger = LogFactory.getLog(GbifService.class);
 	
 	private static final String gbifApiEndpoint = "https://api.gbif.org/v1/";
+	
+	/** System property giving the base URL of the GBIF API, ending with /, by default https://api.gbif.org/v1/ */
+	public static final String ENDPOINT_PROPERTY = "org.filteredpush.qc.metadata.gbifEndpoint";
+	
+	/** System property giving the maximum number of concurrent requests to GBIF */
+	public static final String CONCURRENCY_PROPERTY = "org.filteredpush.qc.metadata.gbifConcurrency";
+	
+	/** default maximum number of concurrent requests to GBIF */
+	public static final int DEFAULT_CONCURRENCY = 8;
+	
+	private final String apiEndpoint;
+	private final HttpClient client;
+	
+	/** permits for requests in flight, requests beyond the limit wait in the queue */
+	private final Semaphore permits;
+	private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<Runnable>();
 
 	/**
-	 * default constructor
+	 * default constructor, using the endpoint given by ENDPOINT_PROPERTY, allowing the number 
+	 * of concurrent requests given by CONCURRENCY_PROPERTY.
 	 */
 	public GbifService() {
+		this(System.getProperty(ENDPOINT_PROPERTY, gbifApiEndpoint), Integer.getInteger(CONCURRENCY_PROPERTY, DEFAULT_CONCURRENCY));
+	}
+	
+	/**
+	 * Constructor for a service at a particular endpoint.
+	 * 
+	 * @param apiEndpoint the base URL of the GBIF API, ending with /
+	 */
+	public GbifService(String apiEndpoint) {
+		this(apiEndpoint, DEFAULT_CONCURRENCY);
+	}
+	
+	/**
+	 * Constructor for a service at a particular endpoint, with a limit on concurrent requests.
+	 * 
+	 * @param apiEndpoint the base URL of the GBIF API, ending with /
+	 * @param concurrency the maximum number of requests in flight at once.
+	 */
+	public GbifService(String apiEndpoint, int concurrency) {
+		this.apiEndpoint = apiEndpoint;
+		this.permits = new Semaphore(Math.max(1, concurrency));
+		this.client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
 		init();
 	}
 	/** 
@@ -68,101 +113,262 @@ public class GbifService {
 	 * 
 	 * @param vocabulary the name of the vocabulary to load
 	 * @return a  Map String, List String where the keys are vocabulary terms and the values are lists of 
-	 * possible alternative names for the term.
+	 * possible alternative names for the term, empty if the vocabulary could not be loaded.
 	 */
 	public Map<String,List<String>> loadVocabulary(String vocabulary) { 
-		HashMap<String,List<String>> result = new HashMap();
-		
-		String lookup = gbifApiEndpoint + "vocabularies/" + vocabulary + "/concepts";
+		return loadVocabularyAsync(vocabulary).join();
+	}
+	
+	/**
+	 * Load a GBIF vocabulary without waiting for it, so that several vocabularies may be 
+	 * loaded at once.
+	 * 
+	 * @param vocabulary the name of the vocabulary to load
+	 * @return the terms of the vocabulary, as for loadVocabulary(), completed with an empty 
+	 *   vocabulary if the vocabulary could not be loaded.
+	 */
+	public CompletableFuture<Map<String,List<String>>> loadVocabularyAsync(String vocabulary) { 
+		return fetchVocabularyAsync(vocabulary, null, null).handle((fetched, e) -> { 
+			if (e!=null) { 
+				Throwable cause = e instanceof CompletionException && e.getCause()!=null ? e.getCause() : e;
+				logger.error(cause.getMessage(), cause);
+				return new HashMap<String,List<String>>();
+			}
+			return fetched.getTerms();
+		});
+	}
+	
+	/**
+	 * Fetch a GBIF vocabulary, unless it has not changed since it was last fetched, see 
+	 * fetchVocabularyAsync().
+	 * 
+	 * @param vocabulary the name of the vocabulary to load
+	 * @param eTag the ETag of the first page when last fetched, or null.
+	 * @param lastModified the Last-Modified date of the first page when last fetched, or null.
+	 * @return the vocabulary with the validators of the first page, or null if the server 
+	 *   responded that the vocabulary was not modified.
+	 * @throws IOException if the vocabulary could not be fetched.
+	 * @throws InterruptedException if interrupted while waiting for a response.
+	 */
+	public FetchedVocabulary fetchVocabulary(String vocabulary, String eTag, String lastModified) throws IOException, InterruptedException { 
+		try {
+			return fetchVocabularyAsync(vocabulary, eTag, lastModified).get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) { 
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause()==null ? e.getMessage() : e.getCause().getMessage(), e.getCause());
+		}
+	}
+	
+	/**
+	 * Fetch a GBIF vocabulary, unless it has not changed since it was last fetched.  The
+	 * request for the first page of concepts is made conditional on the validators from
+	 * the last fetch, if any are given, and if the server responds that it is not modified,
+	 * no further pages are requested.  Otherwise, the remaining pages, known from the count 
+	 * and limit of the first page, are all requested at once, within the limit on concurrent
+	 * requests.
+	 * 
+	 * @param vocabulary the name of the vocabulary to load
+	 * @param eTag the ETag of the first page when last fetched, or null.
+	 * @param lastModified the Last-Modified date of the first page when last fetched, or null.
+	 * @return the vocabulary with the validators of the first page, or null if the server 
+	 *   responded that the vocabulary was not modified, completed exceptionally with an 
+	 *   IOException if the vocabulary could not be fetched.
+	 */
+	public CompletableFuture<FetchedVocabulary> fetchVocabularyAsync(String vocabulary, String eTag, String lastModified) { 
+		String lookup = apiEndpoint + "vocabularies/" + vocabulary + "/concepts";
 		logger.debug(lookup);
-		URI lookupURI = URI.create(lookup);
 		
-		HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
-		HttpRequest request = HttpRequest.newBuilder().uri(lookupURI).GET().build();
-		
-		HttpResponse<String> response;
+		HttpRequest.Builder requestBuilder = HttpRequest.newBuilder().uri(URI.create(lookup)).GET();
+		if (eTag!=null) { 
+			requestBuilder.header("If-None-Match", eTag);
+		}
+		if (lastModified!=null) { 
+			requestBuilder.header("If-Modified-Since", lastModified);
+		}
 		
-		try {
-			response = client.send(request,HttpResponse.BodyHandlers.ofString());
-			JSONObject responseJson = (JSONObject) JSONValue.parse(response.body());
-			boolean loaded = true;
-			
-			logger.debug(response);
-			logger.debug(response.body());
+		return send(requestBuilder.build()).thenCompose(response -> { 
+			if (response.statusCode()==304) { 
+				logger.debug(vocabulary + " not modified");
+				return CompletableFuture.completedFuture(null);
+			}
+			String responseETag = response.headers().firstValue("ETag").orElse(null);
+			String responseLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+			JSONObject responseJson = parse(lookup, response);
+			logger.debug(responseJson.get("count"));
 			
-			boolean endOfRecords = false;
+			HashMap<String,List<String>> result = new HashMap<String,List<String>>();
 			JSONArray resultList = (JSONArray) responseJson.get("results");
-			logger.debug(responseJson.get("count"));
-			if (resultList!=null) { 
-				int limit = Integer.parseInt(responseJson.get("limit").toString());
-				int offset = 0;
-				while (endOfRecords==false) { 
-					if (!loaded) { 
-						lookup = gbifApiEndpoint + "vocabularies/" + vocabulary + "/concepts?offset=" + offset;
-						logger.debug(lookup);
-						lookupURI = URI.create(lookup);
-						client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
-						request = HttpRequest.newBuilder().uri(lookupURI).GET().build();
-						response = client.send(request,HttpResponse.BodyHandlers.ofString());
-						responseJson = (JSONObject) JSONValue.parse(response.body());
-						resultList = (JSONArray) responseJson.get("results");
-					}
-					for (int i=0; i<resultList.size(); i++) { 
-						JSONObject item = (JSONObject) resultList.get(i);
-						String name = item.get("name").toString();
-						ArrayList<String> list = new ArrayList<String>();
-						list.add(name);
-						if (!name.equals(name.toLowerCase())) { 
-							list.add(name.toLowerCase());
-						}
-						logger.debug(name);
-						// label[0].value
-						JSONArray labels = (JSONArray) item.get("label");
-						for (int j=0; j<labels.size(); j++) { 
-							String label = ((JSONObject)labels.get(j)).get("value").toString();
-							list.add(label);
-							if (!label.equals(label.toLowerCase())) { 
-								list.add(label.toLowerCase());
-							}
-							if (!label.equals(label.toUpperCase())) { 
-								list.add(label.toUpperCase());
-							}
-						}
-						// externalDefinitions[0]
-						JSONArray terms = (JSONArray) item.get("externalDefinitions");
-						for (int j=0; j<terms.size(); j++) { 
-							String externalDefinition = terms.get(j).toString();
-							list.add(externalDefinition);
-							if (!externalDefinition.equals(externalDefinition.toLowerCase())) { 
-								list.add(externalDefinition.toLowerCase());
-							}
-							if (!externalDefinition.equals(externalDefinition.toUpperCase())) { 
-								list.add(externalDefinition.toUpperCase());
-							}
-						}
-						result.put(name,list);
+			if (resultList==null) { 
+				return CompletableFuture.completedFuture(new FetchedVocabulary(result, responseETag, responseLastModified, System.currentTimeMillis()));
+			}
+			addConcepts(resultList, result);
+			int limit = Integer.parseInt(responseJson.get("limit").toString());
+			Object countValue = responseJson.get("count");
+			List<CompletableFuture<JSONObject>> pages = new ArrayList<CompletableFuture<JSONObject>>();
+			int next = limit;
+			if (!isEndOfRecords(responseJson) && countValue!=null && limit > 0) { 
+				int count = Integer.parseInt(countValue.toString());
+				for (; next < count; next += limit) { 
+					pages.add(fetchPage(vocabulary, next));
+				}
+			}
+			final int remainder = next;
+			return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[pages.size()])).thenCompose(done -> { 
+				JSONObject last = responseJson;
+				// add in offset order, as if fetched one after another
+				for (CompletableFuture<JSONObject> page : pages) { 
+					last = page.join();
+					JSONArray pageResults = (JSONArray) last.get("results");
+					if (pageResults!=null) { 
+						addConcepts(pageResults, result);
 					}
-					String endOfRecordsString = responseJson.get("endOfRecords").toString();
-					if (endOfRecordsString.toLowerCase().equals("true")) { 
-						endOfRecords = true;
+				}
+				if (isEndOfRecords(last) || limit <= 0) { 
+					return CompletableFuture.completedFuture(result);
+				}
+				// no count, or concepts added since the count, page one at a time to the end
+				return fetchRemaining(vocabulary, remainder, limit, result);
+			}).thenApply(terms -> { 
+				logger.debug(terms.size());
+				return new FetchedVocabulary(terms, responseETag, responseLastModified, System.currentTimeMillis());
+			});
+		});
+	}
+	
+	private CompletableFuture<JSONObject> fetchPage(String vocabulary, int offset) { 
+		String lookup = apiEndpoint + "vocabularies/" + vocabulary + "/concepts?offset=" + offset;
+		logger.debug(lookup);
+		return send(HttpRequest.newBuilder().uri(URI.create(lookup)).GET().build()).thenApply(response -> parse(lookup, response));
+	}
+	
+	private CompletableFuture<HashMap<String,List<String>>> fetchRemaining(String vocabulary, int offset, int limit, HashMap<String,List<String>> result) { 
+		return fetchPage(vocabulary, offset).thenCompose(page -> { 
+			JSONArray pageResults = (JSONArray) page.get("results");
+			if (pageResults==null || pageResults.isEmpty() || isEndOfRecords(page)) { 
+				if (pageResults!=null) { 
+					addConcepts(pageResults, result);
+				}
+				return CompletableFuture.completedFuture(result);
+			}
+			addConcepts(pageResults, result);
+			return fetchRemaining(vocabulary, offset + limit, limit, result);
+		});
+	}
+	
+	private static boolean isEndOfRecords(JSONObject page) { 
+		Object endOfRecords = page.get("endOfRecords");
+		return endOfRecords==null || endOfRecords.toString().toLowerCase().equals("true");
+	}
+	
+	/**
+	 * Send a request once a permit is available, without blocking the caller.
+	 */
+	private CompletableFuture<HttpResponse<String>> send(HttpRequest request) { 
+		CompletableFuture<HttpResponse<String>> result = new CompletableFuture<HttpResponse<String>>();
+		Runnable start = () -> { 
+			try { 
+				client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, e) -> { 
+					release();
+					if (e!=null) { 
+						result.completeExceptionally(e instanceof CompletionException && e.getCause()!=null ? e.getCause() : e);
 					} else { 
-						endOfRecords = false;
+						result.complete(response);
 					}
-					offset = offset + limit;
-					loaded = false;
-				}	
+				});
+			} catch (RuntimeException e) { 
+				release();
+				result.completeExceptionally(e);
 			}
-			logger.debug(result.size());
-			
-		} catch (IOException e) {
-			logger.error(e.getMessage(), e);
-		} catch (InterruptedException e) {
-			logger.error(e.getMessage(), e);
+		};
+		if (permits.tryAcquire()) { 
+			start.run();
+		} else { 
+			waiting.add(start);
+			startWaiting();
 		}
-		
 		return result;
 	}
 	
+	/**
+	 * Pass a finished request's permit to a waiting request, if any.
+	 */
+	private void release() { 
+		permits.release();
+		startWaiting();
+	}
+	
+	private void startWaiting() { 
+		// a permit released between queueing and here is picked up by the next release or here
+		while (!waiting.isEmpty() && permits.tryAcquire()) { 
+			Runnable next = waiting.poll();
+			if (next==null) { 
+				permits.release();
+			} else { 
+				next.run();
+			}
+		}
+	}
+	
+	/**
+	 * Parse the body of a successful response as a JSON object.
+	 */
+	private static JSONObject parse(String lookup, HttpResponse<String> response) { 
+		logger.debug(response);
+		logger.debug(response.body());
+		if (response.statusCode()!=200) { 
+			throw new CompletionException(new IOException("HTTP " + response.statusCode() + " from " + lookup));
+		}
+		Object parsed = JSONValue.parse(response.body());
+		if (!(parsed instanceof JSONObject)) { 
+			throw new CompletionException(new IOException("Unexpected response from " + lookup));
+		}
+		return (JSONObject) parsed;
+	}
+	
+	/**
+	 * Add each concept in a page of results to a vocabulary, with its alternative names: the 
+	 * name, the labels, and external definitions, each also in lower and upper case. 
+	 */
+	private static void addConcepts(JSONArray resultList, Map<String,List<String>> result) { 
+		for (int i=0; i<resultList.size(); i++) { 
+			JSONObject item = (JSONObject) resultList.get(i);
+			String name = item.get("name").toString();
+			ArrayList<String> list = new ArrayList<String>();
+			list.add(name);
+			if (!name.equals(name.toLowerCase())) { 
+				list.add(name.toLowerCase());
+			}
+			logger.debug(name);
+			// label[0].value
+			JSONArray labels = (JSONArray) item.get("label");
+			for (int j=0; j<labels.size(); j++) { 
+				String label = ((JSONObject)labels.get(j)).get("value").toString();
+				list.add(label);
+				if (!label.equals(label.toLowerCase())) { 
+					list.add(label.toLowerCase());
+				}
+				if (!label.equals(label.toUpperCase())) { 
+					list.add(label.toUpperCase());
+				}
+			}
+			// externalDefinitions[0]
+			JSONArray terms = (JSONArray) item.get("externalDefinitions");
+			for (int j=0; j<terms.size(); j++) { 
+				String externalDefinition = terms.get(j).toString();
+				list.add(externalDefinition);
+				if (!externalDefinition.equals(externalDefinition.toLowerCase())) { 
+					list.add(externalDefinition.toLowerCase());
+				}
+				if (!externalDefinition.equals(externalDefinition.toUpperCase())) { 
+					list.add(externalDefinition.toUpperCase());
+				}
+			}
+			result.put(name,list);
+		}
+	}
+	
 	/**
 	 * Main class for testing during development
 	 * @param args arguments, none expected
@@ -0,0 +1,323 @@
+/**
+ * VocabularyCache.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+
+/**
+ * A directory holding a copy of each vocabulary fetched from GBIF, so that each JVM needn't
+ * fetch the vocabularies again.  A cached vocabulary is used immediately, however old it is,
+ * and if it is older than the time to live, it is revalidated in the background with a
+ * conditional request (see GbifService.fetchVocabulary()), which either extends its life, if
+ * it has not changed, or replaces it.  Revalidation updates the cache for later loads, it
+ * doesn't change vocabularies already loaded.  A vocabulary which isn't cached is fetched
+ * when it is loaded.
+ *
+ * Each vocabulary is held in a file of its own, written in the format of VocabularySnapshot
+ * behind a header holding the validators, and replaced atomically, so that many JVMs may
+ * share a cache directory.
+ *
+ * @author mole
+ *
+ */
+public class VocabularyCache {
+
+	private static final Log logger = LogFactory.getLog(VocabularyCache.class);
+
+	/** System property giving the cache directory, or none to not cache vocabularies */
+	public static final String DIRECTORY_PROPERTY = "org.filteredpush.qc.metadata.vocabularyCache";
+
+	/** System property giving the time to live of cached vocabularies, in hours */
+	public static final String TTL_PROPERTY = "org.filteredpush.qc.metadata.vocabularyCacheTtl";
+
+	/** value of DIRECTORY_PROPERTY to not cache vocabularies */
+	public static final String NONE = "none";
+
+	/** default time to live of cached vocabularies, in hours */
+	public static final long DEFAULT_TTL_HOURS = 24L;
+
+	/** suffix of the names of cache files */
+	public static final String SUFFIX = ".vocabulary";
+
+	private static final int MAGIC = 0x44575643;
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path directory;
+	private final long ttl;
+	private final GbifService gbif;
+	private final ExecutorService revalidator;
+	private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param directory the cache directory, created if needed.
+	 * @param ttl the time to live of cached vocabularies, in milliseconds.
+	 * @param gbif the service to fetch vocabularies from.
+	 */
+	public VocabularyCache(Path directory, long ttl, GbifService gbif) {
+		this.directory = directory;
+		this.ttl = ttl;
+		this.gbif = gbif;
+		this.revalidator = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "vocabulary-revalidator");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Obtain a cache configured by the system properties DIRECTORY_PROPERTY (by default
+	 * .rec_occur_qc/vocabularies in the user's home directory) and TTL_PROPERTY.
+	 *
+	 * @param gbif the service to fetch vocabularies from.
+	 * @return the cache, or null if caching is turned off.
+	 */
+	public static VocabularyCache fromSystemProperties(GbifService gbif) {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory!=null && (directory.trim().length()==0 || directory.trim().equalsIgnoreCase(NONE))) {
+			return null;
+		}
+		Path path = directory==null ? Paths.get(System.getProperty("user.home"), ".rec_occur_qc", "vocabularies") : Paths.get(directory.trim());
+		long hours = DEFAULT_TTL_HOURS;
+		String ttlValue = System.getProperty(TTL_PROPERTY);
+		if (ttlValue!=null) {
+			try {
+				hours = Long.parseLong(ttlValue.trim());
+			} catch (NumberFormatException e) {
+				logger.error("Ignoring " + TTL_PROPERTY + "=" + ttlValue + ", not a number of hours.");
+			}
+		}
+		return new VocabularyCache(path, TimeUnit.HOURS.toMillis(hours), gbif);
+	}
+
+	/**
+	 * Load a vocabulary from the cache, revalidating it in the background if it has expired,
+	 * or fetch it if it isn't cached.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @return the terms in the vocabulary mapped to the alternative names for each term,
+	 *   empty if the vocabulary isn't cached and could not be fetched.
+	 */
+	public Map<String,List<String>> load(String name) {
+		return loadAsync(name).join();
+	}
+
+	/**
+	 * Load a vocabulary as for load(), without waiting for it to be fetched if it isn't
+	 * cached, so that several vocabularies may be loaded at once.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @return the terms in the vocabulary mapped to the alternative names for each term,
+	 *   completed with an empty vocabulary if the vocabulary isn't cached and could not be fetched.
+	 */
+	public CompletableFuture<Map<String,List<String>>> loadAsync(String name) {
+		Map<String,List<String>> cached = loadCached(name);
+		if (cached!=null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		return gbif.fetchVocabularyAsync(name, null, null).handle((fetched, e) -> {
+			if (e!=null) {
+				Throwable cause = e instanceof CompletionException && e.getCause()!=null ? e.getCause() : e;
+				logger.error(cause.getMessage(), cause);
+				return new HashMap<String,List<String>>();
+			}
+			if (!fetched.getTerms().isEmpty()) {
+				write(name, fetched);
+			}
+			return fetched.getTerms();
+		});
+	}
+
+	/**
+	 * Load a vocabulary only if it is cached, revalidating it in the background if it has 
+	 * expired, without fetching it if it isn't cached.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @return the terms in the vocabulary mapped to the alternative names for each term,
+	 *   or null if the vocabulary isn't cached.
+	 */
+	public Map<String,List<String>> loadCached(String name) {
+		FetchedVocabulary cached = read(name);
+		if (cached==null) {
+			return null;
+		}
+		if (isExpired(cached)) {
+			revalidate(name, cached);
+		}
+		return cached.getTerms();
+	}
+
+	/**
+	 * @param vocabulary a cached vocabulary.
+	 * @return true if the vocabulary is older than the time to live.
+	 */
+	public boolean isExpired(FetchedVocabulary vocabulary) {
+		return System.currentTimeMillis() - vocabulary.getFetched() >= ttl;
+	}
+
+	/**
+	 * Check with GBIF whether a cached vocabulary has changed, in the background, and update
+	 * the cache.  Does nothing if the vocabulary is already being revalidated.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @param cached the cached copy of the vocabulary.
+	 * @return the vocabulary now cached, the cached copy if it could not be revalidated.
+	 */
+	public CompletableFuture<FetchedVocabulary> revalidate(String name, FetchedVocabulary cached) {
+		if (!revalidating.add(name)) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				FetchedVocabulary fetched = gbif.fetchVocabulary(name, cached.getETag(), cached.getLastModified());
+				if (fetched==null) {
+					// not modified, extend its life
+					fetched = new FetchedVocabulary(cached.getTerms(), cached.getETag(), cached.getLastModified(), System.currentTimeMillis());
+				} else if (fetched.getTerms().isEmpty()) {
+					logger.warn("GBIF returned no terms for " + name + ", keeping the cached copy.");
+					return cached;
+				}
+				write(name, fetched);
+				logger.debug("Revalidated " + name);
+				return fetched;
+			} catch (IOException e) {
+				logger.warn("Unable to revalidate " + name + ": " + e);
+			} catch (InterruptedException e) {
+				logger.warn("Interrupted revalidating " + name);
+			} finally {
+				revalidating.remove(name);
+			}
+			return cached;
+		}, revalidator);
+	}
+
+	/**
+	 * Read a vocabulary from the cache.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @return the cached vocabulary, or null if it isn't cached or can't be read.
+	 */
+	public FetchedVocabulary read(String name) {
+		Path file = directory.resolve(name + SUFFIX);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			DataInputStream data = new DataInputStream(in);
+			if (data.readInt()!=MAGIC || data.readInt()!=FORMAT_VERSION) {
+				logger.warn("Ignoring unrecognized vocabulary cache file " + file);
+				return null;
+			}
+			String eTag = data.readBoolean() ? data.readUTF() : null;
+			String lastModified = data.readBoolean() ? data.readUTF() : null;
+			VocabularySnapshot snapshot = VocabularySnapshot.read(data);
+			return new FetchedVocabulary(snapshot.getVocabulary(name), eTag, lastModified, snapshot.getCreated());
+		} catch (IOException e) {
+			logger.warn("Unable to read vocabulary cache file " + file + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Write a vocabulary to the cache, replacing any cached copy.
+	 *
+	 * @param name the name of the vocabulary.
+	 * @param vocabulary the vocabulary to cache.
+	 * @return true if written, false if the cache could not be written (which is logged).
+	 */
+	public boolean write(String name, FetchedVocabulary vocabulary) {
+		Path file = directory.resolve(name + SUFFIX);
+		Path temporary = null;
+		try {
+			Files.createDirectories(directory);
+			temporary = Files.createTempFile(directory, name, ".tmp");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+				DataOutputStream data = new DataOutputStream(out);
+				data.writeInt(MAGIC);
+				data.writeInt(FORMAT_VERSION);
+				data.writeBoolean(vocabulary.getETag()!=null);
+				if (vocabulary.getETag()!=null) {
+					data.writeUTF(vocabulary.getETag());
+				}
+				data.writeBoolean(vocabulary.getLastModified()!=null);
+				if (vocabulary.getLastModified()!=null) {
+					data.writeUTF(vocabulary.getLastModified());
+				}
+				new VocabularySnapshot(Collections.singletonMap(name, vocabulary.getTerms()), vocabulary.getFetched()).write(data);
+				data.flush();
+			}
+			try {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} catch (IOException e) {
+			logger.warn("Unable to write vocabulary cache file " + file + ": " + e.getMessage());
+			if (temporary!=null) {
+				try {
+					Files.deleteIfExists(temporary);
+				} catch (IOException e1) {
+					logger.debug(e1.getMessage());
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * @return the cache directory.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the time to live of cached vocabularies, in milliseconds.
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+}
@@ -18,16 +18,38 @@
  */
 package org.filteredpush.qc.metadata.util;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.services.FetchedVocabulary;
 import org.filteredpush.qc.metadata.services.GbifService;
+import org.filteredpush.qc.metadata.services.VocabularyCache;
 
 /**
+ * Holds the GBIF vocabularies used by the tests.  Each vocabulary is loaded on first use,
+ * independently of the others, with its own load state and error (see isLoaded(String)), so
+ * that tests on one term only load the vocabulary they need, and a vocabulary that can't
+ * be loaded doesn't affect tests using the others.
+ * 
+ * Vocabularies may be refreshed from GBIF in the background (see refresh() and scheduleRefresh()),
+ * the refreshed vocabularies are built completely before being published with a single swap of
+ * a volatile reference, so readers never block on a refresh or see a partly loaded vocabulary, and
+ * the maps returned by the getters are immutable, so a caller holding one keeps a consistent view 
+ * of the vocabulary through a refresh.  Each refresh or install changes getGeneration(), so that 
+ * results derived from the vocabularies (e.g. by ResultMemo) can be discarded.
+ * 
  * @author mole
  *
  */
@@ -35,135 +57,502 @@ public class MetadataSingleton {
 
 	private static final Log logger = LogFactory.getLog(MetadataSingleton.class);
 	
-	// TDOO: Cache values
-	
-	
-	private static final MetadataSingleton instance = new MetadataSingleton();
-	
-	private Boolean loaded;
-	private String loadError;
+	/** 
+	 * System property selecting where vocabularies are loaded from, SOURCE_BUNDLED (the default)
+	 * or SOURCE_GBIF.
+	 */
+	public static final String SOURCE_PROPERTY = "org.filteredpush.qc.metadata.vocabularies";
+	/** 
+	 * use a copy in the disk cache (see VocabularyCache), which was fetched from GBIF, if there is 
+	 * one, otherwise the snapshot bundled with the library (see VocabularySnapshot.bundled()) if 
+	 * present, otherwise load from GBIF
+	 */
+	public static final String SOURCE_BUNDLED = "bundled";
+	/** 
+	 * load from GBIF, through the disk cache (see VocabularyCache) unless it is turned off, using 
+	 * the bundled snapshot for any vocabulary that can't be loaded
+	 */
+	public static final String SOURCE_GBIF = "gbif";
 	
-	private Map<String,List<String>> lifeStageTerms = new HashMap<String,List<String>>();
-	private Map<String,String> lifeStageValues = new HashMap<String,String>();
+	/** 
+	 * System property giving the interval in hours at which to refresh the vocabularies from GBIF,
+	 * starting when the instance is first obtained, unset or 0 for no refresh.
+	 */
+	public static final String REFRESH_PROPERTY = "org.filteredpush.qc.metadata.vocabularyRefresh";
 	
-	private Map<String,List<String>> pathwayTerms = new HashMap<String,List<String>>();
-	private Map<String,String> pathwayValues = new HashMap<String,String>();
+	private static volatile MetadataSingleton instance = null;
 	
-	private Map<String,List<String>> typeStatusTerms = new HashMap<String,List<String>>();
-	private Map<String,String> typeStatusValues = new HashMap<String,String>();
+	/** incremented each time the vocabularies held are replaced */
+	private static final AtomicLong generation = new AtomicLong(0L);
 	
-	private Map<String,List<String>> sexTerms = new HashMap<String,List<String>>();
-	private Map<String,String> sexValues = new HashMap<String,String>();
+	private static ScheduledExecutorService refresher = null;
+	private static ScheduledFuture<?> scheduledRefresh = null;
 	
-	private Map<String,List<String>> degreeOfEstablishmentTerms = new HashMap<String,List<String>>();
-	private Map<String,String> degreeOfEstablishmentValues = new HashMap<String,String>();
+	/** a holder for each vocabulary, by name, replaced as a whole on a refresh */
+	private volatile Map<String,VocabularyHolder> vocabularies;
 	
-	private Map<String,List<String>> establishmentMeansTerms = new HashMap<String,List<String>>();
-	private Map<String,String> establishmentMeansValues = new HashMap<String,String>();
+	private final String source;
+	private VocabularySnapshot bundled;
+	private boolean bundledRead = false;
+	private GbifService gbif;
+	private VocabularyCache cache;
 	
-	private Map<String,List<String>> occurrenceStatusTerms = new HashMap<String,List<String>>();
-	private Map<String,String> occurrenceStatusValues = new HashMap<String,String>();
-		
 	private MetadataSingleton() { 
-		init();
+		this(null);
+	}
+	
+	private MetadataSingleton(VocabularySnapshot snapshot) { 
+		source = System.getProperty(SOURCE_PROPERTY, SOURCE_BUNDLED);
+		Map<String,VocabularyHolder> holders = new LinkedHashMap<String,VocabularyHolder>();
+		for (String name : VocabularySnapshot.VOCABULARIES) { 
+			VocabularyHolder holder = new VocabularyHolder(name);
+			if (snapshot!=null && snapshot.getNames().contains(name)) { 
+				holder.loading = CompletableFuture.completedFuture(Vocabulary.loaded(name, snapshot.getVocabulary(name)));
+			}
+			holders.put(name, holder);
+		}
+		vocabularies = Collections.unmodifiableMap(holders);
 	}
 	
 	/**
-	 * Get the singleton instance of MetadataSingleton.
+	 * Get the singleton instance of MetadataSingleton.  No vocabularies are loaded until they
+	 * are used.
 	 *
 	 * @return the singleton {@link org.filteredpush.qc.metadata.util.MetadataSingleton} object instance.
 	 */
-	public static synchronized MetadataSingleton getInstance() {
-		return instance;
+	public static MetadataSingleton getInstance() {
+		MetadataSingleton result = instance;
+		if (result==null) { 
+			synchronized (MetadataSingleton.class) { 
+				result = instance;
+				if (result==null) { 
+					result = new MetadataSingleton();
+					instance = result;
+					scheduleRefreshFromSystemProperties();
+				}
+			}
+		}
+		return result;
 	}
 	
-	private void init() {
-		loaded = false; 
-		
-		try { 
-			GbifService gbif = new GbifService();
-			
-			lifeStageTerms = gbif.loadVocabulary("LifeStage");
-			Iterator<String> keys = lifeStageTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = lifeStageTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					lifeStageValues.put(i.next(), key);
-				}
+	/**
+	 * Replace the vocabularies with a snapshot, without loading anything from GBIF, 
+	 * vocabularies not in the snapshot are loaded on first use.
+	 * 
+	 * @param snapshot the vocabularies to use.
+	 */
+	public static synchronized void install(VocabularySnapshot snapshot) { 
+		instance = new MetadataSingleton(snapshot);
+		generation.incrementAndGet();
+		logger.debug("Installed " + snapshot);
+	}
+	
+	/**
+	 * Hold a vocabulary in place of the one of the same name held now, e.g. one that failed 
+	 * to load, for tests.
+	 * 
+	 * @param vocabulary the vocabulary to hold.
+	 */
+	static synchronized void install(Vocabulary vocabulary) { 
+		MetadataSingleton current = getInstance();
+		synchronized (current) { 
+			Map<String,VocabularyHolder> installing = new LinkedHashMap<String,VocabularyHolder>(current.vocabularies);
+			VocabularyHolder holder = current.new VocabularyHolder(vocabulary.getName());
+			holder.loading = CompletableFuture.completedFuture(vocabulary);
+			installing.put(vocabulary.getName(), holder);
+			current.vocabularies = Collections.unmodifiableMap(installing);
+		}
+		generation.incrementAndGet();
+	}
+	
+	/**
+	 * Discard the instance and stop any scheduled refresh, so that the next getInstance() starts 
+	 * again from the system properties, for tests that install or load vocabularies.
+	 */
+	static synchronized void reset() { 
+		cancelRefresh();
+		instance = null;
+		generation.incrementAndGet();
+	}
+	
+	/**
+	 * Use a snapshot in place of the one bundled with the library, for tests, vocabularies 
+	 * already loaded are kept.
+	 * 
+	 * @param snapshot the snapshot to use as the bundled snapshot.
+	 */
+	static synchronized void installBundled(VocabularySnapshot snapshot) { 
+		MetadataSingleton current = getInstance();
+		synchronized (current) { 
+			current.bundled = snapshot;
+			current.bundledRead = true;
+		}
+	}
+	
+	/**
+	 * Install the vocabularies from a snapshot that haven't already been loaded, for example 
+	 * where each of many tasks in a JVM carries the same snapshot.  Vocabularies that have 
+	 * been loaded are kept, vocabularies that haven't been used, are still loading, or failed
+	 * to load are taken from the snapshot.
+	 * 
+	 * @param snapshot the vocabularies to use.
+	 * @return true if any vocabulary was installed from the snapshot, false if all of the 
+	 *   vocabularies in the snapshot were already loaded.
+	 */
+	public static synchronized boolean installIfAbsent(VocabularySnapshot snapshot) { 
+		if (instance==null) { 
+			install(snapshot);
+			return true;
+		}
+		return instance.installMissing(snapshot);
+	}
+	
+	/**
+	 * @return a number that changes each time the vocabularies held are replaced, by install()
+	 *   or by a refresh that found changes.
+	 */
+	public static long getGeneration() { 
+		return generation.get();
+	}
+	
+	/**
+	 * Refresh the vocabularies from GBIF at a fixed interval, on a background thread, replacing
+	 * any refresh already scheduled.
+	 * 
+	 * @param period the interval between refreshes, the first refresh is after one interval.
+	 * @param unit the unit of the period.
+	 */
+	public static synchronized void scheduleRefresh(long period, TimeUnit unit) { 
+		cancelRefresh();
+		if (refresher==null) { 
+			refresher = Executors.newSingleThreadScheduledExecutor(r -> { 
+				Thread thread = new Thread(r, "vocabulary-refresher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		scheduledRefresh = refresher.scheduleWithFixedDelay(() -> { 
+			// an exception would suppress later refreshes
+			try { 
+				logger.debug("Vocabularies changed on refresh: " + getInstance().refresh().join());
+			} catch (RuntimeException e) { 
+				logger.error(e.getMessage(), e);
 			}
-			
-			pathwayTerms = gbif.loadVocabulary("Pathway");
-			keys = pathwayTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = pathwayTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					pathwayValues.put(i.next(), key);
+		}, period, period, unit);
+		logger.debug("Refreshing vocabularies every " + period + " " + unit);
+	}
+	
+	/**
+	 * Stop refreshing the vocabularies at an interval, a refresh in progress is completed.
+	 */
+	public static synchronized void cancelRefresh() { 
+		if (scheduledRefresh!=null) { 
+			scheduledRefresh.cancel(false);
+			scheduledRefresh = null;
+		}
+	}
+	
+	private static void scheduleRefreshFromSystemProperties() { 
+		String hours = System.getProperty(REFRESH_PROPERTY);
+		if (hours!=null && hours.trim().length() > 0) { 
+			try { 
+				long period = Long.parseLong(hours.trim());
+				if (period > 0L) { 
+					scheduleRefresh(period, TimeUnit.HOURS);
 				}
+			} catch (NumberFormatException e) { 
+				logger.error("Unable to parse " + REFRESH_PROPERTY + " as a number of hours: " + hours);
 			}
-			
-			typeStatusTerms = gbif.loadVocabulary("TypeStatus");
-			keys = typeStatusTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = typeStatusTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					typeStatusValues.put(i.next(), key);
-				}
+		}
+	}
+	
+	/**
+	 * Fetch the current version of each vocabulary that has been used from GBIF (revalidating 
+	 * the copy in the disk cache if there is one), then, if any have changed, publish all of them 
+	 * at once.  Vocabularies that can't be fetched keep their previous content, vocabularies 
+	 * that failed to load are replaced if they can now be fetched, and vocabularies not yet used
+	 * are left to load on first use.  Readers are not blocked while the vocabularies are fetched.
+	 * 
+	 * @return a future that completes with true if any vocabulary changed.
+	 */
+	public CompletableFuture<Boolean> refresh() { 
+		final Map<String,CompletableFuture<Map<String,List<String>>>> fetching = new LinkedHashMap<String,CompletableFuture<Map<String,List<String>>>>();
+		for (VocabularyHolder holder : vocabularies.values()) { 
+			if (holder.loading!=null) { 
+				fetching.put(holder.name, fetch(holder.name));
 			}
-			
-			sexTerms = gbif.loadVocabulary("Sex");
-			keys = sexTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = sexTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					sexValues.put(i.next(), key);
-				}
+		}
+		return CompletableFuture.allOf(fetching.values().toArray(new CompletableFuture<?>[0]))
+				.handle((ignored, e) -> publish(fetching));
+	}
+	
+	/**
+	 * Fetch a vocabulary from GBIF for a refresh, an empty map if it can't be fetched.
+	 */
+	private CompletableFuture<Map<String,List<String>>> fetch(String name) { 
+		CompletableFuture<Map<String,List<String>>> result;
+		try { 
+			VocabularyCache vocabularyCache = getCache();
+			FetchedVocabulary cached = vocabularyCache==null ? null : vocabularyCache.read(name);
+			if (cached!=null) { 
+				result = vocabularyCache.revalidate(name, cached).thenApply(fetched -> fetched.getTerms());
+			} else if (vocabularyCache!=null) { 
+				result = vocabularyCache.loadAsync(name);
+			} else { 
+				result = getGbif().loadVocabularyAsync(name);
 			}
-		
-			degreeOfEstablishmentTerms = gbif.loadVocabulary("DegreeOfEstablishment");
-			keys = degreeOfEstablishmentTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = degreeOfEstablishmentTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					degreeOfEstablishmentValues.put(i.next(), key);
-				}
+		} catch (RuntimeException e) { 
+			result = new CompletableFuture<Map<String,List<String>>>();
+			result.completeExceptionally(e);
+		}
+		return result.exceptionally(e -> { 
+			logger.error("Unable to refresh " + name + ": " + e.getMessage(), e);
+			return Collections.<String,List<String>>emptyMap();
+		});
+	}
+	
+	/**
+	 * Build the refreshed set of vocabularies from the completed fetches, and publish it if 
+	 * anything changed.
+	 */
+	private synchronized Boolean publish(Map<String,CompletableFuture<Map<String,List<String>>>> fetching) { 
+		Map<String,VocabularyHolder> current = vocabularies;
+		Map<String,VocabularyHolder> refreshed = new LinkedHashMap<String,VocabularyHolder>(current);
+		boolean changed = false;
+		for (Map.Entry<String,CompletableFuture<Map<String,List<String>>>> entry : fetching.entrySet()) { 
+			String name = entry.getKey();
+			Map<String,List<String>> terms = entry.getValue().join();
+			if (terms==null || terms.isEmpty()) { 
+				logger.warn("Unable to refresh " + name + " from GBIF, keeping the current vocabulary.");
+				continue;
 			}
-			
-			establishmentMeansTerms = gbif.loadVocabulary("EstablishmentMeans");
-			keys = establishmentMeansTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = establishmentMeansTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					establishmentMeansValues.put(i.next(), key);
-				}
+			CompletableFuture<Vocabulary> previous = current.get(name).loading;
+			if (previous!=null && previous.isDone() && previous.join().isLoaded() && previous.join().getTerms().equals(terms)) { 
+				continue;
+			}
+			VocabularyHolder holder = new VocabularyHolder(name);
+			holder.loading = CompletableFuture.completedFuture(Vocabulary.loaded(name, terms));
+			refreshed.put(name, holder);
+			changed = true;
+			logger.debug("Refreshed " + name);
+		}
+		if (changed) { 
+			vocabularies = Collections.unmodifiableMap(refreshed);
+			generation.incrementAndGet();
+		}
+		return Boolean.valueOf(changed);
+	}
+	
+	/**
+	 * Take a copy of the vocabularies, loading any not yet loaded.
+	 * 
+	 * @return a snapshot of the vocabularies which could be loaded.
+	 * @throws IllegalStateException if none of the vocabularies could be loaded.
+	 */
+	public VocabularySnapshot snapshot() { 
+		loadAll();
+		Map<String,Map<String,List<String>>> result = new LinkedHashMap<String,Map<String,List<String>>>();
+		for (String name : VocabularySnapshot.VOCABULARIES) { 
+			Vocabulary vocabulary = vocabulary(name);
+			if (vocabulary.isLoaded()) { 
+				result.put(name, vocabulary.getTerms());
+			}
+		}
+		if (result.isEmpty()) { 
+			throw new IllegalStateException("Vocabularies not loaded: " + loadErrors());
+		}
+		return new VocabularySnapshot(result, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Start loading every vocabulary not yet loaded, all at once, and wait for them.
+	 */
+	public void loadAll() { 
+		List<CompletableFuture<Vocabulary>> pending = new ArrayList<CompletableFuture<Vocabulary>>();
+		for (VocabularyHolder holder : vocabularies.values()) { 
+			pending.add(holder.start());
+		}
+		for (CompletableFuture<Vocabulary> loading : pending) { 
+			loading.join();
+		}
+	}
+	
+	/**
+	 * Obtain a vocabulary, loading it if it hasn't been tried.  The returned vocabulary doesn't
+	 * change, a test should obtain it once and consult only it, so that it has a consistent
+	 * view of the vocabulary if the vocabularies are refreshed or installed while it runs.
+	 * 
+	 * @param name the name of a vocabulary, e.g. VocabularySnapshot.SEX
+	 * @return the vocabulary, which may not be loaded, see Vocabulary.isLoaded().
+	 * @throws IllegalArgumentException if the name isn't that of a vocabulary held here.
+	 */
+	public Vocabulary getVocabulary(String name) { 
+		return vocabulary(name);
+	}
+	
+	/**
+	 * Start loading a vocabulary, if it hasn't been tried, without waiting for it.  The vocabulary
+	 * is looked up in the vocabularies held now, so after an install() or a refresh, the future
+	 * is that of the replacement vocabulary.
+	 * 
+	 * @param name the name of a vocabulary, e.g. VocabularySnapshot.SEX
+	 * @return a future for the vocabulary, which may not be loaded, see Vocabulary.isLoaded().
+	 * @throws IllegalArgumentException if the name isn't that of a vocabulary held here.
+	 */
+	public CompletableFuture<Vocabulary> loadVocabulary(String name) { 
+		VocabularyHolder holder = vocabularies.get(name);
+		if (holder==null) { 
+			throw new IllegalArgumentException("Unknown vocabulary " + name);
+		}
+		return holder.start();
+	}
+	
+	/**
+	 * @param name the name of a vocabulary, e.g. VocabularySnapshot.SEX
+	 * @return true if the vocabulary has been loaded, loading it if it hasn't been tried.
+	 * @throws IllegalArgumentException if the name isn't that of a vocabulary held here.
+	 */
+	public boolean isLoaded(String name) { 
+		return vocabulary(name).isLoaded();
+	}
+	
+	/**
+	 * @param name the name of a vocabulary, e.g. VocabularySnapshot.SEX
+	 * @return the error loading the vocabulary, or an empty string if it was loaded.
+	 * @throws IllegalArgumentException if the name isn't that of a vocabulary held here.
+	 */
+	public String getLoadError(String name) { 
+		return vocabulary(name).getLoadError();
+	}
+	
+	/**
+	 * Replace the holders of the vocabularies in a snapshot that aren't loaded, publishing
+	 * the result as a refresh does.
+	 */
+	private synchronized boolean installMissing(VocabularySnapshot snapshot) { 
+		Map<String,VocabularyHolder> current = vocabularies;
+		Map<String,VocabularyHolder> installing = new LinkedHashMap<String,VocabularyHolder>(current);
+		boolean changed = false;
+		for (String name : snapshot.getNames()) { 
+			VocabularyHolder holder = current.get(name);
+			if (holder==null) { 
+				continue;
+			}
+			CompletableFuture<Vocabulary> loading = holder.loading;
+			if (loading!=null && loading.isDone() && loading.join().isLoaded()) { 
+				continue;
 			}
-			
-			occurrenceStatusTerms = gbif.loadVocabulary("OccurrenceStatus");
-			keys = occurrenceStatusTerms.keySet().iterator();
-			while (keys.hasNext()) { 
-				String key = keys.next();
-				List<String> values = occurrenceStatusTerms.get(key);
-				Iterator<String> i = values.iterator();
-				while (i.hasNext()) { 
-					occurrenceStatusValues.put(i.next(), key);
+			VocabularyHolder installed = new VocabularyHolder(name);
+			installed.loading = CompletableFuture.completedFuture(Vocabulary.loaded(name, snapshot.getVocabulary(name)));
+			installing.put(name, installed);
+			changed = true;
+			logger.debug("Installed " + name);
+		}
+		if (changed) { 
+			vocabularies = Collections.unmodifiableMap(installing);
+			generation.incrementAndGet();
+		}
+		return changed;
+	}
+	
+	/**
+	 * Obtain a vocabulary, waiting for it to load if it isn't loaded.
+	 */
+	private Vocabulary vocabulary(String name) { 
+		return loadVocabulary(name).join();
+	}
+	
+	/**
+	 * Load a vocabulary according to the source, from the disk cache, then GBIF, then the 
+	 * bundled snapshot, except that for SOURCE_BUNDLED, a vocabulary that isn't in the cache is 
+	 * taken from the bundled snapshot without fetching it from GBIF.
+	 */
+	private CompletableFuture<Vocabulary> load(String name) { 
+		VocabularySnapshot bundledSnapshot = getBundled();
+		final Map<String,List<String>> fallback = bundledSnapshot==null ? null : bundledSnapshot.getVocabulary(name);
+		CompletableFuture<Map<String,List<String>>> loading;
+		try { 
+			VocabularyCache vocabularyCache = getCache();
+			if (fallback!=null && !fallback.isEmpty() && !source.equals(SOURCE_GBIF)) { 
+				// a cached copy, fetched from GBIF by a load or refresh, is newer than the bundled snapshot
+				Map<String,List<String>> cached = vocabularyCache==null ? null : vocabularyCache.loadCached(name);
+				if (cached!=null && !cached.isEmpty()) { 
+					logger.debug("Using cached " + name);
+					return CompletableFuture.completedFuture(Vocabulary.loaded(name, cached));
 				}
+				logger.debug("Using bundled " + name);
+				return CompletableFuture.completedFuture(Vocabulary.loaded(name, fallback));
+			}
+			loading = vocabularyCache==null ? getGbif().loadVocabularyAsync(name) : vocabularyCache.loadAsync(name);
+		} catch (RuntimeException e) { 
+			loading = new CompletableFuture<Map<String,List<String>>>();
+			loading.completeExceptionally(e);
+		}
+		return loading.handle((terms, e) -> { 
+			String error = "Unable to load the " + name + " vocabulary from GBIF.";
+			if (e!=null) { 
+				Throwable cause = e instanceof CompletionException && e.getCause()!=null ? e.getCause() : e;
+				logger.error(cause.getMessage(), cause);
+				error = cause.getMessage();
+				terms = null;
 			}
+			// loadVocabulary() logs and returns an empty vocabulary if GBIF can't be reached
+			if ((terms==null || terms.isEmpty()) && fallback!=null && !fallback.isEmpty()) { 
+				logger.warn("Unable to load " + name + " from GBIF, using the bundled snapshot.");
+				terms = fallback;
+			}
+			if (terms==null || terms.isEmpty()) { 
+				return Vocabulary.failed(name, error);
+			}
+			return Vocabulary.loaded(name, terms);
+		});
+	}
+	
+	private synchronized VocabularySnapshot getBundled() { 
+		if (!bundledRead) { 
+			bundled = VocabularySnapshot.bundled();
+			bundledRead = true;
+		}
+		return bundled;
+	}
+	
+	private synchronized GbifService getGbif() { 
+		if (gbif==null) { 
+			gbif = new GbifService();
+		}
+		return gbif;
+	}
+	
+	private synchronized VocabularyCache getCache() { 
+		if (cache==null) { 
+			cache = VocabularyCache.fromSystemProperties(getGbif());
+		}
+		return cache;
+	}
+	
+	/**
+	 * Loads a vocabulary once, on first use.
+	 */
+	private final class VocabularyHolder { 
+		private final String name;
+		private volatile CompletableFuture<Vocabulary> loading;
 		
-			loaded = true;
-			loadError = "";
-		} catch (Exception e) { 
-			loadError = e.getMessage();
+		private VocabularyHolder(String name) { 
+			this.name = name;
+		}
+		
+		private CompletableFuture<Vocabulary> start() { 
+			CompletableFuture<Vocabulary> result = loading;
+			if (result==null) { 
+				synchronized (this) { 
+					result = loading;
+					if (result==null) { 
+						result = load(name);
+						loading = result;
+					}
+				}
+			}
+			return result;
 		}
 	}
 
@@ -174,7 +563,7 @@ public class MetadataSingleton {
 	 * @return the map of lifeStage values from the vocabulary
 	 */
 	public Map<String,String> getLifeStageValues() { 
-		return lifeStageValues;
+		return vocabulary(VocabularySnapshot.LIFE_STAGE).getValues();
 	}
 	/**
 	 * get the liifeStage key:list of value pairs 
@@ -183,7 +572,7 @@ public class MetadataSingleton {
 	 * @return the map of lifeStage values from the vocabulary
 	 */
 	public Map<String, List<String>> getLifeStageTerms() { 
-		return lifeStageTerms;
+		return vocabulary(VocabularySnapshot.LIFE_STAGE).getTerms();
 	}
 	
 	/**
@@ -193,7 +582,7 @@ public class MetadataSingleton {
 	 * @return the map of pathway values from the vocabulary
 	 */
 	public Map<String,String> getPathwayValues() { 
-		return pathwayValues;
+		return vocabulary(VocabularySnapshot.PATHWAY).getValues();
 	}
 	/**
 	 * get the pathway key:list of value pairs 
@@ -202,7 +591,7 @@ public class MetadataSingleton {
 	 * @return the map of pathway values from the vocabulary
 	 */
 	public Map<String, List<String>> getPathwayTerms() { 
-		return pathwayTerms;
+		return vocabulary(VocabularySnapshot.PATHWAY).getTerms();
 	}
 	
 	/**
@@ -211,7 +600,7 @@ public class MetadataSingleton {
 	 * @return the map of typeStatus values from the vocabulary
 	 */
 	public Map<String,String> getTypeStatusValues() { 
-		return typeStatusValues;
+		return vocabulary(VocabularySnapshot.TYPE_STATUS).getValues();
 	}
 	/**
 	 * get the typeStatus key:list of value pairs 
@@ -220,7 +609,7 @@ public class MetadataSingleton {
 	 * @return the map of typeStatus values from the vocabulary
 	 */
 	public Map<String, List<String>> getTypeStatusTerms() { 
-		return typeStatusTerms;
+		return vocabulary(VocabularySnapshot.TYPE_STATUS).getTerms();
 	}
 	
 	/**
@@ -230,7 +619,7 @@ public class MetadataSingleton {
 	 * @return the map of sex values from the vocabulary
 	 */
 	public Map<String,String> getSexValues() { 
-		return sexValues;
+		return vocabulary(VocabularySnapshot.SEX).getValues();
 	}
 	
 	/**
@@ -240,7 +629,7 @@ public class MetadataSingleton {
 	 * @return the map of sex values from the vocabulary
 	 */
 	public Map<String, List<String>> getSexTerms() { 
-		return sexTerms;
+		return vocabulary(VocabularySnapshot.SEX).getTerms();
 	}
 	
 	/**
@@ -250,7 +639,7 @@ public class MetadataSingleton {
 	 * @return the map of degreeOfEstablishment values from the vocabulary
 	 */
 	public Map<String,String> getDegreeOfEstablishmentValues() { 
-		return degreeOfEstablishmentValues;
+		return vocabulary(VocabularySnapshot.DEGREE_OF_ESTABLISHMENT).getValues();
 	}
 	
 	/**
@@ -260,7 +649,7 @@ public class MetadataSingleton {
 	 * @return the map of degreeOfEstablishment values from the vocabulary
 	 */
 	public Map<String, List<String>> getDegreeOfEstablishmentTerms() { 
-		return degreeOfEstablishmentTerms;
+		return vocabulary(VocabularySnapshot.DEGREE_OF_ESTABLISHMENT).getTerms();
 	}
 	
 	/**
@@ -270,7 +659,7 @@ public class MetadataSingleton {
 	 * @return the map of establishmentMeans values from the vocabulary
 	 */
 	public Map<String,String> getEstablishmentMeansValues() { 
-		return establishmentMeansValues;
+		return vocabulary(VocabularySnapshot.ESTABLISHMENT_MEANS).getValues();
 	}
 	
 	/**
@@ -280,7 +669,7 @@ public class MetadataSingleton {
 	 * @return the map of establishmentMeans values from the vocabulary
 	 */
 	public Map<String, List<String>> getEstablishmentMeansTerms() { 
-		return establishmentMeansTerms;
+		return vocabulary(VocabularySnapshot.ESTABLISHMENT_MEANS).getTerms();
 	}
 	
 	/**
@@ -290,7 +679,7 @@ public class MetadataSingleton {
 	 * @return the map of occurrenceStatus values from the vocabulary
 	 */
 	public Map<String,String> getOccurrenceStatusValues() { 
-		return occurrenceStatusValues;
+		return vocabulary(VocabularySnapshot.OCCURRENCE_STATUS).getValues();
 	}
 	
 	/**
@@ -300,21 +689,55 @@ public class MetadataSingleton {
 	 * @return the map of occurrenceStatus values from the vocabulary
 	 */
 	public Map<String, List<String>> getOccurrenceStatusTerms() { 
-		return occurrenceStatusTerms;
+		return vocabulary(VocabularySnapshot.OCCURRENCE_STATUS).getTerms();
 	}
 	
 	/**
-	 * @return true if vocabularies have been loaded
+	 * Check every vocabulary, this forces loadAll(), fetching any vocabulary not yet loaded,
+	 * so a test should instead check only the vocabulary it consults.
+	 * 
+	 * @return true if all of the vocabularies have been loaded, loading any not yet loaded.
+	 * @deprecated forces loadAll(), use isLoaded(String) for the vocabulary a test consults.
 	 */
+	@Deprecated
 	public Boolean isLoaded() { 
-		return loaded;
+		loadAll();
+		for (String name : VocabularySnapshot.VOCABULARIES) { 
+			if (!isLoaded(name)) { 
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
-	 * @return any load error message
+	 * Report errors for every vocabulary, this forces loadAll(), fetching any vocabulary not 
+	 * yet loaded, so a test should instead report only on the vocabulary it consults.
+	 * 
+	 * @return any load error messages, for all of the vocabularies.
+	 * @deprecated forces loadAll(), use getLoadError(String) for the vocabulary a test consults.
 	 */
+	@Deprecated
 	public String getLoadError() { 
-		return loadError;
+		loadAll();
+		return loadErrors();
+	}
+	
+	/**
+	 * @return any load error messages for the vocabularies already tried, without loading any.
+	 */
+	private String loadErrors() { 
+		StringBuilder result = new StringBuilder();
+		for (String name : VocabularySnapshot.VOCABULARIES) { 
+			String error = getLoadError(name);
+			if (error!=null && error.length() > 0) { 
+				if (result.length() > 0) { 
+					result.append(" ");
+				}
+				result.append(error);
+			}
+		}
+		return result.toString();
 	}
 	
 }
@@ -0,0 +1,116 @@
+/**
+ * Vocabulary.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ *
+ */
+package org.filteredpush.qc.metadata.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of one vocabulary held by MetadataSingleton: its terms, the index of 
+ * alternative names to terms, and whether it could be loaded.  A test obtains a vocabulary once
+ * (see MetadataSingleton.getVocabulary()) and consults only that view, so that a refresh or 
+ * install replacing the vocabularies part way through the test can't mix the terms of one 
+ * version with the index of another.
+ * 
+ * @author mole
+ *
+ */
+public final class Vocabulary {
+
+	private final String name;
+	private final Map<String,List<String>> terms;
+	private final Map<String,String> values;
+	private final boolean loaded;
+	private final String loadError;
+	
+	private Vocabulary(String name, Map<String,List<String>> terms, boolean loaded, String loadError) { 
+		Map<String,String> index = new HashMap<String,String>();
+		for (Map.Entry<String,List<String>> term : terms.entrySet()) { 
+			for (String value : term.getValue()) { 
+				index.put(value, term.getKey());
+			}
+		}
+		this.name = name;
+		this.terms = Collections.unmodifiableMap(new HashMap<String,List<String>>(terms));
+		this.values = Collections.unmodifiableMap(index);
+		this.loaded = loaded;
+		this.loadError = loadError;
+	}
+	
+	/**
+	 * @param name the name of the vocabulary.
+	 * @param terms the alternative names for each term.
+	 * @return a loaded vocabulary.
+	 */
+	static Vocabulary loaded(String name, Map<String,List<String>> terms) { 
+		return new Vocabulary(name, terms, true, "");
+	}
+	
+	/**
+	 * @param name the name of the vocabulary.
+	 * @param loadError the reason the vocabulary couldn't be loaded.
+	 * @return an empty vocabulary that is not loaded.
+	 */
+	static Vocabulary failed(String name, String loadError) { 
+		return new Vocabulary(name, Collections.<String,List<String>>emptyMap(), false, loadError);
+	}
+	
+	/**
+	 * @return the name of the vocabulary, e.g. VocabularySnapshot.SEX
+	 */
+	public String getName() { 
+		return name;
+	}
+	
+	/**
+	 * @return the unmodifiable map of each term to its alternative names.
+	 */
+	public Map<String,List<String>> getTerms() { 
+		return terms;
+	}
+	
+	/**
+	 * @return the unmodifiable map of each alternative name to its term.
+	 */
+	public Map<String,String> getValues() { 
+		return values;
+	}
+	
+	/**
+	 * @return true if the vocabulary was loaded.
+	 */
+	public boolean isLoaded() { 
+		return loaded;
+	}
+	
+	/**
+	 * @return the error loading the vocabulary, or an empty string if it was loaded.
+	 */
+	public String getLoadError() { 
+		return loadError;
+	}
+	
+	@Override
+	public String toString() { 
+		return "Vocabulary [name=" + name + ", terms=" + terms.size() + ", loaded=" + loaded + "]";
+	}
+	
+}
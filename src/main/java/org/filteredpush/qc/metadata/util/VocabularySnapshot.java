@@ -0,0 +1,304 @@
+/**
+ * VocabularySnapshot.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ *
+ */
+package org.filteredpush.qc.metadata.util;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.filteredpush.qc.metadata.services.GbifService;
+
+/**
+ * An immutable copy of the vocabularies held by MetadataSingleton, which can be installed in
+ * MetadataSingleton in place of loading the vocabularies from GBIF (e.g. in each JVM of a
+ * cluster), see MetadataSingleton.install().   Serializes compactly as counts and strings.
+ *
+ * A snapshot may also be written to a file with write(), and a snapshot captured when the
+ * library is built with the vocabulary-snapshot maven profile, which runs main() to write it
+ * into the build output, is bundled as the resource BUNDLED_RESOURCE, see bundled(), for use
+ * where GBIF can't be reached.  Without that profile no snapshot is bundled, and the
+ * vocabularies are loaded from GBIF.
+ *
+ * @author mole
+ *
+ */
+public class VocabularySnapshot implements Serializable {
+
+	private static final long serialVersionUID = 6358224839016717421L;
+
+	private static final Log logger = LogFactory.getLog(VocabularySnapshot.class);
+
+	/** classpath location of the snapshot bundled with the library */
+	public static final String BUNDLED_RESOURCE = "/org/filteredpush/qc/metadata/util/vocabularies.snapshot";
+
+	/** identifies the file format written by write(), followed by the format version */
+	private static final int MAGIC = 0x44575653;
+	private static final int FORMAT_VERSION = 1;
+
+	/** name of the GBIF LifeStage vocabulary */
+	public static final String LIFE_STAGE = "LifeStage";
+	/** name of the GBIF Pathway vocabulary */
+	public static final String PATHWAY = "Pathway";
+	/** name of the GBIF TypeStatus vocabulary */
+	public static final String TYPE_STATUS = "TypeStatus";
+	/** name of the GBIF Sex vocabulary */
+	public static final String SEX = "Sex";
+	/** name of the GBIF DegreeOfEstablishment vocabulary */
+	public static final String DEGREE_OF_ESTABLISHMENT = "DegreeOfEstablishment";
+	/** name of the GBIF EstablishmentMeans vocabulary */
+	public static final String ESTABLISHMENT_MEANS = "EstablishmentMeans";
+	/** name of the GBIF OccurrenceStatus vocabulary */
+	public static final String OCCURRENCE_STATUS = "OccurrenceStatus";
+
+	/** the vocabularies held by MetadataSingleton, in the order they are loaded */
+	public static final List<String> VOCABULARIES = Collections.unmodifiableList(Arrays.asList(
+			LIFE_STAGE, PATHWAY, TYPE_STATUS, SEX, DEGREE_OF_ESTABLISHMENT, ESTABLISHMENT_MEANS, OCCURRENCE_STATUS));
+
+	/**
+	 * Find the vocabulary of values for a term, the GBIF vocabularies being named for the 
+	 * Darwin Core terms they hold values for.
+	 * 
+	 * @param term a term, e.g. dwc:sex
+	 * @return the name of the vocabulary for the term, e.g. SEX, or null if none is held.
+	 */
+	public static String forTerm(String term) {
+		if (term==null) {
+			return null;
+		}
+		String localName = term.substring(term.indexOf(':') + 1);
+		if (localName.isEmpty()) {
+			return null;
+		}
+		String name = Character.toUpperCase(localName.charAt(0)) + localName.substring(1);
+		return VOCABULARIES.contains(name) ? name : null;
+	}
+
+	private transient Map<String,Map<String,List<String>>> vocabularies;
+	private transient long created;
+
+	/**
+	 * @param vocabularies for each vocabulary name, a map of the terms in the vocabulary to the
+	 *   list of alternative names for each term, as returned by GbifService.loadVocabulary().
+	 * @param created when the vocabularies were obtained, in milliseconds since the epoch.
+	 */
+	public VocabularySnapshot(Map<String,Map<String,List<String>>> vocabularies, long created) {
+		Map<String,Map<String,List<String>>> copy = new LinkedHashMap<String,Map<String,List<String>>>();
+		for (Map.Entry<String,Map<String,List<String>>> vocabulary : vocabularies.entrySet()) {
+			Map<String,List<String>> terms = new LinkedHashMap<String,List<String>>();
+			for (Map.Entry<String,List<String>> term : vocabulary.getValue().entrySet()) {
+				terms.put(term.getKey(), Collections.unmodifiableList(new ArrayList<String>(term.getValue())));
+			}
+			copy.put(vocabulary.getKey(), Collections.unmodifiableMap(terms));
+		}
+		this.vocabularies = Collections.unmodifiableMap(copy);
+		this.created = created;
+	}
+
+	/**
+	 * @return the names of the vocabularies in the snapshot.
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(vocabularies.keySet()));
+	}
+
+	/**
+	 * @param name the name of a vocabulary, e.g. SEX.
+	 * @return the terms of the vocabulary mapped to the alternative names for each term,
+	 *   an empty map if the snapshot doesn't include the vocabulary.
+	 */
+	public Map<String,List<String>> getVocabulary(String name) {
+		Map<String,List<String>> result = vocabularies.get(name);
+		return result==null ? Collections.<String,List<String>>emptyMap() : result;
+	}
+
+	/**
+	 * @return when the vocabularies were obtained, in milliseconds since the epoch.
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * Write the snapshot, gzipped, in the format read by read().
+	 *
+	 * @param out the stream to write to, not closed.
+	 * @throws IOException on an error writing.
+	 */
+	public void write(OutputStream out) throws IOException {
+		GZIPOutputStream zip = new GZIPOutputStream(out);
+		DataOutputStream data = new DataOutputStream(zip);
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		writeVocabularies(data);
+		data.flush();
+		zip.finish();
+	}
+
+	/**
+	 * Read a snapshot written by write().
+	 *
+	 * @param in the stream to read from, not closed.
+	 * @return the snapshot.
+	 * @throws IOException on an error reading, or if the stream doesn't hold a snapshot.
+	 */
+	public static VocabularySnapshot read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+		if (data.readInt()!=MAGIC) {
+			throw new IOException("Not a vocabulary snapshot.");
+		}
+		int version = data.readInt();
+		if (version!=FORMAT_VERSION) {
+			throw new IOException("Unsupported vocabulary snapshot format version " + version);
+		}
+		VocabularySnapshot result = new VocabularySnapshot(Collections.<String,Map<String,List<String>>>emptyMap(), 0L);
+		result.readVocabularies(data);
+		return result;
+	}
+
+	/**
+	 * Read the snapshot bundled with the library.
+	 *
+	 * @return the bundled snapshot, or null if none was bundled or it can't be read.
+	 */
+	public static VocabularySnapshot bundled() {
+		try (InputStream in = VocabularySnapshot.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+			if (in==null) {
+				logger.debug("No bundled vocabulary snapshot " + BUNDLED_RESOURCE);
+				return null;
+			}
+			return read(in);
+		} catch (IOException e) {
+			logger.error("Unable to read bundled vocabulary snapshot: " + e.getMessage(), e);
+			return null;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		writeVocabularies(out);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		readVocabularies(in);
+	}
+
+	private void writeVocabularies(DataOutput out) throws IOException {
+		out.writeLong(created);
+		out.writeInt(vocabularies.size());
+		for (Map.Entry<String,Map<String,List<String>>> vocabulary : vocabularies.entrySet()) {
+			out.writeUTF(vocabulary.getKey());
+			out.writeInt(vocabulary.getValue().size());
+			for (Map.Entry<String,List<String>> term : vocabulary.getValue().entrySet()) {
+				out.writeUTF(term.getKey());
+				out.writeInt(term.getValue().size());
+				for (String name : term.getValue()) {
+					out.writeUTF(name);
+				}
+			}
+		}
+	}
+
+	private void readVocabularies(DataInput in) throws IOException {
+		created = in.readLong();
+		Map<String,Map<String,List<String>>> read = new LinkedHashMap<String,Map<String,List<String>>>();
+		int vocabularyCount = in.readInt();
+		for (int v=0; v<vocabularyCount; v++) {
+			String name = in.readUTF();
+			Map<String,List<String>> terms = new LinkedHashMap<String,List<String>>();
+			int termCount = in.readInt();
+			for (int t=0; t<termCount; t++) {
+				String term = in.readUTF();
+				int nameCount = in.readInt();
+				List<String> names = new ArrayList<String>(nameCount);
+				for (int n=0; n<nameCount; n++) {
+					names.add(in.readUTF());
+				}
+				terms.put(term, Collections.unmodifiableList(names));
+			}
+			read.put(name, Collections.unmodifiableMap(terms));
+		}
+		vocabularies = Collections.unmodifiableMap(read);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("VocabularySnapshot [created=").append(created);
+		for (Map.Entry<String,Map<String,List<String>>> vocabulary : vocabularies.entrySet()) {
+			result.append(", ").append(vocabulary.getKey()).append("=").append(vocabulary.getValue().size());
+		}
+		return result.append("]").toString();
+	}
+
+	/**
+	 * Capture the vocabularies from GBIF and write them as a snapshot, run by the
+	 * vocabulary-snapshot maven profile to produce the bundled snapshot.
+	 *
+	 * @param args the files to write the snapshot to.
+	 * @throws IOException if a vocabulary can't be loaded or a file can't be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length==0) {
+			System.err.println("Usage: VocabularySnapshot <output file> [<output file> ...]");
+			System.exit(1);
+		}
+		GbifService gbif = new GbifService();
+		Map<String,Map<String,List<String>>> vocabularies = new LinkedHashMap<String,Map<String,List<String>>>();
+		for (String name : VOCABULARIES) {
+			Map<String,List<String>> terms = gbif.loadVocabulary(name);
+			if (terms.isEmpty()) {
+				// loadVocabulary() returns an empty vocabulary if GBIF can't be reached
+				throw new IOException("Unable to load the " + name + " vocabulary from GBIF.");
+			}
+			vocabularies.put(name, terms);
+		}
+		VocabularySnapshot snapshot = new VocabularySnapshot(vocabularies, System.currentTimeMillis());
+		for (String arg : args) {
+			Path file = Paths.get(arg);
+			if (file.getParent()!=null) {
+				Files.createDirectories(file.getParent());
+			}
+			try (OutputStream out = Files.newOutputStream(file)) {
+				snapshot.write(out);
+			}
+			logger.info("Wrote " + snapshot + " to " + file);
+		}
+	}
+
+}
@@ -37,6 +37,8 @@ import org.datakurator.ffdq.model.ResultState;
 import org.filteredpush.qc.metadata.DwCMetadataDQ;
 import org.filteredpush.qc.metadata.DwCMetadataDQDefaults;
 import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
 import org.junit.Test;
 
 /**
@@ -1835,5 +1837,27 @@ public class DwCMetadataDQTest {
 		assertNotNull(result.getComment());
 
 	}
+	
+	/**
+	 * Test method for {@link org.filteredpush.qc.metadata.DwCMetadataDQ#amendmentLicenseStandardized(java.lang.String, java.lang.String)}.
+	 * No vocabulary is consulted for licenses, so vocabularies which failed to load must not 
+	 * affect the result for a sourceAuthority other than Creative Commons.
+	 */
+	@Test
+	public void testAmendmentLicenseStandardizedVocabulariesNotLoaded() {
+		try { 
+			for (String name : VocabularySnapshot.VOCABULARIES) { 
+				TestVocabularies.installFailed(name, "Not loaded for test.");
+			}
+			DQResponse<AmendmentValue> result = DwCMetadataDQ.amendmentLicenseStandardized("CC-BY", "GBIF Sex Vocabulary");
+			logger.debug(result.getComment());
+			assertFalse(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel().equals(result.getResultState().getLabel()));
+			
+			result = DwCMetadataDQ.amendmentLicenseStandardized("CC-BY", null);
+			assertEquals(ResultState.AMENDED.getLabel(), result.getResultState().getLabel());
+		} finally { 
+			TestVocabularies.reset();
+		}
+	}
 
 }
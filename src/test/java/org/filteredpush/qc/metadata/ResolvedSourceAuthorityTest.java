@@ -0,0 +1,129 @@
+/**
+ * ResolvedSourceAuthorityTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.model.ResultState;
+import org.filteredpush.qc.metadata.runner.BoundTest;
+import org.filteredpush.qc.metadata.runner.TestRegistry;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class ResolvedSourceAuthorityTest {
+
+	@After
+	public void tearDown() {
+		TestVocabularies.reset();
+	}
+
+	@Test
+	public void testOf() throws SourceAuthorityException {
+		assertTrue(ResolvedSourceAuthority.of(null).isEmpty());
+		assertTrue(ResolvedSourceAuthority.of(" ").isEmpty());
+		ResolvedSourceAuthority sex = ResolvedSourceAuthority.of("GBIF Sex Vocabulary");
+		assertFalse(sex.isEmpty());
+		assertEquals("GBIF Sex Vocabulary", sex.getName());
+		assertEquals(EnumMetadataSourceAuthority.GBIF_SEX, sex.getAuthority());
+		assertEquals(EnumMetadataSourceAuthority.INVALID, ResolvedSourceAuthority.of("https://invalid/x").getAuthority());
+		ResolvedSourceAuthority unknown = ResolvedSourceAuthority.of("nonsense");
+		try {
+			unknown.getAuthority();
+			fail("Expected SourceAuthorityException");
+		} catch (SourceAuthorityException e) {
+			assertEquals("Unable to construct a SourceAuthority from string [nonsense]", e.getMessage());
+		}
+	}
+
+	/**
+	 * A bound test resolves its bdq:sourceAuthority when bound, and not again for each record.
+	 */
+	@Test
+	public void testResolvedOnceWhenBound() {
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.SEX, "female", "male"));
+		List<String> values = Arrays.asList("female", "Male", "fem", "x", "", null);
+		for (String label : Arrays.asList("VALIDATION_SEX_STANDARD", "AMENDMENT_SEX_STANDARDIZED", "VALIDATION_LICENSE_STANDARD", "AMENDMENT_LICENSE_STANDARDIZED")) {
+			BoundTest bound = TestRegistry.getInstance().getByLabel(label)
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, "https://api.gbif.org/v1/vocabularies/Sex"));
+			// the first record initializes DwCMetadataDQ, which resolves the default authorities
+			bound.evaluate(values.get(0));
+			long resolutions = MetadataSourceAuthority.getResolutionCount();
+			for (int i=0; i<1000; i++) {
+				bound.evaluate(values.get(i % values.size()));
+			}
+			assertEquals(label, resolutions, MetadataSourceAuthority.getResolutionCount());
+		}
+	}
+
+	/**
+	 * A bound test gives the same responses as the test method given the string, for
+	 * recognized, invalid, unrecognized, and default source authorities.
+	 */
+	@Test
+	public void testBoundMatchesTestMethod() {
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.SEX, "female", "male"));
+		List<String> values = Arrays.asList("female", "Male", "fem", "x", "", null, "https://creativecommons.org/licenses/by/4.0/", "cc-by");
+		for (String sourceAuthority : Arrays.asList("GBIF Sex Vocabulary", "Creative Commons", "Creative Commons 4.0 Licenses or CC0", "https://invalid/x", "nonsense", "")) {
+			BoundTest sexStandard = TestRegistry.getInstance().getByLabel("VALIDATION_SEX_STANDARD")
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, sourceAuthority));
+			BoundTest sexStandardized = TestRegistry.getInstance().getByLabel("AMENDMENT_SEX_STANDARDIZED")
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, sourceAuthority));
+			BoundTest licenseStandard = TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_STANDARD")
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, sourceAuthority));
+			BoundTest licenseStandardized = TestRegistry.getInstance().getByLabel("AMENDMENT_LICENSE_STANDARDIZED")
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, sourceAuthority));
+			for (String value : values) {
+				String context = sourceAuthority + " " + value;
+				assertSame(context, DwCMetadataDQ.validationSexStandard(value, sourceAuthority), sexStandard.evaluate(value));
+				assertSame(context, DwCMetadataDQ.amendmentSexStandardized(value, sourceAuthority), sexStandardized.evaluate(value));
+				assertSame(context, DwCMetadataDQ.validationLicenseStandard(value, sourceAuthority), licenseStandard.evaluate(value));
+				assertSame(context, DwCMetadataDQ.amendmentLicenseStandardized(value, sourceAuthority), licenseStandardized.evaluate(value));
+			}
+		}
+		for (String sourceAuthority : Arrays.asList("Darwin Core basisOfRecord", "https://invalid/x", "nonsense", "")) {
+			BoundTest basisOfRecordStandardized = TestRegistry.getInstance().getByLabel("AMENDMENT_BASISOFRECORD_STANDARDIZED")
+					.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, sourceAuthority));
+			for (String value : Arrays.asList("PreservedSpecimen", "preserved specimen", "x", "", null)) {
+				assertSame(sourceAuthority + " " + value, DwCMetadataDQ.amendmentBasisofrecordStandardized(value, sourceAuthority), basisOfRecordStandardized.evaluate(value));
+			}
+		}
+		DQResponse<?> invalid = TestRegistry.getInstance().getByLabel("AMENDMENT_SEX_STANDARDIZED")
+				.bind(Collections.singletonMap(BoundTest.SOURCE_AUTHORITY, "https://invalid/x")).evaluate("male");
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), invalid.getResultState().getLabel());
+	}
+
+	private static void assertSame(String context, DQResponse<?> expected, DQResponse<?> found) {
+		assertEquals(context, expected.getResultState().getLabel(), found.getResultState().getLabel());
+		assertEquals(context, expected.getComment(), found.getComment());
+		assertEquals(context, expected.getValue()==null ? null : expected.getValue().getObject(), found.getValue()==null ? null : found.getValue().getObject());
+	}
+
+}
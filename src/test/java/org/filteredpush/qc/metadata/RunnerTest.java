@@ -0,0 +1,312 @@
+/**
+ * RunnerTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.runner.Checkpoint;
+import org.filteredpush.qc.metadata.runner.ResultSummary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs of the command line Runner on small input files.
+ *
+ * @author mole
+ *
+ */
+public class RunnerTest {
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("runner");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	/**
+	 * Run the Runner with the given arguments.
+	 */
+	static void run(String... args) throws Exception {
+		Runner.run(Runner.createOptions(), args);
+	}
+
+	/**
+	 * @return the rows of a results file, without the header.
+	 */
+	static List<CSVRecord> readResults(Path file) throws IOException {
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+			 CSVParser parser = new CSVParser(reader, CSVFormat.RFC4180.withFirstRecordAsHeader())) {
+			List<CSVRecord> result = new ArrayList<CSVRecord>();
+			for (CSVRecord record : parser) {
+				result.add(record);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A profile whose tests don't read dwc:occurrenceID must still report each result
+	 * against the record's occurrenceID.
+	 */
+	@Test
+	public void testProfileReportsOccurrenceID() throws Exception {
+		Path input = directory.resolve("input.csv");
+		Files.write(input, Arrays.asList(
+				"dcterms:license,dwc:sex,dwc:occurrenceID",
+				"CC0,,urn:catalog:1",
+				",female,urn:catalog:2"), StandardCharsets.UTF_8);
+		Path profiles = directory.resolve("profiles.properties");
+		Files.write(profiles, Arrays.asList("license.include.labels=VALIDATION_LICENSE_NOTEMPTY"), StandardCharsets.UTF_8);
+		Path output = directory.resolve("results.csv");
+
+		run("-i", input.toString(), "-o", output.toString(), "-t", "2", "--profiles", profiles.toString(), "-p", "license");
+
+		List<CSVRecord> results = readResults(output);
+		assertEquals(2, results.size());
+		assertEquals(ResultWriter.HEADER.length, results.get(0).size());
+		assertEquals("1", results.get(0).get("record"));
+		assertEquals("urn:catalog:1", results.get(0).get("occurrenceID"));
+		assertEquals("VALIDATION_LICENSE_NOTEMPTY", results.get(0).get("label"));
+		assertEquals("COMPLIANT", results.get(0).get("value"));
+		assertEquals("2", results.get(1).get("record"));
+		assertEquals("urn:catalog:2", results.get(1).get("occurrenceID"));
+		assertEquals("NOT_COMPLIANT", results.get(1).get("value"));
+	}
+
+	/**
+	 * The amended copy of a csv file has the same header and columns, with only the values
+	 * changed by amendments different.
+	 */
+	@Test
+	public void testAmendedCsv() throws Exception {
+		Path input = directory.resolve("input.csv");
+		Files.write(input, Arrays.asList(
+				"occurrenceID,basisOfRecord,remarks",
+				"urn:catalog:1,preservedspecimen,\"5\"\" long\"",
+				"urn:catalog:2,PreservedSpecimen,",
+				"urn:catalog:3,,\"two\nlines\""), StandardCharsets.UTF_8);
+		Path profiles = directory.resolve("profiles.properties");
+		Files.write(profiles, Arrays.asList("basis.include.labels=AMENDMENT_BASISOFRECORD_STANDARDIZED"), StandardCharsets.UTF_8);
+		Path amended = directory.resolve("amended.csv");
+
+		run("-i", input.toString(), "-o", directory.resolve("results.csv").toString(), "--profiles", profiles.toString(), "-p", "basis", "-a", amended.toString());
+
+		assertEquals(Arrays.asList(
+				"occurrenceID,basisOfRecord,remarks",
+				"urn:catalog:1,PreservedSpecimen,\"5\"\" long\"",
+				"urn:catalog:2,PreservedSpecimen,",
+				"urn:catalog:3,,\"two",
+				"lines\""), Files.readAllLines(amended, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * The amended copy of an archive's core follows its meta.xml in having no header line,
+	 * and doesn't add the fields with only a default value, or fill in defaults.
+	 */
+	@Test
+	public void testAmendedArchive() throws Exception {
+		Path archive = directory.resolve("archive");
+		Files.createDirectory(archive);
+		Files.write(archive.resolve("meta.xml"), Arrays.asList(
+				"<archive xmlns=\"http://rs.tdwg.org/dwc/text/\">",
+				" <core encoding=\"UTF-8\" fieldsTerminatedBy=\"\\t\" linesTerminatedBy=\"\\n\" fieldsEnclosedBy=\"\" ignoreHeaderLines=\"0\" rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\">",
+				"  <files><location>occurrence.txt</location></files>",
+				"  <id index=\"0\"/>",
+				"  <field index=\"0\" term=\"http://rs.tdwg.org/dwc/terms/occurrenceID\"/>",
+				"  <field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/basisOfRecord\" default=\"PreservedSpecimen\"/>",
+				"  <field index=\"2\" term=\"http://purl.org/dc/terms/type\" default=\"PhysicalObject\"/>",
+				"  <field term=\"http://purl.org/dc/terms/license\" default=\"CC0\"/>",
+				" </core>",
+				"</archive>"), StandardCharsets.UTF_8);
+		Files.write(archive.resolve("occurrence.txt"), Arrays.asList(
+				"urn:catalog:1\tpreservedspecimen\t",
+				"urn:catalog:2\t\tStillImage"), StandardCharsets.UTF_8);
+		Path profiles = directory.resolve("profiles.properties");
+		Files.write(profiles, Arrays.asList("basis.include.labels=AMENDMENT_BASISOFRECORD_STANDARDIZED, VALIDATION_LICENSE_NOTEMPTY"), StandardCharsets.UTF_8);
+		Path amended = directory.resolve("amended.txt");
+		Path output = directory.resolve("results.csv");
+
+		run("-i", archive.toString(), "-o", output.toString(), "--profiles", profiles.toString(), "-p", "basis", "-a", amended.toString());
+
+		assertEquals(Arrays.asList(
+				"urn:catalog:1\tPreservedSpecimen\t",
+				"urn:catalog:2\t\tStillImage"), Files.readAllLines(amended, StandardCharsets.UTF_8));
+		// the tests still see the defaults
+		for (CSVRecord result : readResults(output)) {
+			if (result.get("label").equals("VALIDATION_LICENSE_NOTEMPTY")) {
+				assertEquals("COMPLIANT", result.get("value"));
+			} else if (result.get("occurrenceID").equals("urn:catalog:2")) {
+				assertEquals("NOT_AMENDED", result.get("resultState"));
+			}
+		}
+	}
+
+	/**
+	 * A file too large for one batch is streamed through several evaluator threads, with a
+	 * result for each test on each record in input order, and the same output when read from
+	 * stdin and written to stdout.
+	 */
+	@Test
+	public void testStreaming() throws Exception {
+		int records = 5000;
+		StringBuilder lines = new StringBuilder("dwc:occurrenceID,dcterms:license,dwc:basisOfRecord\n");
+		for (int i=1; i<=records; i++) {
+			lines.append("urn:catalog:").append(i).append(",").append(i % 2 == 0 ? "CC0" : "").append(",").append(i % 5 == 0 ? "" : "PreservedSpecimen").append("\n");
+		}
+		byte[] inputBytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+		Path input = directory.resolve("input.csv");
+		Files.write(input, inputBytes);
+		Path profiles = directory.resolve("profiles.properties");
+		Files.write(profiles, Arrays.asList("basic.include.labels=VALIDATION_LICENSE_NOTEMPTY, VALIDATION_BASISOFRECORD_NOTEMPTY"), StandardCharsets.UTF_8);
+		Path output = directory.resolve("results.csv");
+		Path summaryFile = directory.resolve("summary.csv");
+
+		run("-i", input.toString(), "-o", output.toString(), "-s", summaryFile.toString(), "-t", "4", "-b", "16", "-q", "2", "-m", "0",
+				"--profiles", profiles.toString(), "-p", "basic");
+
+		List<CSVRecord> results = readResults(output);
+		assertEquals(records * 2, results.size());
+		for (int i=0; i<results.size(); i++) {
+			CSVRecord result = results.get(i);
+			int record = i / 2 + 1;
+			assertEquals(Integer.toString(record), result.get("record"));
+			assertEquals("urn:catalog:" + record, result.get("occurrenceID"));
+			if (result.get("label").equals("VALIDATION_LICENSE_NOTEMPTY")) {
+				assertEquals(record % 2 == 0 ? "COMPLIANT" : "NOT_COMPLIANT", result.get("value"));
+			} else {
+				assertEquals("VALIDATION_BASISOFRECORD_NOTEMPTY", result.get("label"));
+				assertEquals(record % 5 == 0 ? "NOT_COMPLIANT" : "COMPLIANT", result.get("value"));
+			}
+		}
+		ResultSummary summary = new ResultSummary();
+		try (Reader reader = Files.newBufferedReader(summaryFile, StandardCharsets.UTF_8)) {
+			summary.read(reader);
+		}
+		long counted = 0L;
+		for (ResultSummary.Count count : summary.getCounts()) {
+			if (count.getLabel().equals("VALIDATION_LICENSE_NOTEMPTY") && count.getValue().equals("COMPLIANT")) {
+				assertEquals(records / 2, count.getCount());
+			}
+			counted += count.getCount();
+		}
+		assertEquals(records * 2, counted);
+
+		InputStream stdin = System.in;
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+		try {
+			System.setIn(new ByteArrayInputStream(inputBytes));
+			System.setOut(new PrintStream(streamed, true, "UTF-8"));
+			run("-i", "-", "-o", "-", "-t", "4", "-b", "16", "-q", "2", "-m", "0", "--profiles", profiles.toString(), "-p", "basic");
+		} finally {
+			System.setIn(stdin);
+			System.setOut(stdout);
+		}
+		assertArrayEquals(Files.readAllBytes(output), streamed.toByteArray());
+	}
+
+	/**
+	 * A run resumed from a checkpoint, after output was written beyond the checkpoint before
+	 * the run was interrupted, produces the same output, byte for byte, as an uninterrupted run.
+	 */
+	@Test
+	public void testResume() throws Exception {
+		int records = 300;
+		int resumeAfter = 120;
+		StringBuilder lines = new StringBuilder("occurrenceID,basisOfRecord,license\n");
+		long inputPosition = 0L;
+		for (int i=1; i<=records; i++) {
+			String basis = i % 3 == 0 ? "" : (i % 3 == 1 ? "preservedspecimen" : "\"Human, Observation\"");
+			lines.append("urn:catalog:").append(i).append(",").append(basis).append(",").append(i % 2 == 0 ? "CC0" : "").append("\n");
+			if (i==resumeAfter) {
+				inputPosition = lines.length();
+			}
+		}
+		Path input = directory.resolve("input.csv");
+		Files.write(input, lines.toString().getBytes(StandardCharsets.UTF_8));
+		Path profiles = directory.resolve("profiles.properties");
+		Files.write(profiles, Arrays.asList("basis.include.labels=AMENDMENT_BASISOFRECORD_STANDARDIZED, VALIDATION_LICENSE_NOTEMPTY"), StandardCharsets.UTF_8);
+		Path checkpoint = directory.resolve("run.checkpoint");
+
+		Path expected = directory.resolve("expected.csv");
+		Path expectedAmended = directory.resolve("expected-amended.csv");
+		run("-i", input.toString(), "-o", expected.toString(), "-a", expectedAmended.toString(), "-t", "3", "-b", "7",
+				"--profiles", profiles.toString(), "-p", "basis", "--checkpoint", checkpoint.toString(), "--checkpoint-interval", "10");
+		assertFalse(Files.exists(checkpoint));
+
+		// an interrupted run, checkpointed after a record, that went on to write all of its
+		// output and part of another record before it was interrupted
+		byte[] results = Files.readAllBytes(expected);
+		byte[] amended = Files.readAllBytes(expectedAmended);
+		String resultsText = new String(results, StandardCharsets.UTF_8);
+		int resultsPosition = resultsText.indexOf("\n" + (resumeAfter + 1) + ",") + 1;
+		int amendedPosition = new String(amended, StandardCharsets.UTF_8).indexOf("urn:catalog:" + (resumeAfter + 1) + ",");
+		assertTrue(resultsPosition > 0);
+		assertTrue(amendedPosition > 0);
+		Path output = directory.resolve("results.csv");
+		Path amendedOutput = directory.resolve("amended.csv");
+		Files.write(output, results);
+		Files.write(output, (records + 1 + ",urn:catalog:").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		Files.write(amendedOutput, amended);
+		Files.write(amendedOutput, "urn:catalog:".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		Map<String,Long> outputPositions = new HashMap<String,Long>();
+		outputPositions.put(Runner.RESULTS_OUTPUT, (long)resultsPosition);
+		outputPositions.put(Runner.AMENDED_OUTPUT, (long)amendedPosition);
+		new Checkpoint(input.toFile().getAbsolutePath(), "0/1", inputPosition, resumeAfter, outputPositions, new ResultSummary()).save(checkpoint);
+
+		run("-i", input.toString(), "-o", output.toString(), "-a", amendedOutput.toString(), "-t", "3", "-b", "7",
+				"--profiles", profiles.toString(), "-p", "basis", "--checkpoint", checkpoint.toString(), "--checkpoint-interval", "10", "--resume");
+
+		assertArrayEquals(results, Files.readAllBytes(output));
+		assertArrayEquals(amended, Files.readAllBytes(amendedOutput));
+		assertFalse(Files.exists(checkpoint));
+	}
+
+}
@@ -0,0 +1,315 @@
+/**
+ * DwcArchiveTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.io;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class DwcArchiveTest {
+
+	private static final Log logger = LogFactory.getLog(DwcArchiveTest.class);
+
+	private static final List<String> terms = Arrays.asList("dwc:occurrenceID", "dwc:basisOfRecord", "dcterms:license", "dc:type", "dwc:sex");
+
+	private static final String tabMeta =
+			"<archive xmlns=\"http://rs.tdwg.org/dwc/text/\">\n" +
+			" <core encoding=\"UTF-8\" fieldsTerminatedBy=\"\\t\" linesTerminatedBy=\"\\n\" fieldsEnclosedBy=\"\" ignoreHeaderLines=\"1\" rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\">\n" +
+			"  <files><location>occurrence.txt</location></files>\n" +
+			"  <id index=\"0\"/>\n" +
+			"  <field index=\"0\" term=\"http://rs.tdwg.org/dwc/terms/occurrenceID\"/>\n" +
+			"  <field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/basisOfRecord\"/>\n" +
+			"  <field index=\"2\" term=\"http://purl.org/dc/terms/type\" default=\"PhysicalObject\"/>\n" +
+			"  <field term=\"http://purl.org/dc/terms/license\" default=\"CC0\"/>\n" +
+			" </core>\n" +
+			"</archive>\n";
+
+	private static final String quotedMeta =
+			"<archive xmlns=\"http://rs.tdwg.org/dwc/text/\">\n" +
+			" <core fieldsTerminatedBy=\",\" linesTerminatedBy=\"\\r\\n\" fieldsEnclosedBy=\"&quot;\" ignoreHeaderLines=\"1\" rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\">\n" +
+			"  <files><location>data/occurrence.csv</location></files>\n" +
+			"  <id index=\"0\"/>\n" +
+			"  <field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/basisOfRecord\"/>\n" +
+			"  <field index=\"2\" term=\"http://rs.tdwg.org/dwc/terms/sex\"/>\n" +
+			" </core>\n" +
+			"</archive>\n";
+
+	@Test
+	public void testDirectoryArchive() throws IOException {
+		Path directory = Files.createTempDirectory("dwca_test");
+		try {
+			Files.write(directory.resolve("meta.xml"), tabMeta.getBytes(StandardCharsets.UTF_8));
+			StringBuilder data = new StringBuilder("occurrenceID\tbasisOfRecord\ttype\n");
+			for (int i=1; i<=500; i++) {
+				data.append("urn:occ:").append(i).append("\tPreservedSpecimen\t").append(i % 2==0 ? "" : "StillImage").append("\n");
+			}
+			Files.write(directory.resolve("occurrence.txt"), data.toString().getBytes(StandardCharsets.UTF_8));
+
+			try (DwcArchive archive = new DwcArchive(directory)) {
+				assertEquals("http://rs.tdwg.org/dwc/terms/Occurrence", archive.getRowType());
+				// small chunks so that the file is split into many chunks read in parallel.
+				try (RecordReader reader = archive.openCore(terms, 4, 100)) {
+					assertEquals(0, reader.getSchema().indexOf("dwc:occurrenceID"));
+					assertEquals(2, reader.getSchema().indexOf("dc:type"));
+					assertEquals(3, reader.getSchema().indexOf("dcterms:license"));
+					DwCRecord record = reader.next();
+					int count = 0;
+					while (record!=null) {
+						count++;
+						assertEquals(count, record.getNumber());
+						assertEquals("urn:occ:" + count, record.get("dwc:occurrenceID"));
+						assertEquals("PreservedSpecimen", record.get("dwc:basisOfRecord"));
+						assertEquals(count % 2==0 ? "PhysicalObject" : "StillImage", record.get("dc:type"));
+						assertEquals("CC0", record.get("dcterms:license"));
+						assertNull(record.get("dwc:sex"));
+						record = reader.next();
+					}
+					assertEquals(500, count);
+				}
+			}
+		} finally {
+			deleteAll(directory);
+		}
+	}
+
+	@Test
+	public void testZipArchiveQuotedLineBreaks() throws IOException {
+		Path zipFile = Files.createTempFile("dwca_test", ".zip");
+		List<String> expectedSex = new ArrayList<String>();
+		StringBuilder data = new StringBuilder("id,basisOfRecord,sex\r\n");
+		for (int i=1; i<=200; i++) {
+			String sex = i % 3==0 ? "male\r\nfemale, \"both\"" : "female";
+			expectedSex.add(sex);
+			data.append(i).append(",\"HumanObservation\",\"").append(sex.replace("\"", "\"\"")).append("\"\r\n");
+		}
+		try {
+			try (OutputStream out = Files.newOutputStream(zipFile); ZipOutputStream zip = new ZipOutputStream(out)) {
+				zip.putNextEntry(new ZipEntry("meta.xml"));
+				zip.write(quotedMeta.getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+				zip.putNextEntry(new ZipEntry("data/occurrence.csv"));
+				zip.write(data.toString().getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+			Path extracted;
+			try (DwcArchive archive = new DwcArchive(zipFile)) {
+				extracted = archive.getCoreFile();
+				try (RecordReader reader = archive.openCore(terms, 3, 64)) {
+					List<String> foundSex = new ArrayList<String>();
+					DwCRecord record = reader.next();
+					while (record!=null) {
+						assertEquals(Long.toString(record.getNumber()), record.get("id"));
+						assertEquals("HumanObservation", record.get("dwc:basisOfRecord"));
+						foundSex.add(record.get("dwc:sex"));
+						record = reader.next();
+					}
+					assertEquals(expectedSex, foundSex);
+				}
+			}
+			assertFalse(Files.exists(extracted));
+		} finally {
+			Files.deleteIfExists(zipFile);
+		}
+	}
+
+	@Test
+	public void testShardsCoverFile() throws IOException {
+		Path file = Files.createTempFile("shard_test", ".csv");
+		StringBuilder data = new StringBuilder("occurrenceID,sex\n");
+		for (int i=1; i<=300; i++) {
+			data.append("urn:occ:").append(i).append(",").append(i % 4==0 ? "\"male\nor\nfemale\"" : "female").append("\n");
+		}
+		try {
+			Files.write(file, data.toString().getBytes(StandardCharsets.UTF_8));
+			String[] header = ChunkedRecordReader.readFirstLine(file, DelimitedFormat.CSV);
+			assertEquals(Arrays.asList("occurrenceID", "sex"), Arrays.asList(header));
+			RecordSchema schema = new RecordSchema(Arrays.asList(header), terms);
+			for (int shards=1; shards<=7; shards++) {
+				List<String> found = new ArrayList<String>();
+				for (int shard=0; shard<shards; shard++) {
+					try (RecordReader reader = new ChunkedRecordReader(file, DelimitedFormat.CSV, schema, null, 2, 50, shard, shards)) {
+						DwCRecord record = reader.next();
+						while (record!=null) {
+							found.add(record.get("dwc:occurrenceID"));
+							assertEquals(found.size() % 4==0 ? "male\nor\nfemale" : "female", record.get("dwc:sex"));
+							record = reader.next();
+						}
+					}
+				}
+				assertEquals("Records in " + shards + " shards", 300, found.size());
+				for (int i=0; i<found.size(); i++) {
+					assertEquals("urn:occ:" + (i + 1), found.get(i));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * A quote within a field, rather than at its start, is part of the value, and must not be
+	 * taken as opening an enclosed field when finding the boundaries of chunks and shards.
+	 */
+	@Test
+	public void testQuotesWithinFields() throws IOException {
+		Path file = Files.createTempFile("quote_test", ".csv");
+		StringBuilder data = new StringBuilder("occurrenceID,remarks,sex\n");
+		for (int i=1; i<=300; i++) {
+			data.append("urn:occ:").append(i).append(",");
+			if (i % 5==0) {
+				data.append("\"enclosed \"\"5\"\" long\nremark\"");
+			} else if (i % 3==0) {
+				data.append("5\" long");
+			} else {
+				data.append("plain");
+			}
+			data.append(",").append(i % 2==0 ? "male" : "female").append("\n");
+		}
+		try {
+			Files.write(file, data.toString().getBytes(StandardCharsets.UTF_8));
+			List<String[]> expected = DelimitedFormat.CSV.parse(Files.readAllBytes(file), 0, (int)Files.size(file), 3);
+			assertEquals(301, expected.size());
+			RecordSchema schema = new RecordSchema(Arrays.asList(ChunkedRecordReader.readFirstLine(file, DelimitedFormat.CSV)), terms);
+			for (int shards=1; shards<=5; shards++) {
+				List<String[]> found = new ArrayList<String[]>();
+				for (int shard=0; shard<shards; shard++) {
+					try (RecordReader reader = new ChunkedRecordReader(file, DelimitedFormat.CSV, schema, null, 2, 40, shard, shards)) {
+						DwCRecord record = reader.next();
+						while (record!=null) {
+							found.add(record.getValues());
+							record = reader.next();
+						}
+					}
+				}
+				assertEquals("Records in " + shards + " shards", 300, found.size());
+				for (int i=0; i<found.size(); i++) {
+					assertEquals(Arrays.asList(expected.get(i + 1)), Arrays.asList(found.get(i)));
+				}
+				assertEquals("5\" long", found.get(2)[1]);
+				assertEquals("enclosed \"5\" long\nremark", found.get(4)[1]);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testProjection() throws IOException {
+		Path file = Files.createTempFile("projection_test", ".csv");
+		StringBuilder data = new StringBuilder("occurrenceID,remarks,sex,locality\n\n");
+		for (int i=1; i<=100; i++) {
+			data.append("urn:occ:").append(i).append(",\"a \"\"quoted\"\",\nremark\",").append(i % 2==0 ? "male" : "").append(",\"x,y\"\r\n");
+		}
+		try {
+			Files.write(file, data.toString().getBytes(StandardCharsets.UTF_8));
+			RecordSchema schema = new RecordSchema(Arrays.asList(ChunkedRecordReader.readFirstLine(file, DelimitedFormat.CSV)), terms);
+			RecordSchema projected = schema.project(Arrays.asList("dwc:occurrenceID", "dwc:sex", "dwc:country"));
+			assertTrue(projected.isProjected());
+			assertFalse(schema.isProjected());
+			assertEquals(schema.getTerms(), projected.getTerms());
+			assertTrue(projected.isParsed(2));
+			assertFalse(projected.isParsed(1));
+			assertFalse(projected.isParsed(3));
+			try (RecordReader reader = new ChunkedRecordReader(file, DelimitedFormat.CSV, projected, null, 2, 100)) {
+				DwCRecord record = reader.next();
+				int count = 0;
+				while (record!=null) {
+					count++;
+					assertEquals("urn:occ:" + count, record.get("dwc:occurrenceID"));
+					assertEquals(count % 2==0 ? "male" : "", record.get("dwc:sex"));
+					assertNull(record.get("remarks"));
+					assertNull(record.get("locality"));
+					record = reader.next();
+				}
+				assertEquals(100, count);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testAmendedHeaderLines() throws IOException {
+		Path file = Files.createTempFile("header_test", ".csv");
+		DelimitedFormat format = new DelimitedFormat(',', '"', StandardCharsets.UTF_8, 3);
+		try {
+			Files.write(file, "\uFEFFoccurrenceID,sex\n\n# \"a, quoted\" comment\r\nurn:occ:1,male\n".getBytes(StandardCharsets.UTF_8));
+			List<String> header = ChunkedRecordReader.readHeaderLines(file, format);
+			assertEquals(Arrays.asList("occurrenceID,sex\n", "\n", "# \"a, quoted\" comment\r\n"), header);
+			RecordSchema schema = new RecordSchema(Arrays.asList(ChunkedRecordReader.readFirstLine(file, format)), terms);
+
+			// the header row is written from the schema, the further header lines are copied
+			StringWriter out = new StringWriter();
+			new AmendedRecordWriter(out, format, schema, schema.size(), Arrays.asList("dwc:sex", "dwc:basisOfRecord"), header).flush();
+			assertEquals("occurrenceID,sex,basisOfRecord\n\n# \"a, quoted\" comment\r\n", out.toString());
+
+			// without the header lines to copy, no header is written in place of them
+			try {
+				new AmendedRecordWriter(new StringWriter(), format, schema, Arrays.asList("dwc:sex"), true);
+				fail("Wrote a header without the input header lines.");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			out = new StringWriter();
+			new AmendedRecordWriter(out, format, schema, Arrays.asList("dwc:sex"), false).flush();
+			assertEquals("", out.toString());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testUnescape() {
+		assertEquals("\t", DwcArchive.unescape("\\t"));
+		assertEquals("\r\n", DwcArchive.unescape("\\r\\n"));
+		assertEquals("\"", DwcArchive.unescape("\\\""));
+		assertEquals(",", DwcArchive.unescape(","));
+	}
+
+	private static void deleteAll(Path directory) throws IOException {
+		List<Path> paths = new ArrayList<Path>();
+		try (Stream<Path> walk = Files.walk(directory)) {
+			walk.forEach(paths::add);
+		}
+		for (int i=paths.size()-1; i>=0; i--) {
+			Files.deleteIfExists(paths.get(i));
+		}
+		logger.debug("Removed " + directory);
+	}
+
+}
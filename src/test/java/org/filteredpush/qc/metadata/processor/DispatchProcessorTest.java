@@ -0,0 +1,74 @@
+/**
+ * DispatchProcessorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.processor;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class DispatchProcessorTest {
+
+	/**
+	 * An incremental compile of only DwCMetadataDQ, which DwCMetadataDQDefaults inherits its
+	 * tests from, must regenerate the dispatch table, so that it can't fall out of step with
+	 * the test methods.
+	 */
+	@Test
+	public void testGeneratedForInheritedTests() throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull(compiler);
+		Path source = Paths.get("src", "main", "java", "org", "filteredpush", "qc", "metadata", "DwCMetadataDQ.java");
+		assertTrue(Files.isRegularFile(source));
+		Path generated = Files.createTempDirectory("dispatch_test");
+		try {
+			String classPath = System.getProperty("java.class.path");
+			ByteArrayOutputStream errors = new ByteArrayOutputStream();
+			int result = compiler.run(null, null, errors, "-proc:only", "-implicit:none",
+					"-processor", DispatchProcessor.class.getName(), "-processorpath", classPath,
+					"-cp", classPath, "-s", generated.toString(), source.toString());
+			assertEquals(new String(errors.toByteArray(), StandardCharsets.UTF_8), 0, result);
+			Path dispatch = generated.resolve(DispatchProcessor.DISPATCH_CLASS.replace('.', '/') + ".java");
+			assertTrue(Files.isRegularFile(dispatch));
+			String table = new String(Files.readAllBytes(dispatch), StandardCharsets.UTF_8);
+			assertTrue(table.contains("public static DQResponse<?> invoke(int test, Object[] arguments)"));
+			assertTrue(table.contains("DwCMetadataDQ.amendmentDctypeStandardized("));
+		} finally {
+			try (Stream<Path> files = Files.walk(generated)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+}
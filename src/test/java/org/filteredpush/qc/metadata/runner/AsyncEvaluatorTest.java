@@ -0,0 +1,101 @@
+/**
+ * AsyncEvaluatorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class AsyncEvaluatorTest {
+
+	@Test
+	public void testEvaluate() throws Exception {
+		TestRegistry registry = TestRegistry.getInstance();
+		DQTest occurrenceID = registry.getByLabel("VALIDATION_OCCURRENCEID_STANDARD");
+		DQTest sex = registry.getByLabel("VALIDATION_SEX_STANDARD");
+
+		List<DQTest> tests = Arrays.asList(occurrenceID, registry.getByLabel("VALIDATION_SEX_NOTEMPTY"), sex);
+		AsyncEvaluator evaluator = new AsyncEvaluator(tests);
+		CompletableFuture<DQResponse<?>> immediate = evaluator.evaluate(occurrenceID, "urn:uuid:5bbfef52-4ec6-4c7c-b6ff-6a6f4e5d0cb0");
+		assertTrue(immediate.isDone());
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(immediate.get()));
+
+		RecordSchema schema = new RecordSchema(Arrays.asList("occurrenceID", "sex"), RecordProcessor.termsFor(tests));
+		DwCRecord record = new DwCRecord(1L, schema, new String[] { "", "male" });
+		RecordResults results = evaluator.evaluate(record).get(60, TimeUnit.SECONDS);
+		RecordResults expected = new RecordProcessor(tests).evaluate(record);
+		for (int t=0; t<tests.size(); t++) {
+			assertEquals(tests.get(t).getLabel(), expected.getResponse(t).getResultState().getLabel(), results.getResponse(t).getResultState().getLabel());
+			assertEquals(tests.get(t).getLabel(), expected.getResponse(t).getComment(), results.getResponse(t).getComment());
+		}
+		assertTrue(MetadataSingleton.getInstance().loadVocabulary(VocabularySnapshot.SEX).isDone());
+	}
+
+	@Test
+	public void testVocabularyFor() {
+		TestRegistry registry = TestRegistry.getInstance();
+		assertNull(AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_OCCURRENCEID_STANDARD")));
+		assertNull(AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_SEX_NOTEMPTY")));
+		// takes a source authority, but not one of the vocabularies
+		assertNull(AsyncEvaluator.vocabularyFor(registry.getByLabel("AMENDMENT_LICENSE_STANDARDIZED")));
+		assertNull(AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_BASISOFRECORD_STANDARD")));
+		assertEquals(VocabularySnapshot.SEX, AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_SEX_STANDARD")));
+		assertEquals(VocabularySnapshot.SEX, AsyncEvaluator.vocabularyFor(registry.getByLabel("AMENDMENT_SEX_STANDARDIZED")));
+		assertEquals(VocabularySnapshot.LIFE_STAGE, AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_LIFESTAGE_STANDARD")));
+		assertEquals(VocabularySnapshot.TYPE_STATUS, AsyncEvaluator.vocabularyFor(registry.getByLabel("AMENDMENT_TYPESTATUS_STANDARDIZED")));
+		assertEquals(VocabularySnapshot.DEGREE_OF_ESTABLISHMENT, AsyncEvaluator.vocabularyFor(registry.getByLabel("VALIDATION_DEGREEOFESTABLISHMENT_STANDARD")));
+		assertEquals(VocabularySnapshot.OCCURRENCE_STATUS, AsyncEvaluator.vocabularyFor(registry.getByLabel("AMENDMENT_OCCURRENCESTATUS_STANDARDIZED")));
+	}
+
+	@Test
+	public void testWaitsOnInstalledVocabulary() throws Exception {
+		TestRegistry registry = TestRegistry.getInstance();
+		DQTest sex = registry.getByLabel("VALIDATION_SEX_STANDARD");
+		AsyncEvaluator evaluator = new AsyncEvaluator(Arrays.asList(sex));
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.SEX, "hermaphrodite"));
+		try {
+			// the installed vocabulary is consulted, without waiting for any other to load
+			CompletableFuture<DQResponse<?>> response = evaluator.evaluate(sex, "hermaphrodite");
+			assertTrue(response.isDone());
+			assertEquals("COMPLIANT", ResultWriter.valueLabel(response.get()));
+			response = evaluator.evaluate(sex, "male");
+			assertTrue(response.isDone());
+			assertEquals("NOT_COMPLIANT", ResultWriter.valueLabel(response.get()));
+		} finally {
+			TestVocabularies.reset();
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * BatchRunnerTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordReader;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class BatchRunnerTest {
+
+	private static final int RECORDS = 2000;
+
+	/**
+	 * Generated records, alternately with and without a license and basisOfRecord.
+	 */
+	private static class GeneratedReader implements RecordReader {
+		private final RecordSchema schema;
+		private final int count;
+		private int number = 0;
+
+		GeneratedReader(RecordProcessor processor, int count) {
+			this.schema = new RecordSchema(Arrays.asList("occurrenceID", "basisOfRecord", "license"), processor.getTerms());
+			this.count = count;
+		}
+
+		@Override
+		public RecordSchema getSchema() {
+			return schema;
+		}
+
+		@Override
+		public DwCRecord next() {
+			if (number >= count) {
+				return null;
+			}
+			number++;
+			String value = number % 3 == 0 ? "" : "value" + (number % 11);
+			return new DwCRecord(number, schema, new String[] { "urn:record:" + number, value, number % 2 == 0 ? "CC0" : "" });
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static List<DQTest> tests() {
+		TestRegistry registry = TestRegistry.getInstance();
+		return Arrays.asList(registry.getByLabel("VALIDATION_BASISOFRECORD_NOTEMPTY"), registry.getByLabel("VALIDATION_LICENSE_NOTEMPTY"));
+	}
+
+	/**
+	 * Run the tests over the generated records, returning the results written.
+	 */
+	private static String run(int threads, int batchSize, ExecutionMode mode, ResultSummary summary) throws IOException, InterruptedException {
+		RecordProcessor processor = new RecordProcessor(tests());
+		StringWriter out = new StringWriter();
+		try (ResultWriter writer = new ResultWriter(out, true, false)) {
+			new BatchRunner(processor, threads, batchSize, threads * 2, mode).run(new GeneratedReader(processor, RECORDS), writer, summary);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * The results are written in the order the records were read, although batches are
+	 * evaluated on several threads, and later batches finish before earlier ones.
+	 */
+	@Test
+	public void testOrderWithThreads() throws Exception {
+		String expected = run(1, RECORDS, ExecutionMode.PLATFORM, new ResultSummary());
+		assertEquals(expected, run(4, 7, ExecutionMode.PLATFORM, new ResultSummary()));
+
+		// hold up the first record of every fourth batch so that the batches after it finish first
+		RecordProcessor slow = new RecordProcessor(tests()) {
+			@Override
+			public RecordResults evaluate(DwCRecord record) {
+				if (record.getNumber() % 28 == 1) {
+					try {
+						Thread.sleep(5);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.evaluate(record);
+			}
+		};
+		StringWriter out = new StringWriter();
+		ResultSummary summary = new ResultSummary();
+		try (ResultWriter writer = new ResultWriter(out, true, false)) {
+			new BatchRunner(slow, 4, 7).run(new GeneratedReader(slow, RECORDS), writer, summary);
+		}
+		assertEquals(expected, out.toString());
+		assertEquals(RECORDS, summary.getRecordCount());
+	}
+
+	/**
+	 * Each record is evaluated as its own task where virtual threads are available, otherwise
+	 * in turn as in PLATFORM mode, either way with the same output.
+	 */
+	@Test
+	public void testVirtualMode() throws Exception {
+		boolean virtualThreads = true;
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			virtualThreads = false;
+		}
+		assertEquals(virtualThreads, ExecutionMode.VIRTUAL.newRecordExecutor()!=null);
+		assertNull(ExecutionMode.PLATFORM.newRecordExecutor());
+
+		ResultSummary summary = new ResultSummary();
+		assertEquals(run(1, RECORDS, ExecutionMode.PLATFORM, new ResultSummary()), run(3, 50, ExecutionMode.VIRTUAL, summary));
+		assertEquals(RECORDS, summary.getRecordCount());
+	}
+
+}
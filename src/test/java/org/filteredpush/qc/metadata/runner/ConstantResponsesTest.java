@@ -0,0 +1,121 @@
+/**
+ * ConstantResponsesTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.ComplianceValue;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class ConstantResponsesTest {
+
+	@Test
+	public void testMatchesTests() {
+		int found = 0;
+		for (DQTest test : TestRegistry.getInstance().getTests()) {
+			ConstantResponses constant = ConstantResponses.forTest(test);
+			if (!test.getLabel().endsWith(ConstantResponses.NOTEMPTY)) {
+				assertNull(test.getLabel(), constant);
+				continue;
+			}
+			assertNotNull(test.getLabel(), constant);
+			found++;
+			for (String value : new String[] { null, "", "  ", "x", "urn:catalog:MCZ:Mamm:1234", "NULL" }) {
+				DQResponse<?> expected = test.invoke(new Object[] { value });
+				DQResponse<?> shared = constant.evaluate(value);
+				assertEquals(test.getLabel(), ResultWriter.stateLabel(expected), ResultWriter.stateLabel(shared));
+				assertEquals(test.getLabel(), ResultWriter.valueLabel(expected), ResultWriter.valueLabel(shared));
+				assertEquals(test.getLabel(), expected.getComment(), shared.getComment());
+				assertSame(shared, ConstantResponses.forTest(test).evaluate(value));
+			}
+		}
+		assertTrue(found >= 10);
+	}
+
+	/**
+	 * Tests are chosen as constant by their labels, this fails if a test chosen that way
+	 * gives a response that depends on the value, which would need to be excluded.
+	 */
+	@Test
+	public void testSelectedTestsIgnoreValue() {
+		int selected = 0;
+		for (DQTest test : TestRegistry.getInstance().getTests()) {
+			if (!ConstantResponses.isConstant(test)) {
+				continue;
+			}
+			selected++;
+			String[][] equivalent = { { "value", "Another value, 2", "urn:catalog:MCZ:Mamm:1234" }, { null, "", " " } };
+			for (String[] values : equivalent) {
+				DQResponse<?> first = test.invoke(new Object[] { values[0] });
+				for (int i=1; i<values.length; i++) {
+					DQResponse<?> other = test.invoke(new Object[] { values[i] });
+					String message = test.getLabel() + " response differs for [" + values[0] + "] and [" + values[i] + "], it isn't constant";
+					assertEquals(message, ResultWriter.stateLabel(first), ResultWriter.stateLabel(other));
+					assertEquals(message, ResultWriter.valueLabel(first), ResultWriter.valueLabel(other));
+					assertEquals(message, first.getComment(), other.getComment());
+				}
+			}
+		}
+		assertTrue(selected >= 10);
+	}
+
+	@Test
+	public void testImmutable() {
+		DQResponse<?> shared = ConstantResponses.forTest(TestRegistry.getInstance().getByLabel("VALIDATION_SEX_NOTEMPTY")).evaluate("male");
+		try {
+			shared.addComment("changed");
+			fail("Shared response was modified.");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		@SuppressWarnings("unchecked")
+		DQResponse<ComplianceValue> compliance = (DQResponse<ComplianceValue>)shared;
+		try {
+			compliance.setValue(ComplianceValue.NOT_COMPLIANT);
+			fail("Shared response was modified.");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(shared));
+	}
+
+	@Test
+	public void testColumns() {
+		BoundTest test = TestRegistry.getInstance().getByLabel("VALIDATION_OCCURRENCEID_NOTEMPTY").bind(Collections.<String,String>emptyMap());
+		String[] column = new String[1000];
+		for (int i=0; i<column.length; i++) {
+			column[i] = i % 10==0 ? "" : "urn:occ:" + i;
+		}
+		ColumnResults results = test.evaluateColumns(column);
+		assertEquals(2, results.getDistinctCount());
+		for (int i=0; i<column.length; i++) {
+			assertEquals(i % 10==0 ? "NOT_COMPLIANT" : "COMPLIANT", results.getValueLabel(i));
+			assertSame(test.evaluate(column[i]), results.getResponse(i));
+		}
+	}
+
+}
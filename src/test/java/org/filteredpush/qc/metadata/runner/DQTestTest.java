@@ -0,0 +1,250 @@
+/**
+ * DQTestTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.AmendmentValue;
+import org.datakurator.ffdq.api.result.ComplianceValue;
+import org.datakurator.ffdq.api.result.ResultValue;
+import org.datakurator.ffdq.model.ResultState;
+import org.filteredpush.qc.metadata.DwCMetadataDQ;
+import org.filteredpush.qc.metadata.DwCMetadataDQDefaults;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class DQTestTest {
+
+	/**
+	 * The dispatch table generated at compile time must describe the same tests as discovery
+	 * by reflection, and invoke the same methods.
+	 */
+	@Test
+	public void testDispatchTableMatchesDiscovery() throws ClassNotFoundException {
+		List<DQTest> discovered = DQTest.discover();
+		List<DQTest> dispatched = DQTest.fromDispatchTable();
+		assertEquals(discovered.size(), dispatched.size());
+		assertTrue(discovered.size() > 0);
+		for (int i=0; i<discovered.size(); i++) {
+			DQTest expected = discovered.get(i);
+			DQTest found = dispatched.get(i);
+			assertEquals(expected.getGuid(), found.getGuid());
+			assertEquals(expected.getLabel(), found.getLabel());
+			assertEquals(expected.getType(), found.getType());
+			assertEquals(expected.getMethod().getName(), found.getMethodName());
+			assertEquals(Arrays.asList(expected.getArgumentTerms()), Arrays.asList(found.getArgumentTerms()));
+			assertEquals(Arrays.asList(expected.getArgumentParameters()), Arrays.asList(found.getArgumentParameters()));
+			assertEquals(expected.getActedUpon(), found.getActedUpon());
+			assertEquals(expected.getConsulted(), found.getConsulted());
+			assertEquals(expected.getParameters(), found.getParameters());
+
+			Object[] arguments = new Object[expected.getArgumentTerms().length];
+			DQResponse<?> expectedResponse = expected.invoke(arguments);
+			DQResponse<?> foundResponse = found.invoke(arguments);
+			assertEquals(expected.getLabel(), expectedResponse.getResultState().getLabel(), foundResponse.getResultState().getLabel());
+			assertEquals(expected.getLabel(), expectedResponse.getComment(), foundResponse.getComment());
+		}
+	}
+
+	/**
+	 * Without a generated dispatch table the registry must fall back to discovery.
+	 */
+	@Test
+	public void testMissingDispatchTable() {
+		try {
+			DQTest.fromDispatchTable("org.filteredpush.qc.metadata.NoSuchDispatch");
+			fail("Expected ClassNotFoundException");
+		} catch (ClassNotFoundException e) {
+			// expected
+		}
+		List<DQTest> loaded = TestRegistry.loadTests("org.filteredpush.qc.metadata.NoSuchDispatch");
+		List<DQTest> discovered = DQTest.discover();
+		assertEquals(discovered.size(), loaded.size());
+		for (int i=0; i<discovered.size(); i++) {
+			assertEquals(discovered.get(i).getGuid(), loaded.get(i).getGuid());
+			assertNotNull(loaded.get(i).getMethod());
+		}
+	}
+
+	@Test
+	public void testBind() {
+		DQTest license = TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_STANDARD");
+		assertTrue(license.getParameters().isEmpty());
+		Map<String,String> parameters = new HashMap<String,String>();
+		parameters.put(BoundTest.SOURCE_AUTHORITY, "Creative Commons 4.0 Licenses or CC0");
+		BoundTest bound = license.bind(parameters);
+		assertEquals(Arrays.asList("dcterms:license"), bound.getTerms());
+		for (String value : Arrays.asList("https://creativecommons.org/licenses/by/4.0/", "CC-BY", "", null)) {
+			DQResponse<ComplianceValue> expected = DwCMetadataDQ.validationLicenseStandard(value, "Creative Commons 4.0 Licenses or CC0");
+			DQResponse<?> found = bound.evaluate(value);
+			assertEquals(expected.getResultState().getLabel(), found.getResultState().getLabel());
+			assertEquals(expected.getComment(), found.getComment());
+		}
+
+		parameters.put(BoundTest.SOURCE_AUTHORITY, "https://invalid/");
+		DQResponse<?> invalid = license.bind(parameters).evaluate("CC0");
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), invalid.getResultState().getLabel());
+
+		parameters.clear();
+		parameters.put("bdq:noSuchParameter", "x");
+		try {
+			license.bind(parameters);
+			fail("Expected an exception binding an unknown parameter");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testEvaluateColumns() {
+		BoundTest standardized = TestRegistry.getInstance().getByLabel("AMENDMENT_BASISOFRECORD_STANDARDIZED").bind(new HashMap<String,String>());
+		String[] column = { "PreservedSpecimen", "preservedspecimen", null, "PreservedSpecimen", "preservedspecimen", "not a basis" };
+		ColumnResults results = standardized.evaluateColumns(column);
+		assertEquals(column.length, results.size());
+		assertEquals(4, results.getDistinctCount());
+		assertSame(results.getResponse(1), results.getResponse(4));
+		for (int row=0; row<column.length; row++) {
+			DQResponse<?> expected = DwCMetadataDQ.amendmentBasisofrecordStandardized(column[row], null);
+			assertEquals(expected.getResultState().getLabel(), results.getStateLabel(row));
+			assertEquals(expected.getComment(), results.getResponse(row).getComment());
+			if (expected.getValue()==null) {
+				assertEquals(-1, results.getAmendmentIndexes()[row]);
+			} else {
+				assertEquals(((AmendmentValue)expected.getValue()).getObject(), results.getAmendments().get(results.getAmendmentIndexes()[row]));
+			}
+		}
+		assertEquals(0, results.getValues()[0]);
+
+		BoundTest notEmpty = TestRegistry.getInstance().getByLabel("VALIDATION_BASISOFRECORD_NOTEMPTY").bind(new HashMap<String,String>());
+		results = notEmpty.evaluateColumns(column);
+		assertEquals("COMPLIANT", results.getValueLabel(0));
+		assertEquals("NOT_COMPLIANT", results.getValueLabel(2));
+		assertEquals(results.getStates()[0], results.getStates()[2]);
+		assertTrue(results.getValues()[0]!=results.getValues()[2]);
+	}
+
+	@Test
+	public void testEvaluateColumnsBeyondMaxDistinct() {
+		BoundTest standardized = TestRegistry.getInstance().getByLabel("AMENDMENT_BASISOFRECORD_STANDARDIZED").bind(new HashMap<String,String>());
+		String[] column = { "PreservedSpecimen", "preservedspecimen", null, "PreservedSpecimen", "preservedspecimen", "not a basis" };
+		// the first three distinct inputs are tracked, then each remaining row is run
+		ColumnResults results = standardized.evaluateColumns(2, column);
+		assertEquals(column.length, results.size());
+		assertEquals(6, results.getDistinctCount());
+		for (int row=0; row<column.length; row++) {
+			DQResponse<?> expected = DwCMetadataDQ.amendmentBasisofrecordStandardized(column[row], null);
+			assertEquals(expected.getResultState().getLabel(), results.getStateLabel(row));
+			if (expected.getValue() instanceof AmendmentValue) {
+				assertEquals(((AmendmentValue)expected.getValue()).getObject(), results.getAmendments().get(results.getAmendmentIndexes()[row]));
+			} else {
+				assertEquals(-1, results.getAmendmentIndexes()[row]);
+			}
+			if (row < 3) {
+				assertEquals(expected.getComment(), results.getResponse(row).getComment());
+			} else {
+				// rows past the bound are streamed, their responses are not held
+				assertNull(results.getResponse(row));
+			}
+		}
+	}
+
+	/**
+	 * Crossing the bound on distinct inputs, only the responses for the tracked inputs are held.
+	 */
+	@Test
+	public void testEvaluateColumnsStreamsBeyondMaxDistinct() {
+		BoundTest license = TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_STANDARD").bind(new HashMap<String,String>());
+		String[] column = new String[1000];
+		for (int row=0; row<column.length; row++) {
+			column[row] = row % 3==0 ? "CC0" : "license " + row;
+		}
+		ColumnResults results = license.evaluateColumns(10, column);
+		// tracking stops at row 14, before which the repeats at rows 3, 6, 9, and 12 were not run
+		assertEquals(column.length - 4, results.getDistinctCount());
+		for (int row=0; row<column.length; row++) {
+			// responses are held for the rows up to row 14, and not for the streamed rows after
+			assertEquals(row <= 14, results.getResponse(row)!=null);
+			DQResponse<?> expected = DwCMetadataDQDefaults.validationLicenseStandard(column[row]);
+			assertEquals(expected.getResultState().getLabel(), results.getStateLabel(row));
+			assertEquals(ResultWriter.valueLabel(expected), results.getValueLabel(row));
+		}
+	}
+
+	/**
+	 * Labels beyond those a code can hold are taken from the responses.
+	 */
+	@Test
+	public void testColumnResultsManyLabels() {
+		List<DQResponse<?>> responses = new ArrayList<DQResponse<?>>();
+		int[] responseIndexes = new int[200];
+		for (int i=0; i<responseIndexes.length; i++) {
+			final String label = "LABEL_" + i;
+			DQResponse<ResultValue> response = new DQResponse<ResultValue>();
+			response.setValue(new ResultValue() {
+				@Override
+				public Object getObject() {
+					return label;
+				}
+				@Override
+				public String getLabel() {
+					return label;
+				}
+				@Override
+				public String toString() {
+					return label;
+				}
+			});
+			response.setResultState(ResultState.RUN_HAS_RESULT);
+			responses.add(response);
+			responseIndexes[i] = i;
+		}
+		ColumnResults results = new ColumnResults(TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_STANDARD"), responses, responseIndexes);
+		for (int row=0; row<responseIndexes.length; row++) {
+			assertEquals("LABEL_" + row, results.getValueLabel(row));
+			assertEquals("RUN_HAS_RESULT", results.getStateLabel(row));
+		}
+		assertEquals(-1, results.getValues()[199]);
+		assertEquals(128, results.getValueLabels().size());
+
+		// and are kept for rows whose responses are not held
+		results = new ColumnResults(TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_STANDARD"), responseIndexes.length);
+		for (int row=0; row<responseIndexes.length; row++) {
+			results.stream(row, responses.get(row));
+		}
+		for (int row=0; row<responseIndexes.length; row++) {
+			assertNull(results.getResponse(row));
+			assertEquals("LABEL_" + row, results.getValueLabel(row));
+			assertEquals("RUN_HAS_RESULT", results.getStateLabel(row));
+		}
+		assertEquals(-1, results.getValues()[199]);
+		assertEquals(responseIndexes.length, results.getDistinctCount());
+	}
+
+}
@@ -0,0 +1,170 @@
+/**
+ * FusedTermEvaluatorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.model.ResultState;
+import org.filteredpush.qc.metadata.DwCMetadataDQ;
+import org.filteredpush.qc.metadata.ResolvedSourceAuthority;
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class FusedTermEvaluatorTest {
+
+	private static final List<String> VALUES = Arrays.asList(null, "", " ", "female", "Female", " F ", "f", "f.", "fem", "m", "herm", "hermaphrodite", "x");
+
+	private static final List<String> AUTHORITIES = Arrays.asList(null, "", "GBIF Sex Vocabulary", "https://api.gbif.org/v1/vocabularies/Sex", "https://invalid/x", "nonsense");
+
+	@After
+	public void tearDown() {
+		TestVocabularies.reset();
+	}
+
+	private static VocabularySnapshot sexVocabulary(String[]... terms) {
+		Map<String,List<String>> vocabulary = new LinkedHashMap<String,List<String>>();
+		for (String[] term : terms) {
+			vocabulary.put(term[0], Arrays.asList(term).subList(1, term.length));
+		}
+		return new VocabularySnapshot(Collections.singletonMap(VocabularySnapshot.SEX, vocabulary), System.currentTimeMillis());
+	}
+
+	/**
+	 * Evaluate the fused tests and the test methods on a value, and check the responses match.
+	 *
+	 * @return the fused responses.
+	 */
+	private static DQResponse<?>[] assertSameAsTestMethods(String value, String sourceAuthority) {
+		DQResponse<?>[] fused = FusedTermEvaluator.forTerm("dwc:sex").evaluate(value, ResolvedSourceAuthority.of(sourceAuthority));
+		String context = sourceAuthority + " [" + value + "]";
+		assertSameResponse(context, DwCMetadataDQ.validationSexNotempty(value), fused[FusedTermEvaluator.NOTEMPTY]);
+		assertSameResponse(context, DwCMetadataDQ.validationSexStandard(value, sourceAuthority), fused[FusedTermEvaluator.STANDARD]);
+		assertSameResponse(context, DwCMetadataDQ.amendmentSexStandardized(value, sourceAuthority), fused[FusedTermEvaluator.STANDARDIZED]);
+		return fused;
+	}
+
+	private static void assertSameResponse(String context, DQResponse<?> expected, DQResponse<?> found) {
+		assertEquals(context, expected.getResultState().getLabel(), found.getResultState().getLabel());
+		assertEquals(context, expected.getComment(), found.getComment());
+		assertEquals(context, expected.getValue()==null ? null : expected.getValue().getObject(), found.getValue()==null ? null : found.getValue().getObject());
+	}
+
+	@Test
+	public void testForTerm() {
+		FusedTermEvaluator sex = FusedTermEvaluator.forTerm("dwc:sex");
+		assertEquals("dwc:sex", sex.getTerm());
+		assertEquals(Arrays.asList("VALIDATION_SEX_NOTEMPTY", "VALIDATION_SEX_STANDARD", "AMENDMENT_SEX_STANDARDIZED"), sex.getLabels());
+		assertNull(FusedTermEvaluator.forTerm("dwc:lifeStage"));
+	}
+
+	@Test
+	public void testSameAsTestMethods() {
+		MetadataSingleton.install(sexVocabulary(new String[] { "female", "female", "f" }, new String[] { "male", "male", "m" },
+				new String[] { "hermaphrodite", "hermaphrodite" }));
+		int external = 0;
+		for (String sourceAuthority : AUTHORITIES) {
+			for (String value : VALUES) {
+				DQResponse<?>[] fused = assertSameAsTestMethods(value, sourceAuthority);
+				if (fused[FusedTermEvaluator.STANDARDIZED].getResultState().getLabel().equals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel())) {
+					external++;
+				}
+			}
+		}
+		// the invalid and unrecognized authorities, for each non-empty value
+		assertEquals(2 * (VALUES.size() - 3), external);
+
+		DQResponse<?>[] invalid = assertSameAsTestMethods("female", "https://invalid/x");
+		assertEquals(ResultState.RUN_HAS_RESULT.getLabel(), invalid[FusedTermEvaluator.STANDARD].getResultState().getLabel());
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), invalid[FusedTermEvaluator.STANDARDIZED].getResultState().getLabel());
+		DQResponse<?>[] unknown = assertSameAsTestMethods("female", "nonsense");
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), unknown[FusedTermEvaluator.STANDARD].getResultState().getLabel());
+	}
+
+	@Test
+	public void testVocabularyNotLoaded() {
+		TestVocabularies.installFailed(VocabularySnapshot.SEX, "GBIF unreachable");
+		for (String sourceAuthority : AUTHORITIES) {
+			for (String value : VALUES) {
+				assertSameAsTestMethods(value, sourceAuthority);
+			}
+		}
+		DQResponse<?>[] fused = assertSameAsTestMethods("female", null);
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), fused[FusedTermEvaluator.STANDARD].getResultState().getLabel());
+		assertTrue(fused[FusedTermEvaluator.STANDARD].getComment().contains("GBIF unreachable"));
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), fused[FusedTermEvaluator.STANDARDIZED].getResultState().getLabel());
+	}
+
+	/**
+	 * An exception within the amendment, from a term whose alternative names don't include
+	 * itself, is reported in the response in the same way.
+	 */
+	@Test
+	public void testRuntimeError() {
+		MetadataSingleton.install(sexVocabulary(new String[] { "Male", "male" }));
+		DQResponse<?>[] fused = assertSameAsTestMethods("ma", null);
+		assertEquals(ResultState.EXTERNAL_PREREQUISITES_NOT_MET.getLabel(), fused[FusedTermEvaluator.STANDARDIZED].getResultState().getLabel());
+		assertTrue(fused[FusedTermEvaluator.STANDARDIZED].getComment().contains("Error evaluating dwc:sex"));
+		assertSameAsTestMethods("male", null);
+	}
+
+	@Test
+	public void testRecordProcessor() {
+		MetadataSingleton.install(sexVocabulary(new String[] { "female", "female", "f" }, new String[] { "male", "male", "m" }));
+		TestRegistry registry = TestRegistry.getInstance();
+		List<DQTest> tests = Arrays.asList(registry.getByLabel("AMENDMENT_SEX_STANDARDIZED"), registry.getByLabel("VALIDATION_SEX_NOTEMPTY"),
+				registry.getByLabel("VALIDATION_SEX_STANDARD"));
+		RecordProcessor fused = new RecordProcessor(tests);
+		assertTrue(fused.isFused(0));
+		// the shared responses of the NOTEMPTY test are used rather than fusing it
+		assertFalse(fused.isFused(1));
+		assertTrue(fused.isFused(2));
+		RecordProcessor memoized = new RecordProcessor(tests, new ResultMemo(ResultMemo.DEFAULT_MAX_DISTINCT));
+		assertFalse(memoized.isFused(0));
+		assertFalse(new RecordProcessor(tests.subList(0, 2)).isFused(0));
+
+		RecordSchema schema = new RecordSchema(Arrays.asList("sex"), fused.getTerms());
+		long number = 0L;
+		for (String value : VALUES) {
+			DwCRecord record = new DwCRecord(++number, schema, new String[] { value });
+			RecordResults results = fused.evaluate(record);
+			RecordResults expected = memoized.evaluate(record);
+			for (int t=0; t<tests.size(); t++) {
+				assertSameResponse(value, expected.getResponse(t), results.getResponse(t));
+			}
+			assertSameResponse(value, DwCMetadataDQ.amendmentSexStandardized(value, null), results.getResponse(0));
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/**
+ * RecordEvaluatorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class RecordEvaluatorTest {
+
+	@After
+	public void tearDown() {
+		TestVocabularies.reset();
+	}
+
+	@Test
+	public void testSnapshotSerialization() throws IOException, ClassNotFoundException {
+		Map<String,Map<String,List<String>>> vocabularies = new LinkedHashMap<String,Map<String,List<String>>>();
+		Map<String,List<String>> sex = new LinkedHashMap<String,List<String>>();
+		sex.put("Male", Arrays.asList("Male", "male", "m"));
+		sex.put("Female", Arrays.asList("Female", "female", "f", "F"));
+		vocabularies.put(VocabularySnapshot.SEX, sex);
+		VocabularySnapshot snapshot = new VocabularySnapshot(vocabularies, 1234L);
+		VocabularySnapshot copy = (VocabularySnapshot)roundTrip(snapshot);
+		assertEquals(1234L, copy.getCreated());
+		assertEquals(Arrays.asList(VocabularySnapshot.SEX), copy.getNames());
+		assertEquals(sex, copy.getVocabulary(VocabularySnapshot.SEX));
+		assertTrue(copy.getVocabulary(VocabularySnapshot.PATHWAY).isEmpty());
+	}
+
+	@Test
+	public void testParallelEvaluation() throws Exception {
+		TestRegistry registry = TestRegistry.getInstance();
+		List<DQTest> tests = Arrays.asList(registry.getByLabel("VALIDATION_BASISOFRECORD_STANDARD"), registry.getByLabel("VALIDATION_OCCURRENCEID_NOTEMPTY"));
+		RecordEvaluator evaluator = (RecordEvaluator)roundTrip(new RecordEvaluator(tests, null, false));
+		assertEquals(Arrays.asList(tests.get(0).getGuid(), tests.get(1).getGuid()), evaluator.getGuids());
+		assertNull(evaluator.getVocabularies());
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> values = pool.submit(() -> LongStream.rangeClosed(1L, 1000L).parallel().mapToObj(number -> {
+				Map<String,String> record = new HashMap<String,String>();
+				record.put("dwc:occurrenceID", "urn:occ:" + number);
+				record.put("basisOfRecord", number % 2==0 ? "PreservedSpecimen" : "Specimen");
+				RecordResults results = evaluator.evaluate(number, record);
+				return ResultWriter.valueLabel(results.getResponse(0)) + " " + ResultWriter.valueLabel(results.getResponse(1));
+			}).collect(Collectors.toList())).get();
+			for (int i=0; i<values.size(); i++) {
+				assertEquals((i + 1) % 2==0 ? "COMPLIANT COMPLIANT" : "NOT_COMPLIANT COMPLIANT", values.get(i));
+			}
+		} finally {
+			pool.shutdown();
+		}
+		// evaluators for the same tests share a processor in a JVM
+		RecordEvaluator another = (RecordEvaluator)roundTrip(evaluator);
+		assertSame(evaluator.getProcessor(), another.getProcessor());
+	}
+
+	@Test
+	public void testInstallSnapshot() throws IOException, ClassNotFoundException {
+		// this JVM has already loaded one vocabulary, which is kept
+		TestVocabularies.reset();
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.PATHWAY, "corridor"));
+		assertTrue(MetadataSingleton.getInstance().isLoaded(VocabularySnapshot.PATHWAY));
+
+		Map<String,Map<String,List<String>>> vocabularies = new LinkedHashMap<String,Map<String,List<String>>>();
+		vocabularies.put(VocabularySnapshot.SEX, TestVocabularies.snapshot(VocabularySnapshot.SEX, "hermaphrodite").getVocabulary(VocabularySnapshot.SEX));
+		vocabularies.put(VocabularySnapshot.PATHWAY, TestVocabularies.snapshot(VocabularySnapshot.PATHWAY, "unaided").getVocabulary(VocabularySnapshot.PATHWAY));
+		TestRegistry registry = TestRegistry.getInstance();
+		List<DQTest> tests = Arrays.asList(registry.getByLabel("VALIDATION_SEX_STANDARD"), registry.getByLabel("VALIDATION_PATHWAY_STANDARD"));
+		RecordEvaluator evaluator = (RecordEvaluator)roundTrip(new RecordEvaluator(tests, new VocabularySnapshot(vocabularies, 1L), false));
+
+		Map<String,String> record = new HashMap<String,String>();
+		record.put("dwc:sex", "hermaphrodite");
+		record.put("dwc:pathway", "corridor");
+		RecordResults results = evaluator.evaluate(1L, record);
+		// the sex vocabulary comes from the snapshot, without fetching it from GBIF
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(results.getResponse(0)));
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(results.getResponse(1)));
+		assertEquals(Collections.singleton("corridor"), MetadataSingleton.getInstance().getPathwayTerms().keySet());
+		assertFalse(MetadataSingleton.installIfAbsent(evaluator.getVocabularies()));
+	}
+
+	private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return in.readObject();
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+/**
+ * RecordFlowProcessorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class RecordFlowProcessorTest {
+
+	@Test
+	public void testDemand() throws InterruptedException {
+		TestRegistry registry = TestRegistry.getInstance();
+		List<DQTest> tests = Arrays.asList(registry.getByLabel("VALIDATION_BASISOFRECORD_NOTEMPTY"), registry.getByLabel("VALIDATION_OCCURRENCEID_NOTEMPTY"));
+		RecordFlowProcessor processor = new RecordFlowProcessor(new RecordProcessor(tests));
+
+		final List<RecordResults> received = new ArrayList<RecordResults>();
+		// records requested but not yet delivered, and records delivered without demand
+		final AtomicInteger outstanding = new AtomicInteger(0);
+		final AtomicInteger overDelivered = new AtomicInteger(0);
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		final CountDownLatch done = new CountDownLatch(1);
+		processor.subscribe(new Flow.Subscriber<RecordResults>() {
+			private Flow.Subscription subscription;
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				outstanding.incrementAndGet();
+				subscription.request(1);
+			}
+			@Override
+			public void onNext(RecordResults item) {
+				received.add(item);
+				if (outstanding.decrementAndGet() < 0) {
+					overDelivered.incrementAndGet();
+				}
+				outstanding.incrementAndGet();
+				subscription.request(1);
+			}
+			@Override
+			public void onError(Throwable throwable) {
+				errors.add(throwable);
+				done.countDown();
+			}
+			@Override
+			public void onComplete() {
+				done.countDown();
+			}
+		});
+
+		try (SubmissionPublisher<Map<String,String>> publisher = new SubmissionPublisher<Map<String,String>>()) {
+			publisher.subscribe(processor);
+			for (int i=1; i<=200; i++) {
+				Map<String,String> record = new HashMap<String,String>();
+				record.put("occurrenceID", "urn:occ:" + i);
+				record.put("http://rs.tdwg.org/dwc/terms/basisOfRecord", i % 2==0 ? "PreservedSpecimen" : "");
+				publisher.submit(record);
+			}
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertTrue(errors.isEmpty());
+		assertEquals(200, received.size());
+		assertEquals(0, overDelivered.get());
+		for (int i=0; i<received.size(); i++) {
+			RecordResults results = received.get(i);
+			assertEquals(i + 1, results.getRecord().getNumber());
+			assertEquals("urn:occ:" + (i + 1), results.getRecord().get("dwc:occurrenceID"));
+			assertEquals((i + 1) % 2==0 ? "COMPLIANT" : "NOT_COMPLIANT", ResultWriter.valueLabel(results.getResponse(0)));
+			assertEquals("COMPLIANT", ResultWriter.valueLabel(results.getResponse(1)));
+		}
+	}
+
+	@Test
+	public void testInvalidRequestDuringOnNext() throws InterruptedException {
+		List<DQTest> tests = Arrays.asList(TestRegistry.getInstance().getByLabel("VALIDATION_OCCURRENCEID_NOTEMPTY"));
+		RecordFlowProcessor processor = new RecordFlowProcessor(new RecordProcessor(tests));
+
+		final CountDownLatch delivering = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch failed = new CountDownLatch(1);
+		final AtomicBoolean inOnNext = new AtomicBoolean(false);
+		final AtomicBoolean overlapped = new AtomicBoolean(false);
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		final List<Flow.Subscription> subscriptions = new ArrayList<Flow.Subscription>();
+		processor.subscribe(new Flow.Subscriber<RecordResults>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscriptions.add(subscription);
+				subscription.request(10);
+			}
+			@Override
+			public void onNext(RecordResults item) {
+				inOnNext.set(true);
+				delivering.countDown();
+				try {
+					release.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				inOnNext.set(false);
+			}
+			@Override
+			public void onError(Throwable throwable) {
+				if (inOnNext.get()) {
+					overlapped.set(true);
+				}
+				errors.add(throwable);
+				failed.countDown();
+			}
+			@Override
+			public void onComplete() {
+			}
+		});
+
+		try (SubmissionPublisher<Map<String,String>> publisher = new SubmissionPublisher<Map<String,String>>()) {
+			publisher.subscribe(processor);
+			for (int i=1; i<=5; i++) {
+				publisher.submit(Collections.singletonMap("occurrenceID", "urn:occ:" + i));
+			}
+			assertTrue(delivering.await(30, TimeUnit.SECONDS));
+			// an invalid request from another thread while the publisher's thread is in onNext
+			Thread requester = new Thread(() -> subscriptions.get(0).request(0L));
+			requester.start();
+			requester.join();
+			assertFalse(failed.await(200, TimeUnit.MILLISECONDS));
+			release.countDown();
+			assertTrue(failed.await(30, TimeUnit.SECONDS));
+		}
+		assertFalse(overlapped.get());
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0) instanceof IllegalArgumentException);
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * RecordProcessorTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.filteredpush.qc.metadata.io.DwCRecord;
+import org.filteredpush.qc.metadata.io.RecordSchema;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.filteredpush.qc.metadata.util.MetadataSingleton;
+import org.filteredpush.qc.metadata.util.TestVocabularies;
+import org.filteredpush.qc.metadata.util.VocabularySnapshot;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class RecordProcessorTest {
+
+	@After
+	public void tearDown() {
+		TestVocabularies.reset();
+	}
+
+	@Test
+	public void testPostAmendment() {
+		TestRegistry registry = TestRegistry.getInstance();
+		List<DQTest> tests = Arrays.asList(registry.getByLabel("AMENDMENT_BASISOFRECORD_STANDARDIZED"), registry.getByLabel("VALIDATION_BASISOFRECORD_STANDARD"),
+				registry.getByLabel("VALIDATION_BASISOFRECORD_NOTEMPTY"), registry.getByLabel("VALIDATION_LICENSE_NOTEMPTY"));
+		RecordProcessor processor = new RecordProcessor(tests, null, true);
+		assertFalse(new RecordProcessor(tests).isPostAmendment());
+		RecordSchema schema = new RecordSchema(Arrays.asList("basisOfRecord", "license"), processor.getTerms());
+
+		RecordResults amended = processor.evaluate(new DwCRecord(1L, schema, new String[] { "preservedspecimen", "" }));
+		assertTrue(amended.hasPostAmendment());
+		assertEquals("AMENDED", ResultWriter.stateLabel(amended.getResponse(0)));
+		assertNull(amended.getPostAmendmentResponse(0));
+		assertFalse(amended.isReevaluated(0));
+		assertEquals("NOT_COMPLIANT", ResultWriter.valueLabel(amended.getResponse(1)));
+		assertTrue(amended.isReevaluated(1));
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(amended.getPostAmendmentResponse(1)));
+		assertTrue(amended.isReevaluated(2));
+		// license isn't changed, so the pre-amendment response is reused
+		assertFalse(amended.isReevaluated(3));
+		assertSame(amended.getResponse(3), amended.getPostAmendmentResponse(3));
+
+		RecordResults unchanged = processor.evaluate(new DwCRecord(2L, schema, new String[] { "PreservedSpecimen", "CC0" }));
+		assertEquals("NOT_AMENDED", ResultWriter.stateLabel(unchanged.getResponse(0)));
+		for (int t=1; t<tests.size(); t++) {
+			assertFalse(unchanged.isReevaluated(t));
+			assertSame(unchanged.getResponse(t), unchanged.getPostAmendmentResponse(t));
+		}
+	}
+
+	@Test
+	public void testMemoDiscardedWhenVocabulariesChange() {
+		List<DQTest> tests = Arrays.asList(TestRegistry.getInstance().getByLabel("VALIDATION_SEX_STANDARD"));
+		ResultMemo memo = new ResultMemo(ResultMemo.DEFAULT_MAX_DISTINCT);
+		RecordProcessor processor = new RecordProcessor(tests, memo);
+		RecordSchema schema = new RecordSchema(Arrays.asList("sex"), processor.getTerms());
+
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.SEX, "male"));
+		assertEquals("NOT_COMPLIANT", ResultWriter.valueLabel(processor.evaluate(new DwCRecord(1L, schema, new String[] { "female" })).getResponse(0)));
+		assertEquals("NOT_COMPLIANT", ResultWriter.valueLabel(processor.evaluate(new DwCRecord(2L, schema, new String[] { "female" })).getResponse(0)));
+		assertEquals(1L, memo.getHits());
+
+		// the remembered response reflects the replaced vocabulary, so is not reused
+		MetadataSingleton.install(TestVocabularies.snapshot(VocabularySnapshot.SEX, "male", "female"));
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(processor.evaluate(new DwCRecord(3L, schema, new String[] { "female" })).getResponse(0)));
+		assertEquals(1L, memo.getHits());
+		assertEquals(1, memo.getDistinctCount(tests.get(0).getGuid()));
+	}
+
+}
@@ -0,0 +1,131 @@
+/**
+ * ResultMemoTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class ResultMemoTest {
+
+	private static DQTest test(String label) {
+		return TestRegistry.getInstance().getByLabel(label);
+	}
+
+	@Test
+	public void testHits() {
+		ResultMemo memo = new ResultMemo(10);
+		DQTest test = test("VALIDATION_BASISOFRECORD_STANDARD");
+		DQResponse<?> first = memo.evaluate(test, new Object[] { "PreservedSpecimen" });
+		DQResponse<?> second = memo.evaluate(test, new Object[] { "PreservedSpecimen" });
+		DQResponse<?> other = memo.evaluate(test, new Object[] { "Specimen" });
+		assertSame(first, second);
+		assertEquals("COMPLIANT", ResultWriter.valueLabel(first));
+		assertEquals("NOT_COMPLIANT", ResultWriter.valueLabel(other));
+		assertEquals(1L, memo.getHits());
+		assertEquals(2L, memo.getMisses());
+		assertEquals(2, memo.getDistinctCount(test.getGuid()));
+		assertFalse(memo.isBypassed(test.getGuid()));
+	}
+
+	@Test
+	public void testBypass() {
+		ResultMemo memo = new ResultMemo(3);
+		DQTest test = test("VALIDATION_OCCURRENCEID_NOTEMPTY");
+		for (int i=0; i<5; i++) {
+			assertEquals("COMPLIANT", ResultWriter.valueLabel(memo.evaluate(test, new Object[] { "urn:occ:" + i })));
+		}
+		// past the limit, responses for the test are dropped and no longer remembered
+		assertTrue(memo.isBypassed(test.getGuid()));
+		assertEquals(0, memo.getDistinctCount(test.getGuid()));
+		DQResponse<?> first = memo.evaluate(test, new Object[] { "urn:occ:0" });
+		assertNotSame(first, memo.evaluate(test, new Object[] { "urn:occ:0" }));
+		assertEquals(0L, memo.getHits());
+		assertEquals(7L, memo.getMisses());
+		// other tests are still remembered
+		DQTest other = test("VALIDATION_BASISOFRECORD_NOTEMPTY");
+		memo.evaluate(other, new Object[] { "PreservedSpecimen" });
+		memo.evaluate(other, new Object[] { "PreservedSpecimen" });
+		assertEquals(1L, memo.getHits());
+	}
+
+	@Test
+	public void testExternalPrerequisitesNotRemembered() {
+		ResultMemo memo = new ResultMemo(10);
+		DQTest test = DQTest.findVariant(test("VALIDATION_SEX_STANDARD").getGuid(), Collections.singleton(BoundTest.SOURCE_AUTHORITY));
+		// an unusable source authority, as for a vocabulary that can't be loaded
+		Object[] arguments = new Object[] { "female", "invalid source authority" };
+		DQResponse<?> first = memo.evaluate(test, arguments);
+		assertEquals("EXTERNAL_PREREQUISITES_NOT_MET", ResultWriter.stateLabel(first));
+		assertNotSame(first, memo.evaluate(test, arguments));
+		assertEquals(0, memo.getDistinctCount(test.getGuid()));
+		assertEquals(0L, memo.getHits());
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		final ResultMemo memo = new ResultMemo(100);
+		final DQTest test = test("VALIDATION_BASISOFRECORD_STANDARD");
+		final String[] values = { "PreservedSpecimen", "HumanObservation", "Specimen", "FossilSpecimen", "preservedspecimen" };
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<DQResponse<?>>>> runs = new ArrayList<Future<List<DQResponse<?>>>>();
+			for (int t=0; t<8; t++) {
+				runs.add(pool.submit(() -> {
+					List<DQResponse<?>> responses = new ArrayList<DQResponse<?>>();
+					for (int i=0; i<1000; i++) {
+						responses.add(memo.evaluate(test, new Object[] { values[i % values.length] }));
+					}
+					return responses;
+				}));
+			}
+			DQResponse<?>[] shared = new DQResponse<?>[values.length];
+			for (Future<List<DQResponse<?>>> run : runs) {
+				List<DQResponse<?>> responses = run.get();
+				for (int i=0; i<responses.size(); i++) {
+					int v = i % values.length;
+					if (shared[v]==null) {
+						shared[v] = responses.get(i);
+					}
+					// one response is shared for each distinct input
+					assertSame(values[v], shared[v], responses.get(i));
+				}
+			}
+			assertEquals(values.length, memo.getDistinctCount(test.getGuid()));
+			assertEquals(8000L, memo.getHits() + memo.getMisses());
+			assertTrue(memo.getMisses() >= values.length);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * TaskScopeTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class TaskScopeTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * A task removes itself after its waiters are released, so allow it a moment.
+	 */
+	private static void assertNoneRunning(TaskScope<?> scope) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (scope.getRunningCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(0, scope.getRunningCount());
+	}
+
+	@Test
+	public void testJoinInForkOrder() throws Exception {
+		try (TaskScope<Integer> scope = new TaskScope<Integer>(executor)) {
+			for (int i=0; i<200; i++) {
+				final int value = i;
+				scope.fork(() -> {
+					if (value % 7 == 0) {
+						Thread.sleep(1);
+					}
+					return value;
+				});
+			}
+			List<Integer> results = scope.join();
+			assertEquals(200, results.size());
+			for (int i=0; i<200; i++) {
+				assertEquals(i, results.get(i).intValue());
+			}
+			// completed tasks are no longer held for cancellation
+			assertNoneRunning(scope);
+		}
+	}
+
+	@Test
+	public void testFailureCancelsOthers() throws Exception {
+		final CountDownLatch never = new CountDownLatch(1);
+		try (TaskScope<String> scope = new TaskScope<String>(executor)) {
+			Future<String> blocked = scope.fork(() -> {
+				never.await();
+				return "unreachable";
+			});
+			scope.fork(() -> {
+				throw new IllegalStateException("failed");
+			});
+			try {
+				scope.join();
+				fail("Expected an ExecutionException");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+			assertTrue(blocked.isCancelled());
+			assertNoneRunning(scope);
+		}
+	}
+
+	@Test
+	public void testCloseWaitsForTasks() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean finished = new AtomicBoolean(false);
+		try (TaskScope<String> scope = new TaskScope<String>(executor)) {
+			scope.fork(() -> {
+				started.countDown();
+				// ignore interruption, so only waiting in close can see this finish
+				long deadline = System.currentTimeMillis() + 200L;
+				while (System.currentTimeMillis() < deadline) {
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						// keep running
+					}
+				}
+				finished.set(true);
+				return "done";
+			});
+			started.await();
+		}
+		assertTrue(finished.get());
+	}
+
+	@Test
+	public void testForkRejected() throws Exception {
+		executor.shutdown();
+		try (TaskScope<String> scope = new TaskScope<String>(executor)) {
+			try {
+				scope.fork(() -> "unreachable");
+				fail("Expected a RejectedExecutionException");
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+			assertEquals(0, scope.getRunningCount());
+		}
+	}
+
+}
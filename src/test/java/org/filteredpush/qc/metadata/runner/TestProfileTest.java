@@ -0,0 +1,73 @@
+/**
+ * TestProfileTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class TestProfileTest {
+
+	@Test
+	public void testBundledProfiles() throws IOException {
+		List<DQTest> all = TestRegistry.getInstance().getTests();
+		assertEquals(all, TestProfile.load(TestProfile.ALL, null).select(all));
+
+		ExecutionPlan plan = ExecutionPlan.of(TestProfile.load("standard", null));
+		assertTrue(plan.getTests().size() > 2);
+		for (DQTest test : plan.getTests()) {
+			assertTrue(test.getLabel(), test.getLabel().matches("VALIDATION_.*_STANDARD") || test.getLabel().equals("AMENDMENT_LICENSE_STANDARDIZED") || test.getLabel().equals("AMENDMENT_BASISOFRECORD_STANDARDIZED"));
+		}
+		assertTrue(plan.getTerms().contains("dcterms:license"));
+		assertFalse(plan.getTerms().contains("dwc:dataGeneralizations"));
+		assertTrue(plan.getAmendableTerms().contains("dwc:basisOfRecord"));
+		assertFalse(plan.getAmendableTerms().contains("dwc:sex"));
+
+		try {
+			TestProfile.load("nosuchprofile", null);
+			fail("Expected an exception for an unknown profile");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("standard"));
+		}
+	}
+
+	@Test
+	public void testIncludeAndExclude() {
+		Properties properties = new Properties();
+		properties.setProperty("sex.include.terms", "dwc:sex");
+		properties.setProperty("sex.include.guids", "42408a00-bf71-4892-a399-4325e2bc1fb8");
+		properties.setProperty("sex.exclude.types", "amendment");
+		List<DQTest> selected = new TestProfile("sex", properties).select(TestRegistry.getInstance().getTests());
+		assertFalse(selected.isEmpty());
+		for (DQTest test : selected) {
+			assertTrue(test.toString(), test.getType()!=DQTest.TestType.AMENDMENT);
+			assertTrue(test.toString(), test.getActedUpon().contains("dwc:sex") || test.getGuid().equals("42408a00-bf71-4892-a399-4325e2bc1fb8"));
+		}
+		assertEquals(1, selected.stream().filter(test -> test.getLabel().equals("VALIDATION_BASISOFRECORD_STANDARD")).count());
+	}
+
+}
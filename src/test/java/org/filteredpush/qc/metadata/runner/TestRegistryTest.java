@@ -0,0 +1,115 @@
+/**
+ * TestRegistryTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.runner;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.filteredpush.qc.metadata.io.ResultWriter;
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class TestRegistryTest {
+
+	@Test
+	public void testLookup() {
+		TestRegistry registry = TestRegistry.getInstance();
+		assertSame(registry, TestRegistry.getInstance());
+		List<DQTest> tests = registry.getTests();
+		assertTrue(tests.size() > 0);
+		for (int i=0; i<tests.size(); i++) {
+			DQTest test = tests.get(i);
+			if (i > 0) {
+				assertTrue(test.getLabel(), tests.get(i - 1).getLabel().compareTo(test.getLabel()) <= 0);
+			}
+			assertSame(test, registry.getByGuid(test.getGuid()));
+			assertSame(test, registry.getByLabel(test.getLabel()));
+		}
+		assertNull(registry.getByLabel("VALIDATION_NO_SUCH_TEST"));
+		assertNull(registry.getByGuid("00000000-0000-0000-0000-000000000000"));
+	}
+
+	/**
+	 * Invoking a test through its method handle gives the same response as invoking the
+	 * test method reflectively, for the tests that don't consult a vocabulary loaded from GBIF.
+	 */
+	@Test
+	public void testInvokeMatchesReflection() throws IllegalAccessException, InvocationTargetException {
+		TestRegistry registry = TestRegistry.getInstance();
+		Map<String,DQTest> discovered = new HashMap<String,DQTest>();
+		for (DQTest test : DQTest.discover()) {
+			discovered.put(test.getGuid(), test);
+		}
+		int compared = 0;
+		for (DQTest test : registry.getTests()) {
+			if (AsyncEvaluator.vocabularyFor(test)!=null) {
+				continue;
+			}
+			DQTest reflected = discovered.get(test.getGuid());
+			assertNotNull(test.getLabel(), reflected);
+			int length = test.getArgumentTerms().length;
+			for (String value : Arrays.asList(null, "", "CC0", "PreservedSpecimen", "urn:uuid:5bbfef52-4ec6-4c7c-b6ff-6a6f4e5d0cb0")) {
+				Object[] arguments = new Object[length];
+				String[] terms = test.getArgumentTerms();
+				for (int a=0; a<length; a++) {
+					arguments[a] = terms[a]==null ? null : value;
+				}
+				DQResponse<?> expected = (DQResponse<?>)reflected.getMethod().invoke(null, arguments.clone());
+				DQResponse<?> found = test.invoke(arguments);
+				assertEquals(test.getLabel(), ResultWriter.stateLabel(expected), ResultWriter.stateLabel(found));
+				assertEquals(test.getLabel(), ResultWriter.valueLabel(expected), ResultWriter.valueLabel(found));
+				assertEquals(test.getLabel(), expected.getComment(), found.getComment());
+			}
+			compared++;
+		}
+		assertTrue(compared > 0);
+	}
+
+	/**
+	 * Arguments that don't fit the test method are reported as a RuntimeException naming the method.
+	 */
+	@Test
+	public void testInvokeWrongArguments() {
+		DQTest test = TestRegistry.getInstance().getByLabel("VALIDATION_LICENSE_NOTEMPTY");
+		try {
+			test.invoke(new Object[test.getArgumentTerms().length + 1]);
+			fail("Expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(test.getMethodName()));
+		}
+		try {
+			Object[] arguments = new Object[test.getArgumentTerms().length];
+			arguments[0] = Integer.valueOf(1);
+			test.invoke(arguments);
+			fail("Expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(test.getMethodName()));
+		}
+	}
+
+}
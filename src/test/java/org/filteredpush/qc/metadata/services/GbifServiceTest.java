@@ -0,0 +1,166 @@
+/**
+ * GbifServiceTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.services;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author mole
+ *
+ */
+public class GbifServiceTest {
+
+	private static final int LIMIT = 2;
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final AtomicInteger requests = new AtomicInteger();
+	/** the number of concepts in each vocabulary */
+	private volatile int size = 7;
+	/** the count reported on the first page, may lag the concepts */
+	private volatile int reportedCount = 7;
+
+	@Before
+	public void setUp() throws IOException {
+		executor = Executors.newFixedThreadPool(16);
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(executor);
+		server.createContext("/vocabularies/", this::respond);
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		int current = inFlight.incrementAndGet();
+		maxInFlight.accumulateAndGet(current, Math::max);
+		try {
+			Thread.sleep(100L);
+			String[] path = exchange.getRequestURI().getPath().split("/");
+			String vocabulary = path[2];
+			if (vocabulary.equals("Missing")) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			String query = exchange.getRequestURI().getQuery();
+			int offset = query==null ? 0 : Integer.parseInt(query.substring(query.indexOf("offset=") + 7));
+			StringBuilder results = new StringBuilder();
+			for (int i=offset; i<Math.min(offset + LIMIT, size); i++) {
+				if (results.length() > 0) {
+					results.append(",");
+				}
+				results.append("{\"name\":\"").append(vocabulary).append(i).append("\",\"label\":[{\"value\":\"Label ").append(i).append("\"}],\"externalDefinitions\":[]}");
+			}
+			String body = "{\"offset\":" + offset + ",\"limit\":" + LIMIT + ",\"endOfRecords\":" + (offset + LIMIT >= size)
+					+ ",\"count\":" + reportedCount + ",\"results\":[" + results + "]}";
+			exchange.getResponseHeaders().add("ETag", "\"v1\"");
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} catch (InterruptedException e) {
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			inFlight.decrementAndGet();
+			exchange.close();
+		}
+	}
+
+	private String endpoint() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+	}
+
+	@Test
+	public void testParallelPages() throws Exception {
+		GbifService gbif = new GbifService(endpoint(), 2);
+		FetchedVocabulary fetched = gbif.fetchVocabulary("Pathway", null, null);
+		assertEquals(7, fetched.getTerms().size());
+		assertTrue(fetched.getTerms().get("Pathway6").contains("LABEL 6"));
+		assertEquals("\"v1\"", fetched.getETag());
+		assertEquals(4, requests.get());
+		// the three later pages are requested together, within the limit
+		assertEquals(2, maxInFlight.get());
+	}
+
+	@Test
+	public void testConcurrentVocabularies() {
+		GbifService gbif = new GbifService(endpoint(), 16);
+		List<CompletableFuture<Map<String,List<String>>>> pending = new ArrayList<CompletableFuture<Map<String,List<String>>>>();
+		for (String name : new String[] { "LifeStage", "Pathway", "Sex" }) {
+			pending.add(gbif.loadVocabularyAsync(name));
+		}
+		for (CompletableFuture<Map<String,List<String>>> vocabulary : pending) {
+			assertEquals(7, vocabulary.join().size());
+		}
+		assertTrue(maxInFlight.get() >= 3);
+	}
+
+	@Test
+	public void testCountLagsConcepts() throws Exception {
+		reportedCount = 3;
+		GbifService gbif = new GbifService(endpoint(), 4);
+		assertEquals(7, gbif.fetchVocabulary("Sex", null, null).getTerms().size());
+	}
+
+	@Test
+	public void testNotModifiedAndMissing() throws Exception {
+		GbifService gbif = new GbifService(endpoint(), 4);
+		assertNull(gbif.fetchVocabulary("Sex", "\"v1\"", null));
+		assertEquals(1, requests.get());
+		assertTrue(gbif.loadVocabulary("Missing").isEmpty());
+		try {
+			gbif.fetchVocabulary("Missing", null, null);
+			fail("Fetched a missing vocabulary.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("404"));
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+/**
+ * VocabularyCacheTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.services;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author mole
+ *
+ */
+public class VocabularyCacheTest {
+
+	private HttpServer server;
+	private Path directory;
+	private volatile String eTag = "\"v1\"";
+	private volatile String femaleLabel = "Female";
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("vocabulary_cache_test");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/vocabularies/Sex/concepts", this::respond);
+		server.start();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.stop(0);
+		try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>)files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	/** serves the concepts in two pages, with an ETag on the first page */
+	private void respond(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		String query = exchange.getRequestURI().getQuery();
+		boolean firstPage = query==null || !query.contains("offset=1");
+		if (firstPage && eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+			notModified.incrementAndGet();
+			exchange.sendResponseHeaders(304, -1);
+			exchange.close();
+			return;
+		}
+		String body;
+		if (firstPage) {
+			exchange.getResponseHeaders().add("ETag", eTag);
+			body = "{\"offset\":0,\"limit\":1,\"endOfRecords\":false,\"count\":2,\"results\":[" + concept("male", "Male") + "]}";
+		} else {
+			body = "{\"offset\":1,\"limit\":1,\"endOfRecords\":true,\"count\":2,\"results\":[" + concept("female", femaleLabel) + "]}";
+		}
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static String concept(String name, String label) {
+		return "{\"name\":\"" + name + "\",\"label\":[{\"language\":\"en\",\"value\":\"" + label + "\"}],\"externalDefinitions\":[]}";
+	}
+
+	private GbifService gbif() {
+		return new GbifService("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+	}
+
+	@Test
+	public void testLoadFromCache() throws Exception {
+		VocabularyCache cache = new VocabularyCache(directory, 3600000L, gbif());
+		Map<String,List<String>> terms = cache.load("Sex");
+		assertEquals(2, requests.get());
+		assertTrue(terms.get("female").contains("Female"));
+		assertTrue(terms.get("female").contains("FEMALE"));
+		assertEquals("\"v1\"", cache.read("Sex").getETag());
+
+		// another JVM sharing the directory loads from disk without any request
+		VocabularyCache another = new VocabularyCache(directory, 3600000L, gbif());
+		assertEquals(terms, another.load("Sex"));
+		assertEquals(2, requests.get());
+	}
+
+	@Test
+	public void testRevalidate() throws Exception {
+		VocabularyCache cache = new VocabularyCache(directory, 0L, gbif());
+		cache.load("Sex");
+		FetchedVocabulary cached = cache.read("Sex");
+		assertTrue(cache.isExpired(cached));
+
+		// unchanged, a single conditional request extends the life of the cached copy
+		Thread.sleep(5L);
+		FetchedVocabulary revalidated = cache.revalidate("Sex", cached).get();
+		assertEquals(1, notModified.get());
+		assertEquals(3, requests.get());
+		assertTrue(revalidated.getFetched() > cached.getFetched());
+		assertEquals(revalidated.getFetched(), cache.read("Sex").getFetched());
+		assertEquals(cached.getTerms(), cache.read("Sex").getTerms());
+
+		// changed, the new vocabulary replaces the cached copy
+		femaleLabel = "Femelle";
+		eTag = "\"v2\"";
+		revalidated = cache.revalidate("Sex", cache.read("Sex")).get();
+		assertEquals(1, notModified.get());
+		assertTrue(revalidated.getTerms().get("female").contains("Femelle"));
+		assertEquals("\"v2\"", cache.read("Sex").getETag());
+		assertTrue(cache.read("Sex").getTerms().get("female").contains("Femelle"));
+	}
+
+	@Test
+	public void testUnreachable() {
+		VocabularyCache cache = new VocabularyCache(directory, 3600000L, new GbifService("http://127.0.0.1:1/"));
+		assertTrue(cache.load("Sex").isEmpty());
+		assertNull(cache.read("Sex"));
+	}
+
+}
@@ -0,0 +1,291 @@
+/**
+ * MetadataSingletonTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.util;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.datakurator.ffdq.api.DQResponse;
+import org.datakurator.ffdq.api.result.AmendmentValue;
+import org.datakurator.ffdq.model.ResultState;
+import org.filteredpush.qc.metadata.DwCMetadataDQ;
+import org.filteredpush.qc.metadata.services.GbifService;
+import org.filteredpush.qc.metadata.services.VocabularyCache;
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author mole
+ *
+ */
+public class MetadataSingletonTest {
+
+	private HttpServer server;
+	private Path cacheDirectory;
+	/** system properties set by a test, with their previous values */
+	private final Map<String,String> properties = new HashMap<String,String>();
+	/** the terms of the vocabulary served */
+	private volatile String[] served = { "female" };
+	private volatile boolean failing = false;
+	private final AtomicInteger notModified = new AtomicInteger();
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@After
+	public void tearDown() throws IOException {
+		for (Map.Entry<String,String> property : properties.entrySet()) {
+			if (property.getValue()==null) {
+				System.clearProperty(property.getKey());
+			} else {
+				System.setProperty(property.getKey(), property.getValue());
+			}
+		}
+		// other test classes in the same JVM expect the vocabularies from GBIF
+		MetadataSingleton.reset();
+		if (server!=null) {
+			server.stop(0);
+		}
+		if (cacheDirectory!=null) {
+			try (Stream<Path> files = Files.list(cacheDirectory)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					Files.deleteIfExists(file);
+				}
+			}
+			Files.deleteIfExists(cacheDirectory);
+		}
+	}
+
+	@Test
+	public void testSingleVocabulary() {
+		Map<String,Map<String,List<String>>> vocabularies = new LinkedHashMap<String,Map<String,List<String>>>();
+		Map<String,List<String>> sex = new LinkedHashMap<String,List<String>>();
+		sex.put("female", Arrays.asList("female", "Female", "F"));
+		sex.put("male", Arrays.asList("male", "Male", "M"));
+		vocabularies.put(VocabularySnapshot.SEX, sex);
+		MetadataSingleton.install(new VocabularySnapshot(vocabularies, 1L));
+
+		// only the installed vocabulary is consulted, nothing else is loaded
+		MetadataSingleton singleton = MetadataSingleton.getInstance();
+		assertTrue(singleton.isLoaded(VocabularySnapshot.SEX));
+		assertEquals("", singleton.getLoadError(VocabularySnapshot.SEX));
+		assertEquals(sex, singleton.getSexTerms());
+		assertEquals("female", singleton.getSexValues().get("F"));
+		assertEquals("male", singleton.getSexValues().get("Male"));
+		assertFalse(MetadataSingleton.installIfAbsent(new VocabularySnapshot(vocabularies, 2L)));
+		try {
+			singleton.isLoaded("Unknown");
+			fail("Loaded an unknown vocabulary.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testRefresh() throws IOException {
+		startServer();
+		MetadataSingleton.install(new VocabularySnapshot(Collections.singletonMap(VocabularySnapshot.SEX, terms("female")), 1L));
+		MetadataSingleton singleton = MetadataSingleton.getInstance();
+		Map<String,List<String>> before = singleton.getSexTerms();
+		long generation = MetadataSingleton.getGeneration();
+
+		// the changed vocabulary is published, maps obtained before the refresh are unchanged
+		served = new String[] { "female", "male" };
+		assertTrue(singleton.refresh().join().booleanValue());
+		assertEquals(new HashSet<String>(Arrays.asList("female", "male")), singleton.getSexTerms().keySet());
+		assertEquals("male", singleton.getSexValues().get("MALE"));
+		assertEquals(terms("female"), before);
+		assertNotSame(before, singleton.getSexTerms());
+		assertTrue(MetadataSingleton.getGeneration()!=generation);
+		try {
+			before.put("male", Arrays.asList("male"));
+			fail("Modified a vocabulary.");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+
+		// the cached copy is revalidated, and nothing is published if it hasn't changed
+		generation = MetadataSingleton.getGeneration();
+		Map<String,List<String>> refreshed = singleton.getSexTerms();
+		assertFalse(singleton.refresh().join().booleanValue());
+		assertEquals(1, notModified.get());
+		assertSame(refreshed, singleton.getSexTerms());
+		assertEquals(generation, MetadataSingleton.getGeneration());
+
+		// a vocabulary that can't be fetched keeps its content
+		failing = true;
+		served = new String[] { "hermaphrodite" };
+		assertFalse(singleton.refresh().join().booleanValue());
+		assertTrue(singleton.isLoaded(VocabularySnapshot.SEX));
+		assertSame(refreshed, singleton.getSexTerms());
+	}
+
+	@Test
+	public void testRefreshWhileTestsRun() throws Exception {
+		startServer();
+		MetadataSingleton.install(new VocabularySnapshot(Collections.singletonMap(VocabularySnapshot.SEX, terms("female")), 1L));
+		final MetadataSingleton singleton = MetadataSingleton.getInstance();
+		final AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> evaluations = new ArrayList<Future<Integer>>();
+			for (int t=0; t<4; t++) {
+				evaluations.add(pool.submit(() -> {
+					int amended = 0;
+					while (running.get()) {
+						// each run sees either the vocabulary with female, or the one without it, never a mix
+						DQResponse<AmendmentValue> response = DwCMetadataDQ.amendmentSexStandardized("Female", null);
+						if (response.getResultState().getLabel().equals(ResultState.AMENDED.getLabel())) {
+							assertEquals("female", response.getValue().getObject().get("dwc:sex"));
+							amended++;
+						} else {
+							assertEquals(response.getComment(), ResultState.NOT_AMENDED.getLabel(), response.getResultState().getLabel());
+						}
+					}
+					return amended;
+				}));
+			}
+			for (int i=0; i<50; i++) {
+				served = i % 2==0 ? new String[] { "male" } : new String[] { "female", "male" };
+				assertTrue(singleton.refresh().join().booleanValue());
+			}
+			running.set(false);
+			int amended = 0;
+			for (Future<Integer> evaluation : evaluations) {
+				amended += evaluation.get().intValue();
+			}
+			assertTrue(amended > 0);
+		} finally {
+			running.set(false);
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testBundledAndCached() throws Exception {
+		startServer();
+		setProperty(MetadataSingleton.SOURCE_PROPERTY, MetadataSingleton.SOURCE_BUNDLED);
+		setProperty(VocabularyCache.TTL_PROPERTY, "0");
+		VocabularySnapshot bundled = new VocabularySnapshot(Collections.singletonMap(VocabularySnapshot.SEX, terms("female")), 1L);
+		MetadataSingleton.installBundled(bundled);
+
+		// nothing cached, the bundled snapshot is used without fetching from GBIF
+		MetadataSingleton singleton = MetadataSingleton.getInstance();
+		assertEquals(terms("female"), singleton.getSexTerms());
+		assertEquals(0, requests.get());
+
+		// a refresh fetches from GBIF into the cache
+		served = new String[] { "female", "male" };
+		assertTrue(singleton.refresh().join().booleanValue());
+		assertEquals(1, requests.get());
+
+		// starting again, the cached copy is used in place of the bundled snapshot, and as 
+		// it has expired, is revalidated with a conditional request
+		MetadataSingleton.reset();
+		MetadataSingleton.installBundled(bundled);
+		singleton = MetadataSingleton.getInstance();
+		assertEquals(new HashSet<String>(Arrays.asList("female", "male")), singleton.getSexTerms().keySet());
+		long deadline = System.currentTimeMillis() + 5000L;
+		while (notModified.get()==0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, notModified.get());
+	}
+
+	private void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/vocabularies/", this::respond);
+		server.start();
+		cacheDirectory = Files.createTempDirectory("vocabulary_cache");
+		setProperty(GbifService.ENDPOINT_PROPERTY, "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+		setProperty(VocabularyCache.DIRECTORY_PROPERTY, cacheDirectory.toString());
+		// start again from the properties
+		MetadataSingleton.reset();
+	}
+
+	private void setProperty(String name, String value) {
+		if (!properties.containsKey(name)) {
+			properties.put(name, System.getProperty(name));
+		}
+		System.setProperty(name, value);
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			if (failing) {
+				exchange.sendResponseHeaders(500, -1);
+				return;
+			}
+			String[] terms = served;
+			String eTag = "\"" + String.join("-", terms) + "\"";
+			if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			StringBuilder results = new StringBuilder();
+			for (String term : terms) {
+				if (results.length() > 0) {
+					results.append(",");
+				}
+				results.append("{\"name\":\"").append(term).append("\",\"label\":[{\"value\":\"").append(term).append("\"}],\"externalDefinitions\":[]}");
+			}
+			String body = "{\"offset\":0,\"limit\":20,\"endOfRecords\":true,\"count\":" + terms.length + ",\"results\":[" + results + "]}";
+			exchange.getResponseHeaders().add("ETag", eTag);
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static Map<String,List<String>> terms(String... names) {
+		Map<String,List<String>> result = new LinkedHashMap<String,List<String>>();
+		for (String name : names) {
+			result.put(name, Arrays.asList(name));
+		}
+		return result;
+	}
+
+}
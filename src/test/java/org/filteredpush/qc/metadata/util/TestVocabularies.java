@@ -0,0 +1,67 @@
+/**
+ * TestVocabularies.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small vocabularies for tests, and access to MetadataSingleton.reset() for tests in other
+ * packages, which should reset the vocabularies after installing their own, as all of the 
+ * test classes share the vocabularies held in one JVM.
+ * 
+ * @author mole
+ *
+ */
+public class TestVocabularies {
+
+	/**
+	 * Discard any installed or loaded vocabularies, see MetadataSingleton.reset().
+	 */
+	public static void reset() {
+		MetadataSingleton.reset();
+	}
+
+	/**
+	 * Hold a vocabulary that failed to load in place of the one held now.
+	 * 
+	 * @param name the name of the vocabulary, e.g. VocabularySnapshot.SEX
+	 * @param loadError the reason given for the failure.
+	 */
+	public static void installFailed(String name, String loadError) {
+		MetadataSingleton.install(Vocabulary.failed(name, loadError));
+	}
+
+	/**
+	 * @param name the name of the vocabulary, e.g. VocabularySnapshot.SEX
+	 * @param terms the terms in the vocabulary, each with itself as its only alternative name.
+	 * @return a snapshot holding just the one vocabulary.
+	 */
+	public static VocabularySnapshot snapshot(String name, String... terms) {
+		Map<String,List<String>> vocabulary = new LinkedHashMap<String,List<String>>();
+		for (String term : terms) {
+			vocabulary.put(term, Arrays.asList(term));
+		}
+		return new VocabularySnapshot(Collections.singletonMap(name, vocabulary), System.currentTimeMillis());
+	}
+
+}
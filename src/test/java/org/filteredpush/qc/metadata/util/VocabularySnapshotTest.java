@@ -0,0 +1,80 @@
+/**
+ * VocabularySnapshotTest.java
+ *
+ * Copyright 2026 President and Fellows of Harvard College
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.filteredpush.qc.metadata.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author mole
+ *
+ */
+public class VocabularySnapshotTest {
+
+	@Test
+	public void testWriteRead() throws IOException {
+		Map<String,Map<String,List<String>>> vocabularies = new LinkedHashMap<String,Map<String,List<String>>>();
+		Map<String,List<String>> pathway = new LinkedHashMap<String,List<String>>();
+		pathway.put("corridor", Arrays.asList("corridor", "Corridor", "CORRIDOR"));
+		pathway.put("unaided", Arrays.asList("unaided", "Unaided"));
+		vocabularies.put(VocabularySnapshot.PATHWAY, pathway);
+		vocabularies.put(VocabularySnapshot.SEX, new LinkedHashMap<String,List<String>>());
+		VocabularySnapshot snapshot = new VocabularySnapshot(vocabularies, 42L);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		snapshot.write(bytes);
+		VocabularySnapshot read = VocabularySnapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(42L, read.getCreated());
+		assertEquals(Arrays.asList(VocabularySnapshot.PATHWAY, VocabularySnapshot.SEX), read.getNames());
+		assertEquals(pathway, read.getVocabulary(VocabularySnapshot.PATHWAY));
+		assertTrue(read.getVocabulary(VocabularySnapshot.SEX).isEmpty());
+	}
+
+	@Test
+	public void testNotASnapshot() {
+		try {
+			VocabularySnapshot.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }));
+			fail("Read a snapshot from garbage.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBundled() {
+		VocabularySnapshot bundled = VocabularySnapshot.bundled();
+		if (bundled!=null) {
+			// a bundled snapshot is captured with all the vocabularies
+			assertEquals(VocabularySnapshot.VOCABULARIES, bundled.getNames());
+			for (String name : VocabularySnapshot.VOCABULARIES) {
+				assertFalse(name, bundled.getVocabulary(name).isEmpty());
+			}
+		}
+	}
+
+}